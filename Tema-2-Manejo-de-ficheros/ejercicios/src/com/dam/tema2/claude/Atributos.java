@@ -0,0 +1,76 @@
+package com.dam.tema2.claude;
+
+import com.sun.security.auth.module.UnixSystem;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+/*
+    Lo que los recorridos (RecorridoDirectorios, IndiceExplorador) necesitan de
+    cada entrada, leído con una sola llamada al sistema y sin seguir enlaces:
+    tipo, tamaño, fecha de modificación y permisos de lectura y escritura.
+
+    Files.isReadable e isWritable son una llamada access() cada una; aquí los
+    permisos se deducen de los atributos que ya se leen:
+        - Unix: de los bits de modo, según el proceso sea el dueño, del grupo
+          o ninguno de los dos (root puede leer y escribir todo). No tiene en
+          cuenta ACL ni sistemas montados de solo lectura.
+        - Windows (atributos DOS): se puede leer siempre y escribir si no es
+          de solo lectura.
+        - Otros sistemas: isReadable/isWritable como antes.
+    De un enlace simbólico se dan los del propio enlace.
+ */
+public record Atributos(boolean directorio, long tamano, long fechaModificacion, boolean lectura, boolean escritura) {
+
+    private static final boolean UNIX = FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+    private static final boolean DOS = FileSystems.getDefault().supportedFileAttributeViews().contains("dos");
+    private static final String CAMPOS_UNIX = "unix:isDirectory,size,lastModifiedTime,mode,uid,gid";
+
+    // Identidad del proceso, solo en Unix (UnixSystem no funciona en Windows)
+    private static class Proceso {
+        private static final UnixSystem SISTEMA = new UnixSystem();
+        private static final long UID = SISTEMA.getUid();
+        private static final long GID = SISTEMA.getGid();
+        private static final long[] GRUPOS = SISTEMA.getGroups();
+
+        static boolean enGrupo(long gid) {
+            if (gid == GID) {
+                return true;
+            }
+            for (long grupo : GRUPOS) {
+                if (grupo == gid) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public static Atributos leer(Path ruta) throws IOException {
+        if (UNIX) {
+            Map<String, Object> a = Files.readAttributes(ruta, CAMPOS_UNIX, LinkOption.NOFOLLOW_LINKS);
+            int modo = (Integer) a.get("mode");
+            int uid = (Integer) a.get("uid");
+            int gid = (Integer) a.get("gid");
+            // rwx del dueño, del grupo o de los demás, según quién sea el proceso
+            int bits = Proceso.UID == uid ? modo >> 6 : Proceso.enGrupo(gid) ? modo >> 3 : modo;
+            boolean root = Proceso.UID == 0;
+            return new Atributos((Boolean) a.get("isDirectory"), (Long) a.get("size"),
+                    ((FileTime) a.get("lastModifiedTime")).toMillis(), root || (bits & 4) != 0, root || (bits & 2) != 0);
+        }
+        if (DOS) {
+            DosFileAttributes a = Files.readAttributes(ruta, DosFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            return new Atributos(a.isDirectory(), a.size(), a.lastModifiedTime().toMillis(), true, !a.isReadOnly());
+        }
+        BasicFileAttributes a = Files.readAttributes(ruta, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        return new Atributos(a.isDirectory(), a.size(), a.lastModifiedTime().toMillis(),
+                Files.isReadable(ruta), Files.isWritable(ruta));
+    }
+}
@@ -0,0 +1,87 @@
+package com.dam.tema2.claude;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/*
+    Matriz de rendimiento de MotorCopia: para cada tamaño de fichero, cada
+    tamaño de bloque y cada estrategia copia un fichero aleatorio y muestra
+    los MB/s (mejor de varias repeticiones). Comprueba que la copia es idéntica.
+
+    Los ficheros se crean en un directorio temporal que se borra al terminar.
+    Los resultados dependen mucho de la caché de páginas del sistema: el origen
+    suele estar ya en memoria tras la primera repetición.
+
+    Uso: ComparativaCopia [tamaños MB separados por comas] [repeticiones]
+        por defecto: 1,64,512 y 3 repeticiones
+ */
+public class ComparativaCopia {
+    private static final int[] BLOQUES = {1024, 8 * 1024, 64 * 1024, 1024 * 1024, 8 * 1024 * 1024};
+    private static final MotorCopia.Progreso SIN_PROGRESO = (copiados, total) -> {
+    };
+
+    public static void main(String[] args) throws IOException {
+        String[] tamanos = (args.length > 0 ? args[0] : "1,64,512").split(",");
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        Path directorio = Files.createTempDirectory("comparativa-copia");
+        try {
+            System.out.printf("%-8s %-10s", "Tamaño", "Bloque");
+            for (MotorCopia.Estrategia estrategia : MotorCopia.Estrategia.values()) {
+                System.out.printf(" %15s", estrategia);
+            }
+            System.out.println("   (MB/s)");
+
+            for (String tamano : tamanos) {
+                long bytes = Long.parseLong(tamano.trim()) * 1024 * 1024;
+                Path origen = directorio.resolve("origen.bin");
+                Path destino = directorio.resolve("destino.bin");
+                crearFichero(origen, bytes);
+
+                for (int bloque : BLOQUES) {
+                    System.out.printf("%-8s %-10s", tamano.trim() + " MB", formatearBloque(bloque));
+                    for (MotorCopia.Estrategia estrategia : MotorCopia.Estrategia.values()) {
+                        double mejor = 0;
+                        for (int i = 0; i < repeticiones; i++) {
+                            MotorCopia.Resultado r = MotorCopia.copiar(origen, destino, estrategia, bloque, SIN_PROGRESO);
+                            mejor = Math.max(mejor, r.bytesDestino() / (1024.0 * 1024.0) / (r.nanos() / 1e9));
+                        }
+                        if (Files.mismatch(origen, destino) != -1) {
+                            throw new IllegalStateException(estrategia + " no copia el fichero correctamente");
+                        }
+                        System.out.printf(" %15.1f", mejor);
+                    }
+                    System.out.println();
+                }
+                Files.delete(origen);
+                Files.deleteIfExists(destino);
+            }
+        } finally {
+            try (Stream<Path> restos = Files.list(directorio)) {
+                for (Path resto : (Iterable<Path>) restos::iterator) {
+                    Files.deleteIfExists(resto);
+                }
+            }
+            Files.delete(directorio);
+        }
+    }
+
+    private static void crearFichero(Path fichero, long bytes) throws IOException {
+        Random aleatorio = new Random(42);
+        byte[] bloque = new byte[1024 * 1024];
+        try (OutputStream salida = Files.newOutputStream(fichero)) {
+            for (long escritos = 0; escritos < bytes; escritos += bloque.length) {
+                aleatorio.nextBytes(bloque);
+                salida.write(bloque, 0, (int) Math.min(bloque.length, bytes - escritos));
+            }
+        }
+    }
+
+    private static String formatearBloque(int bloque) {
+        return bloque >= 1024 * 1024 ? bloque / (1024 * 1024) + " MB" : bloque / 1024 + " KB";
+    }
+}
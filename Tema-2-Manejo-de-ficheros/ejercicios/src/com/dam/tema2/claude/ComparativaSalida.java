@@ -0,0 +1,100 @@
+package com.dam.tema2.claude;
+
+import Comun.SalidaInforme;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+    Cuánto del tiempo del listado de Explorador se va en escribir la salida.
+
+    Se recorre el mismo directorio con varias salidas y se compara con la
+    salida NULA (solo recorrido). La diferencia es el tiempo atado a la salida.
+        printf por registro  PrintStream con autoflush, como el System.out original
+        texto                SalidaTexto (buffer de 1 MB)
+        texto asíncrona      SalidaTexto detrás de SalidaAsincrona
+        csv / jsonl          formatos para máquinas
+    Todo se escribe en un fichero temporal que se borra al terminar.
+
+    Uso: ComparativaSalida <directorio> [hilos] [repeticiones]
+ */
+public class ComparativaSalida {
+
+    interface Fabrica {
+        SalidaInforme crear(Path destino) throws IOException;
+    }
+
+    // Lo que hacía el programa antes: un print sobre un PrintStream con autoflush por registro
+    private static SalidaInforme printfPorRegistro(Path destino) throws IOException {
+        PrintStream salida = new PrintStream(new FileOutputStream(destino.toFile()), true);
+        return new SalidaInforme() {
+            @Override
+            public synchronized void escribir(Registro registro) {
+                salida.print(Explorador.FORMATO_LISTADO.formatear(registro));
+            }
+
+            @Override
+            public void close() {
+                salida.close();
+            }
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaSalida <directorio> [hilos] [repeticiones]");
+            return;
+        }
+        Path directorio = Path.of(args[0]);
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int repeticiones = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        Path destino = Files.createTempFile("comparativa-salida", ".txt");
+
+        try {
+            double calculo = medir(directorio, hilos, destino, repeticiones, d -> SalidaInforme.NULA);
+            System.out.printf("%-20s | %8.1f ms | %s%n", "nula (solo recorrido)", calculo * 1e3, "-");
+
+            String[] nombres = {"printf por registro", "texto", "texto asíncrona", "csv", "jsonl"};
+            Fabrica[] fabricas = {
+                    ComparativaSalida::printfPorRegistro,
+                    d -> SalidaInforme.crear("texto", Files.newOutputStream(d), true, Explorador.FORMATO_LISTADO, false),
+                    d -> SalidaInforme.crear("texto", Files.newOutputStream(d), true, Explorador.FORMATO_LISTADO, true),
+                    d -> SalidaInforme.crear("csv", Files.newOutputStream(d), true, null, false,
+                            Explorador.REGISTROS_LISTADO),
+                    d -> SalidaInforme.crear("jsonl", Files.newOutputStream(d), true, null, false),
+            };
+            for (int i = 0; i < fabricas.length; i++) {
+                double segundos = medir(directorio, hilos, destino, repeticiones, fabricas[i]);
+                System.out.printf("%-20s | %8.1f ms | salida %4.1f %% del tiempo | %,d bytes%n", nombres[i],
+                        segundos * 1e3, Math.max(0, segundos - calculo) * 100 / segundos, Files.size(destino));
+            }
+        } finally {
+            Files.deleteIfExists(destino);
+        }
+    }
+
+    // Segundos por recorrido (con dos recorridos previos de calentamiento)
+    private static double medir(Path directorio, int hilos, Path destino, int repeticiones, Fabrica fabrica)
+            throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        try {
+            long inicio = 0;
+            for (int i = -2; i < repeticiones; i++) {
+                if (i == 0) {
+                    inicio = System.nanoTime();
+                }
+                try (SalidaInforme salida = fabrica.crear(destino)) {
+                    new RecorridoDirectorios(pool, 0, (dir, nivel, entradas) ->
+                            Explorador.listarDirectorio(salida, dir, nivel, entradas)).recorrer(directorio);
+                }
+            }
+            return (System.nanoTime() - inicio) / 1e9 / repeticiones;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package com.dam.tema2.claude;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+/*
+    Copia en paralelo de un fichero o de un árbol de directorios completo.
+
+    - Los ficheros pequeños se copian enteros, uno por tarea.
+    - Los ficheros de al menos UMBRAL_GRANDE bytes se dividen en tramos que se
+      copian a la vez con lecturas y escrituras posicionales sobre el mismo
+      FileChannel (read/write con posición son seguros entre hilos).
+    - Las tareas se ejecutan en un pool de N hilos o, si se pide, en hilos
+      virtuales (Java 21+; en versiones anteriores se usa el pool normal).
+      En ambos casos un semáforo limita las tareas en curso a N.
+
+    Mientras se copia se calcula el CRC32C de cada buffer que se escribe en el
+    destino, sin una segunda lectura; al terminar se comprueba que el destino
+    mide lo mismo que el origen. Los CRC de los tramos se combinan
+    (combinarCrc), así que el de cada copia es el CRC32C del fichero completo.
+    Con releer (opcional, dobla la E/S) además se vuelve a leer lo escrito en
+    el destino al acabar cada fichero o tramo y se compara su CRC32C con el
+    calculado; si no coinciden, el fichero va a los errores.
+
+    No se admite un destino que sea el propio origen ni, al copiar un
+    directorio, un destino dentro de él (el recorrido volvería a copiar la copia).
+
+    El progreso global (bytes, %, KB/s) se notifica periódicamente con MotorCopia.Progreso.
+ */
+public class CopiaParalela {
+    private static final long UMBRAL_GRANDE = 64L * 1024 * 1024;
+    private static final int TAMANO_TRAMO = 16 * 1024 * 1024;
+    private static final int TAMANO_BUFFER = 256 * 1024;
+    private static final long MILIS_ENTRE_AVISOS = 500;
+
+    // Resultado de cada fichero copiado
+    public record Copia(Path ruta, long bytes, int crc32c) {
+    }
+
+    public record Resumen(List<Copia> copias, List<String> errores, long bytes, long nanos) {
+        public double kbPorSegundo() {
+            return nanos == 0 ? 0 : bytes / 1024.0 / (nanos / 1e9);
+        }
+    }
+
+    private final int hilos;
+    private final boolean hilosVirtuales;
+    private final boolean releer;
+    private boolean virtualesEnUso;     // Si la última copia usó de verdad hilos virtuales
+
+    public CopiaParalela(int hilos, boolean hilosVirtuales, boolean releer) {
+        if (hilos <= 0) {
+            throw new IllegalArgumentException("El número de hilos debe ser positivo: " + hilos);
+        }
+        this.hilos = hilos;
+        this.hilosVirtuales = hilosVirtuales;
+        this.releer = releer;
+    }
+
+    public boolean usaHilosVirtuales() {
+        return virtualesEnUso;
+    }
+
+    /**
+     * Copia origen (fichero o directorio) en destino. Las rutas de las copias del
+     * resumen son relativas al origen (vacía si el origen es un fichero).
+     */
+    public Resumen copiar(Path origen, Path destino, MotorCopia.Progreso progreso) throws IOException {
+        MotorCopia.comprobarDistintos(origen, destino);
+        if (Files.isDirectory(origen) && real(destino).startsWith(real(origen))) {
+            throw new IOException("El destino " + destino + " está dentro del directorio origen " + origen);
+        }
+
+        // Inventario previo: da el total para el porcentaje y crea los directorios
+        List<Path> ficheros = new ArrayList<>();
+        long[] total = {0};
+        if (Files.isDirectory(origen)) {
+            Files.walkFileTree(origen, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes atributos) throws IOException {
+                    Files.createDirectories(destino.resolve(origen.relativize(dir).toString()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path fichero, BasicFileAttributes atributos) {
+                    if (atributos.isRegularFile()) {
+                        ficheros.add(origen.relativize(fichero));
+                        total[0] += atributos.size();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } else {
+            ficheros.add(Path.of(""));
+            total[0] = Files.size(origen);
+        }
+
+        List<Copia> copias = Collections.synchronizedList(new ArrayList<>());
+        List<String> errores = Collections.synchronizedList(new ArrayList<>());
+        LongAdder copiados = new LongAdder();
+        Semaphore enCurso = new Semaphore(hilos);
+        long inicio = System.nanoTime();
+
+        ScheduledExecutorService avisos = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "progreso-copia");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        avisos.scheduleAtFixedRate(() -> progreso.avance(copiados.sum(), total[0]),
+                MILIS_ENTRE_AVISOS, MILIS_ENTRE_AVISOS, TimeUnit.MILLISECONDS);
+
+        ExecutorService pool = crearPool();
+        try {
+            for (Path relativa : ficheros) {
+                Path desde = relativa.toString().isEmpty() ? origen : origen.resolve(relativa.toString());
+                Path hacia = relativa.toString().isEmpty() ? destino : destino.resolve(relativa.toString());
+                long tamano = Files.size(desde);
+
+                if (tamano < UMBRAL_GRANDE) {
+                    lanzar(pool, enCurso, () -> {
+                        try {
+                            copias.add(new Copia(relativa, tamano, copiarEntero(desde, hacia, tamano, copiados, releer)));
+                        } catch (IOException e) {
+                            errores.add(desde + ": " + e.getMessage());
+                        }
+                    });
+                } else {
+                    new CopiaPorTramos(relativa, desde, hacia, tamano, releer, copiados, copias, errores).lanzar(pool, enCurso);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Copia interrumpida", e);
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            avisos.shutdownNow();
+        }
+
+        long nanos = System.nanoTime() - inicio;
+        progreso.avance(copiados.sum(), total[0]);
+        return new Resumen(List.copyOf(copias), List.copyOf(errores), copiados.sum(), nanos);
+    }
+
+    // Ruta real aunque el fichero aún no exista: la del antepasado más cercano que exista, más el resto
+    private static Path real(Path ruta) throws IOException {
+        Path absoluta = ruta.toAbsolutePath().normalize();
+        Path existente = absoluta;
+        while (existente != null && Files.notExists(existente)) {
+            existente = existente.getParent();
+        }
+        return existente == null ? absoluta : existente.toRealPath().resolve(existente.relativize(absoluta));
+    }
+
+    // Hilos virtuales si se piden y existen (Java 21+), si no un pool fijo de N hilos
+    private ExecutorService crearPool() {
+        if (hilosVirtuales) {
+            try {
+                ExecutorService pool = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                virtualesEnUso = true;
+                return pool;
+            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+                System.err.println("Hilos virtuales no disponibles en esta versión de Java, se usa un pool de " + hilos + " hilos");
+            }
+        }
+        virtualesEnUso = false;
+        AtomicInteger numero = new AtomicInteger();
+        return Executors.newFixedThreadPool(hilos, r -> new Thread(r, "copia-" + numero.incrementAndGet()));
+    }
+
+    // Espera un hueco y lanza la tarea, que lo libera al terminar
+    private static void lanzar(ExecutorService pool, Semaphore enCurso, Runnable tarea) throws InterruptedException {
+        enCurso.acquire();
+        pool.execute(() -> {
+            try {
+                tarea.run();
+            } finally {
+                enCurso.release();
+            }
+        });
+    }
+
+    private static int copiarEntero(Path origen, Path destino, long tamano, LongAdder copiados, boolean releer)
+            throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel entrada = FileChannel.open(origen, StandardOpenOption.READ);
+             FileChannel salida = abrirDestino(destino, releer)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(1, Math.min(tamano, TAMANO_BUFFER)));
+            while (entrada.read(buffer) != -1) {
+                buffer.flip();
+                crc.update(buffer.array(), 0, buffer.limit());
+                copiados.add(buffer.limit());
+                while (buffer.hasRemaining()) {
+                    salida.write(buffer);
+                }
+                buffer.clear();
+            }
+            comprobarTamano(origen, destino, tamano);
+            if (releer) {
+                comprobarCrc(origen, salida, 0, tamano, (int) crc.getValue(), buffer);
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    // Relee [desde, hasta) del destino y compara su CRC32C con el calculado al copiar
+    private static void comprobarCrc(Path origen, FileChannel destino, long desde, long hasta, int esperado,
+                                     ByteBuffer buffer) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (long posicion = desde; posicion < hasta; ) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), hasta - posicion));
+            int leidos = destino.read(buffer, posicion);
+            if (leidos < 0) {
+                throw new IOException("El destino de " + origen + " se acaba en el byte " + posicion);
+            }
+            crc.update(buffer.array(), 0, leidos);
+            posicion += leidos;
+        }
+        if ((int) crc.getValue() != esperado) {
+            throw new IOException(String.format("El CRC32C del destino de %s no coincide entre los bytes %d y %d"
+                    + " (origen %08x, destino %08x)", origen, desde, hasta, esperado, (int) crc.getValue()));
+        }
+    }
+
+    private static void comprobarTamano(Path origen, Path destino, long tamano) throws IOException {
+        long copiado = Files.size(destino);
+        if (copiado != tamano) {
+            throw new IOException("Tamaño distinto tras la copia de " + origen + ": " + tamano + " frente a " + copiado + " bytes");
+        }
+    }
+
+    private static FileChannel abrirDestino(Path destino, boolean releer) throws IOException {
+        // READ solo para releer lo escrito al verificar
+        return releer
+                ? FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                : FileChannel.open(destino, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /*
+        Un fichero grande: los canales se abren una vez y se comparten entre los
+        tramos. Cada tramo calcula el CRC de su trozo (y lo relee si se pide);
+        el último en terminar cierra, comprueba el tamaño y combina los CRC.
+     */
+    private static class CopiaPorTramos {
+        private final Path relativa, origen, destino;
+        private final long tamano;
+        private final boolean releer;
+        private final LongAdder copiados;
+        private final List<Copia> copias;
+        private final List<String> errores;
+
+        private final int[] crcTramos;
+        private final AtomicInteger pendientes;
+        private final AtomicReference<IOException> error = new AtomicReference<>();
+        private FileChannel entrada, salida;
+
+        CopiaPorTramos(Path relativa, Path origen, Path destino, long tamano, boolean releer, LongAdder copiados,
+                       List<Copia> copias, List<String> errores) {
+            this.relativa = relativa;
+            this.origen = origen;
+            this.destino = destino;
+            this.tamano = tamano;
+            this.releer = releer;
+            this.copiados = copiados;
+            this.copias = copias;
+            this.errores = errores;
+            int numTramos = (int) ((tamano + TAMANO_TRAMO - 1) / TAMANO_TRAMO);
+            crcTramos = new int[numTramos];
+            pendientes = new AtomicInteger(numTramos);
+        }
+
+        void lanzar(ExecutorService pool, Semaphore enCurso) throws InterruptedException {
+            try {
+                entrada = FileChannel.open(origen, StandardOpenOption.READ);
+                salida = abrirDestino(destino, releer);
+            } catch (IOException e) {
+                errores.add(origen + ": " + e.getMessage());
+                cerrar();
+                return;
+            }
+            for (int i = 0; i < crcTramos.length; i++) {
+                int tramo = i;
+                CopiaParalela.lanzar(pool, enCurso, () -> copiarTramo(tramo));
+            }
+        }
+
+        private void copiarTramo(int tramo) {
+            try {
+                if (error.get() == null) {
+                    long desde = (long) tramo * TAMANO_TRAMO;
+                    long hasta = Math.min(tamano, desde + TAMANO_TRAMO);
+                    CRC32C crc = new CRC32C();
+                    ByteBuffer buffer = ByteBuffer.allocate(TAMANO_BUFFER);
+                    for (long posicion = desde; posicion < hasta; ) {
+                        buffer.clear().limit((int) Math.min(TAMANO_BUFFER, hasta - posicion));
+                        int leidos = entrada.read(buffer, posicion);
+                        if (leidos < 0) {
+                            throw new IOException("El fichero ha encogido durante la copia (byte " + posicion + ")");
+                        }
+                        buffer.flip();
+                        crc.update(buffer.array(), 0, buffer.limit());
+                        long escritura = posicion;
+                        while (buffer.hasRemaining()) {
+                            escritura += salida.write(buffer, escritura);
+                        }
+                        posicion += leidos;
+                        copiados.add(leidos);
+                    }
+                    if (releer) {
+                        comprobarCrc(origen, salida, desde, hasta, (int) crc.getValue(), buffer);
+                    }
+                    crcTramos[tramo] = (int) crc.getValue();
+                }
+            } catch (IOException e) {
+                error.compareAndSet(null, e);
+            }
+
+            if (pendientes.decrementAndGet() == 0) {
+                terminar();
+            }
+        }
+
+        private void terminar() {
+            cerrar();
+            try {
+                if (error.get() != null) {
+                    throw error.get();
+                }
+                comprobarTamano(origen, destino, tamano);
+                int crc = crcTramos[0];
+                for (int i = 1; i < crcTramos.length; i++) {
+                    long longitud = Math.min(TAMANO_TRAMO, tamano - (long) i * TAMANO_TRAMO);
+                    crc = combinarCrc(crc, crcTramos[i], longitud);
+                }
+                copias.add(new Copia(relativa, tamano, crc));
+            } catch (IOException e) {
+                errores.add(origen + ": " + e.getMessage());
+            }
+        }
+
+        private void cerrar() {
+            for (FileChannel canal : new FileChannel[]{entrada, salida}) {
+                try {
+                    if (canal != null) {
+                        canal.close();
+                    }
+                } catch (IOException e) {
+                    error.compareAndSet(null, e);
+                }
+            }
+        }
+    }
+
+    // === COMBINACIÓN DE CRC32C ===
+
+    /**
+     * CRC32C de la concatenación A+B a partir del CRC de A, el de B y la longitud
+     * de B (método de zlib crc32_combine con el polinomio de Castagnoli).
+     */
+    public static int combinarCrc(int crcA, int crcB, long longitudB) {
+        if (longitudB <= 0) {
+            return crcA;
+        }
+        int[] par = new int[32];
+        int[] impar = new int[32];
+
+        // Operador para un bit cero
+        impar[0] = 0x82F63B78;
+        int fila = 1;
+        for (int n = 1; n < 32; n++) {
+            impar[n] = fila;
+            fila <<= 1;
+        }
+        cuadrado(par, impar);       // Dos bits cero
+        cuadrado(impar, par);       // Cuatro bits cero
+
+        // Se aplican longitudB bytes cero a crcA
+        long restante = longitudB;
+        do {
+            cuadrado(par, impar);
+            if ((restante & 1) != 0) {
+                crcA = multiplicar(par, crcA);
+            }
+            restante >>= 1;
+            if (restante == 0) {
+                break;
+            }
+            cuadrado(impar, par);
+            if ((restante & 1) != 0) {
+                crcA = multiplicar(impar, crcA);
+            }
+            restante >>= 1;
+        } while (restante != 0);
+
+        return crcA ^ crcB;
+    }
+
+    private static int multiplicar(int[] matriz, int vector) {
+        int suma = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                suma ^= matriz[i];
+            }
+        }
+        return suma;
+    }
+
+    private static void cuadrado(int[] resultado, int[] matriz) {
+        for (int n = 0; n < 32; n++) {
+            resultado[n] = multiplicar(matriz, matriz[n]);
+        }
+    }
+}
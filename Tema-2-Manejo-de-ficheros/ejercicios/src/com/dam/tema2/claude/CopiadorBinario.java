@@ -1,5 +1,15 @@
 package com.dam.tema2.claude;
 
+import Comun.Metricas;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+
 /*
     📌 Objetivo
     Practicar lectura y escritura de ficheros binarios usando FileInputStream y FileOutputStream.
@@ -17,11 +27,150 @@ package com.dam.tema2.claude;
     Al finalizar:
     Confirmar que se copió correctamente
     Mostrar tamaño original vs tamaño copiado
+
+    Uso: CopiadorBinario [estrategia [bloque]] [--metricas[=jmx|fichero]]
+         CopiadorBinario --paralelo[=hilos] [--virtuales] [--releer] [--metricas[=jmx|fichero]]
+        estrategia  flujo, transfer_to (por defecto), proyectado o buffer_directo (ver MotorCopia)
+        bloque      bytes por bloque; "flujo 1024" es la copia del enunciado
+        --paralelo  copia en paralelo un fichero o un directorio completo y calcula el
+                    CRC32C de cada copia mientras escribe (ver CopiaParalela)
+        --virtuales usa hilos virtuales si la versión de Java los tiene
+        --releer    además relee cada destino y compara su CRC32C (dobla la E/S)
+        --metricas  tiempo, bytes/s y reservas de memoria de la etapa copy en la salida de error (ver Metricas)
  */
+public class CopiadorBinario {
+    private static final int BLOQUE_POR_DEFECTO = 8 * 1024 * 1024;
+
+    // Como mucho una línea de progreso cada 200 ms (con bloques de 1024 bytes serían millones)
+    private static final long NANOS_ENTRE_AVISOS = 200_000_000L;
 
-public class Ejercicio2 {
+    // Etapa medida (ver Metricas)
+    private static final Metricas.Etapa COPY = Metricas.etapa("copy");
 
     public static void main(String[] args) {
+        int hilos = 0;
+        boolean virtuales = false;
+        boolean releer = false;
+        String metricas = null;
+        List<String> posicionales = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--paralelo")) {
+                hilos = arg.startsWith("--paralelo=")
+                        ? Integer.parseInt(arg.substring("--paralelo=".length()))
+                        : Runtime.getRuntime().availableProcessors();
+            } else if (arg.equals("--virtuales")) {
+                virtuales = true;
+            } else if (arg.equals("--releer")) {
+                releer = true;
+            } else if (arg.startsWith("--metricas")) {
+                metricas = arg.startsWith("--metricas=") ? arg.substring("--metricas=".length()) : "";
+            } else {
+                posicionales.add(arg);
+            }
+        }
+        MotorCopia.Estrategia estrategia = posicionales.size() > 0
+                ? MotorCopia.Estrategia.valueOf(posicionales.get(0).toUpperCase(Locale.ROOT))
+                : MotorCopia.Estrategia.TRANSFER_TO;
+        int bloque = posicionales.size() > 1 ? Integer.parseInt(posicionales.get(1)) : BLOQUE_POR_DEFECTO;
+
+        Scanner entrada = new Scanner(System.in);
+
+        // Pide las rutas de origen y destino
+        System.out.println("Introduce la ruta del fichero origen:");
+        Path origen = Path.of(entrada.nextLine());
+        System.out.println("Introduce la ruta del fichero destino:");
+        Path destino = Path.of(entrada.nextLine());
+
+        // Valida que el origen existe y es un fichero (o un directorio en modo paralelo)
+        if (!Files.isRegularFile(origen) && !(hilos > 0 && Files.isDirectory(origen))) {
+            System.out.println("El fichero origen no existe");
+            return;
+        }
+        try {
+            MotorCopia.comprobarDistintos(origen, destino);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        long[] ultimoAviso = {inicio};
+        MotorCopia.Progreso progreso = (copiados, total) -> {
+            long ahora = System.nanoTime();
+            if (ahora - ultimoAviso[0] >= NANOS_ENTRE_AVISOS || copiados == total) {
+                ultimoAviso[0] = ahora;
+                double porcentaje = total == 0 ? 100 : copiados * 100.0 / total;
+                double kbPorSegundo = copiados / 1024.0 / Math.max((ahora - inicio) / 1e9, 1e-9);
+                System.out.printf("Copiados: %,d bytes | %.1f %% | %.1f KB/s%n", copiados, porcentaje, kbPorSegundo);
+            }
+        };
+
+        try {
+            if (metricas != null) {
+                Metricas.activar(metricas);
+            }
+            if (hilos > 0) {
+                copiarEnParalelo(origen, destino, hilos, virtuales, releer, progreso);
+                return;
+            }
+            MotorCopia.Resultado resultado;
+            try (Metricas.Medicion m = COPY.iniciar()) {
+                resultado = MotorCopia.copiar(origen, destino, estrategia, bloque, progreso);
+                m.filas(1).bytes(resultado.bytesDestino());
+            }
+
+            System.out.printf("""
+                            
+                            =============================
+                                  COPIA COMPLETADA
+                            =============================
+                            
+                            Estrategia: %s (bloques de %,d bytes)
+                            Tamaño original: %,d bytes
+                            Tamaño copiado: %,d bytes
+                            Velocidad media: %.1f KB/s
+                            """,
+                    estrategia, bloque, resultado.bytesOrigen(), resultado.bytesDestino(), resultado.kbPorSegundo()
+            );
+        } catch (IOException e) {
+            System.out.println("Error al copiar: " + e.getMessage());
+        } finally {
+            Metricas.terminar(System.err);
+        }
+    }
+
+    private static void copiarEnParalelo(Path origen, Path destino, int hilos, boolean virtuales, boolean releer,
+                                         MotorCopia.Progreso progreso) throws IOException {
+        CopiaParalela copia = new CopiaParalela(hilos, virtuales, releer);
+        CopiaParalela.Resumen resumen;
+        try (Metricas.Medicion m = COPY.iniciar()) {
+            resumen = copia.copiar(origen, destino, progreso);
+            m.filas(resumen.copias().size()).bytes(resumen.bytes());
+        }
+
+        if (resumen.copias().size() == 1 && resumen.errores().isEmpty()) {
+            System.out.printf("CRC32C: %08x%s%n", resumen.copias().get(0).crc32c(),
+                    releer ? " (el del destino coincide)" : "");
+        }
+        for (String error : resumen.errores()) {
+            System.out.println("Error al copiar " + error);
+        }
 
+        System.out.printf("""
+                        
+                        =============================
+                              COPIA COMPLETADA
+                        =============================
+                        
+                        Hilos: %d%s
+                        Ficheros copiados%s: %d
+                        Ficheros con error: %d
+                        Bytes copiados: %,d bytes
+                        Velocidad media: %.1f KB/s
+                        """,
+                hilos, copia.usaHilosVirtuales() ? " (virtuales)" : "", releer ? " y verificados (CRC32C)" : "",
+                resumen.copias().size(), resumen.errores().size(),
+                resumen.bytes(), resumen.kbPorSegundo()
+        );
     }
 }
@@ -1,7 +1,19 @@
 package com.dam.tema2.claude;
 
+import Comun.Metricas;
+import Comun.SalidaInforme;
 
-import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.Scanner;
 
 /*
@@ -24,39 +36,82 @@ import java.util.Scanner;
     Total de carpetas
     Tamaño total en bytes
     Tamaño total en MB
+
+    El recorrido se hace en paralelo con RecorridoDirectorios: atributos y permisos
+    leídos de una vez por entrada, un bloque de salida por directorio y los totales
+    acumulados por subárbol.
+
+    Con --indice las pasadas se apoyan en un índice guardado en disco
+    (IndiceExplorador) y solo se releen los directorios que han cambiado.
+
+    Uso: Explorador [--sin-listado] [--hilos=N] [--resumen=profundidad]
+                    [--formato=texto|csv|jsonl] [--salida=fichero] [--asincrona]
+                    [--indice=fichero [--completo] [--vigilar=minutos]] [--metricas[=jmx|fichero]]
+        --sin-listado  solo estadísticas (con el avance en la salida de error)
+        --formato      formato del listado (por defecto texto, ver SalidaInforme)
+        --salida       fichero del listado en lugar de la salida estándar
+        --asincrona    el listado lo escribe un hilo aparte
+        --hilos        hilos del recorrido (por defecto 4 por núcleo: en discos de red casi todo es espera)
+        --resumen      muestra también los totales de cada subdirectorio hasta esa profundidad
+        --indice       solo estadísticas, actualizando el índice incremental guardado en ese fichero
+        --completo     relee todos los directorios (detecta ficheros modificados sin cambiar su carpeta)
+        --vigilar      no termina: vigila los cambios con WatchService y repite el informe cada N minutos
+        --metricas     tiempos de las etapas walk y write en la salida de error (ver Metricas)
  */
 public class Explorador {
 
-    // función recursiva para leer los directorios
-    private static void listarDirectorios(File directorio, int nivel) {
-        int totalDirectorios = 0;
-        int totalFicheros = 0;
-        long totalBytes = 0;
-        String indentacion = "\t".repeat(nivel);
-
-        for (File f : directorio.listFiles()) {
-            if (f.isDirectory()) {
-                ++totalDirectorios;
-                System.out.printf("Leyendo ficheros de la carpeta: %s\n", f.getName());
-                listarDirectorios(f, nivel + 1);
-            } else {
-                ++totalFicheros;
-                totalBytes += f.length();
-                System.out.printf("%sNombre del fichero: %s\n", indentacion, f.getName());
-                System.out.printf("%sTamaño del fichero: %s bytes\n", indentacion, f.length());
-                System.out.printf("%sRuta absoluta: %s\n", indentacion, f.getAbsolutePath());
-                System.out.printf("%sPermiso de lectura: %s\n", indentacion, f.canRead());
-                System.out.printf("%sPermiso de escritura: %s\n", indentacion, f.canWrite());
-                System.out.println();
-            }
+    // Registros del listado (ver SalidaInforme)
+    private static final String[] REGISTRO_DIRECTORIO = {"nivel", "ruta"};
+    private static final String[] REGISTRO_FICHERO = {"nivel", "nombre", "tamano", "ruta", "lectura", "escritura"};
+    static final String[][] REGISTROS_LISTADO = {REGISTRO_DIRECTORIO, REGISTRO_FICHERO};
+
+    // Etapas medidas (ver Metricas)
+    private static final Metricas.Etapa WALK = Metricas.etapa("walk");
+    private static final Metricas.Etapa WRITE = Metricas.etapa("write");
+
+    // Formato de texto del listado
+    static final SalidaInforme.Formateador FORMATO_LISTADO = registro -> {
+        Object[] v = registro.valores();
+        if (registro.tipo().equals("directorio")) {
+            return String.format("Leyendo ficheros de la carpeta: %s\n", v[1]);
         }
+        String indentacion = "\t".repeat((Integer) v[0]);
+        return String.format("%sNombre del fichero: %s\n", indentacion, v[1])
+                + String.format("%sTamaño del fichero: %s bytes\n", indentacion, v[2])
+                + String.format("%sRuta absoluta: %s\n", indentacion, v[3])
+                + String.format("%sPermiso de lectura: %s\n", indentacion, v[4])
+                + String.format("%sPermiso de escritura: %s\n", indentacion, v[5])
+                + "\n";
+    };
 
-        double totalMB = totalBytes / (1024.0 * 1024.0);
+    // Un directorio y sus ficheros como un bloque: no se intercala con los de otros hilos
+    static void listarDirectorio(SalidaInforme salida, Path directorio, int nivel,
+                                 List<RecorridoDirectorios.Entrada> entradas) {
+        List<SalidaInforme.Registro> bloque = new ArrayList<>();
+        bloque.add(new SalidaInforme.Registro("directorio", REGISTRO_DIRECTORIO, new Object[]{nivel, directorio.toString()}));
 
+        for (RecorridoDirectorios.Entrada entrada : entradas) {
+            if (entrada.atributos().directorio()) {
+                continue;
+            }
+            Path f = entrada.ruta();
+            bloque.add(new SalidaInforme.Registro("fichero", REGISTRO_FICHERO, new Object[]{
+                    nivel + 1, f.getFileName().toString(), entrada.atributos().tamano(), f.toString(),
+                    entrada.atributos().lectura(), entrada.atributos().escritura()}));
+        }
+        try (Metricas.Medicion m = WRITE.iniciar()) {
+            salida.escribirBloque(bloque);
+            m.filas(bloque.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void mostrarEstadisticas(String titulo, RecorridoDirectorios.Totales totales) {
         System.out.printf("""
                         
                         =============================
-                         ESTATISTICAS DEL DIRECTORIO
+                         %s
                         =============================
                         
                         Total de ficheros: %d ficheros
@@ -64,34 +119,193 @@ public class Explorador {
                         Tamaño total en bytes: %,d bytes
                         Tamaño total en MB: %.2f MB
                         """,
-                totalFicheros, totalDirectorios, totalBytes, totalMB
+                titulo, totales.ficheros(), totales.carpetas(), totales.bytes(), totales.megas()
         );
     }
 
+    private static void mostrarResumen(RecorridoDirectorios.Nodo nodo, int nivel) {
+        RecorridoDirectorios.Totales totales = nodo.totales();
+        System.out.printf("%s%s: %,d ficheros, %,d carpetas, %.2f MB%n",
+                "\t".repeat(nivel), nodo.ruta(), totales.ficheros(), totales.carpetas(), totales.megas());
+        for (RecorridoDirectorios.Nodo hijo : nodo.hijos()) {
+            mostrarResumen(hijo, nivel + 1);
+        }
+    }
+
+    private static void explorarConIndice(Path directorio, Path ficheroIndice, int hilos, int profundidadResumen,
+                                          boolean completo, int minutosVigilancia) throws IOException {
+        IndiceExplorador indice = IndiceExplorador.cargar(ficheroIndice);
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        try {
+            informeIndice(indice, directorio, ficheroIndice, pool, profundidadResumen, completo);
+            if (minutosVigilancia <= 0) {
+                return;
+            }
+
+            // La vigilancia invalida directorios en segundo plano; cada N minutos se actualiza y se informa
+            try (WatchService vigilante = directorio.getFileSystem().newWatchService()) {
+                Thread hilo = new Thread(() -> {
+                    try {
+                        indice.vigilar(vigilante);
+                    } catch (IOException e) {
+                        System.err.println("Error en la vigilancia: " + e.getMessage());
+                    }
+                }, "vigilancia-explorador");
+                hilo.setDaemon(true);
+                hilo.start();
+
+                while (true) {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(minutosVigilancia));
+                    informeIndice(indice, directorio, ficheroIndice, pool, profundidadResumen, false);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void informeIndice(IndiceExplorador indice, Path directorio, Path ficheroIndice, ForkJoinPool pool,
+                                      int profundidadResumen, boolean completo) throws IOException {
+        long inicio = System.nanoTime();
+        RecorridoDirectorios.Nodo raiz;
+        try (Metricas.Medicion m = WALK.iniciar()) {
+            raiz = indice.actualizar(directorio, pool, profundidadResumen, completo);
+            m.filas(raiz.totales().ficheros() + raiz.totales().carpetas()).bytes(raiz.totales().bytes());
+        }
+        try (Metricas.Medicion m = WRITE.iniciar()) {
+            indice.guardar(ficheroIndice);
+            m.bytes(Files.size(ficheroIndice));
+        }
+
+        System.out.printf("%nDirectorios releídos: %,d | reutilizados del índice: %,d | %.1f ms%n",
+                indice.directoriosReleidos(), indice.directoriosReutilizados(), (System.nanoTime() - inicio) / 1e6);
+        if (profundidadResumen > 0) {
+            System.out.println();
+            mostrarResumen(raiz, 0);
+        }
+        mostrarEstadisticas("ESTATISTICAS DEL DIRECTORIO", raiz.totales());
+    }
+
     public static void main(String[] args) {
+        boolean listado = true;
+        int hilos = Runtime.getRuntime().availableProcessors() * 4;
+        int profundidadResumen = 0;
+        Path ficheroIndice = null;
+        boolean completo = false;
+        int minutosVigilancia = 0;
+        String formato = "texto";
+        String ficheroSalida = null;
+        boolean asincrona = false;
+        String metricas = null;
+        for (String arg : args) {
+            if (arg.equals("--sin-listado")) {
+                listado = false;
+            } else if (arg.startsWith("--hilos=")) {
+                hilos = Integer.parseInt(arg.substring("--hilos=".length()));
+            } else if (arg.startsWith("--resumen=")) {
+                profundidadResumen = Integer.parseInt(arg.substring("--resumen=".length()));
+            } else if (arg.startsWith("--indice=")) {
+                ficheroIndice = Path.of(arg.substring("--indice=".length()));
+            } else if (arg.equals("--completo")) {
+                completo = true;
+            } else if (arg.startsWith("--vigilar=")) {
+                minutosVigilancia = Integer.parseInt(arg.substring("--vigilar=".length()));
+            } else if (arg.startsWith("--formato=")) {
+                formato = arg.substring("--formato=".length());
+            } else if (arg.startsWith("--salida=")) {
+                ficheroSalida = arg.substring("--salida=".length());
+            } else if (arg.equals("--asincrona")) {
+                asincrona = true;
+            } else if (arg.startsWith("--metricas")) {
+                metricas = arg.startsWith("--metricas=") ? arg.substring("--metricas=".length()) : "";
+            }
+        }
+        if (metricas != null) {
+            try {
+                Metricas.activar(metricas);
+            } catch (IOException e) {
+                System.out.println("Error al activar las métricas: " + e.getMessage());
+                return;
+            }
+            // El resumen se escribe al salir, también con --vigilar (que solo acaba con Ctrl+C)
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> Metricas.terminar(System.err)));
+        }
+
         Scanner entrada = new Scanner(System.in);
 
         // Pide la ruta del directorio
         System.out.println("Introduce la ruta del directorio:");
         String rutaDirectorio = entrada.nextLine();
 
-        // Crea un objeto File para validar la ruta
-        File directorio = new File(rutaDirectorio);
+        // Crea un Path para validar la ruta
+        Path directorio = Path.of(rutaDirectorio);
 
-        if (!directorio.exists()) {
+        if (!Files.exists(directorio)) {
             System.out.println("El directorio no existe");
+            return;
         }
 
         // Valida que sea un directorio
-        if (directorio.isDirectory()) {
-            System.out.printf("El archivo '%s' es un directorio\n\n", directorio.getPath());
+        if (!Files.isDirectory(directorio)) {
+            System.out.println("El archivo no es un directorio");
+            return;
+        }
+        System.out.printf("El archivo '%s' es un directorio\n\n", directorio);
+
+        if (ficheroIndice != null) {
+            try {
+                explorarConIndice(directorio, ficheroIndice, hilos, profundidadResumen, completo, minutosVigilancia);
+            } catch (IOException e) {
+                System.out.println("Error con el índice: " + e.getMessage());
+            }
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        RecorridoDirectorios.Nodo raiz;
+        RecorridoDirectorios recorrido;
+        try (SalidaInforme salida = listado
+                ? SalidaInforme.crear(formato, ficheroSalida == null ? System.out : Files.newOutputStream(Path.of(ficheroSalida)),
+                ficheroSalida != null, FORMATO_LISTADO, asincrona, REGISTROS_LISTADO)
+                : SalidaInforme.NULA) {
+            recorrido = new RecorridoDirectorios(pool, profundidadResumen,
+                    listado ? (dir, nivel, entradas) -> listarDirectorio(salida, dir, nivel, entradas) : null);
+
+            // Sin listado se muestra el avance cada segundo
+            ScheduledExecutorService avance = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "avance-explorador");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            if (!listado) {
+                avance.scheduleAtFixedRate(() -> System.err.printf("... %,d ficheros, %,d carpetas, %.2f MB%n",
+                                recorrido.ficherosVistos(), recorrido.carpetasVistas(),
+                                recorrido.bytesVistos() / (1024.0 * 1024.0)),
+                        1, 1, TimeUnit.SECONDS);
+            }
 
             // Lista todos los elementos del directorio
-            listarDirectorios(directorio, 1);
-        } else {
-            System.out.println("El archivo no es un directorio");
+            try (Metricas.Medicion m = WALK.iniciar()) {
+                raiz = recorrido.recorrer(directorio);
+                m.filas(raiz.totales().ficheros() + raiz.totales().carpetas()).bytes(raiz.totales().bytes());
+            } finally {
+                avance.shutdownNow();
+                pool.shutdown();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error al escribir el listado: " + e.getMessage());
+            return;
         }
+
+        for (String error : recorrido.errores()) {
+            System.err.println("No se pudo leer " + error);
+        }
+        if (profundidadResumen > 0) {
+            System.out.println();
+            mostrarResumen(raiz, 0);
+        }
+        mostrarEstadisticas("ESTATISTICAS DEL DIRECTORIO", raiz.totales());
     }
 }
-
-
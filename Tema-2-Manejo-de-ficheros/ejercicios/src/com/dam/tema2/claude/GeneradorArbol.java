@@ -0,0 +1,98 @@
+package com.dam.tema2.claude;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+
+/*
+    Genera un árbol de directorios sintético para probar Explorador,
+    RecorridoDirectorios y CopiaParalela con miles o millones de ficheros.
+
+    Los directorios forman un árbol completo: cada uno tiene hasta
+    <subdirectorios> hijos (d0, d1...) y se llenan por niveles con
+    <porDirectorio> ficheros (f0000000.dat...) hasta llegar al total. Los
+    tamaños siguen una exponencial de media <tamañoMedio> (muchos ficheros
+    pequeños y unos pocos grandes, como en un disco real), limitada a 16 veces
+    la media. El contenido son trozos de un bloque aleatorio y la fecha de
+    modificación también sale de la semilla.
+
+    Con la misma semilla y los mismos parámetros se genera siempre el mismo
+    árbol: mismos nombres, tamaños, contenidos y fechas.
+
+    Uso: GeneradorArbol <directorio> <ficheros> [porDirectorio] [subdirectorios] [tamañoMedio] [semilla]
+        por defecto: 100 ficheros por directorio, 10 subdirectorios, 4096 bytes, semilla 42
+ */
+public class GeneradorArbol {
+    private static final int BLOQUE = 1024 * 1024;
+    // 1 de enero de 2015 a 1 de enero de 2025
+    private static final long PRIMERA_FECHA = 1_420_070_400_000L;
+    private static final long INTERVALO_FECHAS = 315_619_200_000L;
+
+    // Carpetas sin contar la raíz, como RecorridoDirectorios.Totales
+    public record Resumen(long ficheros, long carpetas, long bytes) {
+    }
+
+    public static Resumen generar(Path raiz, long ficheros, int porDirectorio, int subdirectorios,
+                                  int tamanoMedio, long semilla) throws IOException {
+        if (porDirectorio < 1 || subdirectorios < 1) {
+            throw new IllegalArgumentException("Hace falta al menos un fichero y un subdirectorio por directorio");
+        }
+        Random aleatorio = new Random(semilla);
+        byte[] bloque = new byte[BLOQUE];
+        aleatorio.nextBytes(bloque);
+        int maximo = (int) Math.min(BLOQUE, 16L * tamanoMedio);
+
+        Files.createDirectories(raiz);
+        long carpetas = 0;
+        long bytes = 0;
+        Path directorio = raiz;
+        for (long i = 0; i < ficheros; i++) {
+            // El directorio k (0 es la raíz) es el hijo (k - 1) % subdirectorios del directorio (k - 1) / subdirectorios
+            if (i % porDirectorio == 0 && i > 0) {
+                directorio = ruta(raiz, i / porDirectorio, subdirectorios);
+                Files.createDirectories(directorio);
+                carpetas++;
+            }
+            int tamano = tamanoMedio == 0 ? 0
+                    : (int) Math.min(maximo, -tamanoMedio * Math.log(1 - aleatorio.nextDouble()));
+            int desde = aleatorio.nextInt(BLOQUE - tamano + 1);
+            Path fichero = directorio.resolve(String.format("f%07d.dat", i));
+            try (OutputStream salida = Files.newOutputStream(fichero)) {
+                salida.write(bloque, desde, tamano);
+            }
+            Files.setLastModifiedTime(fichero,
+                    FileTime.fromMillis(PRIMERA_FECHA + (aleatorio.nextLong() & Long.MAX_VALUE) % INTERVALO_FECHAS));
+            bytes += tamano;
+        }
+        return new Resumen(ficheros, carpetas, bytes);
+    }
+
+    private static Path ruta(Path raiz, long indice, int subdirectorios) {
+        if (indice == 0) {
+            return raiz;
+        }
+        return ruta(raiz, (indice - 1) / subdirectorios, subdirectorios).resolve("d" + (indice - 1) % subdirectorios);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: GeneradorArbol <directorio> <ficheros> [porDirectorio] [subdirectorios] [tamañoMedio] [semilla]");
+            return;
+        }
+        Path raiz = Path.of(args[0]);
+        long ficheros = Long.parseLong(args[1]);
+        int porDirectorio = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int subdirectorios = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int tamanoMedio = args.length > 4 ? Integer.parseInt(args[4]) : 4096;
+        long semilla = args.length > 5 ? Long.parseLong(args[5]) : 42L;
+
+        long inicio = System.nanoTime();
+        Resumen resumen = generar(raiz, ficheros, porDirectorio, subdirectorios, tamanoMedio, semilla);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("Generado %s: %,d ficheros en %,d carpetas, %,d bytes en %.2f s%n",
+                raiz, resumen.ficheros(), resumen.carpetas(), resumen.bytes(), segundos);
+    }
+}
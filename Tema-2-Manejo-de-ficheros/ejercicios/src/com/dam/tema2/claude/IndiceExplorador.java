@@ -0,0 +1,352 @@
+package com.dam.tema2.claude;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    Índice persistente de un árbol de directorios para que Explorador no tenga
+    que releerlo entero en cada pasada.
+
+    Por cada directorio se guarda su fecha de modificación, sus ficheros
+    (nombre, tamaño, fecha, permisos) y los nombres de sus subdirectorios.
+    Al actualizar:
+        - si la fecha del directorio no ha cambiado, no se lista ni se consultan
+          sus ficheros: se reutilizan los del índice, y solo se comprueba la
+          fecha de cada subdirectorio (una consulta por directorio);
+        - si ha cambiado (se ha creado, borrado o renombrado algo dentro), se
+          vuelve a leer ese directorio.
+    Los totales por subárbol se recalculan sumando, lo que es inmediato.
+
+    La fecha de un directorio NO cambia cuando se modifica un fichero que ya
+    existía, así que ese cambio de tamaño solo se ve con una pasada completa
+    (actualizar con completo = true) o con la vigilancia (vigilar), que con
+    WatchService invalida el directorio al recibir cualquier evento. Si el
+    sistema pierde eventos (OVERFLOW) no se sabe qué ha cambiado, y se invalida
+    el índice entero: la siguiente actualización es una pasada completa.
+
+    Formato del fichero (DataOutputStream):
+        "EXPI" versión nºdirectorios
+        por directorio: ruta fecha nºficheros {nombre tamaño fecha permisos}* nºsubdirectorios {nombre}*
+ */
+public class IndiceExplorador {
+    private static final int MAGICO = 0x45585049;   // "EXPI"
+    private static final int VERSION = 1;
+    private static final long SIN_FECHA = Long.MIN_VALUE;
+
+    private static final byte LECTURA = 1, ESCRITURA = 2;
+
+    private record Fichero(String nombre, long tamano, long fecha, byte permisos) {
+    }
+
+    private record Directorio(long fecha, List<Fichero> ficheros, List<String> subdirectorios) {
+    }
+
+    private volatile Map<String, Directorio> directorios = new ConcurrentHashMap<>();
+
+    // Directorios con eventos de la vigilancia pendientes de releer
+    private final Set<String> invalidados = ConcurrentHashMap.newKeySet();
+
+    // Eventos perdidos: la próxima actualización relee todos los directorios
+    private final AtomicBoolean todoInvalidado = new AtomicBoolean();
+
+    // Estadísticas de la última actualización
+    private final LongAdder releidos = new LongAdder();
+    private final LongAdder reutilizados = new LongAdder();
+
+    // === PERSISTENCIA ===
+
+    /**
+     * Carga el índice guardado; si no existe o es de otra versión empieza vacío
+     * (la primera actualización será una pasada completa).
+     */
+    public static IndiceExplorador cargar(Path fichero) throws IOException {
+        IndiceExplorador indice = new IndiceExplorador();
+        if (!Files.exists(fichero)) {
+            return indice;
+        }
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichero), 64 * 1024))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSION) {
+                return indice;
+            }
+            int numDirectorios = entrada.readInt();
+            for (int i = 0; i < numDirectorios; i++) {
+                String ruta = entrada.readUTF();
+                long fecha = entrada.readLong();
+                int numFicheros = entrada.readInt();
+                List<Fichero> ficheros = new ArrayList<>(numFicheros);
+                for (int j = 0; j < numFicheros; j++) {
+                    ficheros.add(new Fichero(entrada.readUTF(), entrada.readLong(), entrada.readLong(), entrada.readByte()));
+                }
+                int numSubdirectorios = entrada.readInt();
+                List<String> subdirectorios = new ArrayList<>(numSubdirectorios);
+                for (int j = 0; j < numSubdirectorios; j++) {
+                    subdirectorios.add(entrada.readUTF());
+                }
+                indice.directorios.put(ruta, new Directorio(fecha, ficheros, subdirectorios));
+            }
+        }
+        return indice;
+    }
+
+    // Se escribe en un temporal y se renombra: un corte a medias no deja un índice corrupto
+    public void guardar(Path fichero) throws IOException {
+        Path temporal = fichero.resolveSibling(fichero.getFileName() + ".tmp");
+        try (DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal), 64 * 1024))) {
+            Map<String, Directorio> actuales = directorios;
+            salida.writeInt(MAGICO);
+            salida.writeInt(VERSION);
+            salida.writeInt(actuales.size());
+            for (Map.Entry<String, Directorio> entrada : actuales.entrySet()) {
+                Directorio directorio = entrada.getValue();
+                salida.writeUTF(entrada.getKey());
+                salida.writeLong(directorio.fecha());
+                salida.writeInt(directorio.ficheros().size());
+                for (Fichero f : directorio.ficheros()) {
+                    salida.writeUTF(f.nombre());
+                    salida.writeLong(f.tamano());
+                    salida.writeLong(f.fecha());
+                    salida.writeByte(f.permisos());
+                }
+                salida.writeInt(directorio.subdirectorios().size());
+                for (String subdirectorio : directorio.subdirectorios()) {
+                    salida.writeUTF(subdirectorio);
+                }
+            }
+        }
+        Files.move(temporal, fichero, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // === ACTUALIZACIÓN ===
+
+    /**
+     * Pone el índice al día con el árbol y devuelve sus totales (con el detalle
+     * por subárbol hasta profundidadResumen, como RecorridoDirectorios).
+     * Con completo (o tras invalidarTodo) se releen todos los directorios.
+     */
+    public RecorridoDirectorios.Nodo actualizar(Path raiz, ForkJoinPool pool, int profundidadResumen, boolean completo) {
+        releidos.reset();
+        reutilizados.reset();
+        Map<String, Directorio> anteriores = directorios;
+        Map<String, Directorio> nuevos = new ConcurrentHashMap<>();
+        boolean releerTodo = todoInvalidado.getAndSet(false) || completo;
+
+        RecorridoDirectorios.Nodo nodo = pool.invoke(new Actualizacion(raiz.toAbsolutePath().normalize(), 0,
+                profundidadResumen, releerTodo ? Map.of() : anteriores, nuevos));
+
+        // Los directorios que ya no existen no se han copiado al nuevo mapa
+        directorios = nuevos;
+        return nodo;
+    }
+
+    public long directoriosReleidos() {
+        return releidos.sum();
+    }
+
+    public long directoriosReutilizados() {
+        return reutilizados.sum();
+    }
+
+    // Fuerza a releer el directorio en la próxima actualización
+    public void invalidar(Path directorio) {
+        invalidados.add(directorio.toAbsolutePath().normalize().toString());
+    }
+
+    // Fuerza a releer todos los directorios en la próxima actualización
+    public void invalidarTodo() {
+        todoInvalidado.set(true);
+    }
+
+    @SuppressWarnings("serial")
+    private class Actualizacion extends RecursiveTask<RecorridoDirectorios.Nodo> {
+        private final Path directorio;
+        private final int nivel, profundidadResumen;
+        private final Map<String, Directorio> anteriores, nuevos;
+
+        Actualizacion(Path directorio, int nivel, int profundidadResumen,
+                      Map<String, Directorio> anteriores, Map<String, Directorio> nuevos) {
+            this.directorio = directorio;
+            this.nivel = nivel;
+            this.profundidadResumen = profundidadResumen;
+            this.anteriores = anteriores;
+            this.nuevos = nuevos;
+        }
+
+        @Override
+        protected RecorridoDirectorios.Nodo compute() {
+            String ruta = directorio.toString();
+            Directorio actual;
+            try {
+                long fecha = Files.getLastModifiedTime(directorio, LinkOption.NOFOLLOW_LINKS).toMillis();
+                Directorio anterior = anteriores.get(ruta);
+                boolean invalidado = invalidados.remove(ruta);
+                if (anterior != null && anterior.fecha() == fecha && !invalidado) {
+                    actual = anterior;
+                    reutilizados.increment();
+                } else {
+                    actual = leer(fecha);
+                    releidos.increment();
+                }
+            } catch (NoSuchFileException e) {
+                // Borrado durante la pasada
+                return new RecorridoDirectorios.Nodo(directorio, RecorridoDirectorios.Totales.CERO, List.of());
+            } catch (IOException e) {
+                actual = new Directorio(SIN_FECHA, List.of(), List.of());
+            }
+            nuevos.put(ruta, actual);
+
+            long bytes = 0;
+            for (Fichero f : actual.ficheros()) {
+                bytes += f.tamano();
+            }
+
+            List<Actualizacion> subdirectorios = new ArrayList<>();
+            for (String nombre : actual.subdirectorios()) {
+                subdirectorios.add(new Actualizacion(directorio.resolve(nombre), nivel + 1, profundidadResumen,
+                        anteriores, nuevos));
+            }
+            invokeAll(subdirectorios);
+
+            RecorridoDirectorios.Totales totales =
+                    new RecorridoDirectorios.Totales(actual.ficheros().size(), actual.subdirectorios().size(), bytes);
+            List<RecorridoDirectorios.Nodo> hijos = new ArrayList<>();
+            for (Actualizacion subdirectorio : subdirectorios) {
+                RecorridoDirectorios.Nodo hijo = subdirectorio.join();
+                totales = totales.mas(hijo.totales());
+                if (nivel < profundidadResumen) {
+                    hijos.add(hijo);
+                }
+            }
+            return new RecorridoDirectorios.Nodo(directorio, totales, hijos);
+        }
+
+        private Directorio leer(long fecha) throws IOException {
+            List<Fichero> ficheros = new ArrayList<>();
+            List<String> subdirectorios = new ArrayList<>();
+            try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio)) {
+                for (Path ruta : contenido) {
+                    Atributos atributos;
+                    try {
+                        atributos = Atributos.leer(ruta);
+                    } catch (IOException e) {
+                        continue;
+                    }
+                    String nombre = ruta.getFileName().toString();
+                    if (atributos.directorio()) {
+                        subdirectorios.add(nombre);
+                    } else {
+                        byte permisos = (byte) ((atributos.lectura() ? LECTURA : 0) | (atributos.escritura() ? ESCRITURA : 0));
+                        ficheros.add(new Fichero(nombre, atributos.tamano(), atributos.fechaModificacion(), permisos));
+                    }
+                }
+            }
+            return new Directorio(fecha, ficheros, subdirectorios);
+        }
+    }
+
+    // === VIGILANCIA ===
+
+    /**
+     * Registra todos los directorios del índice en un WatchService e invalida
+     * cada directorio en el que ocurre algo (también la modificación de un
+     * fichero, que no cambia la fecha del directorio). Con OVERFLOW se han
+     * perdido eventos: se invalida todo el índice y se vuelven a registrar los
+     * directorios del árbol, por si se crearon subdirectorios entre los
+     * eventos perdidos. Bloquea hasta que se
+     * cierra el WatchService o se interrumpe el hilo: lanzarlo en un hilo aparte.
+     * Ojo: en Linux cada directorio consume un "inotify watch" (límite del sistema).
+     */
+    public void vigilar(WatchService vigilante) throws IOException {
+        for (String ruta : directorios.keySet()) {
+            registrar(vigilante, Path.of(ruta));
+        }
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey clave = vigilante.take();
+                Path directorio = (Path) clave.watchable();
+                for (WatchEvent<?> evento : clave.pollEvents()) {
+                    if (evento.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Llega a todas las claves a la vez: se registra el árbol una sola vez
+                        if (todoInvalidado.compareAndSet(false, true)) {
+                            registrarArbol(vigilante);
+                        }
+                        continue;
+                    }
+                    invalidar(directorio);
+                    if (evento.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                        Path creado = directorio.resolve((Path) evento.context());
+                        if (Files.isDirectory(creado, LinkOption.NOFOLLOW_LINKS)) {
+                            registrar(vigilante, creado);
+                        }
+                    }
+                }
+                clave.reset();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Fin de la vigilancia
+        }
+    }
+
+    // Registra todos los directorios que hay bajo las raíces del índice (los que no tienen al padre en él)
+    private void registrarArbol(WatchService vigilante) {
+        Set<String> rutas = directorios.keySet();
+        for (String ruta : rutas) {
+            Path padre = Path.of(ruta).getParent();
+            if (padre != null && rutas.contains(padre.toString())) {
+                continue;
+            }
+            try {
+                Files.walkFileTree(Path.of(ruta), new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path directorio, BasicFileAttributes atributos) {
+                        registrar(vigilante, directorio);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path fichero, IOException e) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                // Raíz borrada entre tanto: lo verá la próxima actualización
+            }
+        }
+    }
+
+    private static void registrar(WatchService vigilante, Path directorio) {
+        try {
+            directorio.register(vigilante, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            // Directorio borrado entre tanto: lo verá la próxima actualización
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.dam.tema2.claude;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+    Motor de copia de ficheros con varias estrategias:
+
+    FLUJO           FileInputStream/FileOutputStream con un byte[] del tamaño de bloque
+                    (con 1024 es la copia del enunciado de CopiadorBinario).
+    TRANSFER_TO     FileChannel.transferTo: el sistema copia sin pasar los datos
+                    por la memoria de Java (sendfile/copy_file_range en Linux).
+    PROYECTADO      el origen se proyecta en memoria (mmap) por ventanas del tamaño
+                    de bloque y cada ventana se escribe en el canal destino.
+    BUFFER_DIRECTO  FileChannel.read/write con un ByteBuffer directo (fuera del heap,
+                    sin copia intermedia en cada llamada al sistema).
+
+    El progreso se notifica tras cada bloque y al terminar se comprueba que el
+    destino tiene el mismo tamaño que el origen. Antes de abrir nada se
+    rechaza un destino que sea el propio origen: al abrirlo para escribir se
+    vaciaría antes de leer un solo byte.
+ */
+public class MotorCopia {
+
+    public enum Estrategia {FLUJO, TRANSFER_TO, PROYECTADO, BUFFER_DIRECTO}
+
+    public interface Progreso {
+        void avance(long copiados, long total);
+    }
+
+    public record Resultado(long bytesOrigen, long bytesDestino, long nanos) {
+        public double kbPorSegundo() {
+            return nanos == 0 ? 0 : bytesDestino / 1024.0 / (nanos / 1e9);
+        }
+    }
+
+    public static Resultado copiar(Path origen, Path destino, Estrategia estrategia, int tamanoBloque,
+                                   Progreso progreso) throws IOException {
+        if (tamanoBloque <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo: " + tamanoBloque);
+        }
+        comprobarDistintos(origen, destino);
+        long total = Files.size(origen);
+        long inicio = System.nanoTime();
+
+        switch (estrategia) {
+            case FLUJO -> copiarFlujo(origen, destino, tamanoBloque, total, progreso);
+            case TRANSFER_TO -> copiarTransferTo(origen, destino, tamanoBloque, total, progreso);
+            case PROYECTADO -> copiarProyectado(origen, destino, tamanoBloque, total, progreso);
+            case BUFFER_DIRECTO -> copiarBufferDirecto(origen, destino, tamanoBloque, total, progreso);
+        }
+
+        long nanos = System.nanoTime() - inicio;
+        long copiado = Files.size(destino);
+        if (copiado != total) {
+            throw new IOException("Tamaño distinto tras la copia: origen " + total + " bytes, destino " + copiado + " bytes");
+        }
+        return new Resultado(total, copiado, nanos);
+    }
+
+    // El mismo fichero también con otra ruta (relativa, enlaces...)
+    public static void comprobarDistintos(Path origen, Path destino) throws IOException {
+        if (Files.exists(destino) && Files.isSameFile(origen, destino)) {
+            throw new IOException("El destino " + destino + " es el mismo fichero que el origen");
+        }
+    }
+
+    private static void copiarFlujo(Path origen, Path destino, int tamanoBloque, long total, Progreso progreso)
+            throws IOException {
+        try (InputStream entrada = new FileInputStream(origen.toFile());
+             OutputStream salida = new FileOutputStream(destino.toFile())) {
+            byte[] buffer = new byte[tamanoBloque];
+            long copiados = 0;
+            int leidos;
+            while ((leidos = entrada.read(buffer)) != -1) {
+                salida.write(buffer, 0, leidos);
+                copiados += leidos;
+                progreso.avance(copiados, total);
+            }
+        }
+    }
+
+    private static void copiarTransferTo(Path origen, Path destino, int tamanoBloque, long total, Progreso progreso)
+            throws IOException {
+        try (FileChannel entrada = FileChannel.open(origen, StandardOpenOption.READ);
+             FileChannel salida = abrirDestino(destino)) {
+            long copiados = 0;
+            while (copiados < total) {
+                // transferTo puede copiar menos de lo pedido
+                long n = entrada.transferTo(copiados, Math.min(tamanoBloque, total - copiados), salida);
+                if (n <= 0) {
+                    throw new IOException("transferTo no avanza en el byte " + copiados);
+                }
+                copiados += n;
+                progreso.avance(copiados, total);
+            }
+        }
+    }
+
+    private static void copiarProyectado(Path origen, Path destino, int tamanoBloque, long total, Progreso progreso)
+            throws IOException {
+        try (FileChannel entrada = FileChannel.open(origen, StandardOpenOption.READ);
+             FileChannel salida = abrirDestino(destino)) {
+            long copiados = 0;
+            while (copiados < total) {
+                long ventana = Math.min(tamanoBloque, total - copiados);
+                MappedByteBuffer mapa = entrada.map(FileChannel.MapMode.READ_ONLY, copiados, ventana);
+                while (mapa.hasRemaining()) {
+                    salida.write(mapa);
+                }
+                copiados += ventana;
+                progreso.avance(copiados, total);
+            }
+        }
+    }
+
+    private static void copiarBufferDirecto(Path origen, Path destino, int tamanoBloque, long total, Progreso progreso)
+            throws IOException {
+        try (FileChannel entrada = FileChannel.open(origen, StandardOpenOption.READ);
+             FileChannel salida = abrirDestino(destino)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(tamanoBloque);
+            long copiados = 0;
+            while (entrada.read(buffer) != -1) {
+                buffer.flip();
+                copiados += buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    salida.write(buffer);
+                }
+                buffer.clear();
+                progreso.avance(copiados, total);
+            }
+        }
+    }
+
+    private static FileChannel abrirDestino(Path destino) throws IOException {
+        return FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
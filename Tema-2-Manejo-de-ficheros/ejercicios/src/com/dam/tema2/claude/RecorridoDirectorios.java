@@ -0,0 +1,153 @@
+package com.dam.tema2.claude;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    Recorrido en paralelo de un árbol de directorios con totales por subárbol.
+
+    - Cada directorio se lee con un DirectoryStream y de cada entrada se piden
+      sus Atributos en una sola llamada (tipo, tamaño y permisos juntos), en
+      lugar de un isDirectory(), length(), isReadable()... por dato.
+    - Cada subdirectorio es una tarea fork-join; el pool puede tener más hilos
+      que núcleos, porque en discos de red casi todo el tiempo es espera.
+    - Los totales (ficheros, carpetas, bytes) de cada subárbol se suman al
+      volver de sus subdirectorios, así que el total de la raíz incluye todo.
+    - Los enlaces simbólicos no se siguen (se cuentan como ficheros).
+
+    El visitante recibe cada directorio con todas sus entradas de una vez, desde
+    el hilo que lo ha leído: debe ser thread-safe. Mientras tanto se pueden
+    consultar los contadores (ficherosVistos...) para mostrar el avance.
+ */
+public class RecorridoDirectorios {
+
+    public interface Visitante {
+        void directorio(Path directorio, int nivel, List<Entrada> entradas);
+    }
+
+    public record Entrada(Path ruta, Atributos atributos) {
+    }
+
+    public record Totales(long ficheros, long carpetas, long bytes) {
+        public static final Totales CERO = new Totales(0, 0, 0);
+
+        public Totales mas(Totales otro) {
+            return new Totales(ficheros + otro.ficheros, carpetas + otro.carpetas, bytes + otro.bytes);
+        }
+
+        public double megas() {
+            return bytes / (1024.0 * 1024.0);
+        }
+    }
+
+    // Totales del subárbol; hijos solo hasta la profundidad de resumen pedida
+    public record Nodo(Path ruta, Totales totales, List<Nodo> hijos) {
+    }
+
+    private static final Visitante SIN_VISITANTE = (directorio, nivel, entradas) -> {
+    };
+
+    private final ForkJoinPool pool;
+    private final int profundidadResumen;
+    private final Visitante visitante;
+
+    private final LongAdder ficherosVistos = new LongAdder();
+    private final LongAdder carpetasVistas = new LongAdder();
+    private final LongAdder bytesVistos = new LongAdder();
+    private final List<String> errores = Collections.synchronizedList(new ArrayList<>());
+
+    public RecorridoDirectorios(ForkJoinPool pool, int profundidadResumen, Visitante visitante) {
+        this.pool = pool;
+        this.profundidadResumen = profundidadResumen;
+        this.visitante = visitante == null ? SIN_VISITANTE : visitante;
+    }
+
+    public Nodo recorrer(Path raiz) {
+        return pool.invoke(new Recorrido(raiz.toAbsolutePath().normalize(), 0));
+    }
+
+    // === AVANCE ===
+
+    public long ficherosVistos() {
+        return ficherosVistos.sum();
+    }
+
+    public long carpetasVistas() {
+        return carpetasVistas.sum();
+    }
+
+    public long bytesVistos() {
+        return bytesVistos.sum();
+    }
+
+    // Directorios o entradas que no se han podido leer
+    public List<String> errores() {
+        return List.copyOf(errores);
+    }
+
+    @SuppressWarnings("serial")
+    private class Recorrido extends RecursiveTask<Nodo> {
+        private final Path directorio;
+        private final int nivel;
+
+        Recorrido(Path directorio, int nivel) {
+            this.directorio = directorio;
+            this.nivel = nivel;
+        }
+
+        @Override
+        protected Nodo compute() {
+            List<Entrada> entradas = new ArrayList<>();
+            List<Recorrido> subdirectorios = new ArrayList<>();
+            long ficheros = 0;
+            long bytes = 0;
+
+            try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio)) {
+                for (Path ruta : contenido) {
+                    Atributos atributos;
+                    try {
+                        atributos = Atributos.leer(ruta);
+                    } catch (IOException e) {
+                        errores.add(ruta + ": " + e);
+                        continue;
+                    }
+                    entradas.add(new Entrada(ruta, atributos));
+                    if (atributos.directorio()) {
+                        subdirectorios.add(new Recorrido(ruta, nivel + 1));
+                    } else {
+                        ficheros++;
+                        bytes += atributos.tamano();
+                    }
+                }
+            } catch (IOException e) {
+                errores.add(directorio + ": " + e);
+            }
+
+            ficherosVistos.add(ficheros);
+            carpetasVistas.add(subdirectorios.size());
+            bytesVistos.add(bytes);
+            visitante.directorio(directorio, nivel, entradas);
+
+            // Subdirectorios en paralelo y totales acumulados al volver
+            invokeAll(subdirectorios);
+            Totales totales = new Totales(ficheros, subdirectorios.size(), bytes);
+            List<Nodo> hijos = new ArrayList<>();
+            for (Recorrido subdirectorio : subdirectorios) {
+                Nodo hijo = subdirectorio.join();
+                totales = totales.mas(hijo.totales());
+                if (nivel < profundidadResumen) {
+                    hijos.add(hijo);
+                }
+            }
+            return new Nodo(directorio, totales, hijos);
+        }
+    }
+}
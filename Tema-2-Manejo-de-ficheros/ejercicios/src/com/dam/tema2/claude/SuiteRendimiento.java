@@ -0,0 +1,206 @@
+package com.dam.tema2.claude;
+
+import Benchmark.Banco;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Suite de rendimiento de Explorador y CopiadorBinario sobre datos generados
+    con semilla, para seguir las regresiones entre versiones:
+        recorrido     recorrido completo de un árbol (GeneradorArbol) con RecorridoDirectorios
+        copiaBinaria  copia de un fichero aleatorio con cada estrategia de MotorCopia
+    Cada prueba se mide con Banco.
+
+    Los árboles y el fichero de copia se generan la primera vez en el
+    directorio de datos y se reutilizan después (el nombre lleva los parámetros
+    y la semilla). Tras la primera iteración el árbol suele estar en la caché
+    del sistema, así que recorrido mide sobre todo las llamadas al sistema, no
+    el disco.
+
+    Uso: SuiteRendimiento [opciones]
+        --ficheros=1000,100000  ficheros de cada árbol (hasta millones)
+        --tamano=4096           tamaño medio de los ficheros del árbol en bytes
+        --copia=64              MB del fichero de copia
+        --bloque=65536          tamaño de bloque de la copia
+        --hilos=N               hilos del recorrido (por defecto, los núcleos)
+        --datos=directorio      donde se guardan los datos generados (por defecto datos-rendimiento)
+        --semilla=42
+        --calentamiento=3 --iteraciones=5 --tiempo=1000 (ms por iteración)
+        --resultados=fichero    JSON con el formato de JMH (por defecto rendimiento-ficheros.json)
+        --comparar=fichero      resultados anteriores; termina con código 1 si hay regresiones
+        --umbral=10             % a partir del cual un empeoramiento es regresión
+        --pruebas=recorrido,... solo esas pruebas
+ */
+public class SuiteRendimiento {
+    private static final Set<String> PRUEBAS = Set.of("recorrido", "copiaBinaria");
+    private static final MotorCopia.Progreso SIN_PROGRESO = (copiados, total) -> {
+    };
+
+    public static void main(String[] args) throws Exception {
+        List<Long> ficheros = new ArrayList<>(List.of(1_000L, 100_000L));
+        int tamano = 4096;
+        long megasCopia = 64;
+        int bloque = 64 * 1024;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        Path datos = Path.of("datos-rendimiento");
+        long semilla = 42;
+        int calentamiento = 3, iteraciones = 5;
+        long tiempo = 1000;
+        Path resultados = Path.of("rendimiento-ficheros.json");
+        Path base = null;
+        double umbral = 10;
+        Set<String> pruebas = PRUEBAS;
+        for (String arg : args) {
+            String valor = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--ficheros=")) {
+                ficheros.clear();
+                for (String n : valor.split(",")) {
+                    ficheros.add(Long.parseLong(n.trim().replace("_", "")));
+                }
+            } else if (arg.startsWith("--tamano=")) {
+                tamano = Integer.parseInt(valor);
+            } else if (arg.startsWith("--copia=")) {
+                megasCopia = Long.parseLong(valor);
+            } else if (arg.startsWith("--bloque=")) {
+                bloque = Integer.parseInt(valor);
+            } else if (arg.startsWith("--hilos=")) {
+                hilos = Integer.parseInt(valor);
+            } else if (arg.startsWith("--datos=")) {
+                datos = Path.of(valor);
+            } else if (arg.startsWith("--semilla=")) {
+                semilla = Long.parseLong(valor);
+            } else if (arg.startsWith("--calentamiento=")) {
+                calentamiento = Integer.parseInt(valor);
+            } else if (arg.startsWith("--iteraciones=")) {
+                iteraciones = Integer.parseInt(valor);
+            } else if (arg.startsWith("--tiempo=")) {
+                tiempo = Long.parseLong(valor);
+            } else if (arg.startsWith("--resultados=")) {
+                resultados = Path.of(valor);
+            } else if (arg.startsWith("--comparar=")) {
+                base = Path.of(valor);
+            } else if (arg.startsWith("--umbral=")) {
+                umbral = Double.parseDouble(valor);
+            } else if (arg.startsWith("--pruebas=")) {
+                pruebas = Set.of(valor.split(","));
+                if (!PRUEBAS.containsAll(pruebas)) {
+                    throw new IllegalArgumentException("Pruebas conocidas: " + PRUEBAS);
+                }
+            } else {
+                throw new IllegalArgumentException("Opción desconocida: " + arg);
+            }
+        }
+
+        Files.createDirectories(datos);
+        Banco banco = new Banco("ficheros", calentamiento, iteraciones, tiempo);
+
+        if (pruebas.contains("recorrido")) {
+            ForkJoinPool pool = new ForkJoinPool(hilos);
+            try {
+                for (long n : ficheros) {
+                    Path raiz = datos.resolve("arbol-" + n + "-" + tamano + "-" + semilla);
+                    GeneradorArbol.Resumen esperado = arbol(raiz, n, tamano, semilla);
+                    Map<String, String> parametros = new LinkedHashMap<>();
+                    parametros.put("ficheros", Long.toString(n));
+                    parametros.put("tamano", Integer.toString(tamano));
+                    parametros.put("hilos", Integer.toString(hilos));
+                    parametros.put("semilla", Long.toString(semilla));
+                    System.err.printf("recorrido (%,d ficheros)...%n", n);
+                    banco.medir("recorrido", parametros, TimeUnit.MILLISECONDS, () -> {
+                        RecorridoDirectorios.Totales totales =
+                                new RecorridoDirectorios(pool, 0, null).recorrer(raiz).totales();
+                        if (totales.ficheros() != esperado.ficheros() || totales.carpetas() != esperado.carpetas()
+                                || totales.bytes() != esperado.bytes()) {
+                            throw new IllegalStateException("El recorrido de " + raiz + " no cuadra: " + totales
+                                    + ", se esperaba " + esperado);
+                        }
+                        return totales;
+                    });
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        if (pruebas.contains("copiaBinaria")) {
+            long bytes = megasCopia * 1024 * 1024;
+            Path origen = datos.resolve("copia-" + megasCopia + "MB-" + semilla + ".bin");
+            if (Files.notExists(origen)) {
+                crearFichero(origen, bytes, semilla);
+            }
+            Path destino = datos.resolve("copia-destino.bin");
+            try {
+                for (MotorCopia.Estrategia estrategia : MotorCopia.Estrategia.values()) {
+                    Map<String, String> parametros = new LinkedHashMap<>();
+                    parametros.put("estrategia", estrategia.name());
+                    parametros.put("megas", Long.toString(megasCopia));
+                    parametros.put("bloque", Integer.toString(bloque));
+                    System.err.printf("copiaBinaria (%s)...%n", estrategia);
+                    int tamanoBloque = bloque;
+                    banco.medir("copiaBinaria", parametros, TimeUnit.MILLISECONDS, bytes,
+                            () -> MotorCopia.copiar(origen, destino, estrategia, tamanoBloque, SIN_PROGRESO));
+                    if (Files.mismatch(origen, destino) != -1) {
+                        throw new IllegalStateException(estrategia + " no copia el fichero correctamente");
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(destino);
+            }
+        }
+
+        System.out.println();
+        Banco.escribirTabla(banco.getResultados(), System.out);
+        banco.guardar(resultados);
+        System.out.println("\nResultados guardados en " + resultados);
+        if (base != null && banco.comparar(base, umbral, System.out) > 0) {
+            System.exit(1);
+        }
+    }
+
+    /*
+        Genera el árbol si no existe. Se genera en un directorio .tmp que se
+        renombra al terminar, así que un árbol que existe está completo y basta
+        con volver a calcular su resumen (misma semilla, mismos números).
+     */
+    private static GeneradorArbol.Resumen arbol(Path raiz, long ficheros, int tamano, long semilla)
+            throws IOException {
+        if (Files.exists(raiz)) {
+            ForkJoinPool pool = new ForkJoinPool(1);
+            try {
+                RecorridoDirectorios.Totales totales = new RecorridoDirectorios(pool, 0, null).recorrer(raiz).totales();
+                return new GeneradorArbol.Resumen(totales.ficheros(), totales.carpetas(), totales.bytes());
+            } finally {
+                pool.shutdown();
+            }
+        }
+        System.err.printf("Generando %s...%n", raiz);
+        Path temporal = raiz.resolveSibling(raiz.getFileName() + ".tmp");
+        GeneradorArbol.Resumen resumen = GeneradorArbol.generar(temporal, ficheros, 100, 10, tamano, semilla);
+        Files.move(temporal, raiz);
+        return resumen;
+    }
+
+    private static void crearFichero(Path fichero, long bytes, long semilla) throws IOException {
+        Random aleatorio = new Random(semilla);
+        byte[] bloque = new byte[1024 * 1024];
+        Path temporal = fichero.resolveSibling(fichero.getFileName() + ".tmp");
+        try (OutputStream salida = Files.newOutputStream(temporal)) {
+            for (long escritos = 0; escritos < bytes; escritos += bloque.length) {
+                aleatorio.nextBytes(bloque);
+                salida.write(bloque, 0, (int) Math.min(bloque.length, bytes - escritos));
+            }
+        }
+        Files.move(temporal, fichero);
+    }
+}
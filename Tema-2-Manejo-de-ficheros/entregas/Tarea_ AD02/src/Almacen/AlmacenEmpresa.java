@@ -0,0 +1,87 @@
+package Almacen;
+
+/*
+    Las tablas EMPLE y DEPART de DepartamentosEmpleados.xml guardadas como
+    ficheros de registros fijos (AlmacenRegistros) en un directorio:
+        <directorio>/EMPLE.alm     clave EMP_NO
+        <directorio>/DEPART.alm    clave DEPT_NO
+
+    Se importan una vez desde el XML y a partir de ahí cada consulta por clave
+    lee un registro del fichero proyectado, sin volver a analizar el XML.
+
+    Uso:
+        try (AlmacenEmpresa almacen = new AlmacenEmpresa(Path.of("datos"))) {
+            almacen.importar(Path.of("DepartamentosEmpleados.xml"), System.err);
+            FilaEmpleado e = almacen.empleados().leer(7369);
+        }
+ */
+
+import Comun.LectorStAX;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class AlmacenEmpresa implements Closeable {
+    private final AlmacenRegistros<FilaEmpleado> empleados;
+    private final AlmacenRegistros<FilaDepartamento> departamentos;
+
+    public AlmacenEmpresa(Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        empleados = new AlmacenRegistros<>(directorio.resolve("EMPLE.alm"), FilaEmpleado.FORMATO);
+        try {
+            departamentos = new AlmacenRegistros<>(directorio.resolve("DEPART.alm"), FilaDepartamento.FORMATO);
+        } catch (IOException e) {
+            empleados.close();
+            throw e;
+        }
+    }
+
+    public AlmacenRegistros<FilaEmpleado> empleados() {
+        return empleados;
+    }
+
+    public AlmacenRegistros<FilaDepartamento> departamentos() {
+        return departamentos;
+    }
+
+    /**
+     * Añade los DEP_ROW y EMP_ROW del XML. Con claves repetidas (en el XML o ya
+     * en el almacén) se conserva el primer registro y se avisa por {@code avisos}.
+     * Devuelve el número de registros añadidos.
+     */
+    public int importar(Path xml, PrintStream avisos) throws IOException, XMLStreamException {
+        int[] anadidos = {0};
+        LectorStAX.recorrerFilas(xml, "DEP_ROW", FilaDepartamento.CAMPOS, valores -> {
+            FilaDepartamento departamento = FilaDepartamento.desdeTexto(valores);
+            if (departamentos.insertar(departamento)) {
+                anadidos[0]++;
+            } else {
+                avisos.println("Departamento repetido, se ignora: DEPT_NO=" + departamento.numero());
+            }
+        });
+        LectorStAX.recorrerFilas(xml, "EMP_ROW", FilaEmpleado.CAMPOS, valores -> {
+            FilaEmpleado empleado = FilaEmpleado.desdeTexto(valores);
+            if (empleados.insertar(empleado)) {
+                anadidos[0]++;
+            } else {
+                avisos.println("Empleado repetido, se ignora: EMP_NO=" + empleado.numero());
+            }
+        });
+        empleados.sincronizar();
+        departamentos.sincronizar();
+        return anadidos[0];
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            empleados.close();
+        } finally {
+            departamentos.close();
+        }
+    }
+}
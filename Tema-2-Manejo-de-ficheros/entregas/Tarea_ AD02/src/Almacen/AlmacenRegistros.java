@@ -0,0 +1,241 @@
+package Almacen;
+
+/*
+    Fichero de registros de longitud fija con acceso directo por clave primaria.
+
+    Estructura del fichero:
+        cabecera (CABECERA bytes): "ALMR", versión, tamaño de registro, nº de ranuras usadas
+        ranura i en CABECERA + i * (1 + tamaño): byte de estado + datos del registro
+    El estado es VIVO o BORRADO: los borrados son lápidas (la ranura no se
+    reutiliza; el registro desaparece del índice y de los recorridos).
+
+    El fichero se abre con RandomAccessFile y se proyecta entero en memoria
+    (MappedByteBuffer): leer o actualizar un registro es acceder a su posición,
+    sin llamadas al sistema. Al llenarse, el fichero dobla su tamaño y se vuelve
+    a proyectar. El índice clave -> ranura (IndiceHash) está fuera del heap y se
+    reconstruye al abrir recorriendo las ranuras.
+
+    Los oyentes (p. ej. los índices secundarios de IndicesEmpleados) reciben
+    cada alta, cambio y baja con su ranura, dentro del cerrojo del almacén.
+
+    Límite: la proyección es un único MappedByteBuffer, hasta 2 GB por fichero.
+    Los métodos están sincronizados: se puede compartir entre hilos.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+public class AlmacenRegistros<T> implements Closeable {
+
+    public interface Oyente<T> {
+        void insertado(int ranura, T registro);
+
+        void actualizado(int ranura, T anterior, T nuevo);
+
+        void borrado(int ranura, T registro);
+    }
+
+    private static final int MAGICO = 0x414C4D52;   // "ALMR"
+    private static final int VERSION = 1;
+    private static final int CABECERA = 16;
+    private static final int RANURAS_INICIALES = 1024;
+
+    private static final byte VIVO = 1;
+    private static final byte BORRADO = 2;
+
+    private final Formato<T> formato;
+    private final int tamanoRanura;
+    // actualizar() codifica aquí primero: si el formato rechaza un campo, la ranura no se toca
+    private final ByteBuffer borrador;
+    private final RandomAccessFile fichero;
+    private final FileChannel canal;
+    private MappedByteBuffer mapa;
+
+    private int capacidad;          // Ranuras que caben en la proyección actual
+    private int ranurasUsadas;      // Vivas + lápidas
+    private int vivos;
+    private final IndiceHash indice;
+    private final List<Oyente<T>> oyentes = new CopyOnWriteArrayList<>();
+
+    public AlmacenRegistros(Path ruta, Formato<T> formato) throws IOException {
+        this.formato = formato;
+        this.tamanoRanura = 1 + formato.tamano();
+        this.borrador = ByteBuffer.allocate(formato.tamano());
+        this.fichero = new RandomAccessFile(ruta.toFile(), "rw");
+        this.canal = fichero.getChannel();
+
+        if (fichero.length() == 0) {
+            proyectar(RANURAS_INICIALES);
+            mapa.putInt(0, MAGICO);
+            mapa.putInt(4, VERSION);
+            mapa.putInt(8, formato.tamano());
+            mapa.putInt(12, 0);
+        } else {
+            proyectar((int) ((fichero.length() - CABECERA) / tamanoRanura));
+            if (mapa.getInt(0) != MAGICO || mapa.getInt(4) != VERSION || mapa.getInt(8) != formato.tamano()) {
+                close();
+                throw new IOException(ruta + " no es un almacén de registros de " + formato.tamano() + " bytes");
+            }
+            ranurasUsadas = mapa.getInt(12);
+        }
+
+        indice = new IndiceHash(Math.max(ranurasUsadas, RANURAS_INICIALES));
+        for (int ranura = 0; ranura < ranurasUsadas; ranura++) {
+            if (mapa.get(posicion(ranura)) == VIVO) {
+                indice.insertar(formato.clave(formato.leer(mapa, posicion(ranura) + 1)), ranura);
+                vivos++;
+            }
+        }
+    }
+
+    private void proyectar(int ranuras) throws IOException {
+        long tamano = CABECERA + (long) ranuras * tamanoRanura;
+        if (tamano > Integer.MAX_VALUE) {
+            throw new IOException("El almacén supera los 2 GB de una proyección");
+        }
+        fichero.setLength(Math.max(fichero.length(), tamano));
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+        capacidad = ranuras;
+    }
+
+    private int posicion(int ranura) {
+        return CABECERA + ranura * tamanoRanura;
+    }
+
+    // === OPERACIONES ===
+
+    /**
+     * Añade el registro al final. Devuelve false (y no escribe nada) si ya hay
+     * uno vivo con la misma clave.
+     */
+    public synchronized boolean insertar(T registro) throws IOException {
+        int clave = formato.clave(registro);
+        if (indice.buscar(clave) >= 0) {
+            return false;
+        }
+        if (ranurasUsadas == capacidad) {
+            mapa.force();
+            proyectar(capacidad * 2);
+        }
+        int ranura = ranurasUsadas;
+        formato.escribir(registro, mapa, posicion(ranura) + 1);
+        mapa.put(posicion(ranura), VIVO);
+        ranurasUsadas++;
+        mapa.putInt(12, ranurasUsadas);
+        indice.insertar(clave, ranura);
+        vivos++;
+        for (Oyente<T> oyente : oyentes) {
+            oyente.insertado(ranura, registro);
+        }
+        return true;
+    }
+
+    // Registro con esa clave o null
+    public synchronized T leer(int clave) {
+        int ranura = indice.buscar(clave);
+        return ranura < 0 ? null : formato.leer(mapa, posicion(ranura) + 1);
+    }
+
+    /**
+     * Sobrescribe en su sitio el registro con la misma clave. Devuelve false si no existe.
+     * Si el formato lo rechaza (p. ej. un texto demasiado largo) no cambia nada.
+     */
+    public synchronized boolean actualizar(T registro) {
+        int ranura = indice.buscar(formato.clave(registro));
+        if (ranura < 0) {
+            return false;
+        }
+        formato.escribir(registro, borrador, 0);
+        T anterior = oyentes.isEmpty() ? null : formato.leer(mapa, posicion(ranura) + 1);
+        mapa.put(posicion(ranura) + 1, borrador, 0, formato.tamano());
+        for (Oyente<T> oyente : oyentes) {
+            oyente.actualizado(ranura, anterior, registro);
+        }
+        return true;
+    }
+
+    // Marca el registro como borrado (lápida). Devuelve false si no existía
+    public synchronized boolean borrar(int clave) {
+        int ranura = indice.buscar(clave);
+        if (ranura < 0) {
+            return false;
+        }
+        mapa.put(posicion(ranura), BORRADO);
+        indice.eliminar(clave);
+        vivos--;
+        for (Oyente<T> oyente : oyentes) {
+            oyente.borrado(ranura, formato.leer(mapa, posicion(ranura) + 1));
+        }
+        return true;
+    }
+
+    // Registros vivos en orden de inserción
+    public synchronized void recorrer(Consumer<T> consumidor) {
+        for (int ranura = 0; ranura < ranurasUsadas; ranura++) {
+            if (mapa.get(posicion(ranura)) == VIVO) {
+                consumidor.accept(formato.leer(mapa, posicion(ranura) + 1));
+            }
+        }
+    }
+
+    // Igual, con la ranura de cada registro
+    public synchronized void recorrerRanuras(ObjIntConsumer<T> consumidor) {
+        for (int ranura = 0; ranura < ranurasUsadas; ranura++) {
+            if (mapa.get(posicion(ranura)) == VIVO) {
+                consumidor.accept(formato.leer(mapa, posicion(ranura) + 1), ranura);
+            }
+        }
+    }
+
+    // Registro de la ranura o null si está borrado o no existe
+    public synchronized T leerRanura(int ranura) {
+        if (ranura < 0 || ranura >= ranurasUsadas || mapa.get(posicion(ranura)) != VIVO) {
+            return null;
+        }
+        return formato.leer(mapa, posicion(ranura) + 1);
+    }
+
+    public void agregarOyente(Oyente<T> oyente) {
+        oyentes.add(oyente);
+    }
+
+    public void quitarOyente(Oyente<T> oyente) {
+        oyentes.remove(oyente);
+    }
+
+    // Vivas + lápidas: las ranuras van de 0 a numRanuras() - 1
+    public synchronized int numRanuras() {
+        return ranurasUsadas;
+    }
+
+    public synchronized int numRegistros() {
+        return vivos;
+    }
+
+    public synchronized int numLapidas() {
+        return ranurasUsadas - vivos;
+    }
+
+    // Fuerza la escritura a disco de los cambios
+    public synchronized void sincronizar() {
+        mapa.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (mapa != null) {
+            mapa.force();
+        }
+        canal.close();
+        fichero.close();
+    }
+}
@@ -0,0 +1,97 @@
+package Almacen;
+
+/*
+    Una operación del diario de EmpresaDiario. Todas dejan un estado fijo
+    (guardar = insertar o reemplazar entero, borrar = quitar), así que aplicar
+    dos veces la misma secuencia de cambios da el mismo resultado que una:
+    la recuperación puede repetir segmentos ya incluidos en la instantánea.
+
+    Formato en el diario (DataOutput): tipo (byte) y después
+        GUARDAR_EMPLEADO      campos de FilaEmpleado (textos con writeUTF)
+        BORRAR_EMPLEADO       EMP_NO
+        GUARDAR_DEPARTAMENTO  DEPT_NO, DNOMBRE, LOC
+        BORRAR_DEPARTAMENTO   DEPT_NO
+    tamano() es lo que ocupa ese formato, sin escribirlo: DiarioCambios lo usa
+    para rechazar los cambios que no caben en un marco.
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public record Cambio(Tipo tipo, FilaEmpleado empleado, FilaDepartamento departamento, int clave) {
+
+    public enum Tipo {GUARDAR_EMPLEADO, BORRAR_EMPLEADO, GUARDAR_DEPARTAMENTO, BORRAR_DEPARTAMENTO}
+
+    public static Cambio guardar(FilaEmpleado empleado) {
+        return new Cambio(Tipo.GUARDAR_EMPLEADO, empleado, null, empleado.numero());
+    }
+
+    public static Cambio borrarEmpleado(int numero) {
+        return new Cambio(Tipo.BORRAR_EMPLEADO, null, null, numero);
+    }
+
+    public static Cambio guardar(FilaDepartamento departamento) {
+        return new Cambio(Tipo.GUARDAR_DEPARTAMENTO, null, departamento, departamento.numero());
+    }
+
+    // Borra también los empleados del departamento
+    public static Cambio borrarDepartamento(int numero) {
+        return new Cambio(Tipo.BORRAR_DEPARTAMENTO, null, null, numero);
+    }
+
+    void escribir(DataOutput salida) throws IOException {
+        salida.writeByte(tipo.ordinal());
+        switch (tipo) {
+            case GUARDAR_EMPLEADO -> {
+                salida.writeInt(empleado.numero());
+                salida.writeUTF(empleado.apellido());
+                salida.writeUTF(empleado.oficio());
+                salida.writeInt(empleado.dir());
+                salida.writeInt(empleado.fechaAlta());
+                salida.writeLong(empleado.salario());
+                salida.writeLong(empleado.comision());
+                salida.writeInt(empleado.departamento());
+            }
+            case GUARDAR_DEPARTAMENTO -> {
+                salida.writeInt(departamento.numero());
+                salida.writeUTF(departamento.nombre());
+                salida.writeUTF(departamento.localidad());
+            }
+            case BORRAR_EMPLEADO, BORRAR_DEPARTAMENTO -> salida.writeInt(clave);
+        }
+    }
+
+    // Bytes que escribe escribir()
+    int tamano() {
+        return 1 + switch (tipo) {
+            case GUARDAR_EMPLEADO -> 4 + tamanoUTF(empleado.apellido()) + tamanoUTF(empleado.oficio()) + 4 + 4 + 8 + 8 + 4;
+            case GUARDAR_DEPARTAMENTO -> 4 + tamanoUTF(departamento.nombre()) + tamanoUTF(departamento.localidad());
+            case BORRAR_EMPLEADO, BORRAR_DEPARTAMENTO -> 4;
+        };
+    }
+
+    // writeUTF: 2 bytes de longitud y UTF-8 modificado (el carácter 0 ocupa 2 bytes)
+    private static int tamanoUTF(String texto) {
+        int bytes = 2;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            bytes += c >= 0x01 && c <= 0x7F ? 1 : c <= 0x7FF ? 2 : 3;
+        }
+        return bytes;
+    }
+
+    static Cambio leer(DataInput entrada) throws IOException {
+        int tipo = entrada.readByte();
+        if (tipo < 0 || tipo >= Tipo.values().length) {
+            throw new IOException("Tipo de cambio desconocido: " + tipo);
+        }
+        return switch (Tipo.values()[tipo]) {
+            case GUARDAR_EMPLEADO -> guardar(new FilaEmpleado(entrada.readInt(), entrada.readUTF(), entrada.readUTF(),
+                    entrada.readInt(), entrada.readInt(), entrada.readLong(), entrada.readLong(), entrada.readInt()));
+            case BORRAR_EMPLEADO -> borrarEmpleado(entrada.readInt());
+            case GUARDAR_DEPARTAMENTO -> guardar(new FilaDepartamento(entrada.readInt(), entrada.readUTF(), entrada.readUTF()));
+            case BORRAR_DEPARTAMENTO -> borrarDepartamento(entrada.readInt());
+        };
+    }
+}
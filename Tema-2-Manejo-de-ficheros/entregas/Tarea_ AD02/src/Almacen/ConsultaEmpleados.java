@@ -0,0 +1,124 @@
+package Almacen;
+
+/*
+    Consulta de empleados por DEPT_NO, OFICIO, rango de SALARIO y rango de
+    FECHA_ALT usando IndicesEmpleados. Las condiciones se combinan con AND:
+
+        List<FilaEmpleado> r = new ConsultaEmpleados(indices)
+                .departamento(20)
+                .oficio("VENDEDOR", "EMPLEADO")
+                .salarioEntre(150000, 300000)          // céntimos
+                .altaEntre(LocalDate.of(1990, 1, 1), LocalDate.of(1999, 12, 31))
+                .ejecutar();
+
+    Plan: se recorre solo el índice con menos candidatos (estimados con una
+    búsqueda binaria o contando bits); de cada ranura se comprueban primero
+    los mapas de bits de OFICIO y después se lee el registro y se comprueban
+    todas las condiciones, también la del índice elegido (el de SALARIO guarda
+    saturados los importes que no caben en un int, ver IndicesEmpleados).
+    Sin condiciones se recorre el almacén entero.
+    Los resultados salen en el orden del índice elegido.
+ */
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+public class ConsultaEmpleados {
+    private final IndicesEmpleados indices;
+    private final List<Rango> rangos = new ArrayList<>();
+    private BitSet oficios;     // null = cualquier oficio
+
+    public ConsultaEmpleados(IndicesEmpleados indices) {
+        this.indices = indices;
+    }
+
+    // Condición sobre un IndiceRango; el predicado la comprueba sobre el registro
+    private record Rango(IndiceRango indice, int minimo, int maximo, Predicate<FilaEmpleado> cumple) {
+    }
+
+    public ConsultaEmpleados departamento(int numero) {
+        rangos.add(new Rango(indices.departamento, numero, numero, e -> e.departamento() == numero));
+        return this;
+    }
+
+    // Cualquiera de los oficios indicados
+    public ConsultaEmpleados oficio(String... nombres) {
+        BitSet union = new BitSet();
+        for (String nombre : nombres) {
+            BitSet bits = indices.oficios.get(nombre);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        if (oficios == null) {
+            oficios = union;
+        } else {
+            oficios.and(union);
+        }
+        return this;
+    }
+
+    // Importes en céntimos, ambos incluidos
+    public ConsultaEmpleados salarioEntre(long minimo, long maximo) {
+        int desde = (int) Math.max(minimo, Integer.MIN_VALUE);
+        int hasta = (int) Math.min(maximo, Integer.MAX_VALUE);
+        rangos.add(new Rango(indices.salario, desde, hasta, e -> e.salario() >= minimo && e.salario() <= maximo));
+        return this;
+    }
+
+    // Fechas incluidas
+    public ConsultaEmpleados altaEntre(LocalDate desde, LocalDate hasta) {
+        int minimo = Math.toIntExact(desde.toEpochDay());
+        int maximo = Math.toIntExact(hasta.toEpochDay());
+        rangos.add(new Rango(indices.fechaAlta, minimo, maximo, e -> e.fechaAlta() >= minimo && e.fechaAlta() <= maximo));
+        return this;
+    }
+
+    public List<FilaEmpleado> ejecutar() {
+        List<FilaEmpleado> resultado = new ArrayList<>();
+        AlmacenRegistros<FilaEmpleado> almacen = indices.almacen();
+
+        synchronized (almacen) {
+            // Sin índices aplicables: recorrido completo
+            if (rangos.isEmpty() && oficios == null) {
+                almacen.recorrer(resultado::add);
+                return resultado;
+            }
+
+            // Índice más selectivo
+            Rango guia = null;
+            int mejor = oficios == null ? Integer.MAX_VALUE : oficios.cardinality();
+            for (Rango rango : rangos) {
+                int estimados = rango.indice().estimar(rango.minimo(), rango.maximo());
+                if (estimados < mejor) {
+                    mejor = estimados;
+                    guia = rango;
+                }
+            }
+
+            IntConsumer comprobar = ranura -> {
+                if (oficios != null && !oficios.get(ranura)) {
+                    return;
+                }
+                FilaEmpleado empleado = almacen.leerRanura(ranura);
+                for (Rango rango : rangos) {
+                    if (!rango.cumple().test(empleado)) {
+                        return;
+                    }
+                }
+                resultado.add(empleado);
+            };
+
+            if (guia == null) {
+                oficios.stream().forEach(comprobar);
+            } else {
+                guia.indice().recorrer(guia.minimo(), guia.maximo(), comprobar);
+            }
+        }
+        return resultado;
+    }
+}
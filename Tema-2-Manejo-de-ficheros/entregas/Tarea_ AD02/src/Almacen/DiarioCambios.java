@@ -0,0 +1,329 @@
+package Almacen;
+
+/*
+    Diario de cambios (write-ahead log) de solo añadir, con escritura en grupo.
+
+    Los cambios se guardan en segmentos <directorio>/diario-000001.log,
+    diario-000002.log... Cada cambio es un marco:
+        longitud (int) | CRC32C de los datos (int) | datos (Cambio.escribir)
+    Al leer, un marco incompleto o con el CRC mal es el final de lo escrito
+    (el proceso se cortó a mitad de escritura) y se descarta con lo que siga.
+    Los datos de un marco ocupan como mucho MAX_MARCO: registrar() rechaza los
+    cambios más grandes, que al leer se tomarían por un final dañado.
+
+    Escritura en grupo: registrar() solo encola el cambio. Un hilo escritor
+    junta hasta maxLote cambios (esperando como mucho esperaMicros a que
+    lleguen más), los escribe con un único write y hace un único force()
+    para todo el lote; después completa el CompletableFuture de cada uno.
+    Con muchos hilos escribiendo, el coste del fsync se reparte entre el lote.
+    Si una escritura falla el diario queda roto: un write a medias puede haber
+    dejado un marco incompleto, y lo que se escribiera detrás se perdería al
+    recortar en la recuperación. Ese lote y todos los siguientes fallan sin
+    escribir nada.
+
+    rotar() cierra el segmento actual y empieza uno nuevo (ver
+    EmpresaDiario.compactar); el escritor y rotar() comparten cerrojo, así que
+    un lote nunca queda repartido entre dos segmentos.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+public class DiarioCambios implements Closeable {
+    private static final String PREFIJO = "diario-";
+    private static final String EXTENSION = ".log";
+    // Límite de los datos de un marco, el mismo al escribir (registrar) y al leer
+    public static final int MAX_MARCO = 64 * 1024;
+
+    private record Pendiente(Cambio cambio, CompletableFuture<Void> hecho) {
+    }
+
+    private static final Pendiente FIN = new Pendiente(null, null);
+
+    private final Path directorio;
+    private final int maxLote;
+    private final long esperaNanos;
+    private final LinkedBlockingQueue<Pendiente> cola = new LinkedBlockingQueue<>();
+    private final Thread escritor;
+
+    private final Object cerrojoCanal = new Object();
+    private FileChannel canal;
+    private Path rutaSegmento;
+    private int segmento;
+    private volatile IOException error;
+    private volatile boolean cerrado;
+
+    private final LongAdder lotes = new LongAdder();
+    private final LongAdder cambios = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * Empieza a escribir en un segmento nuevo, posterior a los que ya haya en
+     * el directorio (que se supone que ya se han leído con leer()).
+     */
+    public DiarioCambios(Path directorio, int maxLote, long esperaMicros) throws IOException {
+        this.directorio = directorio;
+        this.maxLote = Math.max(1, maxLote);
+        this.esperaNanos = TimeUnit.MICROSECONDS.toNanos(esperaMicros);
+        List<Path> existentes = segmentos(directorio);
+        segmento = existentes.isEmpty() ? 0 : numeroSegmento(existentes.get(existentes.size() - 1));
+        abrirSiguiente();
+
+        escritor = new Thread(this::escribirLotes, "diario-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    // === SEGMENTOS ===
+
+    public static List<Path> segmentos(Path directorio) throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return List.of();
+        }
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            return ficheros.filter(f -> {
+                        String nombre = f.getFileName().toString();
+                        return nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION);
+                    })
+                    .sorted((a, b) -> Integer.compare(numeroSegmento(a), numeroSegmento(b)))
+                    .toList();
+        }
+    }
+
+    public static int numeroSegmento(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        return Integer.parseInt(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+
+    private void abrirSiguiente() throws IOException {
+        segmento++;
+        rutaSegmento = directorio.resolve(String.format("%s%06d%s", PREFIJO, segmento, EXTENSION));
+        canal = FileChannel.open(rutaSegmento, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Cierra el segmento actual y pasa al siguiente. Devuelve el número del
+     * segmento cerrado: todo cambio registrado antes está en él o en uno anterior.
+     * Falla si una escritura anterior falló: ya no es cierto.
+     */
+    public int rotar() throws IOException {
+        synchronized (cerrojoCanal) {
+            if (error != null) {
+                throw new IOException("El diario falló al escribir; no se puede rotar", error);
+            }
+            canal.force(false);
+            canal.close();
+            int cerrado = segmento;
+            abrirSiguiente();
+            return cerrado;
+        }
+    }
+
+    /**
+     * Lee los cambios de un segmento en orden. Si el final está incompleto o
+     * dañado se recorta el fichero hasta el último marco válido.
+     * Devuelve el número de cambios leídos.
+     */
+    public static int leer(Path segmento, Consumer<Cambio> consumidor) throws IOException {
+        long validos = 0;
+        int leidos = 0;
+        CRC32C crc = new CRC32C();
+        try (InputStream fichero = Files.newInputStream(segmento);
+             DataInputStream entrada = new DataInputStream(new BufferedInputStream(fichero, 64 * 1024))) {
+            byte[] datos = new byte[MAX_MARCO];
+            while (true) {
+                int longitud;
+                int suma;
+                try {
+                    longitud = entrada.readInt();
+                    suma = entrada.readInt();
+                    if (longitud <= 0 || longitud > MAX_MARCO) {
+                        break;
+                    }
+                    entrada.readFully(datos, 0, longitud);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(datos, 0, longitud);
+                if ((int) crc.getValue() != suma) {
+                    break;
+                }
+                consumidor.accept(Cambio.leer(new DataInputStream(new ByteArrayInputStream(datos, 0, longitud))));
+                validos += 8 + longitud;
+                leidos++;
+            }
+        }
+        if (validos < Files.size(segmento)) {
+            try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+                canal.truncate(validos);
+                canal.force(false);
+            }
+        }
+        return leidos;
+    }
+
+    // === ESCRITURA ===
+
+    /**
+     * Encola el cambio. El CompletableFuture se completa cuando está en disco
+     * (después del force() de su lote), o con la excepción si falló la escritura.
+     * Un cambio de más de MAX_MARCO bytes se rechaza con IllegalArgumentException.
+     */
+    public synchronized CompletableFuture<Void> registrar(Cambio cambio) {
+        if (cambio.tamano() > MAX_MARCO) {
+            throw new IllegalArgumentException("El cambio ocupa " + cambio.tamano() + " bytes; el máximo del diario es "
+                    + MAX_MARCO);
+        }
+        CompletableFuture<Void> hecho = new CompletableFuture<>();
+        if (error != null) {
+            hecho.completeExceptionally(error);
+        } else if (cerrado) {
+            hecho.completeExceptionally(new IOException("El diario está cerrado"));
+        } else {
+            cola.add(new Pendiente(cambio, hecho));
+        }
+        return hecho;
+    }
+
+    private void escribirLotes() {
+        List<Pendiente> lote = new ArrayList<>(maxLote);
+        ByteArrayOutputStream marcos = new ByteArrayOutputStream(64 * 1024);
+        DataOutputStream salidaMarcos = new DataOutputStream(marcos);
+        ByteArrayOutputStream datos = new ByteArrayOutputStream(256);
+        DataOutputStream salidaDatos = new DataOutputStream(datos);
+        CRC32C crc = new CRC32C();
+        boolean terminar = false;
+
+        while (!terminar) {
+            try {
+                lote.add(cola.take());
+                cola.drainTo(lote, maxLote - lote.size());
+                long limite = System.nanoTime() + esperaNanos;
+                while (lote.size() < maxLote && lote.get(lote.size() - 1) != FIN) {
+                    long restante = limite - System.nanoTime();
+                    Pendiente siguiente = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : null;
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                    cola.drainTo(lote, maxLote - lote.size());
+                }
+            } catch (InterruptedException e) {
+                terminar = true;
+            }
+            if (lote.remove(FIN)) {
+                terminar = true;
+            }
+            if (lote.isEmpty()) {
+                continue;
+            }
+            if (error != null) {
+                for (Pendiente p : lote) {
+                    p.hecho().completeExceptionally(error);
+                }
+                lote.clear();
+                continue;
+            }
+
+            try {
+                marcos.reset();
+                for (Pendiente p : lote) {
+                    datos.reset();
+                    p.cambio().escribir(salidaDatos);
+                    crc.reset();
+                    crc.update(datos.toByteArray());
+                    salidaMarcos.writeInt(datos.size());
+                    salidaMarcos.writeInt((int) crc.getValue());
+                    datos.writeTo(salidaMarcos);
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(marcos.toByteArray());
+                synchronized (cerrojoCanal) {
+                    while (buffer.hasRemaining()) {
+                        canal.write(buffer);
+                    }
+                    canal.force(false);
+                }
+                lotes.increment();
+                cambios.add(lote.size());
+                bytes.add(marcos.size());
+                for (Pendiente p : lote) {
+                    p.hecho().complete(null);
+                }
+            } catch (IOException e) {
+                // El diario ya no es fiable: fallan este lote y los siguientes (ver arriba)
+                error = e;
+                for (Pendiente p : lote) {
+                    p.hecho().completeExceptionally(e);
+                }
+            }
+            lote.clear();
+        }
+
+        // Lo que quede en la cola tras cerrar no se escribe
+        for (Pendiente p; (p = cola.poll()) != null; ) {
+            if (p != FIN) {
+                p.hecho().completeExceptionally(new IOException("El diario está cerrado"));
+            }
+        }
+    }
+
+    // === ESTADÍSTICAS ===
+
+    public long lotes() {
+        return lotes.sum();
+    }
+
+    public long cambiosEscritos() {
+        return cambios.sum();
+    }
+
+    public long bytesEscritos() {
+        return bytes.sum();
+    }
+
+    // Escribe lo pendiente y cierra el segmento actual (si ha quedado vacío, lo borra)
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            cola.add(FIN);
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (cerrojoCanal) {
+            boolean vacio = canal.size() == 0;
+            canal.close();
+            if (vacio) {
+                Files.deleteIfExists(rutaSegmento);
+            }
+        }
+    }
+}
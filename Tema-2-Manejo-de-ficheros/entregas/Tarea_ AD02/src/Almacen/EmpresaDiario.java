@@ -0,0 +1,312 @@
+package Almacen;
+
+/*
+    Datos de DatosEmpresa.xml editables sin reescribir el XML en cada cambio.
+
+    En un directorio:
+        DatosEmpresa.xml          última instantánea (mismo formato que Ejercicio_2.Main)
+        diario-NNNNNN.log         cambios posteriores (DiarioCambios)
+    Al abrir se carga la instantánea con JAXB y se aplican encima los segmentos
+    del diario en orden: es la recuperación tras un cierre o una caída.
+
+    Cada cambio se registra en el diario y se aplica en memoria dentro del
+    mismo cerrojo (así el orden del diario es el de la memoria); la espera a
+    que llegue a disco se hace fuera, para que los cambios de varios hilos se
+    junten en un mismo lote. Un cambio aún no confirmado ya es visible para
+    las lecturas. Lo que el diario rechaza (cerrado, roto o un cambio que no
+    cabe en un marco) no llega a la memoria, y con el diario roto compactar()
+    falla: no guarda en la instantánea cambios que no se pudieron registrar.
+
+    compactar() rota el diario, copia el estado (los registros son inmutables,
+    basta copiar los mapas), escribe una instantánea nueva con JAXB sin
+    bloquear a los escritores y borra los segmentos que ya incluye. Los
+    segmentos solo se borran cuando la instantánea está en disco: el .tmp se
+    fuerza antes de renombrarlo y el directorio después. Si se corta antes de
+    borrarlos, al recuperar se vuelven a aplicar: los cambios son idempotentes
+    (ver Cambio). compactarCada() lo programa en segundo plano.
+
+    El orden de departamentos y empleados en el XML es el de alta; un empleado
+    que cambia de departamento pasa al final del nuevo.
+ */
+
+import Ejercicio_2.ExportadorJAXB;
+import Ejercicio_2.JAXB.Departamento;
+import Ejercicio_2.JAXB.Empleado;
+import Ejercicio_2.JAXB.Empresa;
+import jakarta.xml.bind.JAXBException;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class EmpresaDiario implements Closeable {
+    public static final String INSTANTANEA = "DatosEmpresa.xml";
+
+    private final Path directorio;
+    private final PrintStream avisos;
+
+    // Estado: departamentos en orden de alta, cada uno con sus empleados en orden de alta
+    private String titulo;
+    private final Map<Integer, FilaDepartamento> departamentos = new LinkedHashMap<>();
+    private final Map<Integer, LinkedHashMap<Integer, FilaEmpleado>> empleadosPorDepartamento = new HashMap<>();
+    private final Map<Integer, FilaEmpleado> empleados = new HashMap<>();
+
+    private final DiarioCambios diario;
+    private final Object cerrojoCompactacion = new Object();
+    private ScheduledExecutorService compactador;
+    private int cambiosRecuperados;
+
+    public EmpresaDiario(Path directorio, int maxLote, long esperaMicros, PrintStream avisos)
+            throws IOException, JAXBException {
+        this.directorio = directorio;
+        this.avisos = avisos;
+        Files.createDirectories(directorio);
+
+        Path instantanea = directorio.resolve(INSTANTANEA);
+        if (Files.exists(instantanea)) {
+            cargar(ExportadorJAXB.getInstancia().importar(instantanea, Empresa.class));
+        }
+        for (Path segmento : DiarioCambios.segmentos(directorio)) {
+            cambiosRecuperados += DiarioCambios.leer(segmento, this::aplicar);
+        }
+        diario = new DiarioCambios(directorio, maxLote, esperaMicros);
+    }
+
+    private void cargar(Empresa empresa) {
+        titulo = empresa.getTitulo();
+        for (Departamento d : empresa.getDepartamentos()) {
+            if (departamentos.containsKey(d.getId())) {
+                avisos.println("Departamento repetido en la instantánea, se ignora: " + d.getId());
+                continue;
+            }
+            aplicar(Cambio.guardar(new FilaDepartamento(d.getId(), d.getNombre(), d.getLocalizacion())));
+            for (Empleado e : d.getEmpleados()) {
+                aplicar(Cambio.guardar(new FilaEmpleado(e.getNumero(), e.getApellido(), e.getOficio(), e.getDir(),
+                        e.getFechaAlta(), e.getSalario(), e.getComision(), d.getId())));
+            }
+        }
+    }
+
+    // === ESTADO ===
+
+    private void aplicar(Cambio cambio) {
+        switch (cambio.tipo()) {
+            case GUARDAR_DEPARTAMENTO -> {
+                departamentos.put(cambio.clave(), cambio.departamento());
+                empleadosPorDepartamento.computeIfAbsent(cambio.clave(), d -> new LinkedHashMap<>());
+            }
+            case BORRAR_DEPARTAMENTO -> {
+                departamentos.remove(cambio.clave());
+                LinkedHashMap<Integer, FilaEmpleado> suyos = empleadosPorDepartamento.remove(cambio.clave());
+                if (suyos != null) {
+                    suyos.keySet().forEach(empleados::remove);
+                }
+            }
+            case GUARDAR_EMPLEADO -> {
+                FilaEmpleado nuevo = cambio.empleado();
+                LinkedHashMap<Integer, FilaEmpleado> destino = empleadosPorDepartamento.get(nuevo.departamento());
+                if (destino == null) {
+                    avisos.println("Empleado " + nuevo.numero() + " de un departamento que no existe ("
+                            + nuevo.departamento() + "), se ignora");
+                    return;
+                }
+                FilaEmpleado anterior = empleados.put(nuevo.numero(), nuevo);
+                if (anterior != null && anterior.departamento() != nuevo.departamento()) {
+                    empleadosPorDepartamento.get(anterior.departamento()).remove(anterior.numero());
+                }
+                destino.put(nuevo.numero(), nuevo);
+            }
+            case BORRAR_EMPLEADO -> {
+                FilaEmpleado anterior = empleados.remove(cambio.clave());
+                if (anterior != null) {
+                    empleadosPorDepartamento.get(anterior.departamento()).remove(anterior.numero());
+                }
+            }
+        }
+    }
+
+    // === CAMBIOS ===
+
+    /**
+     * Aplica el cambio y espera a que esté en disco. Un GUARDAR_EMPLEADO de un
+     * departamento que no existe, o un cambio demasiado grande para el diario,
+     * se rechaza con IllegalArgumentException.
+     */
+    public void cambiar(Cambio cambio) throws IOException {
+        try {
+            cambiarSinEsperar(cambio).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    // Igual, sin esperar: el CompletableFuture se completa cuando está en disco
+    public CompletableFuture<Void> cambiarSinEsperar(Cambio cambio) {
+        synchronized (this) {
+            if (cambio.tipo() == Cambio.Tipo.GUARDAR_EMPLEADO
+                    && !departamentos.containsKey(cambio.empleado().departamento())) {
+                throw new IllegalArgumentException("No existe el departamento " + cambio.empleado().departamento());
+            }
+            CompletableFuture<Void> hecho = diario.registrar(cambio);
+            if (!hecho.isCompletedExceptionally()) {
+                aplicar(cambio);
+            }
+            return hecho;
+        }
+    }
+
+    // === LECTURAS ===
+
+    public synchronized FilaEmpleado empleado(int numero) {
+        return empleados.get(numero);
+    }
+
+    public synchronized FilaDepartamento departamento(int numero) {
+        return departamentos.get(numero);
+    }
+
+    public synchronized int numEmpleados() {
+        return empleados.size();
+    }
+
+    public synchronized int numDepartamentos() {
+        return departamentos.size();
+    }
+
+    public int cambiosRecuperados() {
+        return cambiosRecuperados;
+    }
+
+    public DiarioCambios diario() {
+        return diario;
+    }
+
+    // === COMPACTACIÓN ===
+
+    /**
+     * Escribe una instantánea nueva de DatosEmpresa.xml con el estado actual y
+     * borra los segmentos del diario que ya incluye.
+     */
+    public void compactar() throws IOException, JAXBException {
+        synchronized (cerrojoCompactacion) {
+            // Rotación y copia atómicas respecto a los cambios
+            int ultimoSegmento;
+            String tituloCopia;
+            List<FilaDepartamento> copiaDepartamentos;
+            Map<Integer, List<FilaEmpleado>> copiaEmpleados = new HashMap<>();
+            synchronized (this) {
+                ultimoSegmento = diario.rotar();
+                tituloCopia = titulo;
+                copiaDepartamentos = new ArrayList<>(departamentos.values());
+                empleadosPorDepartamento.forEach((d, suyos) -> copiaEmpleados.put(d, new ArrayList<>(suyos.values())));
+            }
+
+            Empresa empresa = new Empresa(tituloCopia);
+            for (FilaDepartamento d : copiaDepartamentos) {
+                Departamento departamento = new Departamento(d.numero(), d.localidad(), d.nombre());
+                for (FilaEmpleado e : copiaEmpleados.get(d.numero())) {
+                    departamento.addEmpleado(new Empleado(e.numero(), e.apellido(), e.oficio(), e.dir(),
+                            e.fechaAlta(), e.salario(), e.comision()));
+                }
+                empresa.addDepartamento(departamento);
+            }
+
+            // La instantánea tiene que estar en disco (datos y nombre) antes de borrar los segmentos
+            Path temporal = directorio.resolve(INSTANTANEA + ".tmp");
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                 OutputStream salida = new BufferedOutputStream(Channels.newOutputStream(canal), 64 * 1024)) {
+                ExportadorJAXB.getInstancia().exportar(empresa, salida);
+                salida.flush();
+                canal.force(true);
+            }
+            Files.move(temporal, directorio.resolve(INSTANTANEA),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            forzarDirectorio();
+
+            for (Path segmento : DiarioCambios.segmentos(directorio)) {
+                if (DiarioCambios.numeroSegmento(segmento) <= ultimoSegmento) {
+                    Files.delete(segmento);
+                }
+            }
+        }
+    }
+
+    // Fuerza a disco las entradas del directorio (el renombrado de la instantánea)
+    private void forzarDirectorio() throws IOException {
+        FileChannel canal;
+        try {
+            canal = FileChannel.open(directorio, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // Windows no deja abrir un directorio; allí el renombrado ya queda en el registro de NTFS
+            return;
+        }
+        try (canal) {
+            canal.force(true);
+        }
+    }
+
+    // Compacta en segundo plano cada periodo (si ha habido cambios desde la última vez)
+    public synchronized void compactarCada(Duration periodo) {
+        if (compactador != null) {
+            compactador.shutdown();
+        }
+        compactador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "diario-compactador");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long[] escritosAntes = {-1};
+        compactador.scheduleWithFixedDelay(() -> {
+            long escritos = diario.cambiosEscritos();
+            if (escritos == escritosAntes[0]) {
+                return;
+            }
+            try {
+                compactar();
+                escritosAntes[0] = escritos;
+            } catch (IOException | JAXBException e) {
+                avisos.println("Error al compactar: " + e.getMessage());
+            }
+        }, periodo.toMillis(), periodo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService programado;
+        synchronized (this) {
+            programado = compactador;
+        }
+        if (programado != null) {
+            programado.shutdown();
+            try {
+                programado.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        diario.close();
+    }
+}
@@ -0,0 +1,48 @@
+package Almacen;
+
+/*
+    Registro de DEPART en el almacén (44 bytes):
+        DEPT_NO int | DNOMBRE 20 | LOC 20
+ */
+
+import Comun.Campos;
+
+import java.nio.ByteBuffer;
+
+public record FilaDepartamento(int numero, String nombre, String localidad) {
+
+    public static final String[] CAMPOS = {"DEPT_NO", "DNOMBRE", "LOC"};
+
+    private static final int ANCHO_NOMBRE = 20;
+    private static final int ANCHO_LOCALIDAD = 20;
+
+    // Valores de un <DEP_ROW> en el orden de CAMPOS
+    public static FilaDepartamento desdeTexto(String[] valores) {
+        return new FilaDepartamento(Campos.entero(valores[0]), valores[1], valores[2]);
+    }
+
+    public static final Formato<FilaDepartamento> FORMATO = new Formato<>() {
+        @Override
+        public int tamano() {
+            return 4 + ANCHO_NOMBRE + ANCHO_LOCALIDAD;
+        }
+
+        @Override
+        public int clave(FilaDepartamento d) {
+            return d.numero();
+        }
+
+        @Override
+        public void escribir(FilaDepartamento d, ByteBuffer destino, int p) {
+            destino.putInt(p, d.numero());
+            Formato.escribirTexto(d.nombre(), ANCHO_NOMBRE, destino, p + 4);
+            Formato.escribirTexto(d.localidad(), ANCHO_LOCALIDAD, destino, p + 24);
+        }
+
+        @Override
+        public FilaDepartamento leer(ByteBuffer origen, int p) {
+            return new FilaDepartamento(origen.getInt(p), Formato.leerTexto(origen, p + 4, ANCHO_NOMBRE),
+                    Formato.leerTexto(origen, p + 24, ANCHO_LOCALIDAD));
+        }
+    };
+}
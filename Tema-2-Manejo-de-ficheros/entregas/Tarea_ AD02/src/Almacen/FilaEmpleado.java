@@ -0,0 +1,63 @@
+package Almacen;
+
+/*
+    Registro de EMPLE en el almacén (73 bytes):
+        EMP_NO int | APELLIDO 24 | OFICIO 16 | DIR int | FECHA_ALT int (día epoch)
+        | SALARIO long (céntimos) | COMISION long (céntimos) | DEPT_NO int
+ */
+
+import Comun.Campos;
+
+import java.nio.ByteBuffer;
+
+public record FilaEmpleado(int numero, String apellido, String oficio, int dir, int fechaAlta,
+                           long salario, long comision, int departamento) {
+
+    public static final String[] CAMPOS =
+            {"EMP_NO", "APELLIDO", "OFICIO", "DIR", "FECHA_ALT", "SALARIO", "COMISION", "DEPT_NO"};
+
+    private static final int ANCHO_APELLIDO = 24;
+    private static final int ANCHO_OFICIO = 16;
+
+    // Valores de un <EMP_ROW> en el orden de CAMPOS
+    public static FilaEmpleado desdeTexto(String[] valores) {
+        return new FilaEmpleado(Campos.entero(valores[0]), valores[1], valores[2], Campos.entero(valores[3]),
+                Campos.diaEpoch(valores[4]), Campos.centimos(valores[5]), Campos.centimos(valores[6]),
+                Campos.entero(valores[7]));
+    }
+
+    public FilaEmpleado conSalario(long centimos) {
+        return new FilaEmpleado(numero, apellido, oficio, dir, fechaAlta, centimos, comision, departamento);
+    }
+
+    public static final Formato<FilaEmpleado> FORMATO = new Formato<>() {
+        @Override
+        public int tamano() {
+            return 4 + ANCHO_APELLIDO + ANCHO_OFICIO + 4 + 4 + 8 + 8 + 4;
+        }
+
+        @Override
+        public int clave(FilaEmpleado e) {
+            return e.numero();
+        }
+
+        @Override
+        public void escribir(FilaEmpleado e, ByteBuffer destino, int p) {
+            destino.putInt(p, e.numero());
+            Formato.escribirTexto(e.apellido(), ANCHO_APELLIDO, destino, p + 4);
+            Formato.escribirTexto(e.oficio(), ANCHO_OFICIO, destino, p + 28);
+            destino.putInt(p + 44, e.dir());
+            destino.putInt(p + 48, e.fechaAlta());
+            destino.putLong(p + 52, e.salario());
+            destino.putLong(p + 60, e.comision());
+            destino.putInt(p + 68, e.departamento());
+        }
+
+        @Override
+        public FilaEmpleado leer(ByteBuffer origen, int p) {
+            return new FilaEmpleado(origen.getInt(p), Formato.leerTexto(origen, p + 4, ANCHO_APELLIDO),
+                    Formato.leerTexto(origen, p + 28, ANCHO_OFICIO), origen.getInt(p + 44), origen.getInt(p + 48),
+                    origen.getLong(p + 52), origen.getLong(p + 60), origen.getInt(p + 68));
+        }
+    };
+}
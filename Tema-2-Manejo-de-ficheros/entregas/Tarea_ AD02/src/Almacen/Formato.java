@@ -0,0 +1,53 @@
+package Almacen;
+
+/*
+    Cómo se guarda un tipo de registro en AlmacenRegistros: tamaño fijo en
+    bytes, clave primaria (int) y conversión desde/hacia el buffer del fichero.
+    Las escrituras y lecturas son absolutas (posición dada), sin mover el buffer.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+
+public interface Formato<T> {
+
+    int tamano();
+
+    int clave(T registro);
+
+    void escribir(T registro, ByteBuffer destino, int posicion);
+
+    T leer(ByteBuffer origen, int posicion);
+
+    // === TEXTO DE ANCHO FIJO (ISO-8859-1, relleno con ceros) ===
+
+    static void escribirTexto(String texto, int ancho, ByteBuffer destino, int posicion) {
+        CharsetEncoder codificador = StandardCharsets.ISO_8859_1.newEncoder();
+        ByteBuffer bytes;
+        try {
+            bytes = codificador.encode(java.nio.CharBuffer.wrap(texto));
+        } catch (CharacterCodingException e) {
+            throw new IllegalArgumentException("Texto no representable en ISO-8859-1: " + texto, e);
+        }
+        if (bytes.remaining() > ancho) {
+            throw new IllegalArgumentException("Texto de más de " + ancho + " caracteres: " + texto);
+        }
+        int n = bytes.remaining();
+        destino.put(posicion, bytes, 0, n);
+        for (int i = n; i < ancho; i++) {
+            destino.put(posicion + i, (byte) 0);
+        }
+    }
+
+    static String leerTexto(ByteBuffer origen, int posicion, int ancho) {
+        byte[] bytes = new byte[ancho];
+        origen.get(posicion, bytes);
+        int n = 0;
+        while (n < ancho && bytes[n] != 0) {
+            n++;
+        }
+        return new String(bytes, 0, n, StandardCharsets.ISO_8859_1);
+    }
+}
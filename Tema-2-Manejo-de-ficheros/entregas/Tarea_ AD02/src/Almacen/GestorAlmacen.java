@@ -0,0 +1,133 @@
+package Almacen;
+
+/*
+    Programa de consola sobre AlmacenEmpresa (como el Ejercicio 6 de la
+    colección, pero con EMPLE y DEPART).
+
+    Uso: GestorAlmacen <directorio> <orden> [argumentos]
+        importar <fichero.xml>          añade los registros del XML
+        empleado <EMP_NO>               muestra un empleado y su departamento
+        departamento <DEPT_NO>          muestra un departamento
+        salario <EMP_NO> <importe>      cambia el salario (en el sitio)
+        borrar <EMP_NO>                 borra el empleado (lápida)
+        consultar [condiciones]         empleados que cumplen todas las condiciones:
+                                        dept=20 oficio=VENDEDOR,EMPLEADO
+                                        salario=1500-3000 alta=1990-01-01..1995-12-31
+        estado                          número de registros y lápidas
+ */
+
+import Comun.Campos;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+public class GestorAlmacen {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Uso: GestorAlmacen <directorio> importar <fichero.xml> | empleado <EMP_NO> | "
+                    + "departamento <DEPT_NO> | salario <EMP_NO> <importe> | borrar <EMP_NO> | "
+                    + "consultar [dept=N] [oficio=A,B] [salario=min-max] [alta=desde..hasta] | estado");
+            return;
+        }
+
+        try (AlmacenEmpresa almacen = new AlmacenEmpresa(Path.of(args[0]))) {
+            switch (args[1]) {
+                case "importar" -> {
+                    long inicio = System.nanoTime();
+                    int anadidos = almacen.importar(Path.of(args[2]), System.err);
+                    System.out.printf("Registros añadidos: %,d en %.2f s%n", anadidos, (System.nanoTime() - inicio) / 1e9);
+                }
+                case "empleado" -> {
+                    FilaEmpleado empleado = almacen.empleados().leer(Campos.entero(args[2]));
+                    if (empleado == null) {
+                        System.out.println("No existe el empleado " + args[2]);
+                        return;
+                    }
+                    mostrarEmpleado(empleado);
+                    FilaDepartamento departamento = almacen.departamentos().leer(empleado.departamento());
+                    if (departamento != null) {
+                        mostrarDepartamento(departamento);
+                    }
+                }
+                case "departamento" -> {
+                    FilaDepartamento departamento = almacen.departamentos().leer(Campos.entero(args[2]));
+                    if (departamento == null) {
+                        System.out.println("No existe el departamento " + args[2]);
+                    } else {
+                        mostrarDepartamento(departamento);
+                    }
+                }
+                case "salario" -> {
+                    FilaEmpleado empleado = almacen.empleados().leer(Campos.entero(args[2]));
+                    if (empleado == null) {
+                        System.out.println("No existe el empleado " + args[2]);
+                        return;
+                    }
+                    almacen.empleados().actualizar(empleado.conSalario(Campos.centimos(args[3])));
+                    System.out.println("Salario de " + empleado.apellido() + ": "
+                            + Campos.importe(empleado.salario()) + " -> " + args[3]);
+                }
+                case "borrar" -> System.out.println(almacen.empleados().borrar(Campos.entero(args[2]))
+                        ? "Empleado " + args[2] + " borrado"
+                        : "No existe el empleado " + args[2]);
+                case "consultar" -> {
+                    long inicio = System.nanoTime();
+                    IndicesEmpleados indices = IndicesEmpleados.crear(almacen.empleados());
+                    long construido = System.nanoTime();
+                    List<FilaEmpleado> resultado = consulta(indices, args).ejecutar();
+                    long fin = System.nanoTime();
+                    resultado.forEach(GestorAlmacen::mostrarEmpleado);
+                    System.out.printf("%,d empleados | índices %.1f ms | consulta %.3f ms%n", resultado.size(),
+                            (construido - inicio) / 1e6, (fin - construido) / 1e6);
+                }
+                case "estado" -> {
+                    System.out.printf("EMPLE:  %,d registros, %,d lápidas%n",
+                            almacen.empleados().numRegistros(), almacen.empleados().numLapidas());
+                    System.out.printf("DEPART: %,d registros, %,d lápidas%n",
+                            almacen.departamentos().numRegistros(), almacen.departamentos().numLapidas());
+                }
+                default -> System.out.println("Orden desconocida: " + args[1]);
+            }
+        }
+    }
+
+    // Condiciones "campo=valor" a partir de args[2]
+    private static ConsultaEmpleados consulta(IndicesEmpleados indices, String[] args) {
+        ConsultaEmpleados consulta = new ConsultaEmpleados(indices);
+        for (int i = 2; i < args.length; i++) {
+            String[] partes = args[i].split("=", 2);
+            if (partes.length < 2) {
+                throw new IllegalArgumentException("Condición sin valor: " + args[i]);
+            }
+            String valor = partes[1];
+            switch (partes[0]) {
+                case "dept" -> consulta.departamento(Campos.entero(valor));
+                case "oficio" -> consulta.oficio(valor.split(","));
+                case "salario" -> {
+                    int guion = valor.indexOf('-', 1);
+                    consulta.salarioEntre(Campos.centimos(valor.substring(0, guion)),
+                            Campos.centimos(valor.substring(guion + 1)));
+                }
+                case "alta" -> {
+                    String[] fechas = valor.split("\\.\\.");
+                    consulta.altaEntre(LocalDate.parse(fechas[0]), LocalDate.parse(fechas[1]));
+                }
+                default -> throw new IllegalArgumentException("Condición desconocida: " + partes[0]);
+            }
+        }
+        return consulta;
+    }
+
+    private static void mostrarEmpleado(FilaEmpleado e) {
+        System.out.println("EMP_NO: " + e.numero() + " | APELLIDO: " + e.apellido() + " | OFICIO: " + e.oficio()
+                + " | DIR: " + e.dir() + " | FECHA_ALT: " + Campos.fecha(e.fechaAlta())
+                + " | SALARIO: " + Campos.importe(e.salario()) + " | COMISION: " + Campos.importe(e.comision())
+                + " | DEPT_NO: " + e.departamento());
+    }
+
+    private static void mostrarDepartamento(FilaDepartamento d) {
+        System.out.println("DEPT_NO: " + d.numero() + " | DNOMBRE: " + d.nombre() + " | LOC: " + d.localidad());
+    }
+}
@@ -0,0 +1,101 @@
+package Almacen;
+
+/*
+    Programa de consola sobre EmpresaDiario: cada orden se registra en el
+    diario en lugar de reescribir DatosEmpresa.xml.
+
+    Uso: GestorDiario <directorio> <orden> [argumentos]
+        importar <DepartamentosEmpleados.xml>     crea la instantánea inicial (ConversorStreaming)
+        empleado <EMP_NO>
+        alta <EMP_NO> <APELLIDO> <OFICIO> <DIR> <FECHA_ALT> <SALARIO> <COMISION> <DEPT_NO>
+        salario <EMP_NO> <importe>
+        borrar <EMP_NO>
+        departamento <DEPT_NO> [<DNOMBRE> <LOC>]  muestra o guarda un departamento
+        borrar-departamento <DEPT_NO>              borra el departamento y sus empleados
+        compactar                                  escribe DatosEmpresa.xml y vacía el diario
+        estado
+ */
+
+import Comun.Campos;
+import Ejercicio_2.ConversorStreaming;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class GestorDiario {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Uso: GestorDiario <directorio> importar <xml> | empleado <EMP_NO> | alta <EMP_NO> "
+                    + "<APELLIDO> <OFICIO> <DIR> <FECHA_ALT> <SALARIO> <COMISION> <DEPT_NO> | salario <EMP_NO> <importe> | "
+                    + "borrar <EMP_NO> | departamento <DEPT_NO> [<DNOMBRE> <LOC>] | borrar-departamento <DEPT_NO> | "
+                    + "compactar | estado");
+            return;
+        }
+        Path directorio = Path.of(args[0]);
+
+        if (args[1].equals("importar")) {
+            if (!DiarioCambios.segmentos(directorio).isEmpty()) {
+                System.out.println("El directorio ya tiene un diario: compacte o bórrelo antes de importar");
+                return;
+            }
+            Files.createDirectories(directorio);
+            ConversorStreaming.convertir(Path.of(args[2]), directorio.resolve(EmpresaDiario.INSTANTANEA));
+            System.out.println("Instantánea creada en " + directorio.resolve(EmpresaDiario.INSTANTANEA));
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        try (EmpresaDiario empresa = new EmpresaDiario(directorio, 256, 0, System.err)) {
+            System.out.printf("Apertura: %.2f s (%,d cambios recuperados del diario)%n",
+                    (System.nanoTime() - inicio) / 1e9, empresa.cambiosRecuperados());
+
+            switch (args[1]) {
+                case "empleado" -> {
+                    FilaEmpleado e = empresa.empleado(Campos.entero(args[2]));
+                    System.out.println(e == null ? "No existe el empleado " + args[2] : e);
+                }
+                case "alta" -> {
+                    String[] valores = new String[8];
+                    System.arraycopy(args, 2, valores, 0, 8);
+                    empresa.cambiar(Cambio.guardar(FilaEmpleado.desdeTexto(valores)));
+                    System.out.println("Empleado " + args[2] + " guardado");
+                }
+                case "salario" -> {
+                    FilaEmpleado e = empresa.empleado(Campos.entero(args[2]));
+                    if (e == null) {
+                        System.out.println("No existe el empleado " + args[2]);
+                        return;
+                    }
+                    empresa.cambiar(Cambio.guardar(e.conSalario(Campos.centimos(args[3]))));
+                    System.out.println("Salario de " + e.apellido() + ": " + Campos.importe(e.salario()) + " -> " + args[3]);
+                }
+                case "borrar" -> {
+                    empresa.cambiar(Cambio.borrarEmpleado(Campos.entero(args[2])));
+                    System.out.println("Empleado " + args[2] + " borrado");
+                }
+                case "departamento" -> {
+                    if (args.length > 4) {
+                        empresa.cambiar(Cambio.guardar(new FilaDepartamento(Campos.entero(args[2]), args[3], args[4])));
+                        System.out.println("Departamento " + args[2] + " guardado");
+                    } else {
+                        FilaDepartamento d = empresa.departamento(Campos.entero(args[2]));
+                        System.out.println(d == null ? "No existe el departamento " + args[2] : d);
+                    }
+                }
+                case "borrar-departamento" -> {
+                    empresa.cambiar(Cambio.borrarDepartamento(Campos.entero(args[2])));
+                    System.out.println("Departamento " + args[2] + " borrado con sus empleados");
+                }
+                case "compactar" -> {
+                    long antes = System.nanoTime();
+                    empresa.compactar();
+                    System.out.printf("Instantánea escrita en %.2f s%n", (System.nanoTime() - antes) / 1e9);
+                }
+                case "estado" -> System.out.printf("Departamentos: %,d | Empleados: %,d | Segmentos del diario: %d%n",
+                        empresa.numDepartamentos(), empresa.numEmpleados(), DiarioCambios.segmentos(directorio).size());
+                default -> System.out.println("Orden desconocida: " + args[1]);
+            }
+        }
+    }
+}
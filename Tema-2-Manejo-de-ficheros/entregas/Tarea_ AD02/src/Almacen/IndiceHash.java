@@ -0,0 +1,111 @@
+package Almacen;
+
+/*
+    Índice clave (int) -> ranura (int) fuera del heap, en un ByteBuffer directo.
+
+    Tabla de direccionamiento abierto con sondeo lineal: cada celda son 8 bytes
+    (clave, ranura + 1). Ranura 0 = celda libre; BORRADA = celda de una clave
+    eliminada, que se salta al buscar para no cortar las cadenas de sondeo;
+    insertar reutiliza la primera que encuentra en su cadena. Al superar la
+    mitad de ocupación (contando las borradas) se reconstruye sin borradas: al
+    mismo tamaño si al menos la mitad lo son, o al doble. Así, con altas y bajas
+    continuas y un número estable de claves la tabla no crece.
+ */
+
+import java.nio.ByteBuffer;
+
+class IndiceHash {
+    private static final int LIBRE = 0;
+    private static final int BORRADA = -1;
+    private static final int NO_EXISTE = -1;
+
+    private ByteBuffer tabla;
+    private int capacidad;      // Potencia de 2
+    private int ocupadas;       // Incluye las borradas
+    private int borradas;
+
+    IndiceHash(int capacidadInicial) {
+        capacidad = Integer.highestOneBit(Math.max(16, capacidadInicial * 2 - 1)) * 2;
+        tabla = ByteBuffer.allocateDirect(capacidad * 8);
+    }
+
+    private static int mezclar(int clave) {
+        int h = clave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Ranura de la clave o -1
+    int buscar(int clave) {
+        int mascara = capacidad - 1;
+        for (int i = mezclar(clave) & mascara; ; i = (i + 1) & mascara) {
+            int ranura = tabla.getInt(i * 8 + 4);
+            if (ranura == LIBRE) {
+                return NO_EXISTE;
+            }
+            if (ranura != BORRADA && tabla.getInt(i * 8) == clave) {
+                return ranura - 1;
+            }
+        }
+    }
+
+    // Devuelve false si la clave ya estaba
+    boolean insertar(int clave, int ranura) {
+        if ((ocupadas + 1) * 2 > capacidad) {
+            reconstruir(borradas * 2 >= ocupadas ? capacidad : capacidad * 2);
+        }
+        int mascara = capacidad - 1;
+        int primeraBorrada = NO_EXISTE;
+        for (int i = mezclar(clave) & mascara; ; i = (i + 1) & mascara) {
+            int actual = tabla.getInt(i * 8 + 4);
+            if (actual == LIBRE) {
+                // La clave no está: va en la primera borrada de la cadena o, si no hay, aquí
+                if (primeraBorrada != NO_EXISTE) {
+                    i = primeraBorrada;
+                    borradas--;
+                } else {
+                    ocupadas++;
+                }
+                tabla.putInt(i * 8, clave);
+                tabla.putInt(i * 8 + 4, ranura + 1);
+                return true;
+            }
+            if (actual == BORRADA) {
+                if (primeraBorrada == NO_EXISTE) {
+                    primeraBorrada = i;
+                }
+            } else if (tabla.getInt(i * 8) == clave) {
+                return false;
+            }
+        }
+    }
+
+    boolean eliminar(int clave) {
+        int mascara = capacidad - 1;
+        for (int i = mezclar(clave) & mascara; ; i = (i + 1) & mascara) {
+            int ranura = tabla.getInt(i * 8 + 4);
+            if (ranura == LIBRE) {
+                return false;
+            }
+            if (ranura != BORRADA && tabla.getInt(i * 8) == clave) {
+                tabla.putInt(i * 8 + 4, BORRADA);
+                borradas++;
+                return true;
+            }
+        }
+    }
+
+    private void reconstruir(int nuevaCapacidad) {
+        ByteBuffer anterior = tabla;
+        int capacidadAnterior = capacidad;
+        capacidad = nuevaCapacidad;
+        tabla = ByteBuffer.allocateDirect(capacidad * 8);
+        ocupadas = 0;
+        borradas = 0;
+        for (int i = 0; i < capacidadAnterior; i++) {
+            int ranura = anterior.getInt(i * 8 + 4);
+            if (ranura != LIBRE && ranura != BORRADA) {
+                insertar(anterior.getInt(i * 8), ranura - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package Almacen;
+
+/*
+    Índice secundario ordenado valor (int) -> ranuras, para consultas por
+    igualdad y por rango (DEPT_NO, SALARIO, FECHA_ALT).
+
+    Cada entrada es un long (valor << 32 | ranura): ordenar los long ordena por
+    valor y, dentro de un valor, por ranura. Las entradas están en:
+        - principal: array ordenado, se busca con búsqueda binaria
+        - altas:     entradas nuevas aún no fusionadas (TreeSet)
+        - bajas:     entradas de principal ya eliminadas (TreeSet, se saltan al leer)
+    Insertar o borrar no desplaza el array; cuando altas + bajas superan
+    MAX_PENDIENTES (o 1/64 del índice) se rehace principal en una pasada,
+    mezclando las tres secuencias ordenadas.
+    Un cambio de valor es una baja más una alta.
+ */
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+class IndiceRango {
+    private static final int MAX_PENDIENTES = 4096;
+
+    private long[] principal;
+    private int tamano;
+    private final TreeSet<Long> altas = new TreeSet<>();
+    private final TreeSet<Long> bajas = new TreeSet<>();
+
+    // Carga inicial: pares (valor, ranura) en cualquier orden
+    IndiceRango(int[] valores, int[] ranuras, int n) {
+        principal = new long[Math.max(n, 16)];
+        for (int i = 0; i < n; i++) {
+            principal[i] = entrada(valores[i], ranuras[i]);
+        }
+        Arrays.parallelSort(principal, 0, n);
+        tamano = n;
+    }
+
+    private static long entrada(int valor, int ranura) {
+        return (long) valor << 32 | (ranura & 0xFFFFFFFFL);
+    }
+
+    void insertar(int valor, int ranura) {
+        long e = entrada(valor, ranura);
+        if (!bajas.remove(e)) {
+            altas.add(e);
+        }
+        fusionarSiHaceFalta();
+    }
+
+    void borrar(int valor, int ranura) {
+        long e = entrada(valor, ranura);
+        if (!altas.remove(e)) {
+            bajas.add(e);
+        }
+        fusionarSiHaceFalta();
+    }
+
+    int numEntradas() {
+        return tamano + altas.size() - bajas.size();
+    }
+
+    /**
+     * Número aproximado de entradas con valor en [minimo, maximo] (cuenta las
+     * bajas pendientes). Sirve para elegir el índice más selectivo.
+     */
+    int estimar(int minimo, int maximo) {
+        if (minimo > maximo) {
+            return 0;
+        }
+        // Con maximo = Integer.MAX_VALUE la última entrada posible es Long.MAX_VALUE: +1 se desbordaría
+        int finPrincipal = maximo == Integer.MAX_VALUE ? tamano : primeraDesde(entrada(maximo, -1) + 1);
+        return finPrincipal - primeraDesde(entrada(minimo, 0))
+                + altas.subSet(entrada(minimo, 0), true, entrada(maximo, -1), true).size();
+    }
+
+    // Ranuras con valor en [minimo, maximo], en orden de valor y después de ranura
+    void recorrer(int minimo, int maximo, IntConsumer consumidor) {
+        if (minimo > maximo) {
+            return;
+        }
+        long desde = entrada(minimo, 0);
+        long hasta = entrada(maximo, -1);
+        int i = primeraDesde(desde);
+        Iterator<Long> pendientes = altas.subSet(desde, true, hasta, true).iterator();
+        Iterator<Long> borradas = bajas.subSet(desde, true, hasta, true).iterator();
+        long siguientePendiente = pendientes.hasNext() ? pendientes.next() : Long.MAX_VALUE;
+        long siguienteBorrada = borradas.hasNext() ? borradas.next() : Long.MAX_VALUE;
+
+        // Mezcla de las dos secuencias ordenadas saltando las bajas
+        while (true) {
+            long siguientePrincipal = i < tamano && principal[i] <= hasta ? principal[i] : Long.MAX_VALUE;
+            if (siguientePrincipal == Long.MAX_VALUE && siguientePendiente == Long.MAX_VALUE) {
+                return;
+            }
+            if (siguientePrincipal < siguientePendiente) {
+                i++;
+                if (siguientePrincipal == siguienteBorrada) {
+                    siguienteBorrada = borradas.hasNext() ? borradas.next() : Long.MAX_VALUE;
+                } else {
+                    consumidor.accept((int) siguientePrincipal);
+                }
+            } else {
+                consumidor.accept((int) siguientePendiente);
+                siguientePendiente = pendientes.hasNext() ? pendientes.next() : Long.MAX_VALUE;
+            }
+        }
+    }
+
+    // Primera posición de principal con entrada >= e
+    private int primeraDesde(long e) {
+        int i = Arrays.binarySearch(principal, 0, tamano, e);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private void fusionarSiHaceFalta() {
+        if (altas.size() + bajas.size() <= Math.max(MAX_PENDIENTES, tamano / 64)) {
+            return;
+        }
+        long[] nuevo = new long[Math.max(16, numEntradas())];
+        int n = 0;
+        int i = 0;
+        Iterator<Long> pendientes = altas.iterator();
+        Iterator<Long> borradas = bajas.iterator();
+        long siguientePendiente = pendientes.hasNext() ? pendientes.next() : Long.MAX_VALUE;
+        long siguienteBorrada = borradas.hasNext() ? borradas.next() : Long.MAX_VALUE;
+        while (i < tamano || siguientePendiente != Long.MAX_VALUE) {
+            long siguientePrincipal = i < tamano ? principal[i] : Long.MAX_VALUE;
+            if (siguientePrincipal < siguientePendiente) {
+                i++;
+                if (siguientePrincipal == siguienteBorrada) {
+                    siguienteBorrada = borradas.hasNext() ? borradas.next() : Long.MAX_VALUE;
+                } else {
+                    nuevo[n++] = siguientePrincipal;
+                }
+            } else {
+                nuevo[n++] = siguientePendiente;
+                siguientePendiente = pendientes.hasNext() ? pendientes.next() : Long.MAX_VALUE;
+            }
+        }
+        principal = nuevo;
+        tamano = n;
+        altas.clear();
+        bajas.clear();
+    }
+}
@@ -0,0 +1,110 @@
+package Almacen;
+
+/*
+    Índices secundarios sobre el almacén de empleados:
+        - DEPT_NO, SALARIO y FECHA_ALT: IndiceRango (igualdad y rangos)
+        - OFICIO: un mapa de bits (BitSet de ranuras) por oficio; hay pocos
+          oficios, así que cada uno ocupa 1 bit por ranura y filtrar por
+          oficio es un AND de bits
+    Se construyen recorriendo el almacén una vez y después se mantienen solos:
+    son oyentes de AlmacenRegistros y reciben cada alta, cambio y baja.
+
+    El salario se indexa en céntimos como int: los que no caben (más de
+    21.474.836,47) se guardan en el índice como Integer.MAX_VALUE, y
+    ConsultaEmpleados comprueba el salario real de cada registro.
+    Se leen y modifican siempre dentro del cerrojo del almacén (lo hace
+    ConsultaEmpleados), así que no llevan sincronización propia.
+ */
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+public class IndicesEmpleados implements AlmacenRegistros.Oyente<FilaEmpleado> {
+    private final AlmacenRegistros<FilaEmpleado> almacen;
+
+    final IndiceRango departamento;
+    final IndiceRango salario;
+    final IndiceRango fechaAlta;
+    final Map<String, BitSet> oficios = new HashMap<>();
+
+    private IndicesEmpleados(AlmacenRegistros<FilaEmpleado> almacen) {
+        this.almacen = almacen;
+        int n = almacen.numRegistros();
+        int[] ranuras = new int[n];
+        int[] departamentos = new int[n];
+        int[] salarios = new int[n];
+        int[] fechas = new int[n];
+        int[] i = {0};
+        almacen.recorrerRanuras((empleado, ranura) -> {
+            ranuras[i[0]] = ranura;
+            departamentos[i[0]] = empleado.departamento();
+            salarios[i[0]] = salarioIndexado(empleado);
+            fechas[i[0]] = empleado.fechaAlta();
+            oficios.computeIfAbsent(empleado.oficio(), o -> new BitSet()).set(ranura);
+            i[0]++;
+        });
+        departamento = new IndiceRango(departamentos, ranuras, n);
+        salario = new IndiceRango(salarios, ranuras, n);
+        fechaAlta = new IndiceRango(fechas, ranuras, n);
+    }
+
+    /**
+     * Construye los índices y los registra como oyente del almacén para que
+     * se mantengan con los cambios posteriores.
+     */
+    public static IndicesEmpleados crear(AlmacenRegistros<FilaEmpleado> almacen) {
+        synchronized (almacen) {
+            IndicesEmpleados indices = new IndicesEmpleados(almacen);
+            almacen.agregarOyente(indices);
+            return indices;
+        }
+    }
+
+    public AlmacenRegistros<FilaEmpleado> almacen() {
+        return almacen;
+    }
+
+    // Saturado al rango de int: el almacén admite cualquier long y el índice no puede fallar tras escribir
+    static int salarioIndexado(FilaEmpleado empleado) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, empleado.salario()));
+    }
+
+    // === MANTENIMIENTO ===
+
+    @Override
+    public void insertado(int ranura, FilaEmpleado e) {
+        departamento.insertar(e.departamento(), ranura);
+        salario.insertar(salarioIndexado(e), ranura);
+        fechaAlta.insertar(e.fechaAlta(), ranura);
+        oficios.computeIfAbsent(e.oficio(), o -> new BitSet()).set(ranura);
+    }
+
+    @Override
+    public void actualizado(int ranura, FilaEmpleado anterior, FilaEmpleado nuevo) {
+        if (anterior.departamento() != nuevo.departamento()) {
+            departamento.borrar(anterior.departamento(), ranura);
+            departamento.insertar(nuevo.departamento(), ranura);
+        }
+        if (anterior.salario() != nuevo.salario()) {
+            salario.borrar(salarioIndexado(anterior), ranura);
+            salario.insertar(salarioIndexado(nuevo), ranura);
+        }
+        if (anterior.fechaAlta() != nuevo.fechaAlta()) {
+            fechaAlta.borrar(anterior.fechaAlta(), ranura);
+            fechaAlta.insertar(nuevo.fechaAlta(), ranura);
+        }
+        if (!anterior.oficio().equals(nuevo.oficio())) {
+            oficios.get(anterior.oficio()).clear(ranura);
+            oficios.computeIfAbsent(nuevo.oficio(), o -> new BitSet()).set(ranura);
+        }
+    }
+
+    @Override
+    public void borrado(int ranura, FilaEmpleado e) {
+        departamento.borrar(e.departamento(), ranura);
+        salario.borrar(salarioIndexado(e), ranura);
+        fechaAlta.borrar(e.fechaAlta(), ranura);
+        oficios.get(e.oficio()).clear(ranura);
+    }
+}
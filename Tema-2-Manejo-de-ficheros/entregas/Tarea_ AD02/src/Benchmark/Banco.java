@@ -0,0 +1,360 @@
+package Benchmark;
+
+/*
+    Banco de pruebas al estilo de JMH (modo tiempo medio por operación) para
+    las suites de rendimiento (esta y la de los ejercicios), sin depender de JMH:
+        - calentamiento: iteraciones que se ejecutan y se descartan (JIT, caché de páginas)
+        - medición:      iteraciones de al menos milisIteracion; cada una repite la
+                         operación y anota su tiempo medio
+        - resultado:     media, error al 99,9 % (t de Student, como JMH), percentiles
+                         de las iteraciones y, si se indica, MB/s
+    Lo que devuelve la operación se guarda en un campo volatile para que el JIT
+    no pueda eliminar el trabajo (el Blackhole de JMH).
+
+    Todo se mide en la misma JVM: para comparar entre versiones conviene lanzar
+    siempre con las mismas opciones (-Xms igual a -Xmx, mismo recolector).
+
+    Los resultados se guardan como un array JSON con el formato de JMH
+    (benchmark, mode, params, primaryMetric...), un resultado por línea, así que
+    también sirven para las herramientas que leen JSON de JMH. comparar() lee un
+    fichero guardado antes y marca como regresión lo que sea más lento que el
+    umbral y que los dos errores sumados.
+ */
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class Banco {
+
+    public interface Operacion {
+        Object ejecutar() throws Exception;
+    }
+
+    // t de Student al 99,95 % (bilateral 99,9 %) para 1..30 grados de libertad
+    private static final double[] T_999 = {636.62, 31.60, 12.92, 8.61, 6.87, 5.96, 5.41, 5.04, 4.78, 4.59,
+            4.44, 4.32, 4.22, 4.14, 4.07, 4.01, 3.97, 3.92, 3.88, 3.85,
+            3.82, 3.79, 3.77, 3.75, 3.73, 3.71, 3.69, 3.67, 3.66, 3.65};
+
+    private static final Pattern BENCHMARK = Pattern.compile("\"benchmark\":\"([^\"]*)\"");
+    private static final Pattern PARAMETROS = Pattern.compile("\"params\":\\{([^}]*)}");
+    private static final Pattern PUNTUACION = Pattern.compile("\"score\":([-0-9.E]+)");
+    private static final Pattern ERROR = Pattern.compile("\"scoreError\":\"?([-0-9.EaN]+)");
+    private static final Pattern UNIDAD = Pattern.compile("\"scoreUnit\":\"([a-z]+)/op\"");
+
+    private static volatile Object sumidero;
+
+    private final String suite;
+    private final int calentamiento;
+    private final int iteraciones;
+    private final long nanosIteracion;
+    private final List<Resultado> resultados = new ArrayList<>();
+
+    public Banco(String suite, int calentamiento, int iteraciones, long milisIteracion) {
+        if (iteraciones < 1) {
+            throw new IllegalArgumentException("Hace falta al menos una iteración de medición");
+        }
+        this.suite = suite;
+        this.calentamiento = calentamiento;
+        this.iteraciones = iteraciones;
+        this.nanosIteracion = TimeUnit.MILLISECONDS.toNanos(milisIteracion);
+    }
+
+    // === RESULTADOS ===
+
+    /**
+     * Tiempos de una prueba. nanosPorOperacion tiene una entrada por iteración
+     * de medición; bytesPorOperacion es 0 si la prueba no procesa bytes.
+     */
+    public record Resultado(String prueba, Map<String, String> parametros, TimeUnit unidad,
+                            double[] nanosPorOperacion, long operaciones, long bytesPorOperacion) {
+        public double media() {
+            return Arrays.stream(nanosPorOperacion).average().orElse(Double.NaN);
+        }
+
+        public double desviacion() {
+            int n = nanosPorOperacion.length;
+            if (n < 2) {
+                return Double.NaN;
+            }
+            double media = media();
+            double suma = 0;
+            for (double v : nanosPorOperacion) {
+                suma += (v - media) * (v - media);
+            }
+            return Math.sqrt(suma / (n - 1));
+        }
+
+        // Semiamplitud del intervalo de confianza al 99,9 % de la media
+        public double error() {
+            int n = nanosPorOperacion.length;
+            return n < 2 ? Double.NaN : t999(n - 1) * desviacion() / Math.sqrt(n);
+        }
+
+        public double percentil(double p) {
+            double[] ordenado = nanosPorOperacion.clone();
+            Arrays.sort(ordenado);
+            int rango = (int) Math.ceil(p / 100.0 * ordenado.length);
+            return ordenado[Math.max(0, rango - 1)];
+        }
+
+        public double megasPorSegundo() {
+            return bytesPorOperacion == 0 ? 0 : bytesPorOperacion / (1024.0 * 1024.0) / (media() / 1e9);
+        }
+
+        // Nombre y parámetros, para reconocer la misma prueba en otro fichero
+        String clave() {
+            return prueba + parametros;
+        }
+    }
+
+    public List<Resultado> getResultados() {
+        return List.copyOf(resultados);
+    }
+
+    // === MEDICIÓN ===
+
+    public Resultado medir(String prueba, Map<String, String> parametros, TimeUnit unidad, Operacion operacion)
+            throws Exception {
+        return medir(prueba, parametros, unidad, 0, operacion);
+    }
+
+    public Resultado medir(String prueba, Map<String, String> parametros, TimeUnit unidad, long bytesPorOperacion,
+                           Operacion operacion) throws Exception {
+        for (int i = 0; i < calentamiento; i++) {
+            iteracion(operacion);
+        }
+        double[] nanos = new double[iteraciones];
+        long operaciones = 0;
+        for (int i = 0; i < iteraciones; i++) {
+            long[] medida = iteracion(operacion);
+            nanos[i] = (double) medida[0] / medida[1];
+            operaciones += medida[1];
+        }
+        Resultado resultado = new Resultado(prueba, new LinkedHashMap<>(parametros), unidad, nanos, operaciones,
+                bytesPorOperacion);
+        resultados.add(resultado);
+        return resultado;
+    }
+
+    /*
+        Repite la operación hasta cubrir el tiempo de la iteración; devuelve {nanos, operaciones}.
+        El reloj se lee por lotes (cada uno como mucho del tamaño de lo ya hecho y de lo
+        que se estima que falta): leerlo en cada operación pesaría en las de pocos ns.
+     */
+    private long[] iteracion(Operacion operacion) throws Exception {
+        long operaciones = 0;
+        long lote = 1;
+        long inicio = System.nanoTime();
+        long transcurrido;
+        while (true) {
+            for (long i = 0; i < lote; i++) {
+                sumidero = operacion.ejecutar();
+            }
+            operaciones += lote;
+            transcurrido = System.nanoTime() - inicio;
+            if (transcurrido >= nanosIteracion) {
+                return new long[]{transcurrido, operaciones};
+            }
+            long faltan = (long) ((nanosIteracion - transcurrido) / ((double) transcurrido / operaciones));
+            lote = Math.max(1, Math.min(operaciones, faltan));
+        }
+    }
+
+    // === SALIDA ===
+
+    public static void escribirTabla(List<Resultado> resultados, PrintStream salida) {
+        salida.printf("%-22s %-48s %14s %12s %14s %12s  %s%n",
+                "Prueba", "Parámetros", "Media", "± 99,9 %", "p50", "MB/s", "Unidad");
+        for (Resultado r : resultados) {
+            double escala = r.unidad().toNanos(1);
+            salida.printf("%-22s %-48s %,14.3f %,12.3f %,14.3f %,12.1f  %s/op%n",
+                    r.prueba(), formatearParametros(r.parametros()), r.media() / escala, r.error() / escala,
+                    r.percentil(50) / escala, r.megasPorSegundo(), abreviatura(r.unidad()));
+        }
+    }
+
+    private static String formatearParametros(Map<String, String> parametros) {
+        StringBuilder texto = new StringBuilder();
+        parametros.forEach((nombre, valor) -> texto.append(texto.length() == 0 ? "" : " ").append(nombre)
+                .append('=').append(valor));
+        return texto.toString();
+    }
+
+    public void guardar(Path fichero) throws IOException {
+        RuntimeMXBean jvm = ManagementFactory.getRuntimeMXBean();
+        try (Writer salida = Files.newBufferedWriter(fichero, StandardCharsets.UTF_8)) {
+            salida.write("[\n");
+            for (int i = 0; i < resultados.size(); i++) {
+                Resultado r = resultados.get(i);
+                double escala = r.unidad().toNanos(1);
+                StringBuilder linea = new StringBuilder(512)
+                        .append("{\"benchmark\":").append(cadena(suite + "." + r.prueba()))
+                        .append(",\"mode\":\"avgt\",\"threads\":1,\"forks\":0")
+                        .append(",\"jvm\":").append(cadena(System.getProperty("java.home")))
+                        .append(",\"jvmArgs\":[");
+                List<String> argumentos = jvm.getInputArguments();
+                for (int a = 0; a < argumentos.size(); a++) {
+                    linea.append(a == 0 ? "" : ",").append(cadena(argumentos.get(a)));
+                }
+                linea.append("],\"jdkVersion\":").append(cadena(System.getProperty("java.version")))
+                        .append(",\"vmName\":").append(cadena(jvm.getVmName()))
+                        .append(",\"vmVersion\":").append(cadena(jvm.getVmVersion()))
+                        .append(",\"date\":").append(cadena(Instant.now().toString()))
+                        .append(",\"warmupIterations\":").append(calentamiento)
+                        .append(",\"warmupTime\":").append(cadena(nanosIteracion / 1_000_000 + " ms"))
+                        .append(",\"measurementIterations\":").append(iteraciones)
+                        .append(",\"measurementTime\":").append(cadena(nanosIteracion / 1_000_000 + " ms"))
+                        .append(",\"params\":{");
+                int p = 0;
+                for (Map.Entry<String, String> parametro : r.parametros().entrySet()) {
+                    linea.append(p++ == 0 ? "" : ",").append(cadena(parametro.getKey())).append(':')
+                            .append(cadena(parametro.getValue()));
+                }
+                linea.append("},\"primaryMetric\":{")
+                        .append("\"score\":").append(numero(r.media() / escala))
+                        .append(",\"scoreError\":").append(numero(r.error() / escala))
+                        .append(",\"scoreConfidence\":[").append(numero((r.media() - r.error()) / escala))
+                        .append(',').append(numero((r.media() + r.error()) / escala)).append(']')
+                        .append(",\"scorePercentiles\":{")
+                        .append("\"0.0\":").append(numero(r.percentil(0) / escala))
+                        .append(",\"50.0\":").append(numero(r.percentil(50) / escala))
+                        .append(",\"90.0\":").append(numero(r.percentil(90) / escala))
+                        .append(",\"100.0\":").append(numero(r.percentil(100) / escala)).append('}')
+                        .append(",\"scoreUnit\":\"").append(abreviatura(r.unidad())).append("/op\"")
+                        .append(",\"rawData\":[[");
+                for (int n = 0; n < r.nanosPorOperacion().length; n++) {
+                    linea.append(n == 0 ? "" : ",").append(numero(r.nanosPorOperacion()[n] / escala));
+                }
+                linea.append("]]},\"secondaryMetrics\":{");
+                if (r.bytesPorOperacion() > 0) {
+                    linea.append("\"MB/s\":{\"score\":").append(numero(r.megasPorSegundo()))
+                            .append(",\"scoreUnit\":\"MB/s\"}");
+                }
+                linea.append("}}").append(i < resultados.size() - 1 ? "," : "").append('\n');
+                salida.write(linea.toString());
+            }
+            salida.write("]\n");
+        }
+    }
+
+    private static String cadena(String texto) {
+        StringBuilder escapado = new StringBuilder(texto.length() + 2).append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"' -> escapado.append("\\\"");
+                case '\\' -> escapado.append("\\\\");
+                default -> {
+                    if (c < 0x20) {
+                        escapado.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escapado.append(c);
+                    }
+                }
+            }
+        }
+        return escapado.append('"').toString();
+    }
+
+    // JSON no admite NaN: JMH lo escribe como cadena
+    private static String numero(double valor) {
+        return Double.isNaN(valor) || Double.isInfinite(valor) ? "\"NaN\"" : String.format(Locale.ROOT, "%.6f", valor);
+    }
+
+    private static String abreviatura(TimeUnit unidad) {
+        return switch (unidad) {
+            case NANOSECONDS -> "ns";
+            case MICROSECONDS -> "us";
+            case MILLISECONDS -> "ms";
+            case SECONDS -> "s";
+            default -> throw new IllegalArgumentException("Unidad no admitida: " + unidad);
+        };
+    }
+
+    private static double t999(int gradosLibertad) {
+        if (gradosLibertad <= T_999.length) {
+            return T_999[gradosLibertad - 1];
+        }
+        return gradosLibertad <= 60 ? 3.46 : 3.29;
+    }
+
+    // === COMPARACIÓN ===
+
+    /**
+     * Compara con un fichero guardado antes (de esta suite o de otra versión).
+     * Es regresión si la media nueva supera a la anterior en más del umbral (en
+     * tanto por ciento) y la diferencia es mayor que los dos errores sumados.
+     * Devuelve el número de regresiones.
+     */
+    public int comparar(Path base, double umbral, PrintStream salida) throws IOException {
+        // Media y error en ns de cada prueba de la base
+        Map<String, double[]> anteriores = new HashMap<>();
+        for (String linea : Files.readAllLines(base, StandardCharsets.UTF_8)) {
+            Matcher benchmark = BENCHMARK.matcher(linea);
+            Matcher parametros = PARAMETROS.matcher(linea);
+            Matcher puntuacion = PUNTUACION.matcher(linea);
+            Matcher error = ERROR.matcher(linea);
+            Matcher unidad = UNIDAD.matcher(linea);
+            if (!benchmark.find() || !parametros.find() || !puntuacion.find() || !error.find() || !unidad.find()) {
+                continue;
+            }
+            String nombre = benchmark.group(1);
+            if (!nombre.startsWith(suite + ".")) {
+                continue;
+            }
+            Map<String, String> valores = new LinkedHashMap<>();
+            for (String par : parametros.group(1).split(",")) {
+                String[] nombreValor = par.split(":", 2);
+                if (nombreValor.length == 2) {
+                    valores.put(nombreValor[0].replace("\"", ""), nombreValor[1].replace("\"", ""));
+                }
+            }
+            double escala = switch (unidad.group(1)) {
+                case "ns" -> 1;
+                case "us" -> 1e3;
+                case "ms" -> 1e6;
+                default -> 1e9;
+            };
+            double errorBase = error.group(1).equals("NaN") ? 0 : Double.parseDouble(error.group(1));
+            anteriores.put(nombre.substring(suite.length() + 1) + valores,
+                    new double[]{Double.parseDouble(puntuacion.group(1)) * escala, errorBase * escala});
+        }
+
+        int regresiones = 0;
+        salida.printf("%nComparación con %s (umbral %.1f %%)%n", base, umbral);
+        for (Resultado r : resultados) {
+            double[] anterior = anteriores.get(r.clave());
+            if (anterior == null) {
+                salida.printf("%-22s %-48s %s%n", r.prueba(), formatearParametros(r.parametros()), "nueva");
+                continue;
+            }
+            double error = Double.isNaN(r.error()) ? 0 : r.error();
+            double cambio = (r.media() / anterior[0] - 1) * 100;
+            boolean regresion = cambio > umbral && r.media() - anterior[0] > error + anterior[1];
+            boolean mejora = cambio < -umbral && anterior[0] - r.media() > error + anterior[1];
+            if (regresion) {
+                regresiones++;
+            }
+            salida.printf("%-22s %-48s %+8.1f %%  %s%n", r.prueba(), formatearParametros(r.parametros()), cambio,
+                    regresion ? "REGRESIÓN" : mejora ? "mejora" : "igual");
+        }
+        return regresiones;
+    }
+}
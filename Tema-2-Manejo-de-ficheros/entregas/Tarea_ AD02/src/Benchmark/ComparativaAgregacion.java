@@ -0,0 +1,59 @@
+package Benchmark;
+
+/*
+    Escalado de AgregadorSalarios con el número de hilos: agrega la misma
+    TablaEmpleados con ForkJoinPool de 1, 2, 4... hasta el número de núcleos
+    y muestra el tiempo, filas/s y la aceleración respecto a un hilo.
+    Comprueba además que todos los resultados coinciden con el de un hilo.
+
+    Uso: ComparativaAgregacion <fichero> [departamento|oficio|localidad] [repeticiones]
+ */
+
+import Comun.AgregadorSalarios;
+import Comun.TablaEmpleados;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+public class ComparativaAgregacion {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaAgregacion <fichero> [departamento|oficio|localidad] [repeticiones]");
+            return;
+        }
+        AgregadorSalarios.Agrupacion agrupacion = args.length > 1
+                ? AgregadorSalarios.Agrupacion.valueOf(args[1].toUpperCase(Locale.ROOT))
+                : AgregadorSalarios.Agrupacion.DEPARTAMENTO;
+        int repeticiones = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        TablaEmpleados tabla = TablaEmpleados.cargar(Path.of(args[0]));
+        int filas = tabla.numEmpleados();
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        System.out.printf("Empleados: %,d | Agrupación: %s | Núcleos: %d%n", filas, agrupacion, nucleos);
+
+        AgregadorSalarios.Resumen[] referencia = null;
+        double tiempoUnHilo = 0;
+        for (int hilos = 1; hilos <= nucleos; hilos = hilos < nucleos ? Math.min(hilos * 2, nucleos) : hilos + 1) {
+            ForkJoinPool pool = new ForkJoinPool(hilos);
+            try {
+                AgregadorSalarios agregador = new AgregadorSalarios(tabla, pool);
+                AgregadorSalarios.Resumen[][] resultado = new AgregadorSalarios.Resumen[1][];
+                double segundos = Cronometro.medir(3, repeticiones, () -> resultado[0] = agregador.agregar(agrupacion));
+
+                if (referencia == null) {
+                    referencia = resultado[0];
+                    tiempoUnHilo = segundos;
+                } else if (!Arrays.equals(referencia, resultado[0])) {
+                    throw new IllegalStateException("El resultado con " + hilos + " hilos no coincide con el de 1 hilo");
+                }
+                System.out.printf("%3d hilos | %8.2f ms | %8.1f M filas/s | x%.2f%n",
+                        hilos, segundos * 1e3, filas / segundos / 1e6, tiempoUnHilo / segundos);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package Benchmark;
+
+/*
+    Tamaño y velocidad del formato binario (Ejercicio_2.EscritorBinario /
+    LectorBinario) frente a DatosEmpresa.xml con JAXB (ExportadorJAXB).
+
+    Construye el Empresa como Main a partir de DepartamentosEmpleados.xml y mide:
+        - escribir y leer el XML con JAXB
+        - escribir y leer el binario
+        - buscar el último departamento del binario saltándose los demás
+    Comprueba que el binario leído vuelve a dar exactamente el mismo XML.
+
+    Uso: ComparativaBinario <DepartamentosEmpleados.xml> [repeticiones]
+ */
+
+import Ejercicio_2.EscritorBinario;
+import Ejercicio_2.ExportadorJAXB;
+import Ejercicio_2.JAXB.Departamento;
+import Ejercicio_2.JAXB.Empresa;
+import Ejercicio_2.LectorBinario;
+import Ejercicio_2.Main;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class ComparativaBinario {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaBinario <DepartamentosEmpleados.xml> [repeticiones]");
+            return;
+        }
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Empresa empresa = Main.construirEmpresa(
+                DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new File(args[0])).getDocumentElement());
+        int ultimo = empresa.getDepartamentos().get(empresa.getDepartamentos().size() - 1).getId();
+        ExportadorJAXB exportador = ExportadorJAXB.getInstancia();
+
+        Path xml = Files.createTempFile("empresa", ".xml");
+        Path binario = Files.createTempFile("empresa", ".empb");
+        try {
+            double escribirXml = Cronometro.medir(1, repeticiones, () -> exportador.exportar(empresa, xml));
+            double leerXml = Cronometro.medir(1, repeticiones, () -> exportador.importar(xml, Empresa.class));
+            double escribirBinario = Cronometro.medir(2, repeticiones, () -> EscritorBinario.escribir(empresa, binario));
+            double leerBinario = Cronometro.medir(2, repeticiones, () -> LectorBinario.leer(binario));
+            Departamento[] encontrado = new Departamento[1];
+            double buscarBinario = Cronometro.medir(2, repeticiones, () -> {
+                try (LectorBinario entrada = new LectorBinario(Files.newInputStream(binario))) {
+                    while (entrada.avanzar()) {
+                        if (entrada.idActual() == ultimo) {
+                            encontrado[0] = entrada.leerActual();
+                        }
+                    }
+                }
+            });
+
+            // El binario conserva todo: su XML es idéntico al original
+            Path deBinario = Files.createTempFile("empresa", ".xml");
+            try {
+                exportador.exportar(LectorBinario.leer(binario), deBinario);
+                if (!Arrays.equals(Files.readAllBytes(xml), Files.readAllBytes(deBinario))) {
+                    throw new IllegalStateException("El XML obtenido del binario no coincide con el original");
+                }
+            } finally {
+                Files.delete(deBinario);
+            }
+
+            long bytesXml = Files.size(xml);
+            long bytesBinario = Files.size(binario);
+            System.out.printf("Departamentos: %,d | XML: %,d bytes | binario: %,d bytes (%.1f veces menor)%n%n",
+                    empresa.getDepartamentos().size(), bytesXml, bytesBinario, (double) bytesXml / bytesBinario);
+            System.out.printf("%-30s | %10s | %10s%n", "Operación", "XML ms", "Binario ms");
+            System.out.printf("%-30s | %10.1f | %10.1f%n", "Escribir", escribirXml * 1e3, escribirBinario * 1e3);
+            System.out.printf("%-30s | %10.1f | %10.1f%n", "Leer todo", leerXml * 1e3, leerBinario * 1e3);
+            System.out.printf("%-30s | %10s | %10.1f (%d empleados)%n", "Buscar el último departamento", "-",
+                    buscarBinario * 1e3, encontrado[0].getEmpleados().size());
+        } finally {
+            Files.deleteIfExists(xml);
+            Files.deleteIfExists(binario);
+        }
+    }
+}
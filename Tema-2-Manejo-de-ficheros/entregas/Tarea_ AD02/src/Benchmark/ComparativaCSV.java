@@ -0,0 +1,166 @@
+package Benchmark;
+
+/*
+    Lectura y escritura de EMPLE.csv (ProcesadorCSV exportar) con:
+        - Scanner + split             (lo que propone el Ejercicio 5)
+        - BufferedReader + split
+        - Comun.LectorCSV             (sin un String por campo)
+        - Comun.LectorCSV en paralelo (1, 2, 4... hasta el número de núcleos)
+        - PrintWriter + String.format frente a Comun.EscritorCSV
+    En las lecturas se convierten EMP_NO, FECHA_ALT, SALARIO y COMISION y se
+    suman los salarios, y se comprueba que todas dan la misma suma.
+    Muestra MB/s del fichero en las lecturas y filas/s en las escrituras
+    (EMP_NO, APELLIDO, FECHA_ALT y SALARIO de cada fila).
+
+    Uso: ComparativaCSV <EMPLE.csv> [repeticiones]
+ */
+
+import Comun.Campos;
+import Comun.EscritorCSV;
+import Comun.FilaCSV;
+import Comun.LectorCSV;
+import Ejercicio_1.ProcesadorCSV;
+
+import java.io.BufferedReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+public class ComparativaCSV {
+    private static final int EMP_NO = 0, FECHA_ALT = 4, SALARIO = 5, COMISION = 6;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaCSV <EMPLE.csv> [repeticiones]");
+            return;
+        }
+        Path fichero = Path.of(args[0]);
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        double megas = Files.size(fichero) / 1e6;
+        System.out.printf("Fichero: %s (%.1f MB)%n%n", fichero, megas);
+
+        long[] suma = new long[1];
+        double s = Cronometro.medir(1, Math.max(1, repeticiones / 5), () -> suma[0] = scanner(fichero));
+        long referencia = suma[0];
+        mostrar("Scanner + split", megas, s);
+
+        s = Cronometro.medir(1, repeticiones, () -> comprobar(referencia, bufferedReader(fichero)));
+        mostrar("BufferedReader + split", megas, s);
+
+        s = Cronometro.medir(2, repeticiones, () -> comprobar(referencia, lectorCSV(fichero)));
+        mostrar("LectorCSV", megas, s);
+
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        for (int hilos = 1; hilos <= nucleos; hilos *= 2) {
+            int h = hilos;
+            s = Cronometro.medir(2, repeticiones, () -> comprobar(referencia, lectorCSVParalelo(fichero, h)));
+            mostrar("LectorCSV " + hilos + " hilos", megas, s);
+        }
+
+        // Escritura: se leen las filas una vez y se escriben a un destino que las descarta
+        System.out.println();
+        int filas = (int) Files.lines(fichero).count() - 1;
+        int[] numero = new int[filas];
+        String[] apellido = new String[filas];
+        int[] fecha = new int[filas];
+        long[] salario = new long[filas];
+        int[] i = {0};
+        LectorCSV.recorrer(fichero, ProcesadorCSV.CAMPOS_EMPLEADO, f -> {
+            numero[i[0]] = f.entero(EMP_NO);
+            apellido[i[0]] = f.texto(1);
+            fecha[i[0]] = f.diaEpoch(FECHA_ALT);
+            salario[i[0]] = f.centimos(SALARIO);
+            i[0]++;
+        });
+
+        s = Cronometro.medir(1, repeticiones, () -> {
+            try (PrintWriter salida = new PrintWriter(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8)) {
+                for (int k = 0; k < filas; k++) {
+                    salida.print(String.format("%d,%s,%s,%s%n", numero[k], apellido[k],
+                            Campos.fecha(fecha[k]), Campos.importe(salario[k])));
+                }
+            }
+        });
+        mostrarEscritura("PrintWriter + format", filas, s);
+
+        s = Cronometro.medir(2, repeticiones, () -> {
+            try (EscritorCSV salida = new EscritorCSV(OutputStream.nullOutputStream())) {
+                for (int k = 0; k < filas; k++) {
+                    salida.entero(numero[k]).texto(apellido[k]).fecha(fecha[k]).importe(salario[k]).fin();
+                }
+            }
+        });
+        mostrarEscritura("EscritorCSV", filas, s);
+    }
+
+    private static void mostrar(String metodo, double megas, double segundos) {
+        System.out.printf("%-24s | %9.1f ms | %8.1f MB/s%n", metodo, segundos * 1e3, megas / segundos);
+    }
+
+    private static void mostrarEscritura(String metodo, int filas, double segundos) {
+        System.out.printf("%-24s | %9.1f ms | %8.2f M filas/s%n", metodo, segundos * 1e3, filas / segundos / 1e6);
+    }
+
+    private static void comprobar(long referencia, long suma) {
+        if (suma != referencia) {
+            throw new IllegalStateException("Suma de salarios distinta: " + suma + " / " + referencia);
+        }
+    }
+
+    private static long scanner(Path fichero) throws Exception {
+        long suma = 0;
+        try (Scanner entrada = new Scanner(fichero, StandardCharsets.UTF_8)) {
+            entrada.nextLine();
+            while (entrada.hasNextLine()) {
+                suma += convertir(entrada.nextLine().split(","));
+            }
+        }
+        return suma;
+    }
+
+    private static long bufferedReader(Path fichero) throws Exception {
+        long suma = 0;
+        try (BufferedReader entrada = Files.newBufferedReader(fichero, StandardCharsets.UTF_8)) {
+            entrada.readLine();
+            for (String linea; (linea = entrada.readLine()) != null; ) {
+                suma += convertir(linea.split(","));
+            }
+        }
+        return suma;
+    }
+
+    private static long convertir(String[] campos) {
+        Campos.entero(campos[EMP_NO]);
+        Campos.diaEpoch(campos[FECHA_ALT]);
+        Campos.centimos(campos[COMISION]);
+        return Campos.centimos(campos[SALARIO]);
+    }
+
+    private static long convertir(FilaCSV fila) {
+        fila.entero(EMP_NO);
+        fila.diaEpoch(FECHA_ALT);
+        fila.centimos(COMISION);
+        return fila.centimos(SALARIO);
+    }
+
+    private static long lectorCSV(Path fichero) throws Exception {
+        long[] suma = {0};
+        LectorCSV.recorrer(fichero, ProcesadorCSV.CAMPOS_EMPLEADO, f -> suma[0] += convertir(f));
+        return suma[0];
+    }
+
+    private static long lectorCSVParalelo(Path fichero, int hilos) throws Exception {
+        // Una suma por trozo, separadas para que los hilos no compartan línea de caché
+        long[] sumas = new long[hilos * 8];
+        LectorCSV.recorrerParalelo(fichero, ProcesadorCSV.CAMPOS_EMPLEADO, hilos,
+                trozo -> f -> sumas[trozo * 8] += convertir(f));
+        long total = 0;
+        for (long suma : sumas) {
+            total += suma;
+        }
+        return total;
+    }
+}
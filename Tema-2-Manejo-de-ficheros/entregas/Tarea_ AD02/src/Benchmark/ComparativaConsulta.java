@@ -0,0 +1,104 @@
+package Benchmark;
+
+/*
+    Latencia de una consulta de empleado por EMP_NO:
+        - XML:     se analiza DepartamentosEmpleados.xml entero con StAX en cada
+                   consulta (lo que haría un programa sin almacén)
+        - Almacén: lectura directa en Almacen.AlmacenEmpresa (índice + registro fijo)
+    Las claves se eligen al azar (semilla fija) entre los EMP_NO del fichero.
+    Muestra p50, p99 y consultas por segundo de cada método y comprueba que
+    ambos devuelven el mismo empleado.
+
+    Uso: ComparativaConsulta <fichero.xml> <directorio almacén> [consultas XML] [consultas almacén]
+    Si el almacén está vacío se importa el XML primero.
+ */
+
+import Almacen.AlmacenEmpresa;
+import Almacen.FilaEmpleado;
+import Comun.Campos;
+import Comun.LectorStAX;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class ComparativaConsulta {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Uso: ComparativaConsulta <fichero.xml> <directorio almacén> [consultas XML] [consultas almacén]");
+            return;
+        }
+        Path xml = Path.of(args[0]);
+        int consultasXml = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int consultasAlmacen = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+
+        List<Integer> claves = new ArrayList<>();
+        LectorStAX.recorrerFilas(xml, "EMP_ROW", new String[]{"EMP_NO"}, v -> claves.add(Campos.entero(v[0])));
+        Random aleatorio = new Random(42);
+
+        try (AlmacenEmpresa almacen = new AlmacenEmpresa(Path.of(args[1]))) {
+            if (almacen.empleados().numRegistros() == 0) {
+                long inicio = System.nanoTime();
+                almacen.importar(xml, System.err);
+                System.out.printf("Importación: %.2f s%n", (System.nanoTime() - inicio) / 1e9);
+            }
+            System.out.printf("Empleados: %,d%n", almacen.empleados().numRegistros());
+
+            // Almacén: calentamiento y medición
+            for (int i = 0; i < 100_000; i++) {
+                almacen.empleados().leer(claves.get(aleatorio.nextInt(claves.size())));
+            }
+            long[] tiempos = new long[consultasAlmacen];
+            for (int i = 0; i < consultasAlmacen; i++) {
+                int clave = claves.get(aleatorio.nextInt(claves.size()));
+                long inicio = System.nanoTime();
+                FilaEmpleado empleado = almacen.empleados().leer(clave);
+                tiempos[i] = System.nanoTime() - inicio;
+                if (empleado == null) {
+                    throw new IllegalStateException("El almacén no tiene el empleado " + clave);
+                }
+            }
+            mostrar("Almacén", tiempos);
+
+            // XML: un análisis completo por consulta
+            tiempos = new long[consultasXml];
+            for (int i = 0; i < consultasXml; i++) {
+                int clave = claves.get(aleatorio.nextInt(claves.size()));
+                long inicio = System.nanoTime();
+                FilaEmpleado empleado = buscarEnXml(xml, clave);
+                tiempos[i] = System.nanoTime() - inicio;
+                if (!empleado.equals(almacen.empleados().leer(clave))) {
+                    throw new IllegalStateException("XML y almacén no coinciden para el empleado " + clave);
+                }
+            }
+            mostrar("XML", tiempos);
+        }
+    }
+
+    private static FilaEmpleado buscarEnXml(Path xml, int clave) throws Exception {
+        FilaEmpleado[] encontrado = new FilaEmpleado[1];
+        LectorStAX.recorrerFilas(xml, "EMP_ROW", FilaEmpleado.CAMPOS, valores -> {
+            if (encontrado[0] == null && Campos.entero(valores[0]) == clave) {
+                encontrado[0] = FilaEmpleado.desdeTexto(valores);
+            }
+        });
+        return encontrado[0];
+    }
+
+    private static void mostrar(String metodo, long[] nanos) {
+        long total = Arrays.stream(nanos).sum();
+        Arrays.sort(nanos);
+        System.out.printf("%-8s | %,10d consultas | p50 %,12.2f µs | p99 %,12.2f µs | %,14.0f consultas/s%n",
+                metodo, nanos.length, percentil(nanos, 50) / 1e3, percentil(nanos, 99) / 1e3,
+                nanos.length / (total / 1e9));
+    }
+
+    // Rango más cercano sobre el array ordenado
+    private static long percentil(long[] ordenado, int p) {
+        int rango = (int) Math.ceil(p / 100.0 * ordenado.length);
+        return ordenado[Math.max(0, rango - 1)];
+    }
+}
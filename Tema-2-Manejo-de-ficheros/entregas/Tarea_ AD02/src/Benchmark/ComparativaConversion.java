@@ -0,0 +1,77 @@
+package Benchmark;
+
+/*
+    Compara la conversión a DatosEmpresa.xml de Main (DOM + grafo JAXB completo)
+    con la de ConversorStreaming (fragmentos por departamento).
+
+    Uso: ComparativaConversion <fichero> [dom|streaming|ambos]
+
+    Como en ComparativaLectura, para comparar el pico de heap conviene lanzar
+    cada modo en su propia JVM. Con "ambos" además se comprueba que las dos
+    salidas son idénticas.
+ */
+
+import Ejercicio_2.ConversorStreaming;
+import Ejercicio_2.Main;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ComparativaConversion {
+
+    interface Conversion {
+        void convertir(Path origen, Path destino) throws Exception;
+    }
+
+    private static double picoHeapMB() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                total += pool.getPeakUsage().getUsed();
+                pool.resetPeakUsage();
+            }
+        }
+        return total / (1024.0 * 1024.0);
+    }
+
+    private static Path medir(String nombre, Conversion conversion, Path origen) throws Exception {
+        Path destino = Files.createTempFile("conversion_" + nombre, ".xml");
+        System.gc();
+        picoHeapMB();
+
+        double segundos = Cronometro.medir(0, 1, () -> conversion.convertir(origen, destino));
+        System.out.printf("%-9s | %8.3f s | %8.2f MB/s | pico heap %,10.1f MB%n",
+                nombre, segundos, Files.size(origen) / (1024.0 * 1024.0) / segundos, picoHeapMB());
+        return destino;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaConversion <fichero> [dom|streaming|ambos]");
+            return;
+        }
+        Path origen = Path.of(args[0]);
+        String modo = args.length > 1 ? args[1] : "ambos";
+
+        Path dom = null;
+        Path streaming = null;
+        if (!modo.equals("streaming")) {
+            dom = medir("DOM", Main::convertir, origen);
+        }
+        if (!modo.equals("dom")) {
+            streaming = medir("Streaming", ConversorStreaming::convertir, origen);
+        }
+        if (dom != null && streaming != null) {
+            System.out.println(Files.mismatch(dom, streaming) == -1 ? "Salidas idénticas" : "¡Las salidas difieren!");
+        }
+        if (dom != null) {
+            Files.delete(dom);
+        }
+        if (streaming != null) {
+            Files.delete(streaming);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package Benchmark;
+
+/*
+    Rendimiento de escritura de Almacen.EmpresaDiario según el tamaño máximo
+    del lote de la escritura en grupo (cambios por fsync).
+
+    Parte de la instantánea que genera ConversorStreaming con el XML indicado.
+    Para cada tamaño de lote, varios hilos cambian salarios al azar y cada uno
+    espera a que su cambio esté en disco antes del siguiente. Se muestran
+    cambios/s, lotes escritos y cambios por lote. Como referencia se mide lo
+    que cuesta reescribir DatosEmpresa.xml entero (lo que haría falta por cada
+    cambio sin diario) y, al final, el tiempo de recuperación del diario.
+
+    Uso: ComparativaDiario <DepartamentosEmpleados.xml> [cambios por prueba] [hilos]
+ */
+
+import Almacen.Cambio;
+import Almacen.DiarioCambios;
+import Almacen.EmpresaDiario;
+import Almacen.FilaEmpleado;
+import Comun.Campos;
+import Comun.LectorStAX;
+import Ejercicio_2.ConversorStreaming;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+public class ComparativaDiario {
+    private static final int[] LOTES = {1, 8, 64, 256, 1024};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaDiario <DepartamentosEmpleados.xml> [cambios por prueba] [hilos]");
+            return;
+        }
+        int cambios = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int hilos = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        List<Integer> numeros = new ArrayList<>();
+        LectorStAX.recorrerFilas(Path.of(args[0]), "EMP_ROW", new String[]{"EMP_NO"}, v -> numeros.add(Campos.entero(v[0])));
+
+        Path directorio = Files.createTempDirectory("diario");
+        try {
+            ConversorStreaming.convertir(Path.of(args[0]), directorio.resolve(EmpresaDiario.INSTANTANEA));
+            System.out.printf("Empleados: %,d | cambios por prueba: %,d | hilos: %d%n%n", numeros.size(), cambios, hilos);
+
+            int total = 0;
+            for (int maxLote : LOTES) {
+                try (EmpresaDiario empresa = new EmpresaDiario(directorio, maxLote, 0, System.err)) {
+                    if (maxLote == LOTES[0]) {
+                        long inicio = System.nanoTime();
+                        empresa.compactar();
+                        double segundos = (System.nanoTime() - inicio) / 1e9;
+                        System.out.printf("Reescribir DatosEmpresa.xml completo: %.3f s por cambio (%.2f cambios/s)%n%n",
+                                segundos, 1 / segundos);
+                        System.out.printf("%10s | %12s | %10s | %14s%n", "Lote máx.", "Cambios/s", "Lotes", "Cambios/lote");
+                    }
+                    long lotesAntes = empresa.diario().lotes();
+                    long inicio = System.nanoTime();
+                    ejecutar(empresa, numeros, cambios, hilos, maxLote);
+                    double segundos = (System.nanoTime() - inicio) / 1e9;
+                    long lotes = empresa.diario().lotes() - lotesAntes;
+                    System.out.printf("%10d | %,12.0f | %,10d | %14.1f%n",
+                            maxLote, cambios / segundos, lotes, (double) cambios / lotes);
+                    total += cambios;
+                }
+            }
+
+            long inicio = System.nanoTime();
+            try (EmpresaDiario empresa = new EmpresaDiario(directorio, 1, 0, System.err)) {
+                System.out.printf("%nRecuperación: %,d cambios de %d segmentos en %.2f s (instantánea incluida)%n",
+                        empresa.cambiosRecuperados(), DiarioCambios.segmentos(directorio).size() - 1,
+                        (System.nanoTime() - inicio) / 1e9);
+                if (empresa.cambiosRecuperados() != total) {
+                    throw new IllegalStateException("Se esperaban " + total + " cambios en el diario");
+                }
+            }
+        } finally {
+            borrar(directorio);
+        }
+    }
+
+    // Cada hilo hace su parte de los cambios, esperando a disco tras cada uno
+    private static void ejecutar(EmpresaDiario empresa, List<Integer> numeros, int cambios, int hilos,
+                                 long semilla) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                int suyos = cambios / hilos + (h < cambios % hilos ? 1 : 0);
+                Random aleatorio = new Random(semilla * 1000 + h);
+                tareas.add(pool.submit(() -> {
+                    for (int i = 0; i < suyos; i++) {
+                        FilaEmpleado e = empresa.empleado(numeros.get(aleatorio.nextInt(numeros.size())));
+                        empresa.cambiar(Cambio.guardar(e.conSalario(90000 + aleatorio.nextInt(400000))));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        try (Stream<Path> ficheros = Files.walk(directorio)) {
+            for (Path f : ficheros.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(f);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package Benchmark;
+
+/*
+    Compara la lectura de los campos de cada EMP_ROW con el antiguo
+    obtenerTexto (un getElementsByTagName por campo) frente a ExtractorFila
+    (un solo recorrido de los hijos de la fila).
+
+    Uso: ComparativaExtraccion <fichero> [repeticiones]
+ */
+
+import Comun.ExtractorFila;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+
+public class ComparativaExtraccion {
+    private static final String[] CAMPOS =
+            {"EMP_NO", "APELLIDO", "OFICIO", "DIR", "FECHA_ALT", "SALARIO", "COMISION", "DEPT_NO"};
+
+    // Evita que el JIT elimine las lecturas
+    private static long sumidero;
+
+    // Método auxiliar original de LecturaDOM y Main
+    private static String obtenerTexto(Element elemento, String tagName) {
+        return elemento.getElementsByTagName(tagName)
+                .item(0)
+                .getTextContent();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaExtraccion <fichero> [repeticiones]");
+            return;
+        }
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new File(args[0]));
+        NodeList filas = doc.getDocumentElement().getElementsByTagName("EMP_ROW");
+        int numFilas = filas.getLength();
+        Element[] empleados = new Element[numFilas];
+        for (int i = 0; i < numFilas; i++) {
+            empleados[i] = (Element) filas.item(i);
+        }
+        System.out.printf("Filas EMP_ROW: %,d (%d campos por fila)%n", numFilas, CAMPOS.length);
+
+        double antiguo = Cronometro.medir(2, repeticiones, () -> {
+            for (Element empleado : empleados) {
+                for (String campo : CAMPOS) {
+                    sumidero += obtenerTexto(empleado, campo).length();
+                }
+            }
+        });
+
+        ExtractorFila extractor = new ExtractorFila(CAMPOS);
+        String[] valores = new String[CAMPOS.length];
+        double nuevo = Cronometro.medir(2, repeticiones, () -> {
+            for (Element empleado : empleados) {
+                extractor.extraer(empleado, valores);
+                for (String valor : valores) {
+                    sumidero += valor.length();
+                }
+            }
+        });
+
+        System.out.printf("obtenerTexto  | %8.1f ns/fila%n", antiguo * 1e9 / numFilas);
+        System.out.printf("ExtractorFila | %8.1f ns/fila | x%.1f%n", nuevo * 1e9 / numFilas, antiguo / nuevo);
+        System.out.println("(sumidero " + sumidero + ")");
+    }
+}
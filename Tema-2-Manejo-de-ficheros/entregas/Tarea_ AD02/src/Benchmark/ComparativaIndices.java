@@ -0,0 +1,147 @@
+package Benchmark;
+
+/*
+    Consultas con índices secundarios (Almacen.ConsultaEmpleados) frente a un
+    recorrido completo del almacén filtrando cada registro.
+
+    Genera un almacén temporal con N empleados (mismas distribuciones que
+    GeneradorDatos, semilla fija), construye IndicesEmpleados y mide varias
+    consultas típicas. Después cambia salarios, oficios y departamentos y borra
+    empleados al azar, y repite las consultas para comprobar que los índices se
+    han mantenido (el resultado debe coincidir con el del recorrido).
+
+    Uso: ComparativaIndices [empleados] [repeticiones]     (1.000.000 y 5 por defecto)
+ */
+
+import Almacen.AlmacenRegistros;
+import Almacen.ConsultaEmpleados;
+import Almacen.FilaEmpleado;
+import Almacen.IndicesEmpleados;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public class ComparativaIndices {
+    private static final String[] APELLIDOS = {"SANCHEZ", "ARROYO", "SALA", "JIMENEZ", "MARTIN", "NEGRO"};
+    private static final String[] OFICIOS = {"EMPLEADO", "VENDEDOR", "DIRECTOR", "ANALISTA", "PRESIDENTE"};
+    private static final int DEPARTAMENTOS = 500;
+    private static final int PRIMER_DIA = (int) LocalDate.of(1985, 1, 1).toEpochDay();
+
+    private record Caso(String nombre, Function<IndicesEmpleados, ConsultaEmpleados> consulta,
+                        Predicate<FilaEmpleado> filtro) {
+    }
+
+    private static final List<Caso> CASOS = List.of(
+            new Caso("DEPT_NO = 120",
+                    i -> new ConsultaEmpleados(i).departamento(120),
+                    e -> e.departamento() == 120),
+            new Caso("OFICIO = PRESIDENTE",
+                    i -> new ConsultaEmpleados(i).oficio("PRESIDENTE"),
+                    e -> e.oficio().equals("PRESIDENTE")),
+            new Caso("SALARIO 1500-1510",
+                    i -> new ConsultaEmpleados(i).salarioEntre(150000, 151000),
+                    e -> e.salario() >= 150000 && e.salario() <= 151000),
+            new Caso("FECHA_ALT en 1995",
+                    i -> new ConsultaEmpleados(i).altaEntre(LocalDate.of(1995, 1, 1), LocalDate.of(1995, 12, 31)),
+                    e -> e.fechaAlta() >= LocalDate.of(1995, 1, 1).toEpochDay()
+                            && e.fechaAlta() <= LocalDate.of(1995, 12, 31).toEpochDay()),
+            new Caso("DEPT+OFICIO+SALARIO",
+                    i -> new ConsultaEmpleados(i).departamento(120).oficio("VENDEDOR").salarioEntre(200000, 400000),
+                    e -> e.departamento() == 120 && e.oficio().equals("VENDEDOR")
+                            && e.salario() >= 200000 && e.salario() <= 400000));
+
+    public static void main(String[] args) throws Exception {
+        int empleados = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path fichero = Files.createTempFile("indices", ".alm");
+        Files.delete(fichero);
+        try (AlmacenRegistros<FilaEmpleado> almacen = new AlmacenRegistros<>(fichero, FilaEmpleado.FORMATO)) {
+            Random aleatorio = new Random(42);
+            long inicio = System.nanoTime();
+            for (int j = 0; j < empleados; j++) {
+                almacen.insertar(generar(aleatorio, 7000 + j));
+            }
+            System.out.printf("Empleados: %,d | generación %.2f s%n", empleados, (System.nanoTime() - inicio) / 1e9);
+
+            inicio = System.nanoTime();
+            IndicesEmpleados indices = IndicesEmpleados.crear(almacen);
+            System.out.printf("Construcción de índices: %.2f s%n%n", (System.nanoTime() - inicio) / 1e9);
+
+            medir(almacen, indices, repeticiones);
+
+            // Cambios y bajas: los índices se mantienen como oyentes del almacén
+            inicio = System.nanoTime();
+            int cambios = Math.max(1, empleados / 100);
+            for (int k = 0; k < cambios; k++) {
+                int numero = 7000 + aleatorio.nextInt(empleados);
+                FilaEmpleado e = almacen.leer(numero);
+                if (e == null) {
+                    continue;
+                }
+                if (k % 4 == 0) {
+                    almacen.borrar(numero);
+                } else {
+                    almacen.actualizar(new FilaEmpleado(e.numero(), e.apellido(), OFICIOS[aleatorio.nextInt(OFICIOS.length)],
+                            e.dir(), e.fechaAlta(), 90000 + aleatorio.nextInt(400000), e.comision(),
+                            (1 + aleatorio.nextInt(DEPARTAMENTOS)) * 10));
+                }
+            }
+            System.out.printf("%n%,d cambios y bajas con mantenimiento de índices: %.2f s%n%n",
+                    cambios, (System.nanoTime() - inicio) / 1e9);
+
+            medir(almacen, indices, repeticiones);
+        } finally {
+            Files.deleteIfExists(fichero);
+        }
+    }
+
+    private static FilaEmpleado generar(Random aleatorio, int numero) {
+        String oficio = OFICIOS[aleatorio.nextInt(OFICIOS.length)];
+        return new FilaEmpleado(numero, APELLIDOS[aleatorio.nextInt(APELLIDOS.length)], oficio,
+                7000 + aleatorio.nextInt(1000), PRIMER_DIA + aleatorio.nextInt(365 * 30),
+                (900 + aleatorio.nextInt(4000)) * 100L,
+                oficio.equals("VENDEDOR") ? aleatorio.nextInt(1500) * 100L : 0,
+                (1 + aleatorio.nextInt(DEPARTAMENTOS)) * 10);
+    }
+
+    private static void medir(AlmacenRegistros<FilaEmpleado> almacen, IndicesEmpleados indices,
+                              int repeticiones) throws Exception {
+        System.out.printf("%-22s | %10s | %12s | %12s | %8s%n", "Consulta", "Filas", "Índices ms", "Recorrido ms", "Ventaja");
+        for (Caso caso : CASOS) {
+            List<List<FilaEmpleado>> conIndices = new ArrayList<>(1);
+            List<List<FilaEmpleado>> recorrido = new ArrayList<>(1);
+            double segundosIndices = Cronometro.medir(1, repeticiones, () -> {
+                conIndices.clear();
+                conIndices.add(caso.consulta().apply(indices).ejecutar());
+            });
+            double segundosRecorrido = Cronometro.medir(1, repeticiones, () -> {
+                List<FilaEmpleado> filas = new ArrayList<>();
+                almacen.recorrer(e -> {
+                    if (caso.filtro().test(e)) {
+                        filas.add(e);
+                    }
+                });
+                recorrido.clear();
+                recorrido.add(filas);
+            });
+
+            List<FilaEmpleado> a = new ArrayList<>(conIndices.get(0));
+            List<FilaEmpleado> b = recorrido.get(0);
+            a.sort(Comparator.comparingInt(FilaEmpleado::numero));
+            if (!a.equals(b)) {
+                throw new IllegalStateException(caso.nombre() + ": los índices devuelven " + a.size()
+                        + " filas y el recorrido " + b.size());
+            }
+            System.out.printf("%-22s | %,10d | %12.3f | %12.3f | x%7.1f%n", caso.nombre(), a.size(),
+                    segundosIndices * 1e3, segundosRecorrido * 1e3, segundosRecorrido / segundosIndices);
+        }
+    }
+}
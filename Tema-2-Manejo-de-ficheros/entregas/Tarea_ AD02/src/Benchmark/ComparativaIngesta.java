@@ -0,0 +1,68 @@
+package Benchmark;
+
+/*
+    Rendimiento de la lectura de <EMP_ROW> según el número de hilos:
+    LectorStAX (un hilo) frente a LectorParalelo con 1, 2, 4... hasta el número
+    de núcleos, en orden y sin orden. Muestra MB/s, filas/s y la aceleración
+    respecto a LectorStAX, y comprueba que se leen las mismas filas.
+
+    Uso: ComparativaIngesta <fichero> [repeticiones]
+ */
+
+import Comun.LectorParalelo;
+import Comun.LectorStAX;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ComparativaIngesta {
+    private static final String[] CAMPOS =
+            {"EMP_NO", "APELLIDO", "OFICIO", "DIR", "FECHA_ALT", "SALARIO", "COMISION", "DEPT_NO"};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaIngesta <fichero> [repeticiones]");
+            return;
+        }
+        Path fichero = Path.of(args[0]);
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        double megas = Files.size(fichero) / (1024.0 * 1024.0);
+        int nucleos = Runtime.getRuntime().availableProcessors();
+
+        // Número de filas y suma de EMP_NO como comprobación
+        long[] referencia = new long[2];
+        double secuencial = Cronometro.medir(1, repeticiones, () -> {
+            referencia[0] = referencia[1] = 0;
+            LectorStAX.recorrerFilas(fichero, "EMP_ROW", CAMPOS, valores -> {
+                referencia[0]++;
+                referencia[1] += valores[0].hashCode();
+            });
+        });
+        System.out.printf("Fichero: %.1f MB | Filas: %,d | Núcleos: %d%n", megas, referencia[0], nucleos);
+        imprimir("LectorStAX", secuencial, secuencial, megas, referencia[0]);
+
+        for (boolean enOrden : new boolean[]{true, false}) {
+            for (int hilos = 1; hilos <= nucleos; hilos = hilos < nucleos ? Math.min(hilos * 2, nucleos) : hilos + 1) {
+                int numHilos = hilos;
+                long[] cuenta = new long[2];
+                double segundos = Cronometro.medir(1, repeticiones, () -> {
+                    cuenta[0] = cuenta[1] = 0;
+                    LectorParalelo.recorrerFilas(fichero, "EMP_ROW", CAMPOS, numHilos, enOrden, valores -> {
+                        cuenta[0]++;
+                        cuenta[1] += valores[0].hashCode();
+                    });
+                });
+                if (cuenta[0] != referencia[0] || cuenta[1] != referencia[1]) {
+                    throw new IllegalStateException("LectorParalelo con " + hilos + " hilos no lee las mismas filas");
+                }
+                imprimir(String.format("Paralelo %s %2d hilos", enOrden ? "en orden " : "sin orden", hilos),
+                        segundos, secuencial, megas, cuenta[0]);
+            }
+        }
+    }
+
+    private static void imprimir(String nombre, double segundos, double secuencial, double megas, long filas) {
+        System.out.printf("%-28s | %8.1f ms | %7.1f MB/s | %6.2f M filas/s | x%.2f%n",
+                nombre, segundos * 1e3, megas / segundos, filas / segundos / 1e6, secuencial / segundos);
+    }
+}
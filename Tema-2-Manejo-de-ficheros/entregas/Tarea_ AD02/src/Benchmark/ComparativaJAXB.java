@@ -0,0 +1,68 @@
+package Benchmark;
+
+/*
+    Latencia de exportar un Empresa con JAXB: creando contexto y marshaller en
+    cada llamada (como hacía Main) frente a ExportadorJAXB (contexto único y
+    marshallers reutilizados).
+
+    Uso: ComparativaJAXB <DepartamentosEmpleados.xml> [llamadas]
+ */
+
+import Ejercicio_2.ExportadorJAXB;
+import Ejercicio_2.JAXB.Empresa;
+import Ejercicio_2.Main;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.Marshaller;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+public class ComparativaJAXB {
+
+    interface Exportacion {
+        void exportar(Empresa empresa) throws Exception;
+    }
+
+    // Mediana y percentil 99 en microsegundos
+    private static void medir(String nombre, int llamadas, Empresa empresa, Exportacion exportacion) throws Exception {
+        long[] tiempos = new long[llamadas];
+        for (int i = 0; i < llamadas; i++) {
+            long inicio = System.nanoTime();
+            exportacion.exportar(empresa);
+            tiempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tiempos);
+        System.out.printf("%-22s | p50 %10.1f µs | p99 %10.1f µs%n", nombre,
+                tiempos[llamadas / 2] / 1e3, tiempos[(int) (llamadas * 0.99)] / 1e3);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaJAXB <DepartamentosEmpleados.xml> [llamadas]");
+            return;
+        }
+        int llamadas = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        // Empresa de ejemplo construida como en Main
+        Empresa empresa = Main.construirEmpresa(
+                DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new File(args[0])).getDocumentElement());
+
+        OutputStream descarte = OutputStream.nullOutputStream();
+
+        // Arranque en frío: primer contexto de la JVM
+        long inicio = System.nanoTime();
+        ExportadorJAXB exportador = ExportadorJAXB.getInstancia();
+        exportador.exportar(empresa, descarte);
+        System.out.printf("Arranque en frío (contexto + 1ª exportación): %.1f ms%n", (System.nanoTime() - inicio) / 1e6);
+
+        medir("Sin caché (Main)", llamadas, empresa, e -> {
+            Marshaller marshaller = JAXBContext.newInstance(Empresa.class).createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+            marshaller.marshal(e, descarte);
+        });
+        medir("ExportadorJAXB", llamadas, empresa, e -> exportador.exportar(e, descarte));
+    }
+}
@@ -0,0 +1,150 @@
+package Benchmark;
+
+/*
+    Camino rápido para exportaciones en ISO-8859-1 frente al camino general:
+
+    Lectura de filas EMP_ROW:
+        stax    LectorStAX.recorrerFilasStAX (decodificador del parser + String UTF-16)
+        latin1  LectorLatin1 (bytes -> String compacta, sin decodificar)
+    Transcodificación del fichero entero a UTF-8:
+        reader      InputStreamReader/OutputStreamWriter con buffers de 64 KB
+        general     Transcodificador por CharsetDecoder/CharsetEncoder
+        latin1Utf8  Transcodificador sin decodificador, de palabra en palabra
+
+    De cada variante se da la mediana de tiempo real, tiempo de CPU y bytes
+    reservados en el heap por el hilo (ThreadMXBean). Las filas de las dos
+    lecturas se resumen en un hash que tiene que coincidir, y los ficheros de
+    las tres transcodificaciones tienen que ser idénticos byte a byte.
+
+    Uso: ComparativaLatin1 <DepartamentosEmpleados.xml en ISO-8859-1> [repeticiones]
+        (GeneradorDatos escribe en ISO-8859-1; con 0 3300000 sale un fichero de ~1 GB)
+ */
+
+import Comun.LectorLatin1;
+import Comun.LectorStAX;
+import Comun.Transcodificador;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class ComparativaLatin1 {
+    private static final String[] CAMPOS =
+            {"EMP_NO", "APELLIDO", "OFICIO", "DIR", "FECHA_ALT", "SALARIO", "COMISION", "DEPT_NO"};
+    private static final int BUFFER = 64 * 1024;
+
+    private static final com.sun.management.ThreadMXBean HILOS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    interface Variante {
+        long ejecutar() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaLatin1 <DepartamentosEmpleados.xml en ISO-8859-1> [repeticiones]");
+            return;
+        }
+        Path xml = Path.of(args[0]);
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        HILOS.setThreadAllocatedMemoryEnabled(true);
+        double megas = Files.size(xml) / (1024.0 * 1024);
+        System.out.printf("%s: %,.1f MB%n%n", xml, megas);
+
+        System.out.println("Lectura de filas EMP_ROW");
+        long filasStAX = medir("stax", repeticiones, megas, () -> leer(xml, false));
+        long filasLatin1 = medir("latin1", repeticiones, megas, () -> leer(xml, true));
+        if (filasStAX != filasLatin1) {
+            throw new IllegalStateException("Las dos lecturas no dan las mismas filas");
+        }
+
+        System.out.println("\nTranscodificación a UTF-8");
+        Path reader = Files.createTempFile("latin1-reader", ".xml");
+        Path general = Files.createTempFile("latin1-general", ".xml");
+        Path directo = Files.createTempFile("latin1-directo", ".xml");
+        try {
+            medir("reader", repeticiones, megas, () -> conReader(xml, reader));
+            medir("general", repeticiones, megas, () -> Transcodificador.transcodificar(xml,
+                    StandardCharsets.ISO_8859_1, general, StandardCharsets.UTF_8,
+                    Transcodificador.Camino.GENERAL).bytesEscritos());
+            medir("latin1Utf8", repeticiones, megas, () -> Transcodificador.transcodificar(xml,
+                    StandardCharsets.ISO_8859_1, directo, StandardCharsets.UTF_8).bytesEscritos());
+            if (Files.mismatch(reader, general) != -1 || Files.mismatch(reader, directo) != -1) {
+                throw new IllegalStateException("Las transcodificaciones no dan el mismo fichero");
+            }
+        } finally {
+            Files.deleteIfExists(reader);
+            Files.deleteIfExists(general);
+            Files.deleteIfExists(directo);
+        }
+    }
+
+    // Hash de todas las filas leídas, para comprobar que las dos lecturas coinciden
+    private static long leer(Path xml, boolean latin1) throws Exception {
+        long[] hash = {0};
+        LectorStAX.ManejadorFila manejador = valores -> hash[0] = hash[0] * 31 + Arrays.hashCode(valores);
+        try (InputStream entrada = new BufferedInputStream(Files.newInputStream(xml), BUFFER)) {
+            if (latin1) {
+                LectorLatin1.recorrerFilas(entrada, "EMP_ROW", CAMPOS, manejador);
+            } else {
+                LectorStAX.recorrerFilasStAX(entrada, "EMP_ROW", CAMPOS, manejador);
+            }
+        }
+        return hash[0];
+    }
+
+    private static long conReader(Path origen, Path destino) throws Exception {
+        char[] buffer = new char[BUFFER];
+        long total = 0;
+        try (Reader entrada = new BufferedReader(new InputStreamReader(Files.newInputStream(origen),
+                StandardCharsets.ISO_8859_1), BUFFER);
+             Writer salida = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(destino),
+                     StandardCharsets.UTF_8), BUFFER)) {
+            for (int n; (n = entrada.read(buffer)) >= 0; ) {
+                salida.write(buffer, 0, n);
+                total += n;
+            }
+        }
+        return total;
+    }
+
+    // Mide la variante (una pasada de calentamiento) y devuelve su resultado, que ha de ser siempre el mismo
+    private static long medir(String nombre, int repeticiones, double megas, Variante variante) throws Exception {
+        long resultado = variante.ejecutar();
+        double[] real = new double[repeticiones];
+        double[] cpu = new double[repeticiones];
+        double[] reservado = new double[repeticiones];
+        for (int i = 0; i < repeticiones; i++) {
+            System.gc();
+            long inicioReal = System.nanoTime();
+            long inicioCpu = HILOS.getCurrentThreadCpuTime();
+            long inicioReservado = HILOS.getCurrentThreadAllocatedBytes();
+            if (variante.ejecutar() != resultado) {
+                throw new IllegalStateException(nombre + " no da siempre el mismo resultado");
+            }
+            reservado[i] = HILOS.getCurrentThreadAllocatedBytes() - inicioReservado;
+            cpu[i] = (HILOS.getCurrentThreadCpuTime() - inicioCpu) / 1e6;
+            real[i] = (System.nanoTime() - inicioReal) / 1e6;
+        }
+        double mediana = mediana(real);
+        System.out.printf("  %-10s | real %,9.1f ms (%,7.1f MB/s) | cpu %,9.1f ms | reservado %,10.1f MB%n",
+                nombre, mediana, megas / (mediana / 1e3), mediana(cpu), mediana(reservado) / (1024 * 1024));
+        return resultado;
+    }
+
+    private static double mediana(double[] valores) {
+        double[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        return ordenados[ordenados.length / 2];
+    }
+}
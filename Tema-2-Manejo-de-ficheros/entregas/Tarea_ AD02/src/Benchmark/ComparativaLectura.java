@@ -0,0 +1,82 @@
+package Benchmark;
+
+/*
+    Compara memoria y velocidad del listado de LecturaDOM frente al de LecturaStAX.
+
+    Uso: ComparativaLectura <fichero> [dom|stax|ambos] [repeticiones]
+
+    El listado se descarta (no se imprime) para medir solo la lectura.
+    Para comparar el pico de heap conviene lanzar cada modo en su propia JVM, p. ej.:
+        java -Xmx256m Benchmark.ComparativaLectura grande.xml dom
+        java -Xmx256m Benchmark.ComparativaLectura grande.xml stax
+ */
+
+import Comun.SalidaInforme;
+import Ejercicio_1.LecturaDOM;
+import Ejercicio_1.LecturaStAX;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ComparativaLectura {
+
+    interface Lectura {
+        void listar(Path fichero, SalidaInforme salida) throws Exception;
+    }
+
+    private static long picoHeap() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+
+    private static void reiniciarPicos() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    private static void medir(String nombre, Lectura lectura, Path fichero, int repeticiones) throws Exception {
+        SalidaInforme descarte = SalidaInforme.NULA;
+        double megas = Files.size(fichero) / (1024.0 * 1024.0);
+
+        // Calentamiento
+        lectura.listar(fichero, descarte);
+
+        reiniciarPicos();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            lectura.listar(fichero, descarte);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9 / repeticiones;
+
+        System.out.printf("%-5s | %8.3f s/pasada | %8.2f MB/s | pico heap %,10.1f MB%n",
+                nombre, segundos, megas / segundos, picoHeap() / (1024.0 * 1024.0));
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaLectura <fichero> [dom|stax|ambos] [repeticiones]");
+            return;
+        }
+        Path fichero = Path.of(args[0]);
+        String modo = args.length > 1 ? args[1] : "ambos";
+        int repeticiones = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        System.out.printf("Fichero: %s (%,d bytes)%n", fichero, Files.size(fichero));
+        if (!modo.equals("stax")) {
+            medir("DOM", LecturaDOM::listar, fichero, repeticiones);
+        }
+        if (!modo.equals("dom")) {
+            medir("StAX", LecturaStAX::listar, fichero, repeticiones);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package Benchmark;
+
+/*
+    Coste de medir las etapas con Comun.Metricas en LecturaDOM (parse, join y
+    el tiempo de write acumulado por registro) y en Main (parse, join y marshal).
+
+    Alterna ejecuciones con las métricas desactivadas y activadas para que el
+    calentamiento y el ruido afecten por igual a las dos, y compara las
+    medianas. Antes de cada ejecución se fuerza una recolección. El listado de
+    LecturaDOM se descarta (SalidaInforme.NULA) para que la escritura no tape
+    el coste de las mediciones. Conviene fijar el heap (-Xms igual a -Xmx): si
+    no, sus cambios de tamaño entre ejecuciones pesan más que las mediciones.
+
+    Uso: ComparativaMetricas <DepartamentosEmpleados.xml> [repeticiones]
+ */
+
+import Comun.Metricas;
+import Comun.SalidaInforme;
+import Ejercicio_1.LecturaDOM;
+import Ejercicio_2.Main;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class ComparativaMetricas {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaMetricas <DepartamentosEmpleados.xml> [repeticiones]");
+            return;
+        }
+        Path xml = Path.of(args[0]);
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        Path destino = Files.createTempFile("DatosEmpresa", ".xml");
+        try {
+            comparar("LecturaDOM", repeticiones, () -> LecturaDOM.listar(xml, SalidaInforme.NULA));
+            comparar("Main", repeticiones, () -> Main.convertir(xml, destino));
+        } finally {
+            Files.deleteIfExists(destino);
+        }
+    }
+
+    private static void comparar(String programa, int repeticiones, Cronometro.Tarea tarea) throws Exception {
+        double[] sin = new double[repeticiones];
+        double[] con = new double[repeticiones];
+        tarea.ejecutar();       // Calentamiento
+        for (int i = 0; i < repeticiones; i++) {
+            // Cada ejecución empieza con el heap limpio: la basura de la anterior no se cobra en esta
+            System.gc();
+            sin[i] = Cronometro.medir(0, 1, tarea);
+            System.gc();
+            Metricas.activar("");
+            con[i] = Cronometro.medir(0, 1, tarea);
+            Metricas.terminar(null);
+        }
+        Arrays.sort(sin);
+        Arrays.sort(con);
+        double medianaSin = sin[repeticiones / 2];
+        double medianaCon = con[repeticiones / 2];
+        System.out.printf("%-10s | sin métricas %,8.1f ms | con métricas %,8.1f ms | coste %+.2f %%%n",
+                programa, medianaSin * 1e3, medianaCon * 1e3, (medianaCon / medianaSin - 1) * 100);
+        Metricas.escribirResumen(System.out);
+        Metricas.reiniciar();
+        System.out.println();
+    }
+}
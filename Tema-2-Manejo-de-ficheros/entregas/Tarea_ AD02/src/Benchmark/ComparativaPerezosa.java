@@ -0,0 +1,113 @@
+package Benchmark;
+
+/*
+    Consulta de un solo departamento de DatosEmpresa.xml: importación completa
+    con JAXB (ExportadorJAXB) frente a carga bajo demanda (Ejercicio_2.EmpresaPerezosa).
+
+    Mide el tiempo hasta tener los empleados del departamento, la memoria que
+    queda ocupada con el modelo abierto y el tiempo de las consultas repetidas
+    (servidas por la caché). Comprueba que la Empresa perezosa, exportada con
+    JAXB, da exactamente el mismo XML que el fichero original.
+
+    Uso: ComparativaPerezosa <DatosEmpresa.xml> [repeticiones] [DEPT_NO]
+         (sin DEPT_NO se consulta el último departamento)
+ */
+
+import Ejercicio_2.EmpresaPerezosa;
+import Ejercicio_2.ExportadorJAXB;
+import Ejercicio_2.JAXB.Departamento;
+import Ejercicio_2.JAXB.Empresa;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public class ComparativaPerezosa {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaPerezosa <DatosEmpresa.xml> [repeticiones] [DEPT_NO]");
+            return;
+        }
+        Path xml = Path.of(args[0]);
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        ExportadorJAXB exportador = ExportadorJAXB.getInstancia();
+
+        int numero;
+        if (args.length > 2) {
+            numero = Integer.parseInt(args[2]);
+        } else {
+            try (EmpresaPerezosa datos = new EmpresaPerezosa(xml)) {
+                List<Departamento> departamentos = datos.getEmpresa().getDepartamentos();
+                numero = departamentos.get(departamentos.size() - 1).getId();
+            }
+        }
+
+        // Tiempo hasta el primer resultado
+        int[] encontrados = new int[2];
+        double completa = Cronometro.medir(1, repeticiones, () -> {
+            Empresa empresa = exportador.importar(xml, Empresa.class);
+            for (Departamento d : empresa.getDepartamentos()) {
+                if (d.getId() == numero) {
+                    encontrados[0] = d.getEmpleados().size();
+                    break;
+                }
+            }
+        });
+        double perezosa = Cronometro.medir(1, repeticiones, () -> {
+            try (EmpresaPerezosa datos = new EmpresaPerezosa(xml)) {
+                encontrados[1] = datos.departamento(numero).getEmpleados().size();
+            }
+        });
+        if (encontrados[0] != encontrados[1]) {
+            throw new IllegalStateException("Distinto número de empleados: " + encontrados[0] + " y " + encontrados[1]);
+        }
+
+        // Memoria ocupada con el modelo abierto tras la consulta
+        Object[] retenido = new Object[1];
+        long antes = memoriaUsada();
+        retenido[0] = exportador.importar(xml, Empresa.class);
+        long memoriaCompleta = memoriaUsada() - antes;
+        retenido[0] = null;
+
+        long memoriaPerezosa;
+        double repetida;
+        antes = memoriaUsada();
+        try (EmpresaPerezosa datos = new EmpresaPerezosa(xml)) {
+            datos.departamento(numero).getEmpleados();
+            memoriaPerezosa = memoriaUsada() - antes;
+            repetida = Cronometro.medir(1000, 100_000, () -> datos.departamento(numero).getEmpleados());
+        }
+
+        // Exportar la Empresa perezosa carga todos los departamentos pasando por la caché
+        try (EmpresaPerezosa datos = new EmpresaPerezosa(xml, 10_000)) {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            exportador.exportar(datos.getEmpresa(), salida);
+            if (!Arrays.equals(Files.readAllBytes(xml), salida.toByteArray())) {
+                throw new IllegalStateException("La Empresa perezosa no reproduce el XML original");
+            }
+            System.out.printf("Exportación completa verificada: %,d cargas, %,d empleados en caché al terminar%n%n",
+                    datos.cargas(), datos.empleadosEnCache());
+        }
+
+        System.out.printf("Fichero: %,d bytes | departamento %d: %,d empleados%n%n",
+                Files.size(xml), numero, encontrados[0]);
+        System.out.printf("%-32s | %12s | %12s%n", "Modo", "Primer res. ms", "Memoria MB");
+        System.out.printf("%-32s | %14.1f | %12.1f%n", "Importación completa (JAXB)", completa * 1e3, memoriaCompleta / 1e6);
+        System.out.printf("%-32s | %14.1f | %12.1f%n", "EmpresaPerezosa", perezosa * 1e3, memoriaPerezosa / 1e6);
+        System.out.printf("%nConsulta repetida (caché): %.2f µs%n", repetida * 1e6);
+    }
+
+    private static long memoriaUsada() throws InterruptedException {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+}
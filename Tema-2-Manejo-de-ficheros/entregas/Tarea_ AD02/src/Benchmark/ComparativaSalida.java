@@ -0,0 +1,88 @@
+package Benchmark;
+
+/*
+    Cuánto del tiempo del listado de LecturaStAX se va en escribir la salida.
+
+    Se lista el mismo fichero con varias salidas y se compara con la salida
+    NULA (solo cálculo). La diferencia es el tiempo atado a la salida.
+        printf por registro  PrintStream con autoflush, como el System.out original
+        texto                SalidaTexto (buffer de 1 MB)
+        texto asíncrona      SalidaTexto detrás de SalidaAsincrona
+        csv / jsonl          formatos para máquinas
+    Todo se escribe en un fichero temporal que se borra al terminar.
+
+    Uso: ComparativaSalida <fichero> [repeticiones]
+ */
+
+import Comun.SalidaInforme;
+import Ejercicio_1.LecturaDOM;
+import Ejercicio_1.LecturaStAX;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ComparativaSalida {
+
+    interface Fabrica {
+        SalidaInforme crear(Path destino) throws IOException;
+    }
+
+    // Lo que hacía el programa antes: un print sobre un PrintStream con autoflush por registro
+    private static SalidaInforme printfPorRegistro(Path destino) throws IOException {
+        PrintStream salida = new PrintStream(new FileOutputStream(destino.toFile()), true);
+        return new SalidaInforme() {
+            @Override
+            public void escribir(Registro registro) {
+                salida.print(LecturaDOM.FORMATO_LISTADO.formatear(registro));
+            }
+
+            @Override
+            public void close() {
+                salida.close();
+            }
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaSalida <fichero> [repeticiones]");
+            return;
+        }
+        Path fichero = Path.of(args[0]);
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        Path destino = Files.createTempFile("comparativa-salida", ".txt");
+
+        try {
+            double calculo = medir(fichero, destino, repeticiones, d -> SalidaInforme.NULA);
+            System.out.printf("%-20s | %8.1f ms | %s%n", "nula (solo cálculo)", calculo * 1e3, "-");
+
+            String[] nombres = {"printf por registro", "texto", "texto asíncrona", "csv", "jsonl"};
+            Fabrica[] fabricas = {
+                    ComparativaSalida::printfPorRegistro,
+                    d -> SalidaInforme.crear("texto", Files.newOutputStream(d), true, LecturaDOM.FORMATO_LISTADO, false),
+                    d -> SalidaInforme.crear("texto", Files.newOutputStream(d), true, LecturaDOM.FORMATO_LISTADO, true),
+                    d -> SalidaInforme.crear("csv", Files.newOutputStream(d), true, null, false,
+                            LecturaDOM.REGISTROS_LISTADO),
+                    d -> SalidaInforme.crear("jsonl", Files.newOutputStream(d), true, null, false),
+            };
+            for (int i = 0; i < fabricas.length; i++) {
+                double segundos = medir(fichero, destino, repeticiones, fabricas[i]);
+                System.out.printf("%-20s | %8.1f ms | salida %4.1f %% del tiempo | %,d bytes%n", nombres[i],
+                        segundos * 1e3, Math.max(0, segundos - calculo) * 100 / segundos, Files.size(destino));
+            }
+        } finally {
+            Files.deleteIfExists(destino);
+        }
+    }
+
+    private static double medir(Path fichero, Path destino, int repeticiones, Fabrica fabrica) throws Exception {
+        return Cronometro.medir(2, repeticiones, () -> {
+            try (SalidaInforme salida = fabrica.crear(destino)) {
+                LecturaStAX.listar(fichero, salida);
+            }
+        });
+    }
+}
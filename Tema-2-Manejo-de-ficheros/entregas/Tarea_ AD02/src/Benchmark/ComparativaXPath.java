@@ -0,0 +1,159 @@
+package Benchmark;
+
+/*
+    Latencia de "empleados del departamento X" con XPath (Ejercicio_1.ConsultasXPath):
+        - En frío:   servicio nuevo en cada consulta (análisis del fichero + evaluación),
+                     lo que haría un script que se lanza para cada pregunta
+        - Documento: el DOM ya está en memoria pero el resultado no (departamentos nuevos)
+        - Caliente:  resultado en caché, consultado desde varios hilos a la vez
+    Muestra p50 y p99 de cada caso, comprueba que las filas coinciden con una
+    lectura StAX del fichero y que al modificar el fichero se vuelve a analizar.
+
+    Trabaja sobre una copia temporal del fichero (se le cambia la fecha).
+
+    Uso: ComparativaXPath <DepartamentosEmpleados.xml> [consultas en caliente] [hilos] [departamentos]
+ */
+
+import Comun.LectorStAX;
+import Comun.ServicioXPath;
+import Ejercicio_1.ConsultasXPath;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ComparativaXPath {
+    private static final int FRIAS = 3;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: ComparativaXPath <DepartamentosEmpleados.xml> [consultas en caliente] [hilos] [departamentos]");
+            return;
+        }
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int hilos = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int maxDepartamentos = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        Path fichero = Files.createTempFile("consultas", ".xml");
+        Files.copy(Path.of(args[0]), fichero, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            List<Integer> departamentos = new ArrayList<>();
+            LectorStAX.recorrerFilas(fichero, "DEP_ROW", new String[]{"DEPT_NO"}, v -> {
+                if (departamentos.size() < maxDepartamentos) {
+                    departamentos.add(Integer.parseInt(v[0].trim()));
+                }
+            });
+            Random aleatorio = new Random(42);
+
+            // En frío: análisis + evaluación en cada consulta
+            long[] frias = new long[FRIAS];
+            for (int i = 0; i < FRIAS; i++) {
+                int dept = departamentos.get(aleatorio.nextInt(departamentos.size()));
+                long inicio = System.nanoTime();
+                new ServicioXPath(1, 1_000_000).consultar(fichero, ConsultasXPath.EMPLEADOS_DEPARTAMENTO, Map.of("dept", dept));
+                frias[i] = System.nanoTime() - inicio;
+            }
+
+            // Documento en caché, un departamento distinto en cada consulta
+            ServicioXPath servicio = new ServicioXPath(2, 10_000_000);
+            servicio.consultar(fichero, ConsultasXPath.DEPARTAMENTOS);
+            long[] documento = new long[departamentos.size()];
+            for (int i = 0; i < departamentos.size(); i++) {
+                long inicio = System.nanoTime();
+                List<String[]> filas = servicio.consultar(fichero, ConsultasXPath.EMPLEADOS_DEPARTAMENTO,
+                        Map.of("dept", departamentos.get(i)));
+                documento[i] = System.nanoTime() - inicio;
+                comprobar(fichero, departamentos.get(i), filas);
+            }
+
+            // Caliente: resultados en caché, varios hilos
+            long[] calientes = new long[consultas];
+            int porHilo = consultas / hilos;
+            long inicioCaliente = System.nanoTime();
+            ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+            try {
+                List<Future<?>> tareas = new ArrayList<>();
+                for (int h = 0; h < hilos; h++) {
+                    int desde = h * porHilo;
+                    int hasta = h == hilos - 1 ? consultas : desde + porHilo;
+                    long semilla = h;
+                    tareas.add(ejecutor.submit(() -> {
+                        Random propio = new Random(semilla);
+                        for (int i = desde; i < hasta; i++) {
+                            int dept = departamentos.get(propio.nextInt(departamentos.size()));
+                            long inicio = System.nanoTime();
+                            servicio.consultar(fichero, ConsultasXPath.EMPLEADOS_DEPARTAMENTO, Map.of("dept", dept));
+                            calientes[i] = System.nanoTime() - inicio;
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> tarea : tareas) {
+                    tarea.get();
+                }
+            } finally {
+                ejecutor.shutdown();
+            }
+            double segundosCaliente = (System.nanoTime() - inicioCaliente) / 1e9;
+
+            // Al cambiar el fichero se vuelve a analizar y se descartan sus resultados
+            long analisisAntes = servicio.analisis();
+            long evaluacionesAntes = servicio.evaluaciones();
+            Files.setLastModifiedTime(fichero, FileTime.fromMillis(Files.getLastModifiedTime(fichero).toMillis() + 2000));
+            servicio.consultar(fichero, ConsultasXPath.EMPLEADOS_DEPARTAMENTO, Map.of("dept", departamentos.get(0)));
+            if (servicio.analisis() != analisisAntes + 1 || servicio.evaluaciones() != evaluacionesAntes + 1) {
+                throw new IllegalStateException("La caché no se invalidó al modificar el fichero");
+            }
+
+            System.out.printf("Fichero: %,d bytes | departamentos consultados: %d | hilos: %d%n%n",
+                    Files.size(fichero), departamentos.size(), hilos);
+            mostrar("En frío (análisis + XPath)", frias);
+            mostrar("Documento en caché (XPath)", documento);
+            mostrar("Resultado en caché", calientes);
+            System.out.printf("%nEn caliente: %,.0f consultas/s con %d hilos | aciertos %,d | evaluaciones %,d | análisis %,d%n",
+                    consultas / segundosCaliente, hilos, servicio.aciertos(), servicio.evaluaciones(), servicio.analisis());
+            System.out.println("Invalidación al modificar el fichero: correcta");
+        } finally {
+            Files.deleteIfExists(fichero);
+        }
+    }
+
+    // Las filas de XPath deben ser las mismas (y en el mismo orden) que las de una lectura StAX
+    private static void comprobar(Path fichero, int dept, List<String[]> filas) throws Exception {
+        List<String[]> esperadas = new ArrayList<>();
+        LectorStAX.recorrerFilas(fichero, "EMP_ROW", ConsultasXPath.CAMPOS_EMPLEADO, v -> {
+            if (Integer.parseInt(v[7].trim()) == dept) {
+                esperadas.add(v.clone());
+            }
+        });
+        if (esperadas.size() != filas.size()) {
+            throw new IllegalStateException("Departamento " + dept + ": " + filas.size() + " filas, se esperaban " + esperadas.size());
+        }
+        for (int i = 0; i < filas.size(); i++) {
+            if (!Arrays.equals(esperadas.get(i), filas.get(i))) {
+                throw new IllegalStateException("Departamento " + dept + ": fila " + i + " distinta");
+            }
+        }
+    }
+
+    private static void mostrar(String caso, long[] nanos) {
+        Arrays.sort(nanos);
+        System.out.printf("%-28s | %,9d consultas | p50 %,14.2f µs | p99 %,14.2f µs%n",
+                caso, nanos.length, percentil(nanos, 50) / 1e3, percentil(nanos, 99) / 1e3);
+    }
+
+    // Rango más cercano sobre el array ordenado
+    private static long percentil(long[] ordenado, int p) {
+        int rango = (int) Math.ceil(p / 100.0 * ordenado.length);
+        return ordenado[Math.max(0, rango - 1)];
+    }
+}
@@ -0,0 +1,26 @@
+package Benchmark;
+
+/*
+    Medición sencilla de tiempos para las comparativas de este paquete:
+    unas pasadas de calentamiento (para que actúe el JIT) y después la media
+    de varias repeticiones.
+ */
+
+public class Cronometro {
+
+    public interface Tarea {
+        void ejecutar() throws Exception;
+    }
+
+    // Devuelve los segundos por repetición
+    public static double medir(int calentamiento, int repeticiones, Tarea tarea) throws Exception {
+        for (int i = 0; i < calentamiento; i++) {
+            tarea.ejecutar();
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            tarea.ejecutar();
+        }
+        return (System.nanoTime() - inicio) / 1e9 / repeticiones;
+    }
+}
@@ -0,0 +1,100 @@
+package Benchmark;
+
+/*
+    Genera un DepartamentosEmpleados.xml sintético del tamaño que se quiera,
+    con la misma estructura y codificación (ISO-8859-1) que el original.
+
+    Uso: GeneradorDatos <departamentos> <empleados> <fichero> [semilla]
+        departamentos 0: uno por cada 250 empleados (ver departamentosPara)
+
+    Con la misma semilla se genera siempre el mismo fichero. Escribe en
+    streaming, así que vale igual para 1.000 empleados que para 100 millones
+    (unos 330 bytes por empleado).
+ */
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+
+public class GeneradorDatos {
+    private static final String[] APELLIDOS = {"SANCHEZ", "ARROYO", "SALA", "JIMENEZ", "MARTIN", "NEGRO",
+            "CEREZO", "GIL", "REY", "TOVAR", "ALONSO", "JIMENO", "FERNANDEZ", "MUÑOZ"};
+    private static final String[] OFICIOS = {"EMPLEADO", "VENDEDOR", "DIRECTOR", "ANALISTA", "PRESIDENTE"};
+    private static final String[] NOMBRES_DEPARTAMENTO = {"CONTABILIDAD", "INVESTIGACION", "VENTAS", "PRODUCCION"};
+    private static final String[] LOCALIDADES = {"SEVILLA", "MADRID", "BARCELONA", "BILBAO", "VALENCIA", "A CORUÑA"};
+
+    private static final long PRIMER_DIA = LocalDate.of(1985, 1, 1).toEpochDay();
+
+    // Unos 250 empleados por departamento, y nunca menos de los 4 del fichero original
+    public static int departamentosPara(long numEmpleados) {
+        return (int) Math.min(Math.max(4, numEmpleados / 250), 1_000_000);
+    }
+
+    public static void generar(int numDepartamentos, long numEmpleados, Path fichero, long semilla) throws IOException {
+        Random aleatorio = new Random(semilla);
+
+        try (Writer w = new BufferedWriter(Files.newBufferedWriter(fichero, StandardCharsets.ISO_8859_1), 256 * 1024)) {
+            w.write("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n<datos>\n");
+
+            // DEPART
+            w.write("    <departamentos>\n        <TITULO>DATOS DE LA TABLA DEPART</TITULO>\n");
+            for (int i = 1; i <= numDepartamentos; i++) {
+                w.write("        <DEP_ROW>\n");
+                campo(w, "DEPT_NO", Integer.toString(i * 10));
+                campo(w, "DNOMBRE", NOMBRES_DEPARTAMENTO[aleatorio.nextInt(NOMBRES_DEPARTAMENTO.length)]);
+                campo(w, "LOC", LOCALIDADES[aleatorio.nextInt(LOCALIDADES.length)]);
+                w.write("        </DEP_ROW>\n");
+            }
+            w.write("    </departamentos>\n\n");
+
+            // EMPLE
+            w.write("    <empleados>\n        <TITULO>DATOS DE LA TABLA EMPLE</TITULO>\n");
+            for (long j = 0; j < numEmpleados; j++) {
+                String oficio = OFICIOS[aleatorio.nextInt(OFICIOS.length)];
+                w.write("        <EMP_ROW>\n");
+                campo(w, "EMP_NO", Long.toString(7000 + j));
+                campo(w, "APELLIDO", APELLIDOS[aleatorio.nextInt(APELLIDOS.length)]);
+                campo(w, "OFICIO", oficio);
+                campo(w, "DIR", Long.toString(7000 + aleatorio.nextInt((int) Math.min(numEmpleados, 1000))));
+                campo(w, "FECHA_ALT", LocalDate.ofEpochDay(PRIMER_DIA + aleatorio.nextInt(365 * 30)).toString());
+                campo(w, "SALARIO", Integer.toString(900 + aleatorio.nextInt(4000)));
+                campo(w, "COMISION", oficio.equals("VENDEDOR") ? Integer.toString(aleatorio.nextInt(1500)) : "0");
+                campo(w, "DEPT_NO", Integer.toString((1 + aleatorio.nextInt(numDepartamentos)) * 10));
+                w.write("        </EMP_ROW>\n");
+            }
+            w.write("    </empleados>\n</datos>\n");
+        }
+    }
+
+    private static void campo(Writer w, String etiqueta, String valor) throws IOException {
+        w.write("            <");
+        w.write(etiqueta);
+        w.write('>');
+        w.write(valor);
+        w.write("</");
+        w.write(etiqueta);
+        w.write(">\n");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Uso: GeneradorDatos <departamentos> <empleados> <fichero> [semilla]");
+            return;
+        }
+        long empleados = Long.parseLong(args[1]);
+        int departamentos = args[0].equals("0") ? departamentosPara(empleados) : Integer.parseInt(args[0]);
+        Path fichero = Path.of(args[2]);
+        long semilla = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+
+        long inicio = System.nanoTime();
+        generar(departamentos, empleados, fichero, semilla);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("Generado %s: %,d departamentos, %,d empleados, %,d bytes en %.2f s%n",
+                fichero, departamentos, empleados, Files.size(fichero), segundos);
+    }
+}
@@ -0,0 +1,178 @@
+package Benchmark;
+
+/*
+    Suite de rendimiento de los caminos de Tarea AD02 sobre datos generados
+    con semilla (ver GeneradorDatos), para seguir las regresiones entre versiones:
+        domParse          análisis DOM completo de DepartamentosEmpleados.xml (LecturaDOM, Main)
+        busquedaEmpleado  lectura de un empleado por EMP_NO en Almacen.AlmacenEmpresa
+        jaxbMarshal       exportación del Empresa JAXB con ExportadorJAXB (a un flujo nulo)
+    Cada prueba se mide con Banco para cada número de empleados pedido.
+
+    Los datos se generan la primera vez en el directorio de datos y se
+    reutilizan después (el nombre lleva el número de empleados y la semilla),
+    igual que el almacén de la búsqueda. Por encima de --maxDom empleados no se
+    hacen domParse ni jaxbMarshal: el DOM no cabría en memoria.
+
+    Uso: SuiteRendimiento [opciones]
+        --filas=1000,100000     empleados de cada conjunto de datos (de 1.000 a 100 millones)
+        --datos=directorio      donde se guardan los datos generados (por defecto datos-rendimiento)
+        --semilla=42
+        --maxDom=2000000
+        --calentamiento=3 --iteraciones=5 --tiempo=1000 (ms por iteración)
+        --resultados=fichero    JSON con el formato de JMH (por defecto rendimiento-ad02.json)
+        --comparar=fichero      resultados anteriores; termina con código 1 si hay regresiones
+        --umbral=10             % a partir del cual un empeoramiento es regresión
+        --pruebas=domParse,...  solo esas pruebas
+ */
+
+import Almacen.AlmacenEmpresa;
+import Ejercicio_2.ExportadorJAXB;
+import Ejercicio_2.JAXB.Empresa;
+import Ejercicio_2.Main;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class SuiteRendimiento {
+    private static final Set<String> PRUEBAS = Set.of("domParse", "busquedaEmpleado", "jaxbMarshal");
+    // Claves de búsqueda precalculadas: sortear en cada operación costaría tanto como la lectura
+    private static final int CLAVES = 1 << 16;
+
+    public static void main(String[] args) throws Exception {
+        List<Long> filas = new ArrayList<>(List.of(1_000L, 100_000L));
+        Path datos = Path.of("datos-rendimiento");
+        long semilla = 42;
+        long maxDom = 2_000_000;
+        int calentamiento = 3, iteraciones = 5;
+        long tiempo = 1000;
+        Path resultados = Path.of("rendimiento-ad02.json");
+        Path base = null;
+        double umbral = 10;
+        Set<String> pruebas = PRUEBAS;
+        for (String arg : args) {
+            String valor = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--filas=")) {
+                filas.clear();
+                for (String n : valor.split(",")) {
+                    filas.add(Long.parseLong(n.trim().replace("_", "")));
+                }
+            } else if (arg.startsWith("--datos=")) {
+                datos = Path.of(valor);
+            } else if (arg.startsWith("--semilla=")) {
+                semilla = Long.parseLong(valor);
+            } else if (arg.startsWith("--maxDom=")) {
+                maxDom = Long.parseLong(valor);
+            } else if (arg.startsWith("--calentamiento=")) {
+                calentamiento = Integer.parseInt(valor);
+            } else if (arg.startsWith("--iteraciones=")) {
+                iteraciones = Integer.parseInt(valor);
+            } else if (arg.startsWith("--tiempo=")) {
+                tiempo = Long.parseLong(valor);
+            } else if (arg.startsWith("--resultados=")) {
+                resultados = Path.of(valor);
+            } else if (arg.startsWith("--comparar=")) {
+                base = Path.of(valor);
+            } else if (arg.startsWith("--umbral=")) {
+                umbral = Double.parseDouble(valor);
+            } else if (arg.startsWith("--pruebas=")) {
+                pruebas = Set.of(valor.split(","));
+                if (!PRUEBAS.containsAll(pruebas)) {
+                    throw new IllegalArgumentException("Pruebas conocidas: " + PRUEBAS);
+                }
+            } else {
+                throw new IllegalArgumentException("Opción desconocida: " + arg);
+            }
+        }
+
+        Files.createDirectories(datos);
+        Banco banco = new Banco("ad02", calentamiento, iteraciones, tiempo);
+        for (long n : filas) {
+            Path xml = datos(datos, n, semilla);
+            Map<String, String> parametros = new LinkedHashMap<>();
+            parametros.put("filas", Long.toString(n));
+            parametros.put("semilla", Long.toString(semilla));
+
+            if (n <= maxDom && (pruebas.contains("domParse") || pruebas.contains("jaxbMarshal"))) {
+                DocumentBuilder db = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+                if (pruebas.contains("domParse")) {
+                    progreso("domParse", n);
+                    banco.medir("domParse", parametros, TimeUnit.MILLISECONDS, Files.size(xml), () -> {
+                        db.reset();
+                        return db.parse(xml.toFile());
+                    });
+                }
+                if (pruebas.contains("jaxbMarshal")) {
+                    progreso("jaxbMarshal", n);
+                    Document doc = db.parse(xml.toFile());
+                    Empresa empresa = Main.construirEmpresa(doc.getDocumentElement());
+                    doc = null;
+                    ExportadorJAXB exportador = ExportadorJAXB.getInstancia();
+                    banco.medir("jaxbMarshal", parametros, TimeUnit.MILLISECONDS, () -> {
+                        exportador.exportar(empresa, OutputStream.nullOutputStream());
+                        return empresa;
+                    });
+                }
+            }
+
+            if (pruebas.contains("busquedaEmpleado")) {
+                progreso("busquedaEmpleado", n);
+                try (AlmacenEmpresa almacen = new AlmacenEmpresa(datos.resolve("almacen-" + n + "-" + semilla))) {
+                    if (almacen.empleados().numRegistros() == 0) {
+                        almacen.importar(xml, System.err);
+                    }
+                    // EMP_NO va de 7000 a 7000 + n - 1 (ver GeneradorDatos)
+                    Random aleatorio = new Random(semilla);
+                    int[] claves = new int[CLAVES];
+                    for (int i = 0; i < CLAVES; i++) {
+                        claves[i] = (int) (7000 + (aleatorio.nextLong() & Long.MAX_VALUE) % n);
+                    }
+                    int[] siguiente = {0};
+                    banco.medir("busquedaEmpleado", parametros, TimeUnit.NANOSECONDS, () -> {
+                        int clave = claves[siguiente[0]++ & (CLAVES - 1)];
+                        Object empleado = almacen.empleados().leer(clave);
+                        if (empleado == null) {
+                            throw new IllegalStateException("El almacén no tiene el empleado " + clave);
+                        }
+                        return empleado;
+                    });
+                }
+            }
+        }
+
+        System.out.println();
+        Banco.escribirTabla(banco.getResultados(), System.out);
+        banco.guardar(resultados);
+        System.out.println("\nResultados guardados en " + resultados);
+        if (base != null && banco.comparar(base, umbral, System.out) > 0) {
+            System.exit(1);
+        }
+    }
+
+    // DepartamentosEmpleados-<n>-<semilla>.xml en el directorio de datos, generándolo si no existe
+    static Path datos(Path directorio, long empleados, long semilla) throws Exception {
+        Path xml = directorio.resolve("DepartamentosEmpleados-" + empleados + "-" + semilla + ".xml");
+        if (Files.notExists(xml)) {
+            System.err.printf("Generando %s...%n", xml);
+            Path temporal = directorio.resolve(xml.getFileName() + ".tmp");
+            GeneradorDatos.generar(GeneradorDatos.departamentosPara(empleados), empleados, temporal, semilla);
+            // Se renombra al terminar: un fichero a medias no se reutiliza en la siguiente ejecución
+            Files.move(temporal, xml);
+        }
+        return xml;
+    }
+
+    private static void progreso(String prueba, long filas) {
+        System.err.printf("%s (%,d filas)...%n", prueba, filas);
+    }
+}
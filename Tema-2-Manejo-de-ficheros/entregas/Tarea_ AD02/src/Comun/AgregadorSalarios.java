@@ -0,0 +1,255 @@
+package Comun;
+
+/*
+    Agregación en paralelo de SALARIO + COMISION sobre una TablaEmpleados:
+    empleados, total, media, mínimo, máximo y percentiles por grupo
+    (departamento, OFICIO o LOC).
+
+    Cada grupo es un int denso (fila de departamento o código de diccionario),
+    así que los acumuladores son arrays primitivos indexados por grupo:
+        1. Las filas se reparten en un número fijo de hojas (HOJAS_POR_HILO por
+           hilo del pool, y ninguna de menos de TRAMO_MINIMO filas), que
+           cuentan en paralelo los empleados de cada grupo en su propio int[].
+           No hay mapas compartidos ni sincronización.
+        2. Una pasada por grupos convierte las cuentas de cada hoja en la
+           posición donde escribe la hoja dentro del único long[] ordenado por
+           grupo, y las hojas copian sus importes en paralelo, cada una en su zona.
+        3. Se ordena en paralelo el segmento de cada grupo; el total, el
+           mínimo, el máximo y los percentiles (método del rango más cercano)
+           salen del segmento ordenado.
+    La memoria extra es el long[] de importes más un int[] por hoja: como el
+    número de hojas no depende de las filas, agrupar millones de empleados por
+    miles de departamentos no la dispara.
+    Los empleados cuyo DEPT_NO no existe quedan fuera al agrupar por
+    departamento o por LOC.
+
+    Uso:
+        AgregadorSalarios.Resumen[] r = new AgregadorSalarios(tabla, pool).agregar(AgregadorSalarios.Agrupacion.OFICIO);
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class AgregadorSalarios {
+    // Filas mínimas por hoja y hojas por hilo (más de una para repartir mejor la carga)
+    private static final int TRAMO_MINIMO = 16 * 1024;
+    private static final int HOJAS_POR_HILO = 4;
+
+    public enum Agrupacion {DEPARTAMENTO, OFICIO, LOCALIDAD}
+
+    public record Resumen(String grupo, int empleados, long total, long minimo, long maximo,
+                          long p50, long p90, long p99) {
+        // Importes en céntimos
+        public long media() {
+            return empleados == 0 ? 0 : Math.round((double) total / empleados);
+        }
+    }
+
+    private final TablaEmpleados tabla;
+    private final ForkJoinPool pool;
+
+    public AgregadorSalarios(TablaEmpleados tabla, ForkJoinPool pool) {
+        this.tabla = tabla;
+        this.pool = pool;
+    }
+
+    public AgregadorSalarios(TablaEmpleados tabla) {
+        this(tabla, ForkJoinPool.commonPool());
+    }
+
+    public Resumen[] agregar(Agrupacion agrupacion) {
+        int numGrupos = switch (agrupacion) {
+            case DEPARTAMENTO -> tabla.numDepartamentos();
+            case OFICIO -> tabla.oficios().tamano();
+            case LOCALIDAD -> tabla.localidades().tamano();
+        };
+
+        // 1. Cuentas por hoja
+        Hoja[] hojas = repartir(tabla.numEmpleados(), numGrupos);
+        pool.invoke(new Contar(agrupacion, hojas, 0, hojas.length));
+
+        // 2. Posición de cada hoja dentro de cada grupo, e importes contiguos por grupo
+        int[] inicioGrupo = new int[numGrupos + 1];
+        int siguiente = 0;
+        for (int g = 0; g < numGrupos; g++) {
+            inicioGrupo[g] = siguiente;
+            for (Hoja hoja : hojas) {
+                int n = hoja.posicion[g];
+                hoja.posicion[g] = siguiente;
+                siguiente += n;
+            }
+        }
+        inicioGrupo[numGrupos] = siguiente;
+        long[] importes = new long[siguiente];
+        pool.invoke(new Copiar(agrupacion, hojas, 0, hojas.length, importes));
+        hojas = null;
+
+        // 3. Orden por grupo, totales y percentiles
+        long[] totales = new long[numGrupos];
+        pool.invoke(new Ordenar(importes, inicioGrupo, totales, 0, numGrupos));
+
+        Resumen[] resumenes = new Resumen[numGrupos];
+        for (int g = 0; g < numGrupos; g++) {
+            int desde = inicioGrupo[g];
+            int n = inicioGrupo[g + 1] - desde;
+            resumenes[g] = new Resumen(etiqueta(agrupacion, g), n, totales[g],
+                    n == 0 ? 0 : importes[desde], n == 0 ? 0 : importes[desde + n - 1],
+                    percentil(importes, desde, n, 50), percentil(importes, desde, n, 90),
+                    percentil(importes, desde, n, 99));
+        }
+        return resumenes;
+    }
+
+    // Hojas de tamaño parecido; su número depende del pool, no de las filas
+    private Hoja[] repartir(int filas, int numGrupos) {
+        int numHojas = (int) Math.max(1, Math.min((filas + TRAMO_MINIMO - 1L) / TRAMO_MINIMO,
+                (long) pool.getParallelism() * HOJAS_POR_HILO));
+        Hoja[] hojas = new Hoja[numHojas];
+        for (int h = 0; h < numHojas; h++) {
+            hojas[h] = new Hoja((int) ((long) filas * h / numHojas), (int) ((long) filas * (h + 1) / numHojas),
+                    numGrupos);
+        }
+        return hojas;
+    }
+
+    private int grupo(Agrupacion agrupacion, int fila) {
+        return switch (agrupacion) {
+            case DEPARTAMENTO -> tabla.filaDepartamento(fila);
+            case OFICIO -> tabla.codigoOficio(fila);
+            case LOCALIDAD -> tabla.codigoLocalidad(fila);
+        };
+    }
+
+    private String etiqueta(Agrupacion agrupacion, int grupo) {
+        return switch (agrupacion) {
+            case DEPARTAMENTO -> tabla.numeroDepartamento(grupo) + " " + tabla.nombreDepartamento(grupo);
+            case OFICIO -> tabla.oficios().texto(grupo);
+            case LOCALIDAD -> tabla.localidades().texto(grupo);
+        };
+    }
+
+    private static long percentil(long[] ordenados, int desde, int n, int percentil) {
+        if (n == 0) {
+            return 0;
+        }
+        int rango = (int) Math.ceil(percentil / 100.0 * n);
+        return ordenados[desde + Math.max(rango, 1) - 1];
+    }
+
+    /*
+        Tramo de filas de una hoja. posicion empieza siendo la cuenta de
+        empleados de cada grupo en el tramo; en el paso 2 pasa a ser la primera
+        posición de la hoja en el array de importes, que avanza al copiar.
+     */
+    private static class Hoja {
+        final int desde, hasta;
+        final int[] posicion;
+
+        Hoja(int desde, int hasta, int numGrupos) {
+            this.desde = desde;
+            this.hasta = hasta;
+            posicion = new int[numGrupos];
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class Contar extends RecursiveAction {
+        private final Agrupacion agrupacion;
+        private final Hoja[] hojas;
+        private final int desde, hasta;     // Rango de hojas
+
+        Contar(Agrupacion agrupacion, Hoja[] hojas, int desde, int hasta) {
+            this.agrupacion = agrupacion;
+            this.hojas = hojas;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde > 1) {
+                int mitad = (desde + hasta) >>> 1;
+                invokeAll(new Contar(agrupacion, hojas, desde, mitad), new Contar(agrupacion, hojas, mitad, hasta));
+                return;
+            }
+            Hoja hoja = hojas[desde];
+            int[] cuenta = hoja.posicion;
+            for (int i = hoja.desde; i < hoja.hasta; i++) {
+                int g = grupo(agrupacion, i);
+                if (g >= 0) {
+                    cuenta[g]++;
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class Copiar extends RecursiveAction {
+        private final Agrupacion agrupacion;
+        private final Hoja[] hojas;
+        private final int desde, hasta;     // Rango de hojas
+        private final long[] importes;
+
+        Copiar(Agrupacion agrupacion, Hoja[] hojas, int desde, int hasta, long[] importes) {
+            this.agrupacion = agrupacion;
+            this.hojas = hojas;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.importes = importes;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde > 1) {
+                int mitad = (desde + hasta) >>> 1;
+                invokeAll(new Copiar(agrupacion, hojas, desde, mitad, importes),
+                        new Copiar(agrupacion, hojas, mitad, hasta, importes));
+                return;
+            }
+            Hoja hoja = hojas[desde];
+            int[] posicion = hoja.posicion;
+            for (int i = hoja.desde; i < hoja.hasta; i++) {
+                int g = grupo(agrupacion, i);
+                if (g >= 0) {
+                    importes[posicion[g]++] = tabla.salario(i) + tabla.comision(i);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class Ordenar extends RecursiveAction {
+        private final long[] importes;
+        private final int[] inicioGrupo;
+        private final long[] totales;
+        private final int desde, hasta;     // Rango de grupos
+
+        Ordenar(long[] importes, int[] inicioGrupo, long[] totales, int desde, int hasta) {
+            this.importes = importes;
+            this.inicioGrupo = inicioGrupo;
+            this.totales = totales;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            int elementos = inicioGrupo[hasta] - inicioGrupo[desde];
+            if (hasta - desde <= 1 || elementos <= TRAMO_MINIMO) {
+                for (int g = desde; g < hasta; g++) {
+                    Arrays.sort(importes, inicioGrupo[g], inicioGrupo[g + 1]);
+                    long total = 0;
+                    for (int i = inicioGrupo[g]; i < inicioGrupo[g + 1]; i++) {
+                        total += importes[i];
+                    }
+                    totales[g] = total;
+                }
+                return;
+            }
+            int mitad = (desde + hasta) >>> 1;
+            invokeAll(new Ordenar(importes, inicioGrupo, totales, desde, mitad),
+                    new Ordenar(importes, inicioGrupo, totales, mitad, hasta));
+        }
+    }
+}
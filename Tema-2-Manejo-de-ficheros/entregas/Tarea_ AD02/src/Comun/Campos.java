@@ -0,0 +1,70 @@
+package Comun;
+
+/*
+    Conversión entre el texto de los campos de DepartamentosEmpleados.xml y su
+    representación tipada:
+        - EMP_NO, DIR, DEPT_NO  -> int
+        - SALARIO, COMISION     -> long en céntimos ("1040" -> 104000, "1040.5" -> 104050)
+        - FECHA_ALT             -> int con el día epoch ("1990-12-17" -> 7655)
+    El paso inverso reproduce el texto original: los importes sin céntimos se
+    escriben sin decimales, como vienen en el XML.
+
+    Un campo numérico vacío (<DIR/>, <COMISION/>) vale SIN_VALOR, 0, que es como
+    el propio XML marca que no hay valor: el presidente tiene <DIR>0</DIR> y
+    quien no cobra comisión <COMISION>0</COMISION>. Al escribirlo sale "0".
+ */
+
+import java.time.LocalDate;
+
+public class Campos {
+    public static final int SIN_VALOR = 0;
+
+    public static int entero(String texto) {
+        String numero = texto.trim();
+        return numero.isEmpty() ? SIN_VALOR : Integer.parseInt(numero);
+    }
+
+    // === IMPORTES EN CÉNTIMOS ===
+
+    public static long centimos(String texto) {
+        String importe = texto.trim();
+        if (importe.isEmpty()) {
+            return SIN_VALOR;
+        }
+        int separador = Math.max(importe.indexOf('.'), importe.indexOf(','));
+        if (separador < 0) {
+            return Math.multiplyExact(Long.parseLong(importe), 100L);
+        }
+
+        String parteEntera = importe.substring(0, separador);
+        String decimales = importe.substring(separador + 1);
+        if (decimales.length() > 2 || decimales.isEmpty() || !decimales.chars().allMatch(Character::isDigit)) {
+            throw new NumberFormatException("Importe con más de dos decimales o mal formado: " + texto);
+        }
+        boolean negativo = parteEntera.startsWith("-");
+        long euros = parteEntera.isEmpty() || parteEntera.equals("-") ? 0 : Math.abs(Long.parseLong(parteEntera));
+        long centimos = Long.parseLong(decimales.length() == 1 ? decimales + "0" : decimales);
+        long total = Math.addExact(Math.multiplyExact(euros, 100L), centimos);
+        return negativo ? -total : total;
+    }
+
+    public static String importe(long centimos) {
+        long euros = centimos / 100;
+        long resto = Math.abs(centimos % 100);
+        if (resto == 0) {
+            return Long.toString(euros);
+        }
+        String signo = centimos < 0 && euros == 0 ? "-" : "";
+        return signo + euros + (resto < 10 ? ".0" : ".") + resto;
+    }
+
+    // === FECHAS COMO DÍA EPOCH ===
+
+    public static int diaEpoch(String texto) {
+        return Math.toIntExact(LocalDate.parse(texto.trim()).toEpochDay());
+    }
+
+    public static String fecha(int diaEpoch) {
+        return LocalDate.ofEpochDay(diaEpoch).toString();
+    }
+}
@@ -0,0 +1,42 @@
+package Comun;
+
+/*
+    Codificación de textos repetidos (OFICIO, LOC, APELLIDO...) como int.
+    Cada texto distinto se guarda una sola vez y las filas solo llevan su código,
+    que además sirve como índice directo para agrupar.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Diccionario {
+    private final Map<String, Integer> codigos = new HashMap<>();
+    private final List<String> textos = new ArrayList<>();
+
+    // Código del texto, dándolo de alta si es nuevo
+    public int codigo(String texto) {
+        Integer codigo = codigos.get(texto);
+        if (codigo == null) {
+            codigo = textos.size();
+            codigos.put(texto, codigo);
+            textos.add(texto);
+        }
+        return codigo;
+    }
+
+    // Código del texto o -1 si no está
+    public int buscar(String texto) {
+        Integer codigo = codigos.get(texto);
+        return codigo == null ? -1 : codigo;
+    }
+
+    public String texto(int codigo) {
+        return textos.get(codigo);
+    }
+
+    public int tamano() {
+        return textos.size();
+    }
+}
@@ -0,0 +1,206 @@
+package Comun;
+
+/*
+    Escritura rápida de CSV en UTF-8: los números, importes y fechas se
+    escriben como dígitos directamente en el buffer, sin pasar por String.
+    Los textos con comas, comillas o saltos de línea van entre comillas
+    (como en SalidaCSV). Los importes y las fechas siguen el formato de
+    Campos.importe y Campos.fecha.
+
+        escritor.cabecera("EMP_NO", "APELLIDO", "SALARIO")
+                .entero(7369).texto("SANCHEZ").importe(104000).fin();
+ */
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class EscritorCSV implements Closeable, Flushable {
+    private static final int TAMANO_BUFFER = 256 * 1024;
+
+    private final OutputStream destino;
+    private final byte[] buffer = new byte[TAMANO_BUFFER];
+    private int n;
+    private boolean primerCampo = true;
+
+    public EscritorCSV(OutputStream destino) {
+        this.destino = destino;
+    }
+
+    public EscritorCSV cabecera(String... nombres) throws IOException {
+        for (String nombre : nombres) {
+            texto(nombre);
+        }
+        return fin();
+    }
+
+    // === CAMPOS ===
+
+    private void separar() throws IOException {
+        if (!primerCampo) {
+            escribirByte(FilaCSV.SEPARADOR);
+        }
+        primerCampo = false;
+    }
+
+    public EscritorCSV texto(String valor) throws IOException {
+        separar();
+        if (valor == null) {
+            return this;
+        }
+        boolean comillas = false;
+        boolean ascii = true;
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            comillas |= c == ',' || c == '"' || c == '\n' || c == '\r';
+            ascii &= c < 0x80;
+        }
+        if (!comillas && ascii) {
+            for (int i = 0; i < valor.length(); i++) {
+                escribirByte((byte) valor.charAt(i));
+            }
+            return this;
+        }
+        if (!comillas) {
+            byte[] utf8 = valor.getBytes(StandardCharsets.UTF_8);
+            bytes(utf8, 0, utf8.length);
+            return this;
+        }
+        byte[] utf8 = valor.replace("\"", "\"\"").getBytes(StandardCharsets.UTF_8);
+        escribirByte(FilaCSV.COMILLAS);
+        bytes(utf8, 0, utf8.length);
+        escribirByte(FilaCSV.COMILLAS);
+        return this;
+    }
+
+    public EscritorCSV entero(long valor) throws IOException {
+        separar();
+        digitos(valor);
+        return this;
+    }
+
+    // Céntimos como en Campos.importe: 104000 -> "1040", 104050 -> "1040.50"
+    public EscritorCSV importe(long centimos) throws IOException {
+        separar();
+        long euros = centimos / 100;
+        int resto = (int) Math.abs(centimos % 100);
+        if (centimos < 0 && euros == 0) {
+            escribirByte((byte) '-');
+        }
+        digitos(euros);
+        if (resto != 0) {
+            escribirByte((byte) '.');
+            escribirByte((byte) ('0' + resto / 10));
+            escribirByte((byte) ('0' + resto % 10));
+        }
+        return this;
+    }
+
+    // Día epoch como AAAA-MM-DD (algoritmo "civil from days")
+    public EscritorCSV fecha(int diaEpoch) throws IOException {
+        separar();
+        int z = diaEpoch + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int diaEra = z - era * 146097;
+        int anioEra = (diaEra - diaEra / 1460 + diaEra / 36524 - diaEra / 146096) / 365;
+        int diaAnio = diaEra - (365 * anioEra + anioEra / 4 - anioEra / 100);
+        int mp = (5 * diaAnio + 2) / 153;
+        int dia = diaAnio - (153 * mp + 2) / 5 + 1;
+        int mes = mp < 10 ? mp + 3 : mp - 9;
+        int anio = anioEra + era * 400 + (mes <= 2 ? 1 : 0);
+        if (anio < 0 || anio > 9999) {
+            throw new IllegalArgumentException("Año fuera de rango: " + anio);
+        }
+        escribirByte((byte) ('0' + anio / 1000));
+        escribirByte((byte) ('0' + anio / 100 % 10));
+        escribirByte((byte) ('0' + anio / 10 % 10));
+        escribirByte((byte) ('0' + anio % 10));
+        escribirByte((byte) '-');
+        escribirByte((byte) ('0' + mes / 10));
+        escribirByte((byte) ('0' + mes % 10));
+        escribirByte((byte) '-');
+        escribirByte((byte) ('0' + dia / 10));
+        escribirByte((byte) ('0' + dia % 10));
+        return this;
+    }
+
+    // Fin de la fila
+    public EscritorCSV fin() throws IOException {
+        escribirByte((byte) '\n');
+        primerCampo = true;
+        return this;
+    }
+
+    // Copia la línea leída tal cual (sin volver a convertir sus campos)
+    public EscritorCSV linea(FilaCSV fila) throws IOException {
+        fila.copiarLinea(this);
+        return fin();
+    }
+
+    // === BUFFER ===
+
+    private void digitos(long valor) throws IOException {
+        if (valor == Long.MIN_VALUE) {
+            byte[] texto = Long.toString(valor).getBytes(StandardCharsets.US_ASCII);
+            bytes(texto, 0, texto.length);
+            return;
+        }
+        if (valor < 0) {
+            escribirByte((byte) '-');
+            valor = -valor;
+        }
+        if (n + 20 > buffer.length) {
+            vaciar();
+        }
+        int longitud = 1;
+        for (long v = valor; v >= 10; v /= 10) {
+            longitud++;
+        }
+        for (int i = n + longitud - 1; i >= n; i--) {
+            buffer[i] = (byte) ('0' + valor % 10);
+            valor /= 10;
+        }
+        n += longitud;
+    }
+
+    private void escribirByte(byte b) throws IOException {
+        if (n == buffer.length) {
+            vaciar();
+        }
+        buffer[n++] = b;
+    }
+
+    void bytes(byte[] datos, int desde, int longitud) throws IOException {
+        if (longitud > buffer.length - n) {
+            vaciar();
+            if (longitud > buffer.length) {
+                destino.write(datos, desde, longitud);
+                return;
+            }
+        }
+        System.arraycopy(datos, desde, buffer, n, longitud);
+        n += longitud;
+    }
+
+    private void vaciar() throws IOException {
+        destino.write(buffer, 0, n);
+        n = 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        vaciar();
+        destino.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            vaciar();
+        } finally {
+            destino.close();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package Comun;
+
+/*
+    XMLStreamWriter que indenta la salida igual que JAXB con JAXB_FORMATTED_OUTPUT.
+
+    JAXB ignora JAXB_FORMATTED_OUTPUT cuando escribe sobre un XMLStreamWriter, así
+    que al serializar por fragmentos (JAXB_FRAGMENT) la indentación la pone este
+    envoltorio:
+        - cada elemento empieza en una línea nueva con 4 espacios por nivel,
+        - los elementos con solo texto quedan en una línea: <LOC>SEVILLA</LOC>,
+        - los elementos vacíos se escriben como <EMPLEADOS/>.
+    Para lo último la etiqueta de apertura se retiene hasta saber si el elemento
+    tiene contenido.
+ */
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+public class EscritorXMLIndentado implements XMLStreamWriter {
+    private static final String INDENTACION = "    ";
+
+    private final XMLStreamWriter destino;
+
+    private int nivel;
+    private final BitSet conHijos = new BitSet();   // Por nivel: si el elemento abierto tiene elementos hijos
+
+    // Etiqueta de apertura pendiente de escribir
+    private String[] pendiente;                      // {prefijo, nombre, espacioNombres}
+    private final List<String[]> atributosPendientes = new ArrayList<>();
+    private final List<String[]> espaciosPendientes = new ArrayList<>();
+
+    public EscritorXMLIndentado(XMLStreamWriter destino) {
+        this.destino = destino;
+    }
+
+    // === ELEMENTOS ===
+
+    private void abrir(String prefijo, String nombre, String espacioNombres) throws XMLStreamException {
+        escribirPendiente();
+        if (nivel > 0) {
+            conHijos.set(nivel - 1);
+            destino.writeCharacters("\n" + INDENTACION.repeat(nivel));
+        }
+        pendiente = new String[]{prefijo, nombre, espacioNombres};
+        conHijos.clear(nivel);
+        nivel++;
+    }
+
+    private void escribirPendiente() throws XMLStreamException {
+        if (pendiente != null) {
+            escribirEtiqueta(false);
+        }
+    }
+
+    private void escribirEtiqueta(boolean vacia) throws XMLStreamException {
+        String prefijo = pendiente[0];
+        String nombre = pendiente[1];
+        String espacioNombres = pendiente[2];
+        pendiente = null;
+
+        if (espacioNombres == null) {
+            if (vacia) {
+                destino.writeEmptyElement(nombre);
+            } else {
+                destino.writeStartElement(nombre);
+            }
+        } else if (prefijo == null) {
+            if (vacia) {
+                destino.writeEmptyElement(espacioNombres, nombre);
+            } else {
+                destino.writeStartElement(espacioNombres, nombre);
+            }
+        } else if (vacia) {
+            destino.writeEmptyElement(prefijo, nombre, espacioNombres);
+        } else {
+            destino.writeStartElement(prefijo, nombre, espacioNombres);
+        }
+
+        for (String[] espacio : espaciosPendientes) {
+            if (espacio[0] == null) {
+                destino.writeDefaultNamespace(espacio[1]);
+            } else {
+                destino.writeNamespace(espacio[0], espacio[1]);
+            }
+        }
+        for (String[] atributo : atributosPendientes) {
+            if (atributo[2] == null) {
+                destino.writeAttribute(atributo[1], atributo[3]);
+            } else if (atributo[0] == null) {
+                destino.writeAttribute(atributo[2], atributo[1], atributo[3]);
+            } else {
+                destino.writeAttribute(atributo[0], atributo[2], atributo[1], atributo[3]);
+            }
+        }
+        espaciosPendientes.clear();
+        atributosPendientes.clear();
+    }
+
+    @Override
+    public void writeStartElement(String localName) throws XMLStreamException {
+        abrir(null, localName, null);
+    }
+
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+        abrir(null, localName, namespaceURI);
+    }
+
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        abrir(prefix, localName, namespaceURI);
+    }
+
+    @Override
+    public void writeEmptyElement(String localName) throws XMLStreamException {
+        abrir(null, localName, null);
+        writeEndElement();
+    }
+
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+        abrir(null, localName, namespaceURI);
+        writeEndElement();
+    }
+
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        abrir(prefix, localName, namespaceURI);
+        writeEndElement();
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        nivel--;
+        if (pendiente != null) {
+            escribirEtiqueta(true);
+        } else {
+            if (conHijos.get(nivel)) {
+                destino.writeCharacters("\n" + INDENTACION.repeat(nivel));
+            }
+            destino.writeEndElement();
+        }
+        if (nivel == 0) {
+            destino.writeCharacters("\n");
+        }
+    }
+
+    // === ATRIBUTOS Y ESPACIOS DE NOMBRES ===
+
+    @Override
+    public void writeAttribute(String localName, String value) throws XMLStreamException {
+        atributo(null, null, localName, value);
+    }
+
+    @Override
+    public void writeAttribute(String prefix, String namespaceURI, String localName, String value) throws XMLStreamException {
+        atributo(prefix, namespaceURI, localName, value);
+    }
+
+    @Override
+    public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+        atributo(null, namespaceURI, localName, value);
+    }
+
+    private void atributo(String prefijo, String espacioNombres, String nombre, String valor) throws XMLStreamException {
+        if (pendiente == null) {
+            throw new XMLStreamException("Atributo " + nombre + " fuera de una etiqueta de apertura");
+        }
+        atributosPendientes.add(new String[]{prefijo, nombre, espacioNombres, valor});
+    }
+
+    @Override
+    public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+        if (pendiente == null) {
+            destino.writeNamespace(prefix, namespaceURI);
+        } else {
+            espaciosPendientes.add(new String[]{prefix, namespaceURI});
+        }
+    }
+
+    @Override
+    public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+        if (pendiente == null) {
+            destino.writeDefaultNamespace(namespaceURI);
+        } else {
+            espaciosPendientes.add(new String[]{null, namespaceURI});
+        }
+    }
+
+    // === CONTENIDO ===
+
+    @Override
+    public void writeCharacters(String text) throws XMLStreamException {
+        escribirPendiente();
+        destino.writeCharacters(text);
+    }
+
+    @Override
+    public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+        escribirPendiente();
+        destino.writeCharacters(text, start, len);
+    }
+
+    @Override
+    public void writeCData(String data) throws XMLStreamException {
+        escribirPendiente();
+        destino.writeCData(data);
+    }
+
+    @Override
+    public void writeComment(String data) throws XMLStreamException {
+        escribirPendiente();
+        destino.writeComment(data);
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target) throws XMLStreamException {
+        escribirPendiente();
+        destino.writeProcessingInstruction(target);
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+        escribirPendiente();
+        destino.writeProcessingInstruction(target, data);
+    }
+
+    @Override
+    public void writeDTD(String dtd) throws XMLStreamException {
+        destino.writeDTD(dtd);
+    }
+
+    @Override
+    public void writeEntityRef(String name) throws XMLStreamException {
+        escribirPendiente();
+        destino.writeEntityRef(name);
+    }
+
+    // === DOCUMENTO ===
+
+    @Override
+    public void writeStartDocument() throws XMLStreamException {
+        destino.writeStartDocument();
+    }
+
+    @Override
+    public void writeStartDocument(String version) throws XMLStreamException {
+        destino.writeStartDocument(version);
+    }
+
+    @Override
+    public void writeStartDocument(String encoding, String version) throws XMLStreamException {
+        destino.writeStartDocument(encoding, version);
+    }
+
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        while (nivel > 0) {
+            writeEndElement();
+        }
+        destino.writeEndDocument();
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        destino.close();
+    }
+
+    @Override
+    public void flush() throws XMLStreamException {
+        // La etiqueta pendiente se mantiene: aún no se sabe si el elemento quedará vacío
+        destino.flush();
+    }
+
+    // === DELEGADOS ===
+
+    @Override
+    public String getPrefix(String uri) throws XMLStreamException {
+        return destino.getPrefix(uri);
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) throws XMLStreamException {
+        destino.setPrefix(prefix, uri);
+    }
+
+    @Override
+    public void setDefaultNamespace(String uri) throws XMLStreamException {
+        destino.setDefaultNamespace(uri);
+    }
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+        destino.setNamespaceContext(context);
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return destino.getNamespaceContext();
+    }
+
+    @Override
+    public Object getProperty(String name) throws IllegalArgumentException {
+        return destino.getProperty(name);
+    }
+}
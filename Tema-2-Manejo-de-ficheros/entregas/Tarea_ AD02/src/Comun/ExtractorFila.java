@@ -0,0 +1,66 @@
+package Comun;
+
+/*
+    Extrae de una sola pasada los campos de una fila (<DEP_ROW>, <EMP_ROW>).
+
+    Sustituye a llamar a obtenerTexto(fila, etiqueta) una vez por campo: cada
+    llamada hacía una búsqueda getElementsByTagName sobre el subárbol y creaba
+    una NodeList. Aquí se recorren los hijos directos de la fila una vez y cada
+    etiqueta se coloca en su posición con una tabla etiqueta -> posición
+    calculada al crear el extractor.
+ */
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ExtractorFila {
+    public static final int NO_EXISTE = -1;
+
+    private final String[] campos;
+    private final Map<String, Integer> posiciones;
+
+    public ExtractorFila(String... campos) {
+        this.campos = campos.clone();
+        this.posiciones = new HashMap<>(campos.length * 2);
+        for (int i = 0; i < campos.length; i++) {
+            posiciones.putIfAbsent(campos[i], i);
+        }
+    }
+
+    public int numCampos() {
+        return campos.length;
+    }
+
+    // Posición del campo en el array de valores, o NO_EXISTE si el extractor no lo lee
+    public int posicion(String etiqueta) {
+        Integer posicion = posiciones.get(etiqueta);
+        return posicion == null ? NO_EXISTE : posicion;
+    }
+
+    public String[] extraer(Element fila) {
+        return extraer(fila, new String[campos.length]);
+    }
+
+    /**
+     * Rellena {@code valores} con el texto de los hijos de la fila, en el orden de
+     * los campos del extractor. Los campos que la fila no trae quedan a null y,
+     * si una etiqueta se repite, se queda la primera (como getElementsByTagName).
+     */
+    public String[] extraer(Element fila, String[] valores) {
+        Arrays.fill(valores, null);
+        for (Node hijo = fila.getFirstChild(); hijo != null; hijo = hijo.getNextSibling()) {
+            if (hijo.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+            Integer posicion = posiciones.get(hijo.getNodeName());
+            if (posicion != null && valores[posicion] == null) {
+                valores[posicion] = hijo.getTextContent();
+            }
+        }
+        return valores;
+    }
+}
@@ -0,0 +1,327 @@
+package Comun;
+
+/*
+    Vista de una línea CSV (RFC 4180) sobre el array de bytes de LectorCSV.
+
+    No se copia nada: por cada columna se guarda dónde empieza y acaba dentro
+    del array, y los valores numéricos se convierten directamente desde los
+    bytes (entero, centimos, diaEpoch), con las mismas reglas que Campos.
+    Solo texto() y linea() crean un String. La vista es válida únicamente
+    durante la llamada al manejador: la siguiente línea reutiliza los arrays.
+
+    Los campos se piden por nombre al crear el lector; campo i = posición i
+    de esos nombres, buscada en la cabecera del fichero.
+    Los bytes son UTF-8 (los separadores son ASCII, así que sirve igual para
+    ISO-8859-1 en todo salvo texto()).
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class FilaCSV {
+    static final byte SEPARADOR = ',';
+    static final byte COMILLAS = '"';
+
+    private final String[] campos;
+    private final int[] columnaDeCampo;     // Campo pedido -> columna del fichero (-1 si no está)
+    private final int columnasCabecera;
+
+    byte[] datos;
+    private int[] inicio = new int[16];
+    private int[] fin = new int[16];
+    private boolean[] entrecomillada = new boolean[16];
+    private int columnas;
+    private int inicioLinea;
+    private int finLinea;                   // Sin el salto de línea
+    long numeroLinea;
+
+    FilaCSV(String[] campos, int[] columnaDeCampo, int columnasCabecera) {
+        this.campos = campos;
+        this.columnaDeCampo = columnaDeCampo;
+        this.columnasCabecera = columnasCabecera;
+    }
+
+    /**
+     * Analiza la línea que empieza en {@code desde}. Devuelve la posición
+     * siguiente a su salto de línea, o -1 si la línea no termina antes de
+     * {@code limite} (salvo con {@code finDatos}: entonces acaba en el límite).
+     */
+    int analizar(byte[] bytes, int desde, int limite, boolean finDatos) {
+        datos = bytes;
+        inicioLinea = desde;
+        columnas = 0;
+        int p = desde;
+
+        while (true) {
+            if (columnas == inicio.length) {
+                inicio = Arrays.copyOf(inicio, columnas * 2);
+                fin = Arrays.copyOf(fin, columnas * 2);
+                entrecomillada = Arrays.copyOf(entrecomillada, columnas * 2);
+            }
+
+            if (p < limite && bytes[p] == COMILLAS) {
+                // Hasta la comilla que no va seguida de otra
+                int q = p + 1;
+                while (true) {
+                    while (q < limite && bytes[q] != COMILLAS) {
+                        q++;
+                    }
+                    if (q >= limite) {
+                        return finDatos ? cerrarSinComillas(p, limite) : -1;
+                    }
+                    if (q + 1 < limite && bytes[q + 1] == COMILLAS) {
+                        q += 2;
+                        continue;
+                    }
+                    if (q + 1 >= limite && !finDatos) {
+                        return -1;      // Aún no se sabe si es "" o el cierre
+                    }
+                    break;
+                }
+                inicio[columnas] = p + 1;
+                fin[columnas] = q;
+                entrecomillada[columnas] = true;
+                p = q + 1;
+                // Lo que haya entre la comilla de cierre y el separador se ignora
+                while (p < limite && bytes[p] != SEPARADOR && bytes[p] != '\n') {
+                    p++;
+                }
+            } else {
+                int q = p;
+                while (q < limite && bytes[q] != SEPARADOR && bytes[q] != '\n') {
+                    q++;
+                }
+                inicio[columnas] = p;
+                fin[columnas] = q;
+                entrecomillada[columnas] = false;
+                p = q;
+            }
+            columnas++;
+
+            if (p >= limite) {
+                if (!finDatos) {
+                    return -1;
+                }
+                quitarRetorno(columnas - 1);
+                finLinea = limite;
+                return limite;
+            }
+            if (bytes[p] == '\n') {
+                quitarRetorno(columnas - 1);
+                finLinea = p > desde && bytes[p - 1] == '\r' ? p - 1 : p;
+                return p + 1;
+            }
+            p++;    // Separador
+        }
+    }
+
+    // Comillas sin cerrar al final de los datos: el resto es el valor
+    private int cerrarSinComillas(int p, int limite) {
+        inicio[columnas] = p + 1;
+        fin[columnas] = limite;
+        entrecomillada[columnas] = true;
+        columnas++;
+        finLinea = limite;
+        return limite;
+    }
+
+    private void quitarRetorno(int columna) {
+        if (!entrecomillada[columna] && fin[columna] > inicio[columna] && datos[fin[columna] - 1] == '\r') {
+            fin[columna]--;
+        }
+    }
+
+    // === CONSULTA ===
+
+    // Campos pedidos al lector
+    public int numCampos() {
+        return campos.length;
+    }
+
+    public String nombre(int campo) {
+        return campos[campo];
+    }
+
+    public long numeroLinea() {
+        return numeroLinea;
+    }
+
+    public int numColumnas() {
+        return columnas;
+    }
+
+    // Si la línea tiene tantas columnas como la cabecera
+    public boolean columnasCompletas() {
+        return columnas == columnasCabecera;
+    }
+
+    public boolean lineaVacia() {
+        return finLinea == inicioLinea;
+    }
+
+    public boolean existe(int campo) {
+        int columna = columnaDeCampo[campo];
+        return columna >= 0 && columna < columnas;
+    }
+
+    public boolean vacio(int campo) {
+        int columna = columnaDeCampo[campo];
+        return columna < 0 || columna >= columnas || fin[columna] == inicio[columna];
+    }
+
+    public String texto(int campo) {
+        if (!existe(campo)) {
+            return null;
+        }
+        return textoColumna(columnaDeCampo[campo]);
+    }
+
+    // Texto de una columna del fichero por posición (para leer la cabecera)
+    String textoColumna(int columna) {
+        String texto = new String(datos, inicio[columna], fin[columna] - inicio[columna], StandardCharsets.UTF_8);
+        return entrecomillada[columna] ? texto.replace("\"\"", "\"") : texto;
+    }
+
+    // Texto de la línea completa (para el registro de rechazos)
+    public String linea() {
+        return new String(datos, inicioLinea, finLinea - inicioLinea, StandardCharsets.UTF_8);
+    }
+
+    // Bytes de la línea sin el salto de línea
+    public void copiarLinea(EscritorCSV destino) throws IOException {
+        destino.bytes(datos, inicioLinea, finLinea - inicioLinea);
+    }
+
+    // === CONVERSIONES SIN CREAR OBJETOS ===
+
+    public int entero(int campo) {
+        long valor = numero(campo, false);
+        if (valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE) {
+            throw error(campo, "Número fuera de rango");
+        }
+        return (int) valor;
+    }
+
+    // Importe en céntimos: "1040" -> 104000, "1040.5" -> 104050
+    public long centimos(int campo) {
+        return numero(campo, true);
+    }
+
+    private long numero(int campo, boolean decimales) {
+        int columna = columna(campo);
+        int p = inicio[columna];
+        int limite = fin[columna];
+        while (p < limite && datos[p] == ' ') {
+            p++;
+        }
+        while (limite > p && datos[limite - 1] == ' ') {
+            limite--;
+        }
+        boolean negativo = p < limite && datos[p] == '-';
+        if (negativo) {
+            p++;
+        }
+        if (p == limite) {
+            throw error(campo, "Número vacío");
+        }
+
+        long valor = 0;
+        int cifras = 0;
+        for (; p < limite && datos[p] != '.'; p++) {
+            int cifra = datos[p] - '0';
+            if (cifra < 0 || cifra > 9 || ++cifras > 17) {
+                throw error(campo, "Número no válido");
+            }
+            valor = valor * 10 + cifra;
+        }
+        if (decimales) {
+            int centimos = 0;
+            int numDecimales = 0;
+            if (p < limite) {
+                p++;
+                for (; p < limite; p++) {
+                    int cifra = datos[p] - '0';
+                    if (cifra < 0 || cifra > 9 || ++numDecimales > 2) {
+                        throw error(campo, "Importe con más de dos decimales o mal formado");
+                    }
+                    centimos = centimos * 10 + cifra;
+                }
+                if (numDecimales == 0) {
+                    throw error(campo, "Importe mal formado");
+                }
+                if (numDecimales == 1) {
+                    centimos *= 10;
+                }
+            }
+            valor = valor * 100 + centimos;
+        } else if (p < limite) {
+            throw error(campo, "Número no válido");
+        }
+        return negativo ? -valor : valor;
+    }
+
+    // Fecha AAAA-MM-DD como día epoch (igual que Campos.diaEpoch)
+    public int diaEpoch(int campo) {
+        int columna = columna(campo);
+        int p = inicio[columna];
+        int limite = fin[columna];
+        while (p < limite && datos[p] == ' ') {
+            p++;
+        }
+        while (limite > p && datos[limite - 1] == ' ') {
+            limite--;
+        }
+        if (limite - p != 10 || datos[p + 4] != '-' || datos[p + 7] != '-') {
+            throw error(campo, "Fecha no válida");
+        }
+        int anio = cifras(campo, p, 4);
+        int mes = cifras(campo, p + 5, 2);
+        int dia = cifras(campo, p + 8, 2);
+        if (mes < 1 || mes > 12 || dia < 1 || dia > diasDelMes(anio, mes)) {
+            throw error(campo, "Fecha no válida");
+        }
+        return diaEpoch(anio, mes, dia);
+    }
+
+    private int cifras(int campo, int p, int n) {
+        int valor = 0;
+        for (int i = p; i < p + n; i++) {
+            int cifra = datos[i] - '0';
+            if (cifra < 0 || cifra > 9) {
+                throw error(campo, "Fecha no válida");
+            }
+            valor = valor * 10 + cifra;
+        }
+        return valor;
+    }
+
+    static int diasDelMes(int anio, int mes) {
+        return switch (mes) {
+            case 2 -> (anio % 4 == 0 && (anio % 100 != 0 || anio % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    // Días desde 1970-01-01 del calendario gregoriano (algoritmo "days from civil")
+    static int diaEpoch(int anio, int mes, int dia) {
+        int a = mes <= 2 ? anio - 1 : anio;
+        int era = Math.floorDiv(a, 400);
+        int anioEra = a - era * 400;
+        int diaAnio = (153 * (mes + (mes > 2 ? -3 : 9)) + 2) / 5 + dia - 1;
+        int diaEra = anioEra * 365 + anioEra / 4 - anioEra / 100 + diaAnio;
+        return era * 146097 + diaEra - 719468;
+    }
+
+    private int columna(int campo) {
+        if (!existe(campo)) {
+            throw new NumberFormatException("Falta el campo " + campos[campo]);
+        }
+        return columnaDeCampo[campo];
+    }
+
+    private NumberFormatException error(int campo, String motivo) {
+        return new NumberFormatException(campos[campo] + ": " + motivo + " (" + texto(campo) + ")");
+    }
+}
@@ -0,0 +1,212 @@
+package Comun;
+
+/*
+    Índice de empleados agrupados por DEPT_NO.
+
+    Se rellena en una sola pasada sobre los empleados y después permite recorrer
+    los de un departamento en O(empleados del departamento), en lugar de volver a
+    recorrer todos los EMP_ROW por cada DEP_ROW.
+
+    Los DEPT_NO numéricos (el caso normal) van a una tabla hash de claves int con
+    direccionamiento abierto; los que no lo son, a un HashMap<String, Integer>.
+    Los empleados de cada grupo se encadenan con arrays de int, conservando
+    el orden en que se agregaron.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class IndicePorDepartamento<E> {
+    private static final int VACIO = -1;
+
+    // Tabla hash abierta: clave int -> número de grupo
+    private int[] claves = new int[16];
+    private int[] gruposPorHueco = vacios(16);
+    private int numClaves;
+
+    // Claves que no son números
+    private final Map<String, Integer> gruposTexto = new HashMap<>();
+
+    // Por grupo: primer y último empleado, y si algún departamento lo ha consultado
+    private int[] primero = new int[16];
+    private int[] ultimo = new int[16];
+    private boolean[] consultado = new boolean[16];
+    private int numGrupos;
+
+    // Empleados y cadena al siguiente empleado del mismo grupo
+    private final List<E> elementos = new ArrayList<>();
+    private int[] siguiente = new int[16];
+
+    private static int[] vacios(int tamano) {
+        int[] array = new int[tamano];
+        Arrays.fill(array, VACIO);
+        return array;
+    }
+
+    public void agregar(String numeroDepartamento, E elemento) {
+        int grupo = grupo(numeroDepartamento, true);
+        int posicion = elementos.size();
+        elementos.add(elemento);
+
+        if (posicion == siguiente.length) {
+            siguiente = Arrays.copyOf(siguiente, posicion * 2);
+        }
+        siguiente[posicion] = VACIO;
+
+        if (primero[grupo] == VACIO) {
+            primero[grupo] = posicion;
+        } else {
+            siguiente[ultimo[grupo]] = posicion;
+        }
+        ultimo[grupo] = posicion;
+    }
+
+    /**
+     * Recorre, en el orden en que se agregaron, los empleados del departamento indicado
+     * y lo marca como consultado.
+     */
+    public void recorrer(String numeroDepartamento, Consumer<E> accion) {
+        int grupo = grupo(numeroDepartamento, false);
+        if (grupo == VACIO) {
+            return;
+        }
+        consultado[grupo] = true;
+        for (int i = primero[grupo]; i != VACIO; i = siguiente[i]) {
+            accion.accept(elementos.get(i));
+        }
+    }
+
+    public List<E> obtener(String numeroDepartamento) {
+        List<E> resultado = new ArrayList<>();
+        recorrer(numeroDepartamento, resultado::add);
+        return resultado;
+    }
+
+    /**
+     * Empleados cuyo DEPT_NO no se ha consultado nunca, es decir, que no tienen
+     * departamento si ya se han recorrido todos los departamentos.
+     */
+    public List<E> sinDepartamento() {
+        List<E> resultado = new ArrayList<>();
+        for (int grupo = 0; grupo < numGrupos; grupo++) {
+            if (!consultado[grupo]) {
+                for (int i = primero[grupo]; i != VACIO; i = siguiente[i]) {
+                    resultado.add(elementos.get(i));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    public int numEmpleados() {
+        return elementos.size();
+    }
+
+    public int numDepartamentos() {
+        return numGrupos;
+    }
+
+    // === BÚSQUEDA DEL GRUPO ===
+
+    private int grupo(String numeroDepartamento, boolean crear) {
+        long numero = aEntero(numeroDepartamento);
+        if (numero == Long.MIN_VALUE) {
+            Integer grupo = gruposTexto.get(numeroDepartamento);
+            if (grupo == null && crear) {
+                grupo = nuevoGrupo();
+                gruposTexto.put(numeroDepartamento, grupo);
+            }
+            return grupo == null ? VACIO : grupo;
+        }
+        return grupoEntero((int) numero, crear);
+    }
+
+    private int grupoEntero(int clave, boolean crear) {
+        int mascara = claves.length - 1;
+        int hueco = mezclar(clave) & mascara;
+        while (gruposPorHueco[hueco] != VACIO) {
+            if (claves[hueco] == clave) {
+                return gruposPorHueco[hueco];
+            }
+            hueco = (hueco + 1) & mascara;
+        }
+        if (!crear) {
+            return VACIO;
+        }
+
+        int grupo = nuevoGrupo();
+        claves[hueco] = clave;
+        gruposPorHueco[hueco] = grupo;
+        if (++numClaves * 2 > claves.length) {
+            redimensionar();
+        }
+        return grupo;
+    }
+
+    private void redimensionar() {
+        int[] clavesAntiguas = claves;
+        int[] gruposAntiguos = gruposPorHueco;
+        claves = new int[clavesAntiguas.length * 2];
+        gruposPorHueco = vacios(claves.length);
+        int mascara = claves.length - 1;
+
+        for (int i = 0; i < clavesAntiguas.length; i++) {
+            if (gruposAntiguos[i] != VACIO) {
+                int hueco = mezclar(clavesAntiguas[i]) & mascara;
+                while (gruposPorHueco[hueco] != VACIO) {
+                    hueco = (hueco + 1) & mascara;
+                }
+                claves[hueco] = clavesAntiguas[i];
+                gruposPorHueco[hueco] = gruposAntiguos[i];
+            }
+        }
+    }
+
+    private int nuevoGrupo() {
+        int grupo = numGrupos++;
+        if (grupo == primero.length) {
+            primero = Arrays.copyOf(primero, grupo * 2);
+            ultimo = Arrays.copyOf(ultimo, grupo * 2);
+            consultado = Arrays.copyOf(consultado, grupo * 2);
+        }
+        primero[grupo] = VACIO;
+        ultimo[grupo] = VACIO;
+        return grupo;
+    }
+
+    // Dispersa los bits para que claves como 10, 20, 30... no caigan en huecos contiguos
+    private static int mezclar(int clave) {
+        int h = clave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Convierte a int sin lanzar excepciones; Long.MIN_VALUE si no es un entero válido
+    private static long aEntero(String texto) {
+        int longitud = texto.length();
+        if (longitud == 0 || longitud > 10) {
+            return Long.MIN_VALUE;
+        }
+        int inicio = texto.charAt(0) == '-' ? 1 : 0;
+        if (inicio == longitud) {
+            return Long.MIN_VALUE;
+        }
+        long valor = 0;
+        for (int i = inicio; i < longitud; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                return Long.MIN_VALUE;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        // "010", "-0" y "10", "0" serían el mismo int: solo se aceptan representaciones canónicas
+        if ((longitud - inicio > 1 && texto.charAt(inicio) == '0') || (inicio == 1 && valor == 0)) {
+            return Long.MIN_VALUE;
+        }
+        valor = inicio == 1 ? -valor : valor;
+        return valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE ? Long.MIN_VALUE : valor;
+    }
+}
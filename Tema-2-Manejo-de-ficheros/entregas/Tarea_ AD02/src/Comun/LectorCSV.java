@@ -0,0 +1,247 @@
+package Comun;
+
+/*
+    Lectura rápida de ficheros CSV (EMPLE.csv, DEPART.csv...) sin crear un
+    String por campo.
+
+    El fichero se lee con FileChannel en una ventana de bytes (1 MB, crece si
+    una línea no cabe) y cada línea se entrega al manejador como una FilaCSV,
+    que apunta a sus columnas dentro de la ventana. La primera línea es la
+    cabecera: los campos se buscan en ella por nombre, en cualquier orden.
+    Las líneas vacías se cuentan pero no se entregan.
+
+    recorrerParalelo() divide el fichero en tantos trozos de bytes como hilos.
+    Cada trozo empieza en la primera línea que comienza dentro de él y termina
+    la última que comienza dentro de él (aunque acabe más allá), así que no
+    sirve para ficheros con saltos de línea dentro de comillas.
+    Cada trozo tiene su propio manejador, que se usa solo desde su hilo.
+
+    Numeración de líneas: la cabecera es la línea 1. En paralelo,
+    FilaCSV.numeroLinea() cuenta desde el principio del trozo; la línea real
+    es la suma de las líneas de los trozos anteriores (lo que devuelve
+    recorrerParalelo) más la del trozo.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LectorCSV {
+    private static final int VENTANA = 1024 * 1024;
+    private static final long TROZO_MINIMO = 4L * 1024 * 1024;
+
+    public interface ManejadorFila {
+        void fila(FilaCSV fila) throws IOException;
+    }
+
+    public interface CreadorManejador {
+        ManejadorFila crear(int trozo) throws IOException;
+    }
+
+    // Nombres de las columnas de la cabecera
+    public static String[] cabecera(Path fichero) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+            return cabecera(canal);
+        }
+    }
+
+    private static String[] cabecera(FileChannel canal) throws IOException {
+        Ventana ventana = new Ventana(canal, 0);
+        FilaCSV fila = new FilaCSV(new String[0], new int[0], 0);
+        int p = 0;
+        int fin;
+        while ((fin = fila.analizar(ventana.datos, p, ventana.n, ventana.fin)) < 0) {
+            p = ventana.mas(p);
+        }
+        if (ventana.fin && ventana.n == 0) {
+            return new String[0];
+        }
+        String[] nombres = new String[fila.numColumnas()];
+        for (int i = 0; i < nombres.length; i++) {
+            nombres[i] = fila.textoColumna(i).trim();
+        }
+        // Marca de orden de bytes UTF-8 al principio del fichero
+        if (nombres.length > 0 && nombres[0].startsWith("\uFEFF")) {
+            nombres[0] = nombres[0].substring(1);
+        }
+        return nombres;
+    }
+
+    private static FilaCSV crearFila(String[] cabecera, String[] campos) {
+        List<String> columnas = Arrays.asList(cabecera);
+        int[] columnaDeCampo = new int[campos.length];
+        for (int i = 0; i < campos.length; i++) {
+            columnaDeCampo[i] = columnas.indexOf(campos[i]);
+        }
+        return new FilaCSV(campos.clone(), columnaDeCampo, cabecera.length);
+    }
+
+    // === RECORRIDO ===
+
+    /**
+     * Entrega al manejador cada línea de datos (sin la cabecera) con los campos
+     * pedidos. Devuelve el número de líneas del fichero, cabecera incluida.
+     */
+    public static long recorrer(Path fichero, String[] campos, ManejadorFila manejador) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+            FilaCSV fila = crearFila(cabecera(canal), campos);
+            return procesar(canal, 0, Long.MAX_VALUE, fila, manejador);
+        }
+    }
+
+    /**
+     * Igual que recorrer(), repartiendo el fichero entre {@code hilos} hilos.
+     * Devuelve las líneas de cada trozo (la cabecera cuenta en el primero).
+     */
+    public static long[] recorrerParalelo(Path fichero, String[] campos, int hilos, CreadorManejador creador)
+            throws IOException {
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+            String[] cabecera = cabecera(canal);
+            long tamano = canal.size();
+            int trozos = (int) Math.max(1, Math.min(hilos, tamano / TROZO_MINIMO));
+            long tamanoTrozo = (tamano + trozos - 1) / trozos;
+
+            AtomicInteger numeroHilo = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(trozos, r -> {
+                Thread hilo = new Thread(r, "lector-csv-" + numeroHilo.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            try {
+                List<Future<Long>> resultados = new ArrayList<>(trozos);
+                for (int t = 0; t < trozos; t++) {
+                    int trozo = t;
+                    long desde = t * tamanoTrozo;
+                    long hasta = Math.min(tamano, desde + tamanoTrozo);
+                    resultados.add(pool.submit(() ->
+                            procesar(canal, desde, hasta, crearFila(cabecera, campos), creador.crear(trozo))));
+                }
+                long[] lineas = new long[trozos];
+                for (int t = 0; t < trozos; t++) {
+                    lineas[t] = resultados.get(t).get();
+                }
+                return lineas;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                if (e.getCause() instanceof RuntimeException r) {
+                    throw r;
+                }
+                throw new IOException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Lectura interrumpida", e);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Procesa las líneas que empiezan en [desde, hasta). Con desde = 0 la
+     * primera línea es la cabecera y se salta. Devuelve las líneas contadas.
+     */
+    private static long procesar(FileChannel canal, long desde, long hasta, FilaCSV fila,
+                                 ManejadorFila manejador) throws IOException {
+        Ventana ventana = new Ventana(canal, desde == 0 ? 0 : desde - 1);
+        int p = 0;
+        long lineas = 0;
+
+        if (desde == 0) {
+            int fin;
+            while ((fin = fila.analizar(ventana.datos, p, ventana.n, ventana.fin)) < 0) {
+                p = ventana.mas(p);
+            }
+            p = fin;
+            lineas++;
+        } else {
+            // Hasta después del primer salto de línea desde desde - 1
+            while (true) {
+                while (p < ventana.n && ventana.datos[p] != '\n') {
+                    p++;
+                }
+                if (p < ventana.n) {
+                    p++;
+                    break;
+                }
+                if (ventana.fin) {
+                    return 0;
+                }
+                p = ventana.mas(p);
+            }
+        }
+
+        while (ventana.posicion + p < hasta && !(ventana.fin && p >= ventana.n)) {
+            int siguiente = fila.analizar(ventana.datos, p, ventana.n, ventana.fin);
+            if (siguiente < 0) {
+                p = ventana.mas(p);
+                continue;
+            }
+            lineas++;
+            fila.numeroLinea = lineas;
+            if (!fila.lineaVacia()) {
+                manejador.fila(fila);
+            }
+            p = siguiente;
+        }
+        return lineas;
+    }
+
+    /*
+        Bytes del fichero desde "posicion". mas(p) descarta lo anterior a p,
+        mueve el resto al principio (creciendo si la ventana está llena) y lee
+        más. Devuelve la nueva posición de p (0).
+     */
+    private static class Ventana {
+        private final FileChannel canal;
+        byte[] datos = new byte[VENTANA];
+        int n;
+        long posicion;
+        boolean fin;
+
+        Ventana(FileChannel canal, long posicion) throws IOException {
+            this.canal = canal;
+            this.posicion = posicion;
+            leer();
+        }
+
+        int mas(int p) throws IOException {
+            if (fin) {
+                throw new IllegalStateException("Fin del fichero");
+            }
+            int quedan = n - p;
+            if (p == 0 && n == datos.length) {
+                datos = Arrays.copyOf(datos, datos.length * 2);
+            } else {
+                System.arraycopy(datos, p, datos, 0, quedan);
+            }
+            posicion += p;
+            n = quedan;
+            leer();
+            return 0;
+        }
+
+        private void leer() throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(datos, n, datos.length - n);
+            while (buffer.hasRemaining()) {
+                int leidos = canal.read(buffer, posicion + buffer.position());
+                if (leidos < 0) {
+                    fin = true;
+                    break;
+                }
+            }
+            n = buffer.position();
+        }
+    }
+}
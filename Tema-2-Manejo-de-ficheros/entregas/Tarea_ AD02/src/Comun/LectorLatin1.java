@@ -0,0 +1,537 @@
+package Comun;
+
+/*
+    Lectura de las filas de un DepartamentosEmpleados.xml en ISO-8859-1 sin
+    decodificar el fichero.
+
+    En ISO-8859-1 cada byte es el carácter de su mismo código, así que las
+    etiquetas se buscan directamente en los bytes y el texto de cada campo se
+    convierte en String con new String(bytes, ISO_8859_1): con las cadenas
+    compactas de Java (un byte por carácter) es una copia del array. StAX, en
+    cambio, pasa cada byte por el decodificador a un char[] y de ahí copia a la
+    cadena, que vuelve a comprimir a un byte por carácter.
+
+    Da lo mismo que LectorStAX.recorrerFilas, que lo usa cuando la declaración
+    del fichero es ISO-8859-1: valores recortados, entidades (&lt;, &#233;...),
+    CDATA, comentarios, campos vacíos (<COMISION/>), atributos ignorados y \r\n
+    normalizado a \n. Los campos con '&', '\r' o marcado dentro del texto van
+    por un camino lento con StringBuilder; el resto no copia nada más.
+
+    No es un analizador XML completo: no admite DTD interna, entidades
+    declaradas ni espacios de nombres, y de la estructura solo comprueba que
+    cada campo y cada fila se cierran con su etiqueta.
+ */
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class LectorLatin1 {
+    public static final int CABECERA = 256;          // Bytes del principio donde se busca la declaración
+
+    private static final int BUFFER = 1024 * 1024;
+    private static final int MAX_BUFFER = 64 * 1024 * 1024;
+
+    private static final byte[] COMENTARIO = bytes("<!--");
+    private static final byte[] FIN_COMENTARIO = bytes("-->");
+    private static final byte[] INSTRUCCION = bytes("<?");
+    private static final byte[] FIN_INSTRUCCION = bytes("?>");
+    private static final byte[] CDATA = bytes("<![CDATA[");
+    private static final byte[] FIN_CDATA = bytes("]]>");
+    private static final byte[] DECLARACION = bytes("<!");
+    private static final byte[] CIERRE = bytes("</");
+    private static final byte[] FIN_ETIQUETA = bytes(">");
+
+    /**
+     * Codificación de la declaración XML al principio de {@code cabecera}:
+     * "UTF-8" si no hay declaración o no dice nada (lo que supone el estándar).
+     */
+    public static String codificacionDeclarada(byte[] cabecera, int longitud) {
+        String texto = new String(cabecera, 0, longitud, StandardCharsets.ISO_8859_1);
+        int fin = texto.indexOf("?>");
+        if (!texto.startsWith("<?xml") || fin < 0) {
+            return "UTF-8";
+        }
+        String declaracion = texto.substring(0, fin);
+        int atributo = declaracion.indexOf("encoding");
+        if (atributo < 0) {
+            return "UTF-8";
+        }
+        int igual = declaracion.indexOf('=', atributo);
+        int comilla = igual < 0 ? -1 : indiceComilla(declaracion, igual + 1);
+        if (comilla < 0) {
+            return "UTF-8";
+        }
+        int cierre = declaracion.indexOf(declaracion.charAt(comilla), comilla + 1);
+        return cierre < 0 ? "UTF-8" : declaracion.substring(comilla + 1, cierre);
+    }
+
+    private static int indiceComilla(String texto, int desde) {
+        for (int i = desde; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"' || c == '\'') {
+                return i;
+            }
+            if (!Character.isWhitespace(c)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    // true si el documento que empieza por estos bytes se puede leer con esta clase
+    public static boolean admite(byte[] cabecera, int longitud) {
+        try {
+            return Charset.forName(codificacionDeclarada(cabecera, longitud)).equals(StandardCharsets.ISO_8859_1);
+        } catch (IllegalArgumentException e) {
+            // Nombre de codificación no válido o no soportado: que decida StAX
+            return false;
+        }
+    }
+
+    /**
+     * Igual que LectorStAX.recorrerFilas: entrega cada fila {@code etiquetaFila}
+     * con los valores de los campos pedidos (null si la fila no lo trae) y deja
+     * de leer al cerrarse el elemento que contiene las filas. El array de
+     * valores se reutiliza entre filas.
+     */
+    public static void recorrerFilas(InputStream entrada, String etiquetaFila, String[] campos,
+                                     LectorStAX.ManejadorFila manejador) throws IOException, XMLStreamException {
+        new Analisis(entrada, etiquetaFila, campos).recorrer(manejador);
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /*
+        Estado de una lectura. Todas las posiciones son relativas a pos (el
+        primer byte sin consumir), porque llenar() mueve lo pendiente al
+        principio del buffer; pos solo avanza al terminar cada etiqueta o campo.
+     */
+    private static class Analisis {
+        private final InputStream entrada;
+        private final byte[] fila;
+        private final byte[][] nombres;
+        private byte[] buf = new byte[BUFFER];
+        private int pos;
+        private int lim;
+        private int siguiente;                    // Campo que se espera a continuación (suelen venir en orden)
+        private byte[] campo = new byte[64];      // Nombre del campo abierto, para comprobar su cierre
+        private int largoCampo;
+        private StringBuilder texto;
+
+        Analisis(InputStream entrada, String etiquetaFila, String[] campos) {
+            this.entrada = entrada;
+            this.fila = bytes(etiquetaFila);
+            this.nombres = new byte[campos.length][];
+            for (int i = 0; i < campos.length; i++) {
+                nombres[i] = bytes(campos[i]);
+            }
+        }
+
+        void recorrer(LectorStAX.ManejadorFila manejador) throws IOException, XMLStreamException {
+            String[] valores = new String[nombres.length];
+            int profundidad = 0;
+            int profundidadContenedor = -1;
+
+            while (true) {
+                int menor = buscarByte((byte) '<', 0);
+                if (menor < 0) {
+                    return;
+                }
+                pos += menor;
+                if (saltarMarcado()) {
+                    continue;
+                }
+                if (empieza(CIERRE)) {
+                    pos += finEtiqueta() + 1;
+                    profundidad--;
+                    if (profundidadContenedor >= 0 && profundidad < profundidadContenedor) {
+                        // No quedan más filas de este tipo
+                        return;
+                    }
+                    continue;
+                }
+
+                int finNombre = finNombre();
+                boolean esFila = finNombre - 1 == fila.length
+                        && Arrays.equals(buf, pos + 1, pos + finNombre, fila, 0, fila.length);
+                int cierre = finEtiqueta();
+                boolean vacia = buf[pos + cierre - 1] == '/';
+                pos += cierre + 1;
+                if (!esFila) {
+                    if (!vacia) {
+                        profundidad++;
+                    }
+                    continue;
+                }
+                if (profundidadContenedor < 0) {
+                    profundidadContenedor = profundidad;
+                }
+                Arrays.fill(valores, null);
+                if (!vacia) {
+                    leerFila(valores);
+                }
+                manejador.fila(valores);
+            }
+        }
+
+        // Campos hasta la etiqueta de cierre de la fila
+        private void leerFila(String[] valores) throws IOException, XMLStreamException {
+            while (true) {
+                int menor = buscarByte((byte) '<', 0);
+                if (menor < 0) {
+                    throw truncado();
+                }
+                pos += menor;
+                if (saltarMarcado()) {
+                    continue;
+                }
+                if (empieza(CIERRE)) {
+                    cerrar(fila, fila.length);
+                    return;
+                }
+
+                int finNombre = finNombre();
+                int posicion = posicion(finNombre);
+                guardarNombre(finNombre);
+                int cierre = finEtiqueta();
+                boolean vacia = buf[pos + cierre - 1] == '/';
+                pos += cierre + 1;
+                String valor = vacia ? "" : leerTexto(posicion != ExtractorFila.NO_EXISTE);
+                if (posicion != ExtractorFila.NO_EXISTE) {
+                    valores[posicion] = valor;
+                }
+            }
+        }
+
+        // Texto del campo abierto hasta su cierre, recortado (null si no se pide)
+        private String leerTexto(boolean crear) throws IOException, XMLStreamException {
+            boolean lento = false;
+            int i = pos;
+            while (true) {
+                if (i == lim) {
+                    int relativo = i - pos;
+                    if (!llenar()) {
+                        throw truncado();
+                    }
+                    i = pos + relativo;
+                    continue;
+                }
+                byte b = buf[i];
+                if (b == '<') {
+                    break;
+                }
+                lento |= b == '&' | b == '\r';
+                i++;
+            }
+            int largo = i - pos;
+            if (!disponible(largo + 2)) {
+                throw truncado();
+            }
+            i = pos + largo;
+            if (lento || buf[i + 1] != '/') {
+                return leerTextoLento(crear);
+            }
+
+            String valor = null;
+            if (crear) {
+                int inicio = pos;
+                int fin = i;
+                while (inicio < fin && (buf[inicio] & 0xFF) <= ' ') {
+                    inicio++;
+                }
+                while (fin > inicio && (buf[fin - 1] & 0xFF) <= ' ') {
+                    fin--;
+                }
+                valor = new String(buf, inicio, fin - inicio, StandardCharsets.ISO_8859_1);
+            }
+            pos += largo;
+            cerrar(campo, largoCampo);
+            return valor;
+        }
+
+        // Con entidades, CDATA, comentarios o \r: carácter a carácter
+        private String leerTextoLento(boolean crear) throws IOException, XMLStreamException {
+            if (texto == null) {
+                texto = new StringBuilder();
+            }
+            texto.setLength(0);
+            while (true) {
+                if (!disponible(1)) {
+                    throw truncado();
+                }
+                byte b = buf[pos];
+                if (b == '<') {
+                    if (empieza(CDATA)) {
+                        pos += CDATA.length;
+                        int fin = buscar(FIN_CDATA, 0);
+                        anadir(pos, pos + fin);
+                        pos += fin + FIN_CDATA.length;
+                    } else if (empieza(COMENTARIO)) {
+                        pos += buscar(FIN_COMENTARIO, COMENTARIO.length) + FIN_COMENTARIO.length;
+                    } else if (empieza(INSTRUCCION)) {
+                        pos += buscar(FIN_INSTRUCCION, INSTRUCCION.length) + FIN_INSTRUCCION.length;
+                    } else if (empieza(CIERRE)) {
+                        break;
+                    } else {
+                        throw new XMLStreamException("Elemento dentro del campo <"
+                                + new String(campo, 0, largoCampo, StandardCharsets.ISO_8859_1) + ">");
+                    }
+                } else if (b == '&') {
+                    int fin = buscarByte((byte) ';', 1);
+                    if (fin < 0) {
+                        throw truncado();
+                    }
+                    texto.appendCodePoint(entidad(new String(buf, pos + 1, fin - 1, StandardCharsets.ISO_8859_1)));
+                    pos += fin + 1;
+                } else if (b == '\r') {
+                    texto.append('\n');
+                    pos++;
+                    if (disponible(1) && buf[pos] == '\n') {
+                        pos++;
+                    }
+                } else {
+                    int fin = pos + 1;
+                    while (fin < lim && buf[fin] != '<' && buf[fin] != '&' && buf[fin] != '\r') {
+                        fin++;
+                    }
+                    anadir(pos, fin);
+                    pos = fin;
+                }
+            }
+            cerrar(campo, largoCampo);
+            return crear ? texto.toString().trim() : null;
+        }
+
+        // Añade bytes al texto normalizando \r\n y \r sueltos a \n, como el analizador XML
+        private void anadir(int desde, int hasta) {
+            for (int i = desde; i < hasta; i++) {
+                char c = (char) (buf[i] & 0xFF);
+                if (c == '\r') {
+                    texto.append('\n');
+                    if (i + 1 < hasta && buf[i + 1] == '\n') {
+                        i++;
+                    }
+                } else {
+                    texto.append(c);
+                }
+            }
+        }
+
+        private static int entidad(String nombre) throws XMLStreamException {
+            switch (nombre) {
+                case "lt":
+                    return '<';
+                case "gt":
+                    return '>';
+                case "amp":
+                    return '&';
+                case "quot":
+                    return '"';
+                case "apos":
+                    return '\'';
+                default:
+                    if (!nombre.startsWith("#")) {
+                        throw new XMLStreamException("Entidad no declarada: &" + nombre + ";");
+                    }
+                    boolean hexadecimal = nombre.startsWith("#x");
+                    String digitos = nombre.substring(hexadecimal ? 2 : 1);
+                    int codigo = -1;
+                    // Solo dígitos ASCII: parseInt admitiría también un signo (&#x-1;) o dígitos de otras escrituras
+                    if (!digitos.isEmpty() && digitos.chars().allMatch(c -> c < 0x80 && Character.digit(c, hexadecimal ? 16 : 10) >= 0)) {
+                        try {
+                            codigo = Integer.parseInt(digitos, hexadecimal ? 16 : 10);
+                        } catch (NumberFormatException e) {
+                            // Más allá de int: fuera de rango
+                        }
+                    }
+                    if (!caracterXML(codigo)) {
+                        throw new XMLStreamException("Referencia de carácter no válida: &" + nombre + ";");
+                    }
+                    return codigo;
+            }
+        }
+
+        // Char de XML 1.0: tabulador, saltos de línea y todo Unicode salvo controles, suplentes, FFFE y FFFF
+        private static boolean caracterXML(int codigo) {
+            return codigo == 0x9 || codigo == 0xA || codigo == 0xD
+                    || codigo >= 0x20 && codigo <= 0xD7FF
+                    || codigo >= 0xE000 && codigo <= 0xFFFD
+                    || codigo >= 0x10000 && codigo <= 0x10FFFF;
+        }
+
+        // Comentarios, instrucciones de proceso, CDATA y DOCTYPE fuera de los campos
+        private boolean saltarMarcado() throws IOException, XMLStreamException {
+            if (empieza(COMENTARIO)) {
+                pos += buscar(FIN_COMENTARIO, COMENTARIO.length) + FIN_COMENTARIO.length;
+            } else if (empieza(INSTRUCCION)) {
+                pos += buscar(FIN_INSTRUCCION, INSTRUCCION.length) + FIN_INSTRUCCION.length;
+            } else if (empieza(CDATA)) {
+                pos += buscar(FIN_CDATA, CDATA.length) + FIN_CDATA.length;
+            } else if (empieza(DECLARACION)) {
+                pos += buscar(FIN_ETIQUETA, DECLARACION.length) + 1;
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        // Consume </nombre> comprobando que cierra lo que se espera
+        private void cerrar(byte[] nombre, int largo) throws IOException, XMLStreamException {
+            int fin = finEtiqueta();
+            int finNombre = CIERRE.length;
+            while (finNombre < fin && !esBlanco(buf[pos + finNombre])) {
+                finNombre++;
+            }
+            if (finNombre - CIERRE.length != largo
+                    || !Arrays.equals(buf, pos + CIERRE.length, pos + finNombre, nombre, 0, largo)) {
+                throw new XMLStreamException("Se esperaba </" + new String(nombre, 0, largo, StandardCharsets.ISO_8859_1)
+                        + "> y se encontró " + new String(buf, pos, fin + 1, StandardCharsets.ISO_8859_1));
+            }
+            pos += fin + 1;
+        }
+
+        private int posicion(int finNombre) {
+            int largo = finNombre - 1;
+            for (int k = 0; k < nombres.length; k++) {
+                int candidato = siguiente + k < nombres.length ? siguiente + k : siguiente + k - nombres.length;
+                byte[] nombre = nombres[candidato];
+                if (nombre.length == largo && Arrays.equals(buf, pos + 1, pos + finNombre, nombre, 0, largo)) {
+                    siguiente = candidato + 1 == nombres.length ? 0 : candidato + 1;
+                    return candidato;
+                }
+            }
+            return ExtractorFila.NO_EXISTE;
+        }
+
+        private void guardarNombre(int finNombre) {
+            largoCampo = finNombre - 1;
+            if (largoCampo > campo.length) {
+                campo = new byte[largoCampo * 2];
+            }
+            System.arraycopy(buf, pos + 1, campo, 0, largoCampo);
+        }
+
+        // === BÚSQUEDAS (posiciones relativas a pos) ===
+
+        // Fin del nombre de la etiqueta que empieza en pos ('<' en pos)
+        private int finNombre() throws IOException, XMLStreamException {
+            int i = 1;
+            while (true) {
+                if (!disponible(i + 1)) {
+                    throw truncado();
+                }
+                byte b = buf[pos + i];
+                if (esBlanco(b) || b == '/' || b == '>') {
+                    return i;
+                }
+                i++;
+            }
+        }
+
+        // Posición del '>' que cierra la etiqueta que empieza en pos, saltando los valores de atributos
+        private int finEtiqueta() throws IOException, XMLStreamException {
+            byte comilla = 0;
+            int i = 1;
+            while (true) {
+                if (!disponible(i + 1)) {
+                    throw truncado();
+                }
+                byte b = buf[pos + i];
+                if (comilla != 0) {
+                    if (b == comilla) {
+                        comilla = 0;
+                    }
+                } else if (b == '"' || b == '\'') {
+                    comilla = b;
+                } else if (b == '>') {
+                    return i;
+                }
+                i++;
+            }
+        }
+
+        // Primera aparición del byte desde pos + desde, o -1 si se acaba el fichero
+        private int buscarByte(byte objetivo, int desde) throws IOException, XMLStreamException {
+            int i = pos + desde;
+            while (true) {
+                if (i == lim) {
+                    int relativo = i - pos;
+                    if (!llenar()) {
+                        return -1;
+                    }
+                    i = pos + relativo;
+                }
+                if (buf[i] == objetivo) {
+                    return i - pos;
+                }
+                i++;
+            }
+        }
+
+        // Primera aparición del patrón desde pos + desde; el fichero no puede acabar antes
+        private int buscar(byte[] patron, int desde) throws IOException, XMLStreamException {
+            int i = desde;
+            while (true) {
+                i = buscarByte(patron[0], i);
+                if (i < 0 || !disponible(i + patron.length)) {
+                    throw truncado();
+                }
+                if (Arrays.equals(buf, pos + i, pos + i + patron.length, patron, 0, patron.length)) {
+                    return i;
+                }
+                i++;
+            }
+        }
+
+        private boolean empieza(byte[] patron) throws IOException, XMLStreamException {
+            return disponible(patron.length)
+                    && Arrays.equals(buf, pos, pos + patron.length, patron, 0, patron.length);
+        }
+
+        private static boolean esBlanco(byte b) {
+            return b == ' ' || b == '\n' || b == '\t' || b == '\r';
+        }
+
+        // === BUFFER ===
+
+        private boolean disponible(int n) throws IOException, XMLStreamException {
+            while (lim - pos < n) {
+                if (!llenar()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Mueve lo pendiente al principio (o agranda el buffer) y lee más; false al final del fichero
+        private boolean llenar() throws IOException, XMLStreamException {
+            if (pos > 0) {
+                System.arraycopy(buf, pos, buf, 0, lim - pos);
+                lim -= pos;
+                pos = 0;
+            }
+            if (lim == buf.length) {
+                if (buf.length >= MAX_BUFFER) {
+                    throw new XMLStreamException("Etiqueta o campo de más de " + MAX_BUFFER / (1024 * 1024) + " MB");
+                }
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            int leidos = entrada.read(buf, lim, buf.length - lim);
+            if (leidos < 0) {
+                return false;
+            }
+            lim += leidos;
+            return true;
+        }
+
+        private static XMLStreamException truncado() {
+            return new XMLStreamException("El fichero termina dentro de una fila");
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package Comun;
+
+/*
+    Lectura en paralelo de las filas (<EMP_ROW>) de un DepartamentosEmpleados.xml enorme.
+
+    LectorStAX recorre el fichero con un solo hilo, que con exportaciones de
+    varios GB es el cuello de botella. Aquí el fichero se divide en tramos de
+    bytes y cada hilo del pool:
+        1. proyecta en memoria (FileChannel.map) su tramo,
+        2. busca dentro las filas que EMPIEZAN en él (la última puede terminar
+           en el tramo siguiente: se proyecta un margen extra),
+        3. las analiza con LectorStAX sobre un documento "<?xml ...?><r>filas</r>"
+           (con la misma declaración, y por tanto codificación, que el fichero).
+    Los tramos se entregan al manejador desde el hilo llamante, así que el
+    manejador no necesita ser thread-safe. Con enOrden los tramos llegan en el
+    orden del fichero (mismo orden de filas que LectorStAX); sin él, según
+    terminan. Solo hay a la vez VENTANA_POR_HILO tramos por hilo en memoria.
+
+    Limitaciones: la etiqueta se busca como bytes ASCII (sirve para ISO-8859-1 y
+    UTF-8, no para UTF-16) y no debe aparecer dentro de comentarios o CDATA; las
+    filas deben estar seguidas dentro del mismo contenedor.
+ */
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LectorParalelo {
+    private static final long TRAMO_MAXIMO = 16L * 1024 * 1024;
+    private static final long TRAMO_MINIMO = 256L * 1024;
+    private static final int MAX_FILA = 1024 * 1024;        // Margen proyectado tras el tramo para la última fila
+    private static final int VENTANA_POR_HILO = 2;
+
+    /**
+     * Recorre las filas {@code etiquetaFila} del fichero con {@code hilos} hilos y
+     * entrega cada una al manejador (desde el hilo que llama) con los valores de
+     * los campos pedidos, igual que LectorStAX.recorrerFilas.
+     */
+    public static void recorrerFilas(Path fichero, String etiquetaFila, String[] campos, int hilos,
+                                     boolean enOrden, LectorStAX.ManejadorFila manejador)
+            throws IOException, XMLStreamException {
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            byte[] declaracion = declaracionXML(canal);
+            byte[] apertura = ("<" + etiquetaFila).getBytes(StandardCharsets.US_ASCII);
+            byte[] cierre = ("</" + etiquetaFila).getBytes(StandardCharsets.US_ASCII);
+
+            long tramo = Math.max(TRAMO_MINIMO, Math.min(TRAMO_MAXIMO, tamano / (hilos * 4L)));
+            int numTramos = (int) Math.max(1, (tamano + tramo - 1) / tramo);
+
+            AtomicInteger numeroHilo = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(hilos, r -> {
+                Thread hilo = new Thread(r, "lector-paralelo-" + numeroHilo.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            try {
+                CompletionService<List<String[]>> terminados = new ExecutorCompletionService<>(pool);
+                Deque<Future<List<String[]>>> pendientes = new ArrayDeque<>();
+                int ventana = hilos * VENTANA_POR_HILO;
+                int siguiente = 0;
+
+                while (siguiente < numTramos || !pendientes.isEmpty()) {
+                    while (siguiente < numTramos && pendientes.size() < ventana) {
+                        long desde = siguiente * tramo;
+                        long hasta = Math.min(tamano, desde + tramo);
+                        pendientes.add(terminados.submit(() -> leerTramo(canal, tamano, desde, hasta,
+                                declaracion, apertura, cierre, etiquetaFila, campos)));
+                        siguiente++;
+                    }
+
+                    Future<List<String[]>> listo;
+                    if (enOrden) {
+                        listo = pendientes.poll();
+                    } else {
+                        listo = terminados.take();
+                        pendientes.remove(listo);
+                    }
+                    for (String[] fila : resultado(listo)) {
+                        manejador.fila(fila);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Lectura interrumpida", e);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private static List<String[]> resultado(Future<List<String[]>> futuro)
+            throws IOException, XMLStreamException, InterruptedException {
+        try {
+            return futuro.get();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException io) throw io;
+            if (causa instanceof XMLStreamException xml) throw xml;
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    // Filas que empiezan en [desde, hasta), en orden
+    private static List<String[]> leerTramo(FileChannel canal, long tamano, long desde, long hasta,
+                                            byte[] declaracion, byte[] apertura, byte[] cierre,
+                                            String etiquetaFila, String[] campos)
+            throws IOException, XMLStreamException {
+        long finProyeccion = Math.min(tamano, hasta + MAX_FILA);
+        MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, desde, finProyeccion - desde);
+        int limite = (int) (hasta - desde);
+
+        int primera = buscarApertura(mapa, apertura, 0, limite);
+        if (primera < 0) {
+            return Collections.emptyList();
+        }
+
+        // Fin de la última fila que empieza en el tramo
+        int ultima = primera;
+        for (int i = limite - 1; i > primera; i--) {
+            if (mapa.get(i) == '<' && buscarApertura(mapa, apertura, i, i + 1) == i) {
+                ultima = i;
+                break;
+            }
+        }
+        int fin = buscar(mapa, cierre, ultima, mapa.limit());
+        fin = fin < 0 ? -1 : buscarByte(mapa, (byte) '>', fin + cierre.length);
+        if (fin < 0) {
+            throw new IOException("No se encuentra el cierre de <" + etiquetaFila + "> en el byte " + (desde + ultima)
+                    + " (fila mayor de " + MAX_FILA + " bytes o fichero incompleto)");
+        }
+
+        ByteBuffer filas = mapa.slice(primera, fin + 1 - primera);
+        InputStream documento = new SequenceInputStream(Collections.enumeration(List.of(
+                new ByteArrayInputStream(declaracion),
+                new ByteArrayInputStream("<r>".getBytes(StandardCharsets.US_ASCII)),
+                new EntradaBuffer(filas),
+                new ByteArrayInputStream("</r>".getBytes(StandardCharsets.US_ASCII)))));
+
+        List<String[]> resultado = new ArrayList<>();
+        LectorStAX.recorrerFilas(documento, etiquetaFila, campos, valores -> resultado.add(valores.clone()));
+        return resultado;
+    }
+
+    // "<ETIQUETA" seguido de '>', '/' o espacio (para no confundir <EMP_ROW> con <EMP_ROWS>)
+    private static int buscarApertura(ByteBuffer mapa, byte[] apertura, int desde, int limite) {
+        for (int i = buscar(mapa, apertura, desde, limite); i >= 0; i = buscar(mapa, apertura, i + 1, limite)) {
+            int siguiente = i + apertura.length;
+            if (siguiente >= mapa.limit()) {
+                return -1;
+            }
+            byte b = mapa.get(siguiente);
+            if (b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Primera aparición del patrón que empieza en [desde, limite)
+    private static int buscar(ByteBuffer mapa, byte[] patron, int desde, int limite) {
+        int ultimoInicio = Math.min(limite, mapa.limit() - patron.length + 1);
+        byte primero = patron[0];
+        for (int i = desde; i < ultimoInicio; i++) {
+            if (mapa.get(i) != primero) {
+                continue;
+            }
+            int j = 1;
+            while (j < patron.length && mapa.get(i + j) == patron[j]) {
+                j++;
+            }
+            if (j == patron.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int buscarByte(ByteBuffer mapa, byte valor, int desde) {
+        for (int i = desde; i < mapa.limit(); i++) {
+            if (mapa.get(i) == valor) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Declaración <?xml ...?> del fichero, para analizar cada tramo con la misma codificación
+    private static byte[] declaracionXML(FileChannel canal) throws IOException {
+        ByteBuffer inicio = ByteBuffer.allocate((int) Math.min(canal.size(), 256));
+        canal.read(inicio, 0);
+        inicio.flip();
+        String texto = StandardCharsets.ISO_8859_1.decode(inicio).toString();
+        int fin = texto.indexOf("?>");
+        return texto.startsWith("<?xml") && fin > 0
+                ? texto.substring(0, fin + 2).getBytes(StandardCharsets.ISO_8859_1)
+                : new byte[0];
+    }
+
+    // InputStream sobre un ByteBuffer (el tramo proyectado)
+    private static class EntradaBuffer extends InputStream {
+        private final ByteBuffer buffer;
+
+        EntradaBuffer(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int longitud) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(longitud, buffer.remaining());
+            buffer.get(destino, desde, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
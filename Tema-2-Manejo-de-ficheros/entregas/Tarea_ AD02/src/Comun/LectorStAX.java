@@ -0,0 +1,148 @@
+package Comun;
+
+/*
+    Lector en streaming (StAX) de las filas de DepartamentosEmpleados.xml.
+
+    En lugar de construir el árbol DOM completo, recorre el fichero evento a
+    evento y entrega cada <DEP_ROW> o <EMP_ROW> como un array de valores en el
+    orden de los campos pedidos. La memoria usada no depende del tamaño del fichero.
+
+    Si la declaración del documento es ISO-8859-1 (como la de las exportaciones
+    de DEPART/EMPLE), recorrerFilas lee con LectorLatin1, que busca las etiquetas
+    en los bytes sin decodificarlos y da las mismas filas. recorrerFilasStAX
+    usa siempre StAX.
+ */
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class LectorStAX {
+
+    // Se llama una vez por fila. El array se reutiliza entre filas: si hay que guardarlo, clonarlo
+    public interface ManejadorFila {
+        void fila(String[] valores) throws IOException;
+    }
+
+    private static final XMLInputFactory FACTORIA = crearFactoria();
+
+    private static XMLInputFactory crearFactoria() {
+        XMLInputFactory factoria = XMLInputFactory.newInstance();
+        factoria.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factoria.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return factoria;
+    }
+
+    /**
+     * Recorre todas las filas con la etiqueta indicada y llama al manejador con los
+     * valores de los campos pedidos (null si la fila no trae ese campo).
+     * Al cerrarse el elemento que contiene las filas se deja de leer el fichero.
+     */
+    public static void recorrerFilas(Path fichero, String etiquetaFila, String[] campos,
+                                     ManejadorFila manejador) throws IOException, XMLStreamException {
+        try (InputStream entrada = new BufferedInputStream(Files.newInputStream(fichero), 64 * 1024)) {
+            recorrerFilas(entrada, etiquetaFila, campos, manejador);
+        }
+    }
+
+    /**
+     * Devuelve el texto del primer elemento {@code etiqueta} dentro del primer
+     * {@code contenedor} (p. ej. el <TITULO> de <departamentos>), o null si no hay.
+     */
+    public static String primerTexto(Path fichero, String contenedor, String etiqueta)
+            throws IOException, XMLStreamException {
+        try (InputStream entrada = new BufferedInputStream(Files.newInputStream(fichero), 64 * 1024)) {
+            XMLStreamReader lector = FACTORIA.createXMLStreamReader(entrada);
+            try {
+                boolean dentro = false;
+                while (lector.hasNext()) {
+                    int evento = lector.next();
+                    if (evento == XMLStreamConstants.START_ELEMENT) {
+                        String nombre = lector.getLocalName();
+                        if (dentro && nombre.equals(etiqueta)) {
+                            return lector.getElementText();
+                        }
+                        dentro |= nombre.equals(contenedor);
+                    } else if (evento == XMLStreamConstants.END_ELEMENT && lector.getLocalName().equals(contenedor)) {
+                        return null;
+                    }
+                }
+                return null;
+            } finally {
+                lector.close();
+            }
+        }
+    }
+
+    public static void recorrerFilas(InputStream entrada, String etiquetaFila, String[] campos,
+                                     ManejadorFila manejador) throws IOException, XMLStreamException {
+        if (!entrada.markSupported()) {
+            entrada = new BufferedInputStream(entrada, 64 * 1024);
+        }
+        entrada.mark(LectorLatin1.CABECERA);
+        byte[] cabecera = entrada.readNBytes(LectorLatin1.CABECERA);
+        entrada.reset();
+        if (LectorLatin1.admite(cabecera, cabecera.length)) {
+            LectorLatin1.recorrerFilas(entrada, etiquetaFila, campos, manejador);
+        } else {
+            recorrerFilasStAX(entrada, etiquetaFila, campos, manejador);
+        }
+    }
+
+    public static void recorrerFilasStAX(InputStream entrada, String etiquetaFila, String[] campos,
+                                         ManejadorFila manejador) throws IOException, XMLStreamException {
+        // Tabla etiqueta -> posición en el array de valores
+        ExtractorFila posiciones = new ExtractorFila(campos);
+
+        XMLStreamReader lector = FACTORIA.createXMLStreamReader(entrada);
+        try {
+            String[] valores = new String[campos.length];
+            // Nivel del elemento padre de las filas (<departamentos>, <empleados>). Por el nombre
+            // no vale: el último elemento abierto antes de la primera fila es el <TITULO>
+            int profundidad = 0;
+            int profundidadContenedor = -1;
+
+            while (lector.hasNext()) {
+                int evento = lector.next();
+
+                if (evento == XMLStreamConstants.START_ELEMENT) {
+                    String nombre = lector.getLocalName();
+                    if (!nombre.equals(etiquetaFila)) {
+                        profundidad++;
+                        continue;
+                    }
+                    if (profundidadContenedor < 0) {
+                        profundidadContenedor = profundidad;
+                    }
+
+                    // Leemos los campos de la fila hasta su etiqueta de cierre
+                    Arrays.fill(valores, null);
+                    while (lector.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        int posicion = posiciones.posicion(lector.getLocalName());
+                        String texto = lector.getElementText();
+                        if (posicion != ExtractorFila.NO_EXISTE) {
+                            valores[posicion] = texto.trim();
+                        }
+                    }
+                    manejador.fila(valores);
+
+                } else if (evento == XMLStreamConstants.END_ELEMENT) {
+                    profundidad--;
+                    if (profundidadContenedor >= 0 && profundidad < profundidadContenedor) {
+                        // No quedan más filas de este tipo
+                        return;
+                    }
+                }
+            }
+        } finally {
+            lector.close();
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package Comun;
+
+/*
+    Tiempos y contadores por etapa (parse, join, marshal, write, walk, copy...)
+    compartidos por LecturaDOM, Ejercicio_2.Main y ConversorStreaming (y, en
+    los ejercicios del tema, por Explorador y CopiadorBinario).
+
+    Cada programa declara sus etapas como constantes y mide con:
+        try (Metricas.Medicion m = PARSE.iniciar()) {
+            ...
+            m.filas(n).bytes(b);
+        }
+    Por etapa se acumulan llamadas, tiempo total y máximo, filas, bytes y bytes
+    reservados en el heap por el hilo que mide (ThreadMXBean). Las etapas
+    anidadas se cuentan cada una con su tiempo completo.
+
+    Desactivadas (por defecto) iniciar() devuelve una medición vacía compartida:
+    ni reloj ni reservas. Se activan con activar(destino):
+        ""        solo el resumen final (terminar)
+        "jmx"     además, un MXBean por etapa en Metricas:type=Etapa,name=<etapa>
+        fichero   además, una instantánea JSON por línea cada segundo
+    Con una grabación JFR en marcha (-XX:StartFlightRecording) cada medición se
+    emite también como evento AccesoDatos.Etapa.
+
+    Una Medicion cuesta unos cientos de nanosegundos (dos lecturas del reloj,
+    dos de bytes reservados y el evento JFR). Para algo que se repite por cada
+    fila es mejor acumular el tiempo en el bucle y anotarlo una vez con
+    Etapa.sumar().
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Metricas {
+    public static final Duration PERIODO_POR_DEFECTO = Duration.ofSeconds(1);
+
+    private static final Map<String, Etapa> ETAPAS = new ConcurrentHashMap<>();
+    private static final com.sun.management.ThreadMXBean HILOS = hilos();
+
+    private static volatile boolean activas;
+    private static volatile boolean jmx;
+    private static ScheduledExecutorService instantaneas;
+    private static Path ficheroInstantaneas;
+
+    // Etapa con ese nombre (se crea la primera vez)
+    public static Etapa etapa(String nombre) {
+        return ETAPAS.computeIfAbsent(nombre, Etapa::new);
+    }
+
+    public static boolean activas() {
+        return activas;
+    }
+
+    // === ACTIVACIÓN ===
+
+    public static synchronized void activar(String destino) throws IOException {
+        activar(destino, PERIODO_POR_DEFECTO);
+    }
+
+    public static synchronized void activar(String destino, Duration periodo) throws IOException {
+        activas = true;
+        if (destino.equals("jmx")) {
+            jmx = true;
+            ETAPAS.values().forEach(Etapa::registrar);
+        } else if (!destino.isEmpty() && instantaneas == null) {
+            ficheroInstantaneas = Path.of(destino);
+            Files.deleteIfExists(ficheroInstantaneas);
+            instantaneas = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "instantaneas-metricas");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            long milis = periodo.toMillis();
+            instantaneas.scheduleAtFixedRate(Metricas::guardarInstantanea, milis, milis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Detiene las instantáneas (guardando la última) y escribe el resumen; las etapas siguen registradas
+    public static synchronized void terminar(PrintStream resumen) {
+        if (!activas) {
+            return;
+        }
+        if (instantaneas != null) {
+            instantaneas.shutdownNow();
+            instantaneas = null;
+            guardarInstantanea();
+        }
+        activas = false;
+        if (resumen != null) {
+            escribirResumen(resumen);
+        }
+    }
+
+    // Vuelve a cero todas las etapas
+    public static void reiniciar() {
+        ETAPAS.values().forEach(Etapa::reiniciar);
+    }
+
+    // === INSTANTÁNEAS ===
+
+    public record Resumen(String etapa, long llamadas, long nanos, long maxNanos, long filas, long bytes,
+                          long bytesReservados) {
+        public double segundos() {
+            return nanos / 1e9;
+        }
+
+        public double filasPorSegundo() {
+            return nanos == 0 ? 0 : filas / segundos();
+        }
+
+        public double bytesPorSegundo() {
+            return nanos == 0 ? 0 : bytes / segundos();
+        }
+    }
+
+    public static List<Resumen> instantanea() {
+        List<Resumen> resumenes = new ArrayList<>();
+        for (Etapa etapa : ETAPAS.values()) {
+            if (etapa.getLlamadas() > 0) {
+                resumenes.add(etapa.resumen());
+            }
+        }
+        resumenes.sort((a, b) -> a.etapa().compareTo(b.etapa()));
+        return resumenes;
+    }
+
+    public static void escribirResumen(PrintStream salida) {
+        salida.printf("%n%-10s | %9s | %11s | %11s | %12s | %12s | %13s | %12s%n",
+                "Etapa", "Llamadas", "Total ms", "Máx. ms", "Filas", "Filas/s", "MB/s", "MB reserv.");
+        for (Resumen r : instantanea()) {
+            salida.printf("%-10s | %,9d | %,11.1f | %,11.1f | %,12d | %,12.0f | %,13.1f | %,12.1f%n",
+                    r.etapa(), r.llamadas(), r.nanos() / 1e6, r.maxNanos() / 1e6, r.filas(), r.filasPorSegundo(),
+                    r.bytesPorSegundo() / (1024 * 1024), r.bytesReservados() / (1024.0 * 1024));
+        }
+    }
+
+    // Una línea JSON con la hora y las etapas
+    private static void guardarInstantanea() {
+        StringBuilder linea = new StringBuilder(256)
+                .append("{\"instante\":\"").append(Instant.now()).append("\",\"etapas\":{");
+        List<Resumen> resumenes = instantanea();
+        for (int i = 0; i < resumenes.size(); i++) {
+            Resumen r = resumenes.get(i);
+            linea.append(i == 0 ? "" : ",").append('"').append(r.etapa()).append("\":{")
+                    .append("\"llamadas\":").append(r.llamadas())
+                    .append(",\"nanos\":").append(r.nanos())
+                    .append(",\"maxNanos\":").append(r.maxNanos())
+                    .append(",\"filas\":").append(r.filas())
+                    .append(",\"bytes\":").append(r.bytes())
+                    .append(",\"bytesReservados\":").append(r.bytesReservados())
+                    .append('}');
+        }
+        linea.append("}}\n");
+        try (Writer salida = Files.newBufferedWriter(ficheroInstantaneas, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            salida.write(linea.toString());
+        } catch (IOException e) {
+            // Sin instantáneas el programa sigue: solo se avisa
+            System.err.println("No se pudo guardar la instantánea de métricas: " + e.getMessage());
+        }
+    }
+
+    // === ETAPAS ===
+
+    // Atributos que se ven por JMX (jconsole, VisualVM...)
+    public interface EtapaMXBean {
+        long getLlamadas();
+
+        long getNanos();
+
+        long getMaxNanos();
+
+        long getFilas();
+
+        long getBytes();
+
+        long getBytesReservados();
+
+        double getFilasPorSegundo();
+
+        double getBytesPorSegundo();
+    }
+
+    public static class Etapa implements EtapaMXBean {
+        private final String nombre;
+        private final LongAdder llamadas = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder filas = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder bytesReservados = new LongAdder();
+        private boolean registrada;
+
+        private Etapa(String nombre) {
+            this.nombre = nombre;
+            if (jmx) {
+                registrar();
+            }
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public Medicion iniciar() {
+            return activas ? new Medicion(this) : Medicion.NADA;
+        }
+
+        // Varias llamadas ya medidas por quien llama; no cuentan para el máximo ni para las reservas
+        public void sumar(long llamadas, long nanos, long filas, long bytes) {
+            if (!activas) {
+                return;
+            }
+            this.llamadas.add(llamadas);
+            this.nanos.add(nanos);
+            this.filas.add(filas);
+            this.bytes.add(bytes);
+        }
+
+        private synchronized void registrar() {
+            if (registrada) {
+                return;
+            }
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                        new ObjectName("Metricas:type=Etapa,name=" + ObjectName.quote(nombre)));
+                registrada = true;
+            } catch (JMException e) {
+                throw new IllegalStateException("No se pudo registrar la etapa " + nombre + " en JMX", e);
+            }
+        }
+
+        private void anotar(long duracion, long filas, long bytes, long reservados) {
+            llamadas.increment();
+            nanos.add(duracion);
+            maxNanos.accumulate(duracion);
+            this.filas.add(filas);
+            this.bytes.add(bytes);
+            bytesReservados.add(reservados);
+        }
+
+        private void reiniciar() {
+            llamadas.reset();
+            nanos.reset();
+            maxNanos.reset();
+            filas.reset();
+            bytes.reset();
+            bytesReservados.reset();
+        }
+
+        Resumen resumen() {
+            return new Resumen(nombre, llamadas.sum(), nanos.sum(), maxNanos.get(), filas.sum(), bytes.sum(),
+                    bytesReservados.sum());
+        }
+
+        @Override
+        public long getLlamadas() {
+            return llamadas.sum();
+        }
+
+        @Override
+        public long getNanos() {
+            return nanos.sum();
+        }
+
+        @Override
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        @Override
+        public long getFilas() {
+            return filas.sum();
+        }
+
+        @Override
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        @Override
+        public long getBytesReservados() {
+            return bytesReservados.sum();
+        }
+
+        @Override
+        public double getFilasPorSegundo() {
+            return resumen().filasPorSegundo();
+        }
+
+        @Override
+        public double getBytesPorSegundo() {
+            return resumen().bytesPorSegundo();
+        }
+    }
+
+    /*
+        Una medición en curso. Se cierra en el mismo hilo que la inició (los bytes
+        reservados son los del hilo actual). filas() y bytes() se pueden llamar
+        varias veces: se suman.
+     */
+    public static class Medicion implements AutoCloseable {
+        static final Medicion NADA = new Medicion(null);
+
+        private final Etapa etapa;
+        private final long inicio;
+        private final long reservadosInicio;
+        private long filas;
+        private long bytes;
+
+        private Medicion(Etapa etapa) {
+            this.etapa = etapa;
+            this.inicio = etapa == null ? 0 : System.nanoTime();
+            this.reservadosInicio = etapa == null ? 0 : reservados();
+        }
+
+        public Medicion filas(long n) {
+            filas += n;
+            return this;
+        }
+
+        public Medicion bytes(long n) {
+            bytes += n;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (etapa == null) {
+                return;
+            }
+            long duracion = System.nanoTime() - inicio;
+            long reservados = reservados() - reservadosInicio;
+            etapa.anotar(duracion, filas, bytes, reservados);
+
+            EventoEtapa evento = new EventoEtapa();
+            if (evento.isEnabled()) {
+                evento.etapa = etapa.nombre;
+                evento.duracion = duracion;
+                evento.filas = filas;
+                evento.bytes = bytes;
+                evento.bytesReservados = reservados;
+                evento.commit();
+            }
+        }
+    }
+
+    @Name("AccesoDatos.Etapa")
+    @Label("Etapa")
+    @Category("Acceso a datos")
+    static class EventoEtapa extends Event {
+        @Label("Etapa")
+        String etapa;
+
+        @Label("Duración")
+        @Timespan(Timespan.NANOSECONDS)
+        long duracion;
+
+        @Label("Filas")
+        long filas;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Bytes reservados")
+        @DataAmount
+        long bytesReservados;
+    }
+
+    // === RESERVAS DE MEMORIA ===
+
+    private static com.sun.management.ThreadMXBean hilos() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean hilos
+                && hilos.isThreadAllocatedMemorySupported()) {
+            hilos.setThreadAllocatedMemoryEnabled(true);
+            return hilos;
+        }
+        return null;
+    }
+
+    private static long reservados() {
+        return HILOS == null ? 0 : HILOS.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,113 @@
+package Comun;
+
+/*
+    Envuelve otra SalidaInforme para que la escritura no frene al programa:
+    los registros se acumulan en lotes de TAMANO_LOTE y los lotes pasan por una
+    cola acotada a un hilo escritor. Si el escritor no da abasto, la cola se
+    llena y el productor espera (la memoria no crece sin límite).
+
+    Un error al escribir se guarda y se lanza en la siguiente llamada o en close().
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class SalidaAsincrona implements SalidaInforme {
+    private static final int TAMANO_LOTE = 256;
+    private static final int LOTES_EN_COLA = 64;
+    private static final List<Registro> FIN = List.of();
+
+    private final SalidaInforme destino;
+    private final BlockingQueue<List<Registro>> cola = new ArrayBlockingQueue<>(LOTES_EN_COLA);
+    private final Thread escritor;
+    private volatile IOException error;
+
+    private List<Registro> lote = new ArrayList<>(TAMANO_LOTE);
+    private boolean cerrada;
+
+    public SalidaAsincrona(SalidaInforme destino) {
+        this.destino = destino;
+        escritor = new Thread(this::escribirLotes, "salida-asincrona");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    private void escribirLotes() {
+        try {
+            for (List<Registro> siguiente = cola.take(); siguiente != FIN; siguiente = cola.take()) {
+                if (error == null) {
+                    try {
+                        destino.escribirBloque(siguiente);
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public synchronized void escribir(Registro registro) throws IOException {
+        comprobar();
+        lote.add(registro);
+        if (lote.size() >= TAMANO_LOTE) {
+            encolar(lote);
+            lote = new ArrayList<>(TAMANO_LOTE);
+        }
+    }
+
+    // Un bloque se encola entero para que no se intercale con otros
+    @Override
+    public synchronized void escribirBloque(List<Registro> registros) throws IOException {
+        comprobar();
+        if (registros.isEmpty()) {
+            return;
+        }
+        if (!lote.isEmpty()) {
+            encolar(lote);
+            lote = new ArrayList<>(TAMANO_LOTE);
+        }
+        encolar(List.copyOf(registros));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (cerrada) {
+            return;
+        }
+        cerrada = true;
+        try {
+            if (!lote.isEmpty()) {
+                encolar(lote);
+            }
+            encolar(FIN);
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido esperando al hilo escritor", e);
+        } finally {
+            destino.close();
+        }
+        comprobar();
+    }
+
+    private void encolar(List<Registro> registros) throws IOException {
+        try {
+            cola.put(registros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido esperando hueco en la cola", e);
+        }
+    }
+
+    private void comprobar() throws IOException {
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package Comun;
+
+/*
+    Salida CSV (RFC 4180) en UTF-8: una línea por registro con el tipo en la
+    primera columna. Hay una sola cabecera, la unión de los campos de todos los
+    tipos que se indican al crearla, y cada registro deja vacías las columnas
+    que no son suyas:
+        tipo,indice,DEPT_NO,DNOMBRE,LOC,APELLIDO,OFICIO,SALARIO,COMISION
+        departamento,0,10,CONTABILIDAD,SEVILLA,,,,
+        empleado,,10,,,CEREZO,DIRECTOR,2885,
+    Así el fichero se puede cargar entero en una hoja de cálculo o en una tabla.
+    Los valores con comas, comillas o saltos de línea van entre comillas.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SalidaCSV extends SalidaEscritor {
+    // Columna de la cabecera de cada campo, sin contar la del tipo
+    private final Map<String, Integer> columnas = new LinkedHashMap<>();
+
+    // Por cada array de campos (suele ser una constante por tipo), qué valor va en cada columna (-1: ninguno)
+    private final Map<String[], int[]> valorPorColumna = new IdentityHashMap<>();
+
+    private boolean cabeceraEscrita;
+
+    public SalidaCSV(OutputStream destino, boolean cerrarDestino, String[]... campos) {
+        super(destino, cerrarDestino, StandardCharsets.UTF_8);
+        if (campos.length == 0) {
+            throw new IllegalArgumentException("La salida CSV necesita los campos de los registros para su cabecera");
+        }
+        for (String[] camposTipo : campos) {
+            for (String campo : camposTipo) {
+                columnas.putIfAbsent(campo, columnas.size());
+            }
+        }
+    }
+
+    @Override
+    protected void escribir(Registro registro, Writer escritor) throws IOException {
+        if (!cabeceraEscrita) {
+            escritor.write("tipo");
+            for (String campo : columnas.keySet()) {
+                escritor.write(',');
+                escribirValor(campo, escritor);
+            }
+            escritor.write('\n');
+            cabeceraEscrita = true;
+        }
+
+        int[] indices = valorPorColumna.computeIfAbsent(registro.campos(), this::indices);
+        Object[] valores = registro.valores();
+        escribirValor(registro.tipo(), escritor);
+        for (int indice : indices) {
+            escritor.write(',');
+            if (indice >= 0 && valores[indice] != null) {
+                escribirValor(valores[indice].toString(), escritor);
+            }
+        }
+        escritor.write('\n');
+    }
+
+    private int[] indices(String[] campos) {
+        int[] indices = new int[columnas.size()];
+        Arrays.fill(indices, -1);
+        for (int i = 0; i < campos.length; i++) {
+            Integer columna = columnas.get(campos[i]);
+            if (columna == null) {
+                throw new IllegalArgumentException("El campo " + campos[i] + " no está en la cabecera CSV " + columnas.keySet());
+            }
+            indices[columna] = i;
+        }
+        return indices;
+    }
+
+    private static void escribirValor(String valor, Writer escritor) throws IOException {
+        boolean comillas = false;
+        for (int i = 0; i < valor.length() && !comillas; i++) {
+            char c = valor.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            escritor.write(valor);
+            return;
+        }
+        escritor.write('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                escritor.write('"');
+            }
+            escritor.write(c);
+        }
+        escritor.write('"');
+    }
+}
@@ -0,0 +1,47 @@
+package Comun;
+
+/*
+    Base de las salidas que escriben texto en un flujo a través de un buffer
+    grande (SalidaTexto, SalidaCSV, SalidaJSONL). El flujo solo recibe
+    escrituras de TAMANO_BUFFER caracteres, así que el autoflush de System.out
+    deja de notarse. escribir está sincronizado: se puede usar desde varios hilos.
+    La codificación la elige cada salida (ver SalidaInforme.crear).
+ */
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+public abstract class SalidaEscritor implements SalidaInforme {
+    private static final int TAMANO_BUFFER = 1024 * 1024;
+
+    private final Writer escritor;
+    private final OutputStream destino;
+    private final boolean cerrarDestino;
+
+    protected SalidaEscritor(OutputStream destino, boolean cerrarDestino, Charset codificacion) {
+        this.destino = destino;
+        this.cerrarDestino = cerrarDestino;
+        this.escritor = new BufferedWriter(new OutputStreamWriter(destino, codificacion), TAMANO_BUFFER);
+    }
+
+    protected abstract void escribir(Registro registro, Writer escritor) throws IOException;
+
+    @Override
+    public synchronized void escribir(Registro registro) throws IOException {
+        escribir(registro, escritor);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        escritor.flush();
+        if (cerrarDestino) {
+            destino.close();
+        } else {
+            destino.flush();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package Comun;
+
+/*
+    Destino de los listados e informes (LecturaDOM, LecturaStAX y, en los
+    ejercicios del tema, Explorador, que compila con este src en el sourcepath).
+
+    System.out está sincronizado y con autoflush, así que un printf por línea
+    acaba dominando el tiempo con ficheros grandes y serializa cualquier versión
+    paralela. Los programas no imprimen directamente: entregan registros
+    (tipo + campos + valores) a una SalidaInforme, que los escribe en bloque.
+
+    Implementaciones:
+        SalidaTexto      texto legible con el formato de cada programa (Formateador), buffer grande
+        SalidaCSV        una línea CSV por registro, con una sola cabecera para todos los tipos
+        SalidaJSONL      un objeto JSON por línea
+        SalidaAsincrona  envuelve otra salida: los registros pasan por una cola acotada
+                         y los escribe un hilo aparte
+        NULA             descarta todo (para medir solo el cálculo)
+
+    CSV y JSONL se escriben siempre en UTF-8, y el texto también cuando va a un
+    fichero. Solo el texto que sale por System.out usa la codificación de la
+    plataforma, que es la de la consola.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+public interface SalidaInforme extends Closeable {
+
+    // Un registro del informe; campos suele ser una constante compartida por todos los de un tipo
+    record Registro(String tipo, String[] campos, Object[] valores) {
+    }
+
+    // Texto legible de un registro (el formato de cada programa)
+    interface Formateador {
+        String formatear(Registro registro);
+    }
+
+    SalidaInforme NULA = new SalidaInforme() {
+        @Override
+        public void escribir(Registro registro) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    void escribir(Registro registro) throws IOException;
+
+    // Escribe los registros seguidos, sin que se intercalen los de otros hilos
+    default void escribirBloque(List<Registro> registros) throws IOException {
+        synchronized (this) {
+            for (Registro registro : registros) {
+                escribir(registro);
+            }
+        }
+    }
+
+    /**
+     * Crea la salida para un formato (texto, csv o jsonl) sobre un flujo.
+     * Con cerrarDestino = false (p. ej. System.out) close() solo vacía el buffer.
+     * campos son los de cada tipo de registro que se va a escribir: el CSV los
+     * necesita para su cabecera única.
+     */
+    static SalidaInforme crear(String formato, OutputStream destino, boolean cerrarDestino,
+                               Formateador formateador, boolean asincrona, String[]... campos) {
+        SalidaInforme salida = switch (formato.toLowerCase(Locale.ROOT)) {
+            case "texto" -> new SalidaTexto(destino, cerrarDestino,
+                    destino == System.out ? Charset.defaultCharset() : StandardCharsets.UTF_8, formateador);
+            case "csv" -> new SalidaCSV(destino, cerrarDestino, campos);
+            case "jsonl" -> new SalidaJSONL(destino, cerrarDestino);
+            default -> throw new IllegalArgumentException("Formato de salida desconocido: " + formato);
+        };
+        return asincrona ? new SalidaAsincrona(salida) : salida;
+    }
+}
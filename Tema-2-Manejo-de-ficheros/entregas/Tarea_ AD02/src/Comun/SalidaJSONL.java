@@ -0,0 +1,64 @@
+package Comun;
+
+/*
+    Salida JSON Lines: un objeto por línea con el tipo y los campos.
+        {"tipo":"empleado","APELLIDO":"SALA","OFICIO":"VENDEDOR","SALARIO":"1625","COMISION":"650"}
+    Los Number y Boolean se escriben sin comillas; el resto como cadenas.
+    Siempre en UTF-8, como pide JSON.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+public class SalidaJSONL extends SalidaEscritor {
+
+    public SalidaJSONL(OutputStream destino, boolean cerrarDestino) {
+        super(destino, cerrarDestino, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void escribir(Registro registro, Writer escritor) throws IOException {
+        escritor.write("{\"tipo\":");
+        escribirCadena(registro.tipo(), escritor);
+        String[] campos = registro.campos();
+        Object[] valores = registro.valores();
+        for (int i = 0; i < campos.length; i++) {
+            escritor.write(',');
+            escribirCadena(campos[i], escritor);
+            escritor.write(':');
+            Object valor = valores[i];
+            if (valor == null) {
+                escritor.write("null");
+            } else if (valor instanceof Number || valor instanceof Boolean) {
+                escritor.write(valor.toString());
+            } else {
+                escribirCadena(valor.toString(), escritor);
+            }
+        }
+        escritor.write("}\n");
+    }
+
+    private static void escribirCadena(String cadena, Writer escritor) throws IOException {
+        escritor.write('"');
+        for (int i = 0; i < cadena.length(); i++) {
+            char c = cadena.charAt(i);
+            switch (c) {
+                case '"' -> escritor.write("\\\"");
+                case '\\' -> escritor.write("\\\\");
+                case '\n' -> escritor.write("\\n");
+                case '\r' -> escritor.write("\\r");
+                case '\t' -> escritor.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        escritor.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        escritor.write(c);
+                    }
+                }
+            }
+        }
+        escritor.write('"');
+    }
+}
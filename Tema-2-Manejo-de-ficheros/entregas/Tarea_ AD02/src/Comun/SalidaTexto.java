@@ -0,0 +1,26 @@
+package Comun;
+
+/*
+    Salida legible: cada registro se escribe con el formato del programa (p. ej.
+    LecturaDOM.formatearEmpleado o el bloque de cada fichero de Explorador) a
+    través del buffer de SalidaEscritor, en la codificación que se le indique.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+public class SalidaTexto extends SalidaEscritor {
+    private final Formateador formateador;
+
+    public SalidaTexto(OutputStream destino, boolean cerrarDestino, Charset codificacion, Formateador formateador) {
+        super(destino, cerrarDestino, codificacion);
+        this.formateador = formateador;
+    }
+
+    @Override
+    protected void escribir(Registro registro, Writer escritor) throws IOException {
+        escritor.write(formateador.formatear(registro));
+    }
+}
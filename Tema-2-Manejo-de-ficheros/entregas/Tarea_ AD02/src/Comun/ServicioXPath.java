@@ -0,0 +1,443 @@
+package Comun;
+
+/*
+    Consultas XPath repetidas sobre ficheros XML sin volver a analizarlos.
+
+    Un programa tipo LecturaDOM analiza el fichero entero en cada ejecución y
+    recorre los nodos a mano. Este servicio mantiene:
+        - Documentos: el DOM de cada fichero, por ruta. En cada consulta se
+          comparan la fecha de modificación y el tamaño del fichero; si han
+          cambiado se vuelve a analizar y se descartan sus resultados. Como
+          mucho maxDocumentos (se descarta el usado hace más tiempo).
+        - Consultas: expresiones compiladas una vez (por hilo, XPathExpression
+          no es thread-safe) con variables $nombre, de forma que "empleados del
+          departamento $dept" se compila una vez para todos los departamentos.
+        - Resultados: por documento, consulta y valores de las variables, con
+          un límite de peso (filas) y descarte aproximado LRU.
+
+    Lecturas concurrentes: los resultados ya calculados se sirven sin bloqueos
+    desde un ConcurrentHashMap. Si varios hilos piden a la vez un resultado que
+    falta, se evalúa una sola vez y los demás esperan ese mismo cálculo. El DOM
+    de Xerces no garantiza lecturas concurrentes seguras, así que la evaluación
+    sobre un mismo documento se hace de una en una; documentos distintos se
+    evalúan en paralelo.
+
+    Uso:
+        ServicioXPath servicio = new ServicioXPath(4, 1_000_000);
+        ServicioXPath.Consulta<List<String[]>> empleados = ServicioXPath.filas(
+                "/datos/empleados/EMP_ROW[DEPT_NO = $dept]", "EMP_NO", "APELLIDO");
+        List<String[]> filas = servicio.consultar(Path.of("datos.xml"), empleados, Map.of("dept", 10));
+ */
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathVariableResolver;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+public class ServicioXPath {
+
+    /*
+        Expresión XPath con el tipo de resultado y la conversión del resultado
+        (NodeList, Double, String...) a lo que devuelve consultar(). La conversión
+        recibe también las variables (por ejemplo, un límite de filas) y se hace
+        con el documento bloqueado, así que puede recorrer los nodos. Lo que
+        devuelve se guarda en la caché y se entrega a todos los que hagan la
+        misma consulta: debe ser inmutable (una lista de solo lectura...).
+     */
+    public static class Consulta<R> {
+        private final String expresion;
+        private final QName tipo;
+        private final BiFunction<Object, Map<String, ?>, R> conversion;
+        private final ThreadLocal<Compilada> compiladas;
+
+        public Consulta(String expresion, QName tipo, BiFunction<Object, Map<String, ?>, R> conversion)
+                throws XPathExpressionException {
+            this.expresion = expresion;
+            this.tipo = tipo;
+            this.conversion = conversion;
+            Compilada primera = new Compilada(expresion);     // Los errores de sintaxis salen aquí
+            this.compiladas = ThreadLocal.withInitial(() -> {
+                try {
+                    return new Compilada(expresion);
+                } catch (XPathExpressionException e) {
+                    throw new IllegalStateException(e);      // Ya se compiló una vez sin error
+                }
+            });
+            compiladas.set(primera);
+        }
+
+        public String getExpresion() {
+            return expresion;
+        }
+
+        private R evaluar(Document documento, Map<String, ?> variables) throws XPathExpressionException {
+            Compilada compilada = compiladas.get();
+            compilada.variables = variables;
+            try {
+                return conversion.apply(compilada.expresion.evaluate(documento, tipo), variables);
+            } finally {
+                compilada.variables = null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return expresion;
+        }
+    }
+
+    // XPathExpression de un hilo, con las variables de la evaluación en curso
+    private static class Compilada implements XPathVariableResolver {
+        private final XPathExpression expresion;
+        private Map<String, ?> variables;
+
+        Compilada(String texto) throws XPathExpressionException {
+            XPath xpath = XPathFactory.newInstance().newXPath();
+            xpath.setXPathVariableResolver(this);
+            this.expresion = xpath.compile(texto);
+        }
+
+        @Override
+        public Object resolveVariable(QName nombre) {
+            Object valor = variables == null ? null : variables.get(nombre.getLocalPart());
+            if (valor == null) {
+                throw new IllegalArgumentException("Falta el valor de la variable $" + nombre.getLocalPart());
+            }
+            // XPath 1.0 solo tiene números double
+            return valor instanceof Number numero && !(valor instanceof Double) ? numero.doubleValue() : valor;
+        }
+    }
+
+    // Filas con los campos de cada nodo seleccionado (<DEP_ROW>, <EMP_ROW>...)
+    public static Consulta<List<String[]>> filas(String expresion, String... campos) throws XPathExpressionException {
+        ExtractorFila extractor = new ExtractorFila(campos);
+        return new Consulta<>(expresion, XPathConstants.NODESET, (nodos, variables) -> extraer((NodeList) nodos, extractor));
+    }
+
+    public static Consulta<Double> numero(String expresion) throws XPathExpressionException {
+        return new Consulta<>(expresion, XPathConstants.NUMBER, (valor, variables) -> (Double) valor);
+    }
+
+    public static Consulta<String> texto(String expresion) throws XPathExpressionException {
+        return new Consulta<>(expresion, XPathConstants.STRING, (valor, variables) -> (String) valor);
+    }
+
+    // Lista de solo lectura: es la que se guarda en la caché
+    public static List<String[]> extraer(NodeList nodos, ExtractorFila extractor) {
+        List<String[]> filas = new ArrayList<>(nodos.getLength());
+        for (int i = 0; i < nodos.getLength(); i++) {
+            filas.add(extractor.extraer((Element) nodos.item(i)));
+        }
+        return Collections.unmodifiableList(filas);
+    }
+
+    // === ESTADO ===
+
+    // DOM de un fichero junto con la fecha y el tamaño que tenía al analizarlo
+    private static class Documento {
+        final Path fichero;
+        final FileTime modificado;
+        final long tamano;
+        final Document dom;
+        final ReentrantLock evaluacion = new ReentrantLock();
+        volatile long uso;
+
+        Documento(Path fichero, BasicFileAttributes atributos, Document dom) {
+            this.fichero = fichero;
+            this.modificado = atributos.lastModifiedTime();
+            this.tamano = atributos.size();
+            this.dom = dom;
+        }
+
+        boolean vigente(BasicFileAttributes atributos) {
+            return modificado.equals(atributos.lastModifiedTime()) && tamano == atributos.size();
+        }
+    }
+
+    // El documento forma parte de la clave: al volver a analizar el fichero los resultados antiguos no se usan
+    private record Clave(Documento documento, Consulta<?> consulta, Map<String, ?> variables) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Clave c && c.documento == documento && c.consulta == consulta
+                    && c.variables.equals(variables);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(documento) * 31 * 31
+                    + System.identityHashCode(consulta) * 31 + variables.hashCode();
+        }
+    }
+
+    // Resultado (o cálculo en curso). El peso se suma al total al completarse y se resta al quitarla
+    private static class Entrada {
+        final CompletableFuture<Object> resultado = new CompletableFuture<>();
+        volatile long uso;
+        private long peso;
+        private boolean quitada;
+    }
+
+    private final int maxDocumentos;
+    private final long maxPeso;
+    private final DocumentBuilderFactory fabrica = DocumentBuilderFactory.newInstance();
+
+    private final ConcurrentHashMap<Path, Documento> documentos = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Path, Object> cerrojosCarga = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Clave, Entrada> resultados = new ConcurrentHashMap<>();
+    private final ReentrantLock descarte = new ReentrantLock();
+    private final AtomicLong reloj = new AtomicLong();
+    private final AtomicLong pesoTotal = new AtomicLong();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder evaluaciones = new LongAdder();
+    private final LongAdder analisis = new LongAdder();
+
+    /**
+     * @param maxDocumentos documentos que se mantienen analizados en memoria
+     * @param maxPeso       filas (o valores sueltos) que se mantienen en la caché de resultados
+     */
+    public ServicioXPath(int maxDocumentos, long maxPeso) {
+        this.maxDocumentos = maxDocumentos;
+        this.maxPeso = maxPeso;
+    }
+
+    // === CONSULTAS ===
+
+    public <R> R consultar(Path fichero, Consulta<R> consulta) throws IOException, SAXException, XPathExpressionException {
+        return consultar(fichero, consulta, Map.of());
+    }
+
+    /**
+     * Resultado de la consulta sobre el fichero con esos valores de sus variables.
+     * El resultado se comparte entre llamadas: las listas de filas son de solo
+     * lectura y los String[] de cada fila tampoco deben modificarse.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R consultar(Path fichero, Consulta<R> consulta, Map<String, ?> variables)
+            throws IOException, SAXException, XPathExpressionException {
+        Documento documento = documento(fichero);
+        Clave clave = new Clave(documento, consulta, Map.copyOf(variables));
+
+        Entrada entrada = resultados.get(clave);
+        if (entrada == null) {
+            Entrada nueva = new Entrada();
+            entrada = resultados.putIfAbsent(clave, nueva);
+            if (entrada == null) {
+                entrada = nueva;
+                evaluar(clave, nueva);
+                descartarSiHaceFalta();
+            } else {
+                aciertos.increment();
+            }
+        } else {
+            aciertos.increment();
+        }
+        entrada.uso = reloj.incrementAndGet();
+
+        try {
+            return (R) entrada.resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof XPathExpressionException x) {
+                throw x;
+            }
+            if (causa instanceof RuntimeException r) {
+                throw r;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    private void evaluar(Clave clave, Entrada entrada) throws XPathExpressionException {
+        Documento documento = clave.documento();
+        try {
+            Object resultado;
+            documento.evaluacion.lock();
+            try {
+                evaluaciones.increment();
+                resultado = clave.consulta().evaluar(documento.dom, clave.variables());
+            } finally {
+                documento.evaluacion.unlock();
+            }
+            synchronized (entrada) {
+                if (!entrada.quitada) {
+                    entrada.peso = resultado instanceof Collection<?> c ? c.size() + 1 : 1;
+                    pesoTotal.addAndGet(entrada.peso);
+                }
+            }
+            entrada.resultado.complete(resultado);
+        } catch (Throwable e) {
+            // Los errores no se guardan: la próxima llamada lo intenta de nuevo. Con cualquier
+            // Throwable (también un Error como OutOfMemoryError) se completa el futuro, o los
+            // hilos que esperan esta entrada se quedarían bloqueados para siempre
+            quitar(clave, entrada);
+            entrada.resultado.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private boolean quitar(Clave clave, Entrada entrada) {
+        if (!resultados.remove(clave, entrada)) {
+            return false;
+        }
+        synchronized (entrada) {
+            entrada.quitada = true;
+            pesoTotal.addAndGet(-entrada.peso);
+        }
+        return true;
+    }
+
+    // === DOCUMENTOS ===
+
+    private Documento documento(Path fichero) throws IOException, SAXException {
+        Path ruta = fichero.toAbsolutePath().normalize();
+        BasicFileAttributes atributos = Files.readAttributes(ruta, BasicFileAttributes.class);
+        Documento documento = documentos.get(ruta);
+        if (documento == null || !documento.vigente(atributos)) {
+            // Un solo análisis por fichero aunque lo pidan varios hilos a la vez
+            synchronized (cerrojosCarga.computeIfAbsent(ruta, r -> new Object())) {
+                documento = documentos.get(ruta);
+                atributos = Files.readAttributes(ruta, BasicFileAttributes.class);
+                if (documento == null || !documento.vigente(atributos)) {
+                    Documento anterior = documento;
+                    documento = new Documento(ruta, atributos, analizar(ruta));
+                    documentos.put(ruta, documento);
+                    if (anterior != null) {
+                        olvidar(anterior);
+                    }
+                    descartarDocumentos(documento);
+                }
+            }
+        }
+        documento.uso = reloj.incrementAndGet();
+        return documento;
+    }
+
+    private Document analizar(Path ruta) throws IOException, SAXException {
+        DocumentBuilder constructor;
+        try {
+            synchronized (fabrica) {
+                constructor = fabrica.newDocumentBuilder();
+            }
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+        analisis.increment();
+        return constructor.parse(ruta.toFile());
+    }
+
+    // Deja como mucho maxDocumentos, sin tocar el que se acaba de cargar
+    private void descartarDocumentos(Documento actual) {
+        while (documentos.size() > maxDocumentos) {
+            Documento masAntiguo = documentos.values().stream()
+                    .filter(d -> d != actual)
+                    .min(Comparator.comparingLong(d -> d.uso))
+                    .orElse(null);
+            if (masAntiguo == null || !documentos.remove(masAntiguo.fichero, masAntiguo)) {
+                return;
+            }
+            olvidar(masAntiguo);
+        }
+    }
+
+    // Quita los resultados de un documento que ya no está en la caché
+    private void olvidar(Documento documento) {
+        for (Map.Entry<Clave, Entrada> e : resultados.entrySet()) {
+            if (e.getKey().documento() == documento) {
+                quitar(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    // === DESCARTE DE RESULTADOS ===
+
+    /*
+        Al pasar de maxPeso se ordenan las entradas por último uso y se quitan las
+        más antiguas hasta bajar al 90 %, para no repetir la ordenación en cada
+        inserción. Solo descarta un hilo a la vez; los demás siguen sin esperar.
+     */
+    private void descartarSiHaceFalta() {
+        if (pesoTotal.get() <= maxPeso || !descarte.tryLock()) {
+            return;
+        }
+        try {
+            long objetivo = maxPeso * 9 / 10;
+            List<Map.Entry<Clave, Entrada>> entradas = new ArrayList<>(resultados.entrySet());
+            entradas.sort(Comparator.comparingLong(e -> e.getValue().uso));
+            for (Map.Entry<Clave, Entrada> e : entradas) {
+                if (pesoTotal.get() <= objetivo) {
+                    break;
+                }
+                if (e.getValue().resultado.isDone()) {
+                    quitar(e.getKey(), e.getValue());
+                }
+            }
+        } finally {
+            descarte.unlock();
+        }
+    }
+
+    // === ESTADÍSTICAS ===
+
+    public long aciertos() {
+        return aciertos.sum();
+    }
+
+    public long evaluaciones() {
+        return evaluaciones.sum();
+    }
+
+    public long analisis() {
+        return analisis.sum();
+    }
+
+    public int documentosEnCache() {
+        return documentos.size();
+    }
+
+    public int resultadosEnCache() {
+        return resultados.size();
+    }
+
+    public long pesoEnCache() {
+        return pesoTotal.get();
+    }
+
+    // Descarta todo: la siguiente consulta vuelve a analizar el fichero
+    public void vaciar() {
+        documentos.clear();
+        resultados.forEach(this::quitar);
+    }
+}
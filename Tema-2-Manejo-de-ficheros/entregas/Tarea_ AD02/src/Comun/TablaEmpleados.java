@@ -0,0 +1,201 @@
+package Comun;
+
+/*
+    Tabla en memoria por columnas de los datos de DEPART y EMPLE.
+
+    En lugar de un objeto por empleado con campos String, cada campo es un array
+    primitivo paralelo (posición i = empleado i): números e importes sin boxing,
+    importes en céntimos, fechas como día epoch y textos repetidos codificados
+    con un Diccionario. Pensada para recorridos masivos (sumas, agrupaciones...).
+ */
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TablaEmpleados {
+    public static final int SIN_DEPARTAMENTO = -1;
+
+    private static final String[] CAMPOS_DEPARTAMENTO = {"DEPT_NO", "DNOMBRE", "LOC"};
+    private static final String[] CAMPOS_EMPLEADO =
+            {"EMP_NO", "APELLIDO", "OFICIO", "DIR", "FECHA_ALT", "SALARIO", "COMISION", "DEPT_NO"};
+
+    // Diccionarios de textos
+    private final Diccionario apellidos = new Diccionario();
+    private final Diccionario oficios = new Diccionario();
+    private final Diccionario nombresDepartamento = new Diccionario();
+    private final Diccionario localidades = new Diccionario();
+
+    // === COLUMNAS DE DEPARTAMENTOS ===
+    private int numDepartamentos;
+    private int[] depNumero = new int[16];
+    private int[] depNombre = new int[16];
+    private int[] depLocalidad = new int[16];
+    private final Map<Integer, Integer> filaPorNumero = new HashMap<>();
+    // Empleados cargados antes que su departamento, por DEPT_NO
+    private final Map<Integer, List<Integer>> pendientes = new HashMap<>();
+
+    // === COLUMNAS DE EMPLEADOS ===
+    private int numEmpleados;
+    private int[] numero = new int[1024];
+    private int[] apellido = new int[1024];
+    private int[] oficio = new int[1024];
+    private int[] dir = new int[1024];
+    private int[] fechaAlta = new int[1024];
+    private long[] salario = new long[1024];
+    private long[] comision = new long[1024];
+    private int[] departamento = new int[1024];         // DEPT_NO
+    private int[] filaDepartamento = new int[1024];     // Fila en las columnas de departamentos
+
+    /**
+     * Carga la tabla desde un DepartamentosEmpleados.xml leyéndolo en streaming.
+     */
+    public static TablaEmpleados cargar(Path fichero) throws IOException, XMLStreamException {
+        TablaEmpleados tabla = new TablaEmpleados();
+        LectorStAX.recorrerFilas(fichero, "DEP_ROW", CAMPOS_DEPARTAMENTO, d ->
+                tabla.agregarDepartamento(Campos.entero(d[0]), d[1], d[2]));
+        LectorStAX.recorrerFilas(fichero, "EMP_ROW", CAMPOS_EMPLEADO, e ->
+                tabla.agregarEmpleado(Campos.entero(e[0]), e[1], e[2], Campos.entero(e[3]),
+                        Campos.diaEpoch(e[4]), Campos.centimos(e[5]), Campos.centimos(e[6]), Campos.entero(e[7])));
+        return tabla;
+    }
+
+    public void agregarDepartamento(int numeroDepartamento, String nombre, String localidad) {
+        if (numDepartamentos == depNumero.length) {
+            int capacidad = numDepartamentos * 2;
+            depNumero = Arrays.copyOf(depNumero, capacidad);
+            depNombre = Arrays.copyOf(depNombre, capacidad);
+            depLocalidad = Arrays.copyOf(depLocalidad, capacidad);
+        }
+        depNumero[numDepartamentos] = numeroDepartamento;
+        depNombre[numDepartamentos] = nombresDepartamento.codigo(nombre);
+        depLocalidad[numDepartamentos] = localidades.codigo(localidad);
+        if (filaPorNumero.putIfAbsent(numeroDepartamento, numDepartamentos) == null) {
+            List<Integer> filas = pendientes.remove(numeroDepartamento);
+            if (filas != null) {
+                for (int i : filas) {
+                    filaDepartamento[i] = numDepartamentos;
+                }
+            }
+        }
+        numDepartamentos++;
+    }
+
+    public void agregarEmpleado(int numeroEmpleado, String apellidoEmpleado, String oficioEmpleado, int director,
+                                int diaAlta, long salarioCentimos, long comisionCentimos, int numeroDepartamento) {
+        if (numEmpleados == numero.length) {
+            crecer(numEmpleados * 2);
+        }
+        int i = numEmpleados++;
+        numero[i] = numeroEmpleado;
+        apellido[i] = apellidos.codigo(apellidoEmpleado);
+        oficio[i] = oficios.codigo(oficioEmpleado);
+        dir[i] = director;
+        fechaAlta[i] = diaAlta;
+        salario[i] = salarioCentimos;
+        comision[i] = comisionCentimos;
+        departamento[i] = numeroDepartamento;
+        filaDepartamento[i] = filaPorNumero.getOrDefault(numeroDepartamento, SIN_DEPARTAMENTO);
+        if (filaDepartamento[i] == SIN_DEPARTAMENTO) {
+            pendientes.computeIfAbsent(numeroDepartamento, n -> new ArrayList<>()).add(i);
+        }
+    }
+
+    private void crecer(int capacidad) {
+        numero = Arrays.copyOf(numero, capacidad);
+        apellido = Arrays.copyOf(apellido, capacidad);
+        oficio = Arrays.copyOf(oficio, capacidad);
+        dir = Arrays.copyOf(dir, capacidad);
+        fechaAlta = Arrays.copyOf(fechaAlta, capacidad);
+        salario = Arrays.copyOf(salario, capacidad);
+        comision = Arrays.copyOf(comision, capacidad);
+        departamento = Arrays.copyOf(departamento, capacidad);
+        filaDepartamento = Arrays.copyOf(filaDepartamento, capacidad);
+    }
+
+    // === DEPARTAMENTOS ===
+
+    public int numDepartamentos() {
+        return numDepartamentos;
+    }
+
+    public int numeroDepartamento(int fila) {
+        return depNumero[fila];
+    }
+
+    public String nombreDepartamento(int fila) {
+        return nombresDepartamento.texto(depNombre[fila]);
+    }
+
+    public int codigoLocalidadDepartamento(int fila) {
+        return depLocalidad[fila];
+    }
+
+    // === EMPLEADOS ===
+
+    public int numEmpleados() {
+        return numEmpleados;
+    }
+
+    public int numero(int i) {
+        return numero[i];
+    }
+
+    public String apellido(int i) {
+        return apellidos.texto(apellido[i]);
+    }
+
+    public int codigoOficio(int i) {
+        return oficio[i];
+    }
+
+    public String oficio(int i) {
+        return oficios.texto(oficio[i]);
+    }
+
+    public int dir(int i) {
+        return dir[i];
+    }
+
+    public int fechaAlta(int i) {
+        return fechaAlta[i];
+    }
+
+    public long salario(int i) {
+        return salario[i];
+    }
+
+    public long comision(int i) {
+        return comision[i];
+    }
+
+    public int departamento(int i) {
+        return departamento[i];
+    }
+
+    // Fila del departamento del empleado, o SIN_DEPARTAMENTO si su DEPT_NO no existe
+    public int filaDepartamento(int i) {
+        return filaDepartamento[i];
+    }
+
+    // Código de LOC del departamento del empleado, o SIN_DEPARTAMENTO
+    public int codigoLocalidad(int i) {
+        int fila = filaDepartamento[i];
+        return fila == SIN_DEPARTAMENTO ? SIN_DEPARTAMENTO : depLocalidad[fila];
+    }
+
+    // === DICCIONARIOS ===
+
+    public Diccionario oficios() {
+        return oficios;
+    }
+
+    public Diccionario localidades() {
+        return localidades;
+    }
+}
@@ -0,0 +1,268 @@
+package Comun;
+
+/*
+    Cambio de codificación de ficheros enteros en streaming, por trozos de 4 MB
+    leídos y escritos con FileChannel.
+
+    Según origen y destino se elige el camino más barato:
+        COPIA        misma codificación: transferTo, sin mirar los bytes
+        LATIN1_UTF8  ISO-8859-1 -> UTF-8 sin decodificador: los bytes ASCII se
+                     copian tal cual (de 8 en 8 mientras no haya ninguno >= 0x80)
+                     y solo los demás se convierten en sus dos bytes UTF-8; los
+                     buffers son directos, sin copias intermedias al heap
+        GENERAL      cualquier otra pareja: CharsetDecoder -> CharBuffer -> CharsetEncoder
+    Los errores de codificación no se sustituyen: un byte que no es válido en el
+    origen o un carácter que no existe en el destino lanzan excepción. El
+    destino no puede ser el propio origen: se vaciaría al abrirlo.
+
+    transcodificarXML además cambia la codificación de la declaración <?xml ...?>
+    (o la añade si falta), para que el resultado siga siendo un XML correcto.
+
+    Uso: Transcodificador <origen.xml> <destino.xml> [codificación destino, por defecto UTF-8]
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class Transcodificador {
+    public static final int TROZO = 4 * 1024 * 1024;
+
+    private static final long ALGUN_BYTE_ALTO = 0x8080808080808080L;
+
+    public enum Camino {COPIA, LATIN1_UTF8, GENERAL}
+
+    public record Resultado(Camino camino, long bytesLeidos, long bytesEscritos) {
+    }
+
+    // Camino más barato para esta pareja de codificaciones
+    public static Camino camino(Charset desde, Charset hacia) {
+        if (desde.equals(hacia)) {
+            return Camino.COPIA;
+        }
+        if (desde.equals(StandardCharsets.ISO_8859_1) && hacia.equals(StandardCharsets.UTF_8)) {
+            return Camino.LATIN1_UTF8;
+        }
+        return Camino.GENERAL;
+    }
+
+    public static Resultado transcodificar(Path origen, Charset desde, Path destino, Charset hacia)
+            throws IOException {
+        return transcodificar(origen, desde, destino, hacia, camino(desde, hacia));
+    }
+
+    // Con un camino concreto (p. ej. GENERAL para comparar); COPIA y LATIN1_UTF8 solo donde valen
+    public static Resultado transcodificar(Path origen, Charset desde, Path destino, Charset hacia, Camino camino)
+            throws IOException {
+        if (camino == Camino.COPIA && !desde.equals(hacia)
+                || camino == Camino.LATIN1_UTF8 && camino(desde, hacia) != Camino.LATIN1_UTF8) {
+            throw new IllegalArgumentException("El camino " + camino + " no sirve de " + desde + " a " + hacia);
+        }
+        comprobarDistintos(origen, destino);
+        try (FileChannel entrada = FileChannel.open(origen, StandardOpenOption.READ);
+             FileChannel salida = FileChannel.open(destino, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long escritos = escribir(entrada, 0, salida, desde, hacia, camino);
+            return new Resultado(camino, entrada.size(), escritos);
+        }
+    }
+
+    /**
+     * Copia un XML a otra codificación: lee la del origen en su declaración (si
+     * no tiene, UTF-8), escribe una declaración con la nueva y transcodifica el
+     * resto. Solo para orígenes cuya declaración se lee como ASCII (no UTF-16).
+     */
+    public static Resultado transcodificarXML(Path origen, Path destino, Charset hacia) throws IOException {
+        comprobarDistintos(origen, destino);
+        try (FileChannel entrada = FileChannel.open(origen, StandardOpenOption.READ);
+             FileChannel salida = FileChannel.open(destino, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer cabecera = ByteBuffer.allocate((int) Math.min(entrada.size(), LectorLatin1.CABECERA));
+            entrada.read(cabecera, 0);
+            byte[] bytes = cabecera.array();
+            Charset desde = Charset.forName(LectorLatin1.codificacionDeclarada(bytes, cabecera.position()));
+
+            // La declaración original se sustituye entera, conservando version y standalone
+            String texto = new String(bytes, 0, cabecera.position(), StandardCharsets.ISO_8859_1);
+            int finDeclaracion = texto.startsWith("<?xml") ? texto.indexOf("?>") : -1;
+            String declaracion = finDeclaracion < 0 ? "<?xml version=\"1.0\"?>" : texto.substring(0, finDeclaracion + 2);
+            long inicio = finDeclaracion < 0 ? 0 : finDeclaracion + 2;
+            String nueva = declaracion.contains("encoding")
+                    ? declaracion.replaceFirst("encoding\\s*=\\s*([\"'])[^\"']*\\1", "encoding=\"" + hacia.name() + "\"")
+                    : declaracion.replace("?>", " encoding=\"" + hacia.name() + "\"?>");
+            if (finDeclaracion < 0) {
+                nueva += "\n";
+            }
+            ByteBuffer bytesDeclaracion = ByteBuffer.wrap(nueva.getBytes(hacia));
+            long escritos = bytesDeclaracion.remaining();
+            while (bytesDeclaracion.hasRemaining()) {
+                salida.write(bytesDeclaracion);
+            }
+
+            Camino camino = camino(desde, hacia);
+            escritos += escribir(entrada, inicio, salida, desde, hacia, camino);
+            return new Resultado(camino, entrada.size(), escritos);
+        }
+    }
+
+    // Antes de abrir el destino con TRUNCATE_EXISTING: el mismo fichero con otra ruta también cuenta
+    private static void comprobarDistintos(Path origen, Path destino) throws IOException {
+        if (Files.exists(destino) && Files.isSameFile(origen, destino)) {
+            throw new IOException("El destino " + destino + " es el mismo fichero que el origen");
+        }
+    }
+
+    // Del origen (desde la posición dada) al final del destino; devuelve los bytes escritos
+    private static long escribir(FileChannel entrada, long inicio, FileChannel salida, Charset desde, Charset hacia,
+                                 Camino camino) throws IOException {
+        return switch (camino) {
+            case COPIA -> copiar(entrada, inicio, salida);
+            case LATIN1_UTF8 -> latin1Utf8(entrada, inicio, salida);
+            case GENERAL -> general(entrada, inicio, salida, desde, hacia);
+        };
+    }
+
+    private static long copiar(FileChannel entrada, long inicio, FileChannel salida) throws IOException {
+        long total = entrada.size() - inicio;
+        for (long copiados = 0; copiados < total; ) {
+            copiados += entrada.transferTo(inicio + copiados, total - copiados, salida);
+        }
+        return total;
+    }
+
+    private static long latin1Utf8(FileChannel entrada, long inicio, FileChannel salida) throws IOException {
+        ByteBuffer leidos = ByteBuffer.allocateDirect(TROZO);
+        // Cada byte de ISO-8859-1 ocupa como mucho 2 en UTF-8
+        ByteBuffer escritos = ByteBuffer.allocateDirect(2 * TROZO);
+        long total = 0;
+        entrada.position(inicio);
+        while (entrada.read(leidos) >= 0 || leidos.position() > 0) {
+            leidos.flip();
+            int n = leidos.limit();
+            int i = 0;
+            int j = 0;
+            while (i < n) {
+                // Palabras de 8 bytes ASCII: se copian enteras
+                if (i + 8 <= n) {
+                    long palabra = leidos.getLong(i);
+                    if ((palabra & ALGUN_BYTE_ALTO) == 0) {
+                        escritos.putLong(j, palabra);
+                        i += 8;
+                        j += 8;
+                        continue;
+                    }
+                }
+                byte b = leidos.get(i++);
+                if (b >= 0) {
+                    escritos.put(j++, b);
+                } else {
+                    escritos.put(j++, (byte) (0xC0 | (b & 0xFF) >> 6));
+                    escritos.put(j++, (byte) (0x80 | b & 0x3F));
+                }
+            }
+            escritos.limit(j);
+            while (escritos.hasRemaining()) {
+                salida.write(escritos);
+            }
+            total += j;
+            escritos.clear();
+            leidos.clear();
+        }
+        return total;
+    }
+
+    private static long general(FileChannel entrada, long inicio, FileChannel salida, Charset desde, Charset hacia)
+            throws IOException {
+        CharsetDecoder decodificador = desde.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharsetEncoder codificador = hacia.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+        // Con buffers del heap: los codificadores del JDK solo usan su bucle rápido sobre arrays
+        ByteBuffer leidos = ByteBuffer.allocate(TROZO);
+        CharBuffer caracteres = CharBuffer.allocate(TROZO);
+        ByteBuffer escritos = ByteBuffer.allocate(TROZO);
+        long total = 0;
+        long posicion = inicio;
+        entrada.position(inicio);
+        boolean fin = false;
+        while (!fin) {
+            fin = entrada.read(leidos) < 0;
+            leidos.flip();
+            // Lo que no se decodifica (un carácter partido entre dos trozos) queda en leidos para la siguiente vuelta
+            int antes = leidos.position();
+            comprobar(decodificador.decode(leidos, caracteres, fin), posicion);
+            posicion += leidos.position() - antes;
+            if (fin) {
+                comprobar(decodificador.flush(caracteres), posicion);
+            }
+            caracteres.flip();
+            CoderResult resultado;
+            do {
+                resultado = codificador.encode(caracteres, escritos, fin);
+                total += vaciar(escritos, salida);
+            } while (resultado.isOverflow());
+            comprobar(resultado, posicion);
+            if (fin) {
+                while (codificador.flush(escritos).isOverflow()) {
+                    total += vaciar(escritos, salida);
+                }
+                total += vaciar(escritos, salida);
+            }
+            caracteres.compact();
+            leidos.compact();
+        }
+        return total;
+    }
+
+    private static void comprobar(CoderResult resultado, long posicion) throws CharacterCodingException {
+        if (resultado.isError()) {
+            try {
+                resultado.throwException();
+            } catch (CharacterCodingException e) {
+                CharacterCodingException conPosicion = new CharacterCodingException() {
+                    @Override
+                    public String getMessage() {
+                        return e + " cerca del byte " + posicion + " del origen";
+                    }
+                };
+                conPosicion.initCause(e);
+                throw conPosicion;
+            }
+        }
+    }
+
+    private static long vaciar(ByteBuffer buffer, FileChannel salida) throws IOException {
+        buffer.flip();
+        long escritos = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            salida.write(buffer);
+        }
+        buffer.clear();
+        return escritos;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: Transcodificador <origen.xml> <destino.xml> [codificación destino]");
+            return;
+        }
+        Charset hacia = args.length > 2 ? Charset.forName(args[2]) : StandardCharsets.UTF_8;
+        long inicio = System.nanoTime();
+        Resultado resultado = transcodificarXML(Path.of(args[0]), Path.of(args[1]), hacia);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%s: %,d bytes leídos, %,d escritos en %.2f s (%.1f MB/s)%n", resultado.camino(),
+                resultado.bytesLeidos(), resultado.bytesEscritos(), segundos,
+                resultado.bytesLeidos() / (1024.0 * 1024) / segundos);
+    }
+}
@@ -0,0 +1,96 @@
+package Comun;
+
+/*
+    Unión departamentos-empleados sobre el DOM de DepartamentosEmpleados.xml,
+    compartida por LecturaDOM (Ejercicio 1) y Main (Ejercicio 2).
+
+    Los EMP_ROW se agrupan por DEPT_NO en un IndicePorDepartamento con una sola
+    pasada; luego se visita cada DEP_ROW seguido de sus empleados.
+    Coste O(D + E) en lugar de O(D × E).
+
+    Los campos de cada fila se leen una sola vez con un ExtractorFila; el
+    visitante recibe los valores en el orden de los campos pedidos.
+ */
+
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import java.io.PrintStream;
+import java.util.List;
+
+public class UnionDOM {
+
+    public interface Visitante {
+        // Se llama con cada <DEP_ROW>, en el orden del documento
+        void departamento(int indice, String[] departamento);
+
+        // Se llama con cada <EMP_ROW> del último departamento visitado
+        void empleado(String[] empleado);
+    }
+
+    private final ExtractorFila extractorDepartamento;
+    private final ExtractorFila extractorEmpleado;
+    private final int deptNoDepartamento;
+    private final int deptNoEmpleado;
+
+    /**
+     * @param camposDepartamento campos de DEP_ROW que recibirá el visitante (debe incluir DEPT_NO)
+     * @param camposEmpleado     campos de EMP_ROW que recibirá el visitante (debe incluir DEPT_NO)
+     */
+    public UnionDOM(String[] camposDepartamento, String[] camposEmpleado) {
+        this.extractorDepartamento = new ExtractorFila(camposDepartamento);
+        this.extractorEmpleado = new ExtractorFila(camposEmpleado);
+        this.deptNoDepartamento = extractorDepartamento.posicion("DEPT_NO");
+        this.deptNoEmpleado = extractorEmpleado.posicion("DEPT_NO");
+        if (deptNoDepartamento == ExtractorFila.NO_EXISTE || deptNoEmpleado == ExtractorFila.NO_EXISTE) {
+            throw new IllegalArgumentException("Los campos de departamento y empleado deben incluir DEPT_NO");
+        }
+    }
+
+    /**
+     * Recorre los departamentos de {@code <datos>} y, tras cada uno, sus empleados.
+     *
+     * @return los empleados cuyo DEPT_NO no corresponde a ningún departamento
+     */
+    public List<String[]> unir(Element datos, Visitante visitante) {
+        // Nodos <DEP_ROW>
+        Element nodoDepartamentos = (Element) datos.getElementsByTagName("departamentos").item(0);
+        NodeList departamentos = nodoDepartamentos.getElementsByTagName("DEP_ROW");
+        int numDepartamentos = departamentos.getLength();
+
+        // Nodos <EMP_ROW>, agrupados por DEPT_NO en una sola pasada
+        Element nodoEmpleados = (Element) datos.getElementsByTagName("empleados").item(0);
+        NodeList empleados = nodoEmpleados.getElementsByTagName("EMP_ROW");
+        int numEmpleados = empleados.getLength();
+
+        IndicePorDepartamento<String[]> indice = new IndicePorDepartamento<>();
+        for (int j = 0; j < numEmpleados; j++) {
+            String[] empleado = extractorEmpleado.extraer((Element) empleados.item(j));
+            indice.agregar(empleado[deptNoEmpleado], empleado);
+        }
+
+        // Cada departamento, seguido de sus empleados
+        String[] departamento = new String[extractorDepartamento.numCampos()];
+        for (int i = 0; i < numDepartamentos; i++) {
+            extractorDepartamento.extraer((Element) departamentos.item(i), departamento);
+            visitante.departamento(i, departamento);
+            indice.recorrer(departamento[deptNoDepartamento], visitante::empleado);
+        }
+
+        return indice.sinDepartamento();
+    }
+
+    // Informa de los empleados que han quedado fuera de la unión
+    public void avisarSinDepartamento(List<String[]> empleados, PrintStream salida) {
+        int empNo = extractorEmpleado.posicion("EMP_NO");
+        for (String[] empleado : empleados) {
+            avisarSinDepartamento(empNo == ExtractorFila.NO_EXISTE ? "?" : empleado[empNo],
+                    empleado[deptNoEmpleado], salida);
+        }
+    }
+
+    public static void avisarSinDepartamento(String numeroEmpleado, String numeroDepartamento, PrintStream salida) {
+        salida.printf("Aviso: el empleado %s tiene DEPT_NO %s, que no existe en <departamentos>%n",
+                numeroEmpleado, numeroDepartamento);
+    }
+}
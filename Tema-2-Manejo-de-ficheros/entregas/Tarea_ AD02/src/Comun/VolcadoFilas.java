@@ -0,0 +1,128 @@
+package Comun;
+
+/*
+    Reparte filas (arrays de valores) en ficheros temporales, uno por grupo,
+    para poder leerlas después agrupadas sin tenerlas todas en memoria.
+
+    Se usa al leer en streaming: los EMP_ROW llegan en cualquier orden y se
+    vuelcan al grupo de su departamento; luego se recorren departamento a
+    departamento. Para no agotar descriptores con miles de grupos, solo se
+    mantienen abiertos los ficheros usados más recientemente; el resto se
+    cierran y se reabren en modo append.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class VolcadoFilas implements Closeable {
+    private final Path directorio;
+    private final LinkedHashMap<Integer, DataOutputStream> abiertos;
+
+    public VolcadoFilas(int maxAbiertos) throws IOException {
+        this.directorio = Files.createTempDirectory("volcadoFilas");
+        this.abiertos = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, DataOutputStream> masAntiguo) {
+                if (size() <= maxAbiertos) {
+                    return false;
+                }
+                cerrar(masAntiguo.getValue());
+                return true;
+            }
+        };
+    }
+
+    private Path ruta(int grupo) {
+        return directorio.resolve("grupo_" + grupo + ".bin");
+    }
+
+    public void escribir(int grupo, String[] valores) throws IOException {
+        DataOutputStream salida = abiertos.get(grupo);
+        if (salida == null) {
+            salida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(ruta(grupo),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), 8 * 1024));
+            abiertos.put(grupo, salida);
+        }
+
+        // Nº de valores y, por cada uno, si es null o su texto
+        salida.writeShort(valores.length);
+        for (String valor : valores) {
+            salida.writeBoolean(valor != null);
+            if (valor != null) {
+                salida.writeUTF(valor);
+            }
+        }
+    }
+
+    /**
+     * Recorre en orden de escritura las filas del grupo. El array que recibe el
+     * manejador se reutiliza entre filas.
+     */
+    public void leer(int grupo, LectorStAX.ManejadorFila manejador) throws IOException {
+        DataOutputStream pendiente = abiertos.remove(grupo);
+        if (pendiente != null) {
+            pendiente.close();
+        }
+        Path fichero = ruta(grupo);
+        if (!Files.exists(fichero)) {
+            return;
+        }
+
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichero), 8 * 1024))) {
+            String[] valores = new String[0];
+            while (true) {
+                int numValores;
+                try {
+                    numValores = entrada.readShort();
+                } catch (EOFException fin) {
+                    return;
+                }
+                if (valores.length != numValores) {
+                    valores = new String[numValores];
+                }
+                for (int i = 0; i < numValores; i++) {
+                    valores[i] = entrada.readBoolean() ? entrada.readUTF() : null;
+                }
+                manejador.fila(valores);
+            }
+        }
+    }
+
+    private static void cerrar(Closeable recurso) {
+        try {
+            recurso.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Cierra los ficheros abiertos y borra el directorio temporal
+    @Override
+    public void close() throws IOException {
+        abiertos.values().forEach(VolcadoFilas::cerrar);
+        abiertos.clear();
+
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            ficheros.forEach(f -> {
+                try {
+                    Files.delete(f);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        Files.delete(directorio);
+    }
+}
@@ -0,0 +1,133 @@
+package Ejercicio_1;
+
+/*
+    Preguntas habituales sobre DepartamentosEmpleados.xml como consultas XPath
+    precompiladas (ver Comun.ServicioXPath), en lugar de analizar el fichero y
+    recorrer los nodos a mano como LecturaDOM.
+
+    Uso: ConsultasXPath <fichero.xml> <consulta> [valor] [--repetir=N]
+        departamentos           DEP_ROW de todos los departamentos
+        departamento  <DEPT_NO> DEP_ROW de un departamento
+        empleados     <DEPT_NO> EMP_ROW de los empleados del departamento
+        mejores       <N>       los N empleados con mayor salario
+        numEmpleados  <DEPT_NO> número de empleados del departamento
+        sumaSalarios  <DEPT_NO> suma de SALARIO de los empleados del departamento
+    Todas menos departamentos necesitan el valor; sin él se muestra el uso.
+    --repetir ejecuta la consulta N veces más y muestra el tiempo de cada una
+    (la primera analiza el fichero; las siguientes salen de la caché).
+ */
+
+import Comun.Campos;
+import Comun.ExtractorFila;
+import Comun.ServicioXPath;
+import Comun.ServicioXPath.Consulta;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+public class ConsultasXPath {
+    public static final String[] CAMPOS_DEPARTAMENTO = {"DEPT_NO", "DNOMBRE", "LOC"};
+    public static final String[] CAMPOS_EMPLEADO =
+            {"EMP_NO", "APELLIDO", "OFICIO", "DIR", "FECHA_ALT", "SALARIO", "COMISION", "DEPT_NO"};
+    private static final int SALARIO = 5;
+
+    public static final Consulta<List<String[]>> DEPARTAMENTOS;
+    public static final Consulta<List<String[]>> DEPARTAMENTO;           // $dept
+    public static final Consulta<List<String[]>> EMPLEADOS_DEPARTAMENTO; // $dept
+    public static final Consulta<List<String[]>> MEJORES_SALARIOS;       // $n (no es variable XPath: se aplica al ordenar)
+    public static final Consulta<Double> NUM_EMPLEADOS;                  // $dept
+    public static final Consulta<Double> SUMA_SALARIOS;                  // $dept
+
+    static {
+        try {
+            DEPARTAMENTOS = ServicioXPath.filas("/datos/departamentos/DEP_ROW", CAMPOS_DEPARTAMENTO);
+            DEPARTAMENTO = ServicioXPath.filas("/datos/departamentos/DEP_ROW[DEPT_NO = $dept]", CAMPOS_DEPARTAMENTO);
+            EMPLEADOS_DEPARTAMENTO = ServicioXPath.filas("/datos/empleados/EMP_ROW[DEPT_NO = $dept]", CAMPOS_EMPLEADO);
+            NUM_EMPLEADOS = ServicioXPath.numero("count(/datos/empleados/EMP_ROW[DEPT_NO = $dept])");
+            SUMA_SALARIOS = ServicioXPath.numero("sum(/datos/empleados/EMP_ROW[DEPT_NO = $dept]/SALARIO)");
+
+            // XPath 1.0 no ordena: se seleccionan todos y se ordenan por SALARIO al convertir (toList es de solo lectura)
+            ExtractorFila extractor = new ExtractorFila(CAMPOS_EMPLEADO);
+            MEJORES_SALARIOS = new Consulta<>("/datos/empleados/EMP_ROW", XPathConstants.NODESET, (nodos, variables) -> {
+                if (!(variables.get("n") instanceof Number n)) {
+                    throw new IllegalArgumentException("Falta el valor de $n (número de empleados)");
+                }
+                return ServicioXPath.extraer((NodeList) nodos, extractor).stream()
+                        .sorted(Comparator.comparingLong((String[] fila) -> Campos.centimos(fila[SALARIO])).reversed())
+                        .limit(n.longValue())
+                        .toList();
+            });
+        } catch (XPathExpressionException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final String USO = "Uso: ConsultasXPath <fichero.xml> <consulta> [valor] [--repetir=N]";
+
+    public static void main(String[] args) throws IOException, SAXException, XPathExpressionException {
+        if (args.length < 2) {
+            System.out.println(USO);
+            return;
+        }
+        Path fichero = Path.of(args[0]);
+        String nombre = args[1];
+        Integer valor = null;
+        int repetir = 0;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--repetir=")) {
+                repetir = Integer.parseInt(args[i].substring("--repetir=".length()));
+            } else {
+                valor = Integer.parseInt(args[i]);
+            }
+        }
+
+        Consulta<?> consulta = switch (nombre) {
+            case "departamentos" -> DEPARTAMENTOS;
+            case "departamento" -> DEPARTAMENTO;
+            case "empleados" -> EMPLEADOS_DEPARTAMENTO;
+            case "mejores" -> MEJORES_SALARIOS;
+            case "numEmpleados" -> NUM_EMPLEADOS;
+            case "sumaSalarios" -> SUMA_SALARIOS;
+            default -> throw new IllegalArgumentException("Consulta desconocida: " + nombre);
+        };
+        if (valor == null && consulta != DEPARTAMENTOS) {
+            System.out.println(USO);
+            System.out.println("La consulta " + nombre + " necesita un valor");
+            return;
+        }
+        Map<String, ?> variables = valor == null ? Map.of()
+                : Map.of(consulta == MEJORES_SALARIOS ? "n" : "dept", valor);
+
+        ServicioXPath servicio = new ServicioXPath(1, 1_000_000);
+        long inicio = System.nanoTime();
+        Object resultado = servicio.consultar(fichero, consulta, variables);
+        long primera = System.nanoTime() - inicio;
+
+        if (resultado instanceof List<?> filas) {
+            String[] campos = consulta == DEPARTAMENTOS || consulta == DEPARTAMENTO ? CAMPOS_DEPARTAMENTO : CAMPOS_EMPLEADO;
+            System.out.println(String.join("\t", campos));
+            for (Object fila : filas) {
+                System.out.println(String.join("\t", (String[]) fila));
+            }
+            System.out.printf("(%,d filas)%n", filas.size());
+        } else {
+            System.out.println(resultado);
+        }
+
+        if (repetir > 0) {
+            System.out.printf("%nPrimera consulta (análisis + evaluación): %.1f ms%n", primera / 1e6);
+            for (int i = 0; i < repetir; i++) {
+                inicio = System.nanoTime();
+                servicio.consultar(fichero, consulta, variables);
+                System.out.printf("Repetición %d (caché): %.1f µs%n", i + 1, (System.nanoTime() - inicio) / 1e3);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package Ejercicio_1;
+
+/*
+    Informe de nóminas: para cada departamento, OFICIO o LOC muestra el número
+    de empleados y el total, media, mínimo, máximo y percentiles 50/90/99 de
+    SALARIO + COMISION (ver Comun.AgregadorSalarios).
+
+    Uso: InformeSalarios [departamento|oficio|localidad] [fichero]
+ */
+
+import Comun.AgregadorSalarios;
+import Comun.Campos;
+import Comun.TablaEmpleados;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+public class InformeSalarios {
+    private static final String FICHERO_POR_DEFECTO = "Entregas/src/DepartamentosEmpleados.xml";
+
+    public static void main(String[] args) throws Exception {
+        AgregadorSalarios.Agrupacion agrupacion = args.length > 0
+                ? AgregadorSalarios.Agrupacion.valueOf(args[0].toUpperCase(Locale.ROOT))
+                : AgregadorSalarios.Agrupacion.DEPARTAMENTO;
+        Path fichero = Path.of(args.length > 1 ? args[1] : FICHERO_POR_DEFECTO);
+
+        TablaEmpleados tabla = TablaEmpleados.cargar(fichero);
+        AgregadorSalarios.Resumen[] resumenes = new AgregadorSalarios(tabla).agregar(agrupacion);
+
+        System.out.printf("%-24s %9s %14s %10s %10s %10s %10s %10s %10s%n",
+                agrupacion, "Empleados", "Total", "Media", "Mínimo", "Máximo", "P50", "P90", "P99");
+        for (AgregadorSalarios.Resumen r : resumenes) {
+            System.out.printf("%-24s %9d %14s %10s %10s %10s %10s %10s %10s%n",
+                    r.grupo(), r.empleados(), Campos.importe(r.total()), Campos.importe(r.media()),
+                    Campos.importe(r.minimo()), Campos.importe(r.maximo()),
+                    Campos.importe(r.p50()), Campos.importe(r.p90()), Campos.importe(r.p99()));
+        }
+    }
+}
@@ -1,4 +1,4 @@
-package JAXB;
+package Ejercicio_1;
 
 /*
     Se trata de listar los datos contenidos en un fichero XML con
@@ -6,105 +6,213 @@ package JAXB;
     y lista los números y, nombres y localidad de los departamentos
     y a continuación, apellido, oficio, y salario y comisión de los
     empleados de dicho departamento.
+
+    Uso: LecturaDOM [--stax | --paralelo[=hilos]] [--formato=texto|csv|jsonl] [--salida=fichero] [--asincrona]
+                    [--metricas[=jmx|fichero]] [fichero]
+        --stax       lee el fichero en streaming (ver LecturaStAX), para exportaciones enormes
+        --paralelo   como --stax, pero los empleados se leen con varios hilos (ver Comun.LectorParalelo)
+        --formato    formato del listado (por defecto texto, ver Comun.SalidaInforme)
+        --salida     fichero del listado en lugar de la salida estándar
+        --asincrona  el listado lo escribe un hilo aparte
+        --metricas   tiempos de las etapas parse, join y write en la salida de error (ver Comun.Metricas)
  */
 
 
+import Comun.Metricas;
+import Comun.SalidaInforme;
+import Comun.UnionDOM;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 
 public class LecturaDOM {
-    // Método auxiliar para obtener el texto de un elemento
-    private static String obtenerTexto(Element elemento, String tagName) {
-        return elemento.getElementsByTagName(tagName)
-                .item(0)
-                .getTextContent();
+    private static final String FICHERO_POR_DEFECTO = "Entregas/src/DepartamentosEmpleados.xml";
+
+    // Etapas medidas (ver Comun.Metricas)
+    private static final Metricas.Etapa PARSE = Metricas.etapa("parse");
+    private static final Metricas.Etapa JOIN = Metricas.etapa("join");
+    private static final Metricas.Etapa WRITE = Metricas.etapa("write");
+    // Solo se cronometra uno de cada MUESTREO_WRITE registros: leer el reloj en todos costaba casi un 2 %
+    private static final int MUESTREO_WRITE = 8;
+
+    // Campos que se listan de cada fila (compartidos con LecturaStAX)
+    static final String[] CAMPOS_DEPARTAMENTO = {"DEPT_NO", "DNOMBRE", "LOC"};
+    static final String[] CAMPOS_EMPLEADO = {"DEPT_NO", "APELLIDO", "OFICIO", "SALARIO", "COMISION", "EMP_NO"};
+
+    // Registros del listado (ver Comun.SalidaInforme)
+    private static final String[] REGISTRO_DEPARTAMENTO = {"indice", "DEPT_NO", "DNOMBRE", "LOC"};
+    private static final String[] REGISTRO_EMPLEADO = {"DEPT_NO", "APELLIDO", "OFICIO", "SALARIO", "COMISION"};
+    public static final String[][] REGISTROS_LISTADO = {REGISTRO_DEPARTAMENTO, REGISTRO_EMPLEADO};
+
+    static SalidaInforme.Registro registroDepartamento(int indice, String[] departamento) {
+        return new SalidaInforme.Registro("departamento", REGISTRO_DEPARTAMENTO,
+                new Object[]{indice, departamento[0], departamento[1], departamento[2]});
+    }
+
+    // Copia los valores: la fila que entrega el lector se reutiliza
+    static SalidaInforme.Registro registroEmpleado(String[] empleado) {
+        return new SalidaInforme.Registro("empleado", REGISTRO_EMPLEADO,
+                Arrays.copyOf(empleado, REGISTRO_EMPLEADO.length, Object[].class));
+    }
+
+    // Formato de texto del listado
+    public static final SalidaInforme.Formateador FORMATO_LISTADO = registro -> {
+        Object[] v = registro.valores();
+        return registro.tipo().equals("departamento")
+                ? formatearDepartamento((Integer) v[0], (String) v[1], (String) v[2], (String) v[3])
+                : formatearEmpleado((String) v[1], (String) v[2], (String) v[3], (String) v[4]);
+    };
+
+    // Cabecera de cada departamento del listado (compartida con LecturaStAX)
+    static String formatearDepartamento(int indice, String numero, String nombre, String localidad) {
+        return String.format("""
+                        Departamento %d:
+                            Número departamento: %s
+                            Nombre departamento: %s
+                            Localización departamento: %s
+
+                        """,
+                indice,
+                numero,
+                nombre,
+                localidad);
+    }
+
+    // Bloque de cada empleado del listado (compartido con LecturaStAX)
+    static String formatearEmpleado(String apellido, String oficio, String salario, String comision) {
+        return String.format("""
+                                Apellido: %s
+                                Oficio: %s
+                                Salario: %s
+                                Comsión: %s
+
+                        """,
+                apellido,
+                oficio,
+                salario,
+                comision);
+    }
+
+    public static void listar(Path fichero, SalidaInforme salida)
+            throws ParserConfigurationException, IOException, SAXException {
+        // DocumentBuilder
+        DocumentBuilder db = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+
+        // Parse del .XML
+        Document doc;
+        try (Metricas.Medicion m = PARSE.iniciar()) {
+            doc = db.parse(fichero.toFile());
+            m.bytes(Files.size(fichero));
+        }
+
+        // Elemento raiz <datos>
+        Element datos = doc.getDocumentElement();
+
+        // Unión departamentos-empleados por DEPT_NO (ver Comun.UnionDOM)
+        UnionDOM union = new UnionDOM(CAMPOS_DEPARTAMENTO, CAMPOS_EMPLEADO);
+        List<String[]> sinDepartamento;
+        // Tiempo (muestreado) y registros de escribir(), que se anotan en WRITE al terminar (null sin métricas)
+        long[] escritura = Metricas.activas() ? new long[2] : null;
+        try (Metricas.Medicion m = JOIN.iniciar()) {
+            sinDepartamento = union.unir(datos, new UnionDOM.Visitante() {
+                @Override
+                public void departamento(int indice, String[] departamento) {
+                    // Número, nombre y localidad del departamento
+                    m.filas(1);
+                    escribir(salida, registroDepartamento(indice, departamento), escritura);
+                }
+
+                @Override
+                public void empleado(String[] empleado) {
+                    // Apellido, oficio, y salario y comisión de los empleados del departamento
+                    m.filas(1);
+                    escribir(salida, registroEmpleado(empleado), escritura);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (escritura != null) {
+                WRITE.sumar(escritura[1], escritura[0] * MUESTREO_WRITE, escritura[1], 0);
+            }
+        }
+
+        union.avisarSinDepartamento(sinDepartamento, System.err);
+    }
+
+    // El visitante de UnionDOM no puede lanzar IOException
+    private static void escribir(SalidaInforme salida, SalidaInforme.Registro registro, long[] escritura) {
+        boolean medir = escritura != null && escritura[1]++ % MUESTREO_WRITE == 0;
+        long inicio = medir ? System.nanoTime() : 0;
+        try {
+            salida.escribir(registro);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (medir) {
+            escritura[0] += System.nanoTime() - inicio;
+        }
     }
 
 
     public static void main(String[] args) {
+        boolean streaming = false;
+        int hilos = 1;
+        String formato = "texto";
+        String ficheroSalida = null;
+        boolean asincrona = false;
+        String metricas = null;
+        String fichero = FICHERO_POR_DEFECTO;
+        for (String arg : args) {
+            if (arg.equals("--stax")) {
+                streaming = true;
+            } else if (arg.startsWith("--paralelo")) {
+                streaming = true;
+                hilos = arg.startsWith("--paralelo=")
+                        ? Integer.parseInt(arg.substring("--paralelo=".length()))
+                        : Runtime.getRuntime().availableProcessors();
+            } else if (arg.startsWith("--formato=")) {
+                formato = arg.substring("--formato=".length());
+            } else if (arg.startsWith("--salida=")) {
+                ficheroSalida = arg.substring("--salida=".length());
+            } else if (arg.equals("--asincrona")) {
+                asincrona = true;
+            } else if (arg.startsWith("--metricas")) {
+                metricas = arg.startsWith("--metricas=") ? arg.substring("--metricas=".length()) : "";
+            } else {
+                fichero = arg;
+            }
+        }
 
         try {
-            // DocumentBuilder
-            DocumentBuilder db = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-
-            // Parse del .XML
-            Document doc = db.parse("Entregas/src/DepartamentosEmpleados.xml");
-
-            // Elemento raiz <datos>
-            Element datos = doc.getDocumentElement();
-
-            // Nodo <departamentos>
-            Element nodoDepartamentos = (Element) datos.getElementsByTagName("departamentos").item(0);
-
-            // Nodos <DEP_ROW>
-            NodeList departamentos = nodoDepartamentos.getElementsByTagName("DEP_ROW");
-            int numDepartamentos = departamentos.getLength();
-
-            // Nodo <empleados>
-            Element nodoEmpleados = (Element) datos.getElementsByTagName("empleados").item(0);
-
-            // Nodos EMP_ROW
-            NodeList empleados = nodoEmpleados.getElementsByTagName("EMP_ROW");
-            int numEmpleados = empleados.getLength();
-
-            for (int i = 0; i < numDepartamentos; i++) {
-                Element departamento = (Element) departamentos.item(i);
-                String numeroDepartamento = obtenerTexto(departamento, "DEPT_NO");
-                String nombreDepartamento = obtenerTexto(departamento, "DNOMBRE");
-                String localidadDepartamento = obtenerTexto(departamento, "LOC");
-
-                System.out.printf("""
-                                Departamento %d:
-                                    Número departamento: %s
-                                    Nombre departamento: %s
-                                    Localización departamento: %s
-                                
-                                """,
-                        i,
-                        numeroDepartamento,
-                        nombreDepartamento,
-                        localidadDepartamento);
-
-                //  Iteramos sobre la lista de empleados para encontrar los del departamento
-                for (int j = 0; j < numEmpleados; j++) {
-                    Element empleado = (Element) empleados.item(j);
-                    String departamentoEmpleado = empleado.getElementsByTagName("DEPT_NO")
-                            .item(0)
-                            .getTextContent();
-
-                    if (numeroDepartamento.equals(departamentoEmpleado)) {
-
-                        // Extraer apellido, oficio, y salario y comisión de los empleados del departamento
-                        String apellidoEmpleado = obtenerTexto(empleado, "APELLIDO");
-                        String oficioEmpleado = obtenerTexto(empleado, "OFICIO");
-                        String salarioEmpleado = obtenerTexto(empleado, "SALARIO");
-                        String comisionEmpleado = obtenerTexto(empleado, "COMISION");
-                        System.out.printf("""
-                                                Apellido: %s
-                                                Oficio: %s
-                                                Salario: %s
-                                                Comsión: %s
-                                        
-                                        """,
-                                apellidoEmpleado,
-                                oficioEmpleado,
-                                salarioEmpleado,
-                                comisionEmpleado);
-                    }
+            if (metricas != null) {
+                Metricas.activar(metricas);
+            }
+            OutputStream destino = ficheroSalida == null ? System.out : Files.newOutputStream(Path.of(ficheroSalida));
+            try (SalidaInforme salida = SalidaInforme.crear(formato, destino, ficheroSalida != null,
+                    FORMATO_LISTADO, asincrona, REGISTROS_LISTADO)) {
+                if (streaming) {
+                    LecturaStAX.listar(Path.of(fichero), salida, hilos);
+                } else {
+                    listar(Path.of(fichero), salida);
                 }
             }
-
-        } catch (ParserConfigurationException | IOException | SAXException e) {
+        } catch (ParserConfigurationException | IOException | SAXException | XMLStreamException e) {
             throw new RuntimeException(e);
+        } finally {
+            Metricas.terminar(System.err);
         }
     }
 }
-
-
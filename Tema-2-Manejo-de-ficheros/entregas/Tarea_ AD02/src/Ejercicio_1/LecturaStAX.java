@@ -0,0 +1,75 @@
+package Ejercicio_1;
+
+/*
+    Versión en streaming de LecturaDOM para exportaciones de varios GB.
+
+    Produce exactamente el mismo listado, pero sin cargar el documento entero:
+        1ª pasada: se leen los <DEP_ROW> (son pocos y caben en memoria).
+        2ª pasada: cada <EMP_ROW> se vuelca al fichero temporal de su
+                   departamento (ver Comun.VolcadoFilas).
+    Al final se imprime cada departamento seguido de sus empleados volcados.
+    La memoria queda acotada por el número de departamentos, no por el de empleados.
+
+    Con hilos > 1 la 2ª pasada usa Comun.LectorParalelo (tramos del fichero
+    proyectados en memoria y analizados en paralelo, entregados en orden).
+ */
+
+import Comun.LectorParalelo;
+import Comun.LectorStAX;
+import Comun.SalidaInforme;
+import Comun.UnionDOM;
+import Comun.VolcadoFilas;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LecturaStAX {
+    // Máximo de ficheros temporales abiertos a la vez
+    private static final int MAX_ABIERTOS = 64;
+
+    public static void listar(Path fichero, SalidaInforme salida) throws IOException, XMLStreamException {
+        listar(fichero, salida, 1);
+    }
+
+    public static void listar(Path fichero, SalidaInforme salida, int hilos) throws IOException, XMLStreamException {
+        // 1ª pasada: departamentos en orden de aparición
+        List<String[]> departamentos = new ArrayList<>();
+        Map<String, Integer> indicePorNumero = new HashMap<>();
+        LectorStAX.recorrerFilas(fichero, "DEP_ROW", LecturaDOM.CAMPOS_DEPARTAMENTO, valores -> {
+            indicePorNumero.putIfAbsent(valores[0], departamentos.size());
+            departamentos.add(valores.clone());
+        });
+
+        try (VolcadoFilas volcado = new VolcadoFilas(MAX_ABIERTOS)) {
+            // 2ª pasada: empleados volcados al fichero temporal de su departamento
+            LectorStAX.ManejadorFila volcar = valores -> {
+                Integer indice = indicePorNumero.get(valores[0]);
+                if (indice != null) {
+                    volcado.escribir(indice, valores);
+                } else {
+                    UnionDOM.avisarSinDepartamento(valores[5], valores[0], System.err);
+                }
+            };
+            if (hilos > 1) {
+                LectorParalelo.recorrerFilas(fichero, "EMP_ROW", LecturaDOM.CAMPOS_EMPLEADO, hilos, true, volcar);
+            } else {
+                LectorStAX.recorrerFilas(fichero, "EMP_ROW", LecturaDOM.CAMPOS_EMPLEADO, volcar);
+            }
+
+            // Listado final: cabecera del departamento + sus empleados
+            for (int i = 0; i < departamentos.size(); i++) {
+                String[] departamento = departamentos.get(i);
+                salida.escribir(LecturaDOM.registroDepartamento(i, departamento));
+
+                // Con DEPT_NO repetidos, los empleados se listan en cada aparición como en LecturaDOM
+                volcado.leer(indicePorNumero.get(departamento[0]), empleado ->
+                        salida.escribir(LecturaDOM.registroEmpleado(empleado)));
+            }
+        }
+    }
+}
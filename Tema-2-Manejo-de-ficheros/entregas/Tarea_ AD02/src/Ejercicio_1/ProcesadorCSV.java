@@ -0,0 +1,300 @@
+package Ejercicio_1;
+
+/*
+    Procesador de ficheros CSV de EMPLE y DEPART (Ejercicio 5 de la colección,
+    con los campos de DepartamentosEmpleados.xml) sin pasar por XML.
+
+    validar: lee el CSV con Comun.LectorCSV, copia las líneas correctas (tal
+    cual, sin volver a formatearlas) a validos.csv y escribe las incorrectas
+    con su motivo en errores.log. Con --hilos=N cada hilo procesa un trozo del
+    fichero en su propio fichero parcial y al final se unen en orden.
+    Reglas: el número de columnas de la cabecera, ningún campo vacío,
+    números y fechas válidos, SALARIO positivo y COMISION no negativa.
+
+    exportar: escribe DEPART.csv y EMPLE.csv a partir del XML.
+
+    Uso: ProcesadorCSV validar <fichero.csv> [--hilos=N] [--validos=f] [--errores=f]
+         ProcesadorCSV exportar <DepartamentosEmpleados.xml> <directorio>
+ */
+
+import Comun.Campos;
+import Comun.EscritorCSV;
+import Comun.FilaCSV;
+import Comun.LectorCSV;
+import Comun.LectorStAX;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+public class ProcesadorCSV {
+    public static final String[] CAMPOS_EMPLEADO =
+            {"EMP_NO", "APELLIDO", "OFICIO", "DIR", "FECHA_ALT", "SALARIO", "COMISION", "DEPT_NO"};
+    public static final String[] CAMPOS_DEPARTAMENTO = {"DEPT_NO", "DNOMBRE", "LOC"};
+    private static final int EMP_NO = 0, APELLIDO = 1, DIR = 3, FECHA_ALT = 4, SALARIO = 5, COMISION = 6,
+            DEPT_NO_EMPLEADO = 7;
+    private static final int DEPT_NO = 0;
+
+    private static final Locale ES = Locale.forLanguageTag("es-ES");
+
+    private record Rechazo(long linea, String texto, String motivo) {
+    }
+
+    // Resultado de un trozo del fichero
+    private static class Trozo {
+        long validos;
+        long totalSalarios;         // Céntimos
+        long mayorSalario = Long.MIN_VALUE;
+        String mayorSalarioApellido;
+        int mayorSalarioNumero;
+        final List<Rechazo> rechazos = new ArrayList<>();
+    }
+
+    public record Resultado(long validos, long invalidos, long totalSalarios, long mayorSalario,
+                            String mayorSalarioApellido, int mayorSalarioNumero) {
+    }
+
+    // === VALIDAR ===
+
+    /**
+     * Valida {@code origen} (EMPLE o DEPART según su cabecera) con {@code hilos} hilos.
+     */
+    public static Resultado validar(Path origen, Path validos, Path errores, int hilos) throws IOException {
+        String[] cabecera = LectorCSV.cabecera(origen);
+        boolean empleados = Arrays.asList(cabecera).contains("EMP_NO");
+        String[] campos = empleados ? CAMPOS_EMPLEADO : CAMPOS_DEPARTAMENTO;
+
+        List<Trozo> trozos = new ArrayList<>();
+        List<Path> partes = new ArrayList<>();
+        List<EscritorCSV> escritores = new ArrayList<>();
+        try {
+            long[] lineas = LectorCSV.recorrerParalelo(origen, campos, hilos, numero -> {
+                Trozo trozo = new Trozo();
+                Path parte = validos.resolveSibling(validos.getFileName() + ".parte" + numero);
+                EscritorCSV salida = new EscritorCSV(Files.newOutputStream(parte));
+                synchronized (trozos) {
+                    while (trozos.size() <= numero) {
+                        trozos.add(null);
+                        partes.add(null);
+                        escritores.add(null);
+                    }
+                    trozos.set(numero, trozo);
+                    partes.set(numero, parte);
+                    escritores.set(numero, salida);
+                }
+                if (numero == 0) {
+                    salida.cabecera(cabecera);
+                }
+                return fila -> {
+                    String motivo = empleados ? validarEmpleado(fila, trozo) : validarDepartamento(fila);
+                    if (motivo == null) {
+                        trozo.validos++;
+                        salida.linea(fila);
+                    } else {
+                        trozo.rechazos.add(new Rechazo(fila.numeroLinea(), fila.linea(), motivo));
+                    }
+                };
+            });
+            for (EscritorCSV escritor : escritores) {
+                escritor.close();
+            }
+            escritores.clear();
+
+            unir(partes, validos);
+            return escribirRechazos(trozos, lineas, errores);
+        } finally {
+            for (EscritorCSV escritor : escritores) {
+                if (escritor != null) {
+                    escritor.close();
+                }
+            }
+            for (Path parte : partes) {
+                if (parte != null) {
+                    Files.deleteIfExists(parte);
+                }
+            }
+        }
+    }
+
+    private static String validarEmpleado(FilaCSV fila, Trozo trozo) {
+        String motivo = comprobarCampos(fila);
+        if (motivo != null) {
+            return motivo;
+        }
+        long salario;
+        try {
+            fila.entero(EMP_NO);
+            fila.entero(DIR);
+            fila.entero(DEPT_NO_EMPLEADO);
+            fila.diaEpoch(FECHA_ALT);
+            salario = fila.centimos(SALARIO);
+            if (fila.centimos(COMISION) < 0) {
+                return "La comisión no puede ser negativa (" + fila.texto(COMISION) + ")";
+            }
+        } catch (NumberFormatException e) {
+            return e.getMessage();
+        }
+        if (salario <= 0) {
+            return "El salario debe ser positivo (" + fila.texto(SALARIO) + ")";
+        }
+
+        trozo.totalSalarios += salario;
+        if (salario > trozo.mayorSalario) {
+            trozo.mayorSalario = salario;
+            trozo.mayorSalarioApellido = fila.texto(APELLIDO);
+            trozo.mayorSalarioNumero = fila.entero(EMP_NO);
+        }
+        return null;
+    }
+
+    private static String validarDepartamento(FilaCSV fila) {
+        String motivo = comprobarCampos(fila);
+        if (motivo != null) {
+            return motivo;
+        }
+        try {
+            fila.entero(DEPT_NO);
+        } catch (NumberFormatException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private static String comprobarCampos(FilaCSV fila) {
+        if (!fila.columnasCompletas()) {
+            return "Número de campos incorrecto (" + fila.numColumnas() + ")";
+        }
+        for (int i = 0; i < fila.numCampos(); i++) {
+            if (fila.vacio(i)) {
+                return "Campo vacío: " + fila.nombre(i);
+            }
+        }
+        return null;
+    }
+
+    // Une las partes en orden: la primera pasa a ser el fichero final
+    private static void unir(List<Path> partes, Path destino) throws IOException {
+        Files.move(partes.get(0), destino, StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel salida = FileChannel.open(destino, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (int i = 1; i < partes.size(); i++) {
+                try (FileChannel parte = FileChannel.open(partes.get(i), StandardOpenOption.READ)) {
+                    long copiados = 0;
+                    long tamano = parte.size();
+                    while (copiados < tamano) {
+                        copiados += parte.transferTo(copiados, tamano - copiados, salida);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Resultado escribirRechazos(List<Trozo> trozos, long[] lineas, Path errores) throws IOException {
+        long validos = 0;
+        long invalidos = 0;
+        long totalSalarios = 0;
+        Trozo mayor = null;
+        long lineasAnteriores = 0;
+
+        try (Writer salida = new BufferedWriter(Files.newBufferedWriter(errores, StandardCharsets.UTF_8))) {
+            for (int t = 0; t < trozos.size(); t++) {
+                Trozo trozo = trozos.get(t);
+                validos += trozo.validos;
+                invalidos += trozo.rechazos.size();
+                totalSalarios += trozo.totalSalarios;
+                if (trozo.mayorSalarioApellido != null && (mayor == null || trozo.mayorSalario > mayor.mayorSalario)) {
+                    mayor = trozo;
+                }
+                for (Rechazo r : trozo.rechazos) {
+                    salida.write("[ERROR] Línea " + (lineasAnteriores + r.linea()) + ": " + r.texto() + "\n");
+                    salida.write("  Razón: " + r.motivo() + "\n\n");
+                }
+                lineasAnteriores += lineas[t];
+            }
+        }
+        return mayor == null
+                ? new Resultado(validos, invalidos, totalSalarios, 0, null, 0)
+                : new Resultado(validos, invalidos, totalSalarios, mayor.mayorSalario,
+                mayor.mayorSalarioApellido, mayor.mayorSalarioNumero);
+    }
+
+    // === EXPORTAR ===
+
+    public static void exportar(Path xml, Path directorio) throws Exception {
+        Files.createDirectories(directorio);
+        try (EscritorCSV salida = new EscritorCSV(Files.newOutputStream(directorio.resolve("DEPART.csv")))) {
+            salida.cabecera(CAMPOS_DEPARTAMENTO);
+            LectorStAX.recorrerFilas(xml, "DEP_ROW", CAMPOS_DEPARTAMENTO, d ->
+                    salida.entero(Campos.entero(d[0])).texto(d[1]).texto(d[2]).fin());
+        }
+        try (EscritorCSV salida = new EscritorCSV(Files.newOutputStream(directorio.resolve("EMPLE.csv")))) {
+            salida.cabecera(CAMPOS_EMPLEADO);
+            LectorStAX.recorrerFilas(xml, "EMP_ROW", CAMPOS_EMPLEADO, e ->
+                    salida.entero(Campos.entero(e[0])).texto(e[1]).texto(e[2]).entero(Campos.entero(e[3]))
+                            .fecha(Campos.diaEpoch(e[4])).importe(Campos.centimos(e[5])).importe(Campos.centimos(e[6]))
+                            .entero(Campos.entero(e[7])).fin());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || (args[0].equals("exportar") && args.length < 3)) {
+            System.out.println("Uso: ProcesadorCSV validar <fichero.csv> [--hilos=N] [--validos=f] [--errores=f]");
+            System.out.println("     ProcesadorCSV exportar <DepartamentosEmpleados.xml> <directorio>");
+            return;
+        }
+
+        if (args[0].equals("exportar")) {
+            exportar(Path.of(args[1]), Path.of(args[2]));
+            System.out.println("DEPART.csv y EMPLE.csv escritos en " + args[2]);
+            return;
+        }
+
+        Path origen = Path.of(args[1]);
+        int hilos = 1;
+        Path validos = Path.of("validos.csv");
+        Path errores = Path.of("errores.log");
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--hilos=")) {
+                hilos = Integer.parseInt(args[i].substring("--hilos=".length()));
+            } else if (args[i].startsWith("--validos=")) {
+                validos = Path.of(args[i].substring("--validos=".length()));
+            } else if (args[i].startsWith("--errores=")) {
+                errores = Path.of(args[i].substring("--errores=".length()));
+            }
+        }
+
+        System.out.println("=== Procesador CSV ===");
+        System.out.println("Fichero: " + origen);
+        System.out.println();
+        System.out.println("Procesando...");
+        System.out.println();
+
+        long inicio = System.nanoTime();
+        Resultado r = validar(origen, validos, errores, hilos);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.printf(ES, "✓ Registros válidos: %,d%n", r.validos());
+        System.out.printf(ES, "✗ Registros inválidos: %,d%n", r.invalidos());
+        System.out.println("─────────────────────");
+        System.out.printf(ES, "Total: %,d%n", r.validos() + r.invalidos());
+        System.out.printf(ES, "Tiempo: %.2f s (%.0f MB/s, %d hilos)%n",
+                segundos, Files.size(origen) / segundos / 1e6, hilos);
+        if (r.mayorSalarioApellido() != null) {
+            System.out.println();
+            System.out.println("---");
+            System.out.println("ESTADÍSTICAS:");
+            System.out.printf(ES, "Salario promedio: %,.2f €%n", r.totalSalarios() / 100.0 / r.validos());
+            System.out.printf(ES, "Mayor salario: %s, EMP_NO %d (%,.2f €)%n",
+                    r.mayorSalarioApellido(), r.mayorSalarioNumero(), r.mayorSalario() / 100.0);
+        }
+    }
+}
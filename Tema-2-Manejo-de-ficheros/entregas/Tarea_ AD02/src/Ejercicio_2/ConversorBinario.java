@@ -0,0 +1,69 @@
+package Ejercicio_2;
+
+/*
+    Conversión entre DatosEmpresa.xml (JAXB) y el formato binario .empb
+    (ver EscritorBinario), y consulta de un departamento del binario
+    saltándose los demás sin decodificarlos.
+
+    Uso: ConversorBinario aBinario <DatosEmpresa.xml> <salida.empb>
+         ConversorBinario aXML <entrada.empb> <salida.xml>
+         ConversorBinario departamento <entrada.empb> <DEPT_NO>
+ */
+
+import Comun.Campos;
+import Ejercicio_2.JAXB.Departamento;
+import Ejercicio_2.JAXB.Empleado;
+import Ejercicio_2.JAXB.Empresa;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ConversorBinario {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Uso: ConversorBinario aBinario <DatosEmpresa.xml> <salida.empb>");
+            System.out.println("     ConversorBinario aXML <entrada.empb> <salida.xml>");
+            System.out.println("     ConversorBinario departamento <entrada.empb> <DEPT_NO>");
+            return;
+        }
+        Path origen = Path.of(args[1]);
+        long inicio = System.nanoTime();
+
+        switch (args[0]) {
+            case "aBinario" -> {
+                Empresa empresa = ExportadorJAXB.getInstancia().importar(origen, Empresa.class);
+                EscritorBinario.escribir(empresa, Path.of(args[2]));
+            }
+            case "aXML" -> ExportadorJAXB.getInstancia().exportar(LectorBinario.leer(origen), Path.of(args[2]));
+            case "departamento" -> {
+                int buscado = Campos.entero(args[2]);
+                try (LectorBinario entrada = new LectorBinario(Files.newInputStream(origen))) {
+                    while (entrada.avanzar()) {
+                        if (entrada.idActual() == buscado) {
+                            mostrar(entrada.leerActual());
+                        }
+                    }
+                }
+            }
+            default -> {
+                System.out.println("Orden desconocida: " + args[0]);
+                return;
+            }
+        }
+        System.out.printf("%s en %.2f s%n", args[0], (System.nanoTime() - inicio) / 1e9);
+        if (!args[0].equals("departamento")) {
+            System.out.printf("%s: %,d bytes -> %s: %,d bytes%n",
+                    origen, Files.size(origen), args[2], Files.size(Path.of(args[2])));
+        }
+    }
+
+    private static void mostrar(Departamento d) {
+        System.out.println("DEPT_NO: " + d.getId() + " | DNOMBRE: " + d.getNombre() + " | LOC: " + d.getLocalizacion()
+                + " | empleados: " + d.getEmpleados().size());
+        for (Empleado e : d.getEmpleados()) {
+            System.out.println("    EMP_NO: " + e.getNumero() + " | APELLIDO: " + e.getApellido()
+                    + " | OFICIO: " + e.getOficio() + " | SALARIO: " + Campos.importe(e.getSalario()));
+        }
+    }
+}
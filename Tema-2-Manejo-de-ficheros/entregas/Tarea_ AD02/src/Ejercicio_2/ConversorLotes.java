@@ -0,0 +1,420 @@
+package Ejercicio_2;
+
+/*
+    Conversión por lotes: muchos DepartamentosEmpleados.xml (uno por oficina),
+    cada uno a su propio DatosEmpresa.xml, varios a la vez.
+
+    Los ficheros salen de un directorio (todos los .xml, recorrido entero, menos
+    los del directorio de salida si está dentro: son resultados de otra pasada) o de
+    un manifiesto (una línea por fichero: "origen" u "origen<TAB>destino", el
+    origen relativo al manifiesto y el destino al directorio de salida; las
+    líneas vacías y las que empiezan por # se ignoran). Sin destino explícito, origen/a/b.xml pasa a salida/a/b/DatosEmpresa.xml.
+
+    Concurrencia:
+      - Un pool fijo de tantos hilos como núcleos: la conversión es CPU (parse
+        DOM y marshal), así que con 10.000 ficheros el tiempo total depende de
+        los núcleos y no del número de ficheros. Todos comparten el JAXBContext
+        de ExportadorJAXB y cada hilo reutiliza su DocumentBuilder.
+      - Además, un semáforo de memoria: cada conversión reserva lo que se
+        estima que ocupará (FACTOR_DOM veces el fichero con DOM; MEMORIA_STREAMING
+        con ConversorStreaming) y espera si no cabe. Los ficheros que no caben
+        en el presupuesto con DOM se convierten directamente en streaming.
+
+    Reintentos: un fichero que falla por un error de entrada/salida o de JAXB se
+    reintenta hasta --reintentos veces, con esperas que se duplican; si falla
+    por falta de memoria, el reintento se hace en streaming. Un XML mal formado
+    o con datos que no se pueden convertir no se reintenta (fallaría igual).
+    Cada conversión escribe en un .tmp que se renombra al terminar, así que un
+    destino que existe está completo.
+
+    Al final se escribe un resumen (convertidos, saltados, fallidos, tiempos)
+    y, con --informe, un CSV con una línea por fichero. Termina con código 1 si
+    algún fichero ha fallado.
+
+    Uso: ConversorLotes <directorio|manifiesto.txt> <directorio salida> [opciones]
+        --hilos=N          conversiones a la vez (por defecto, los núcleos)
+        --memoria=MB       presupuesto para los parsers (por defecto, el 75 % del heap)
+        --reintentos=2
+        --streaming        todos los ficheros con ConversorStreaming
+        --continuar        salta los ficheros cuyo destino es más reciente que el origen
+        --informe=fichero  CSV con el resultado de cada fichero
+        --metricas[=jmx|fichero]  etapas de Main sumadas para todo el lote (ver Comun.Metricas)
+ */
+
+import Comun.EscritorCSV;
+import Comun.Metricas;
+import jakarta.xml.bind.JAXBException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class ConversorLotes {
+    public static final String DESTINO = "DatosEmpresa.xml";
+
+    // Heap que ocupa la conversión con DOM por byte del fichero (medido: ~8 con 33 MB)
+    private static final int FACTOR_DOM = 10;
+    // Con ConversorStreaming la memoria no depende del fichero: un departamento y los buffers
+    private static final long MEMORIA_STREAMING = 32L * 1024 * 1024;
+    private static final long MEMORIA_MINIMA = 1024 * 1024;
+    private static final long ESPERA_REINTENTO = 200;         // ms, se duplica en cada reintento
+    private static final int MAX_FALLOS_RESUMEN = 20;
+
+    public enum Modo {DOM, STREAMING}
+
+    public enum Estado {CONVERTIDO, SALTADO, FALLIDO}
+
+    public record Trabajo(Path origen, Path destino) {
+    }
+
+    // Modo del último intento; error es null si se ha convertido
+    public record Resultado(Trabajo trabajo, Estado estado, Modo modo, int intentos, long bytes, long nanos,
+                            String error) {
+    }
+
+    private final int hilos;
+    private final long memoria;
+    private final int reintentos;
+    private final boolean streaming;
+    private final boolean continuar;
+    // Permisos en KB para que quepan presupuestos de varios GB en un int
+    private final Semaphore memoriaLibre;
+    private final ThreadLocal<DocumentBuilder> constructores = ThreadLocal.withInitial(() -> {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public ConversorLotes(int hilos, long memoria, int reintentos, boolean streaming, boolean continuar) {
+        if (hilos < 1 || memoria < MEMORIA_MINIMA || reintentos < 0) {
+            throw new IllegalArgumentException("Hace falta al menos un hilo y 1 MB de memoria");
+        }
+        this.hilos = hilos;
+        this.memoria = memoria;
+        this.reintentos = reintentos;
+        this.streaming = streaming;
+        this.continuar = continuar;
+        // Justo: una conversión grande que espera no se queda sin turno por las pequeñas que llegan después
+        this.memoriaLibre = new Semaphore(kilobytes(memoria), true);
+    }
+
+    // === TRABAJOS ===
+
+    public static List<Trabajo> desdeDirectorio(Path directorio, Path salida) throws IOException {
+        List<Trabajo> trabajos = new ArrayList<>();
+        Path excluido = salida.toAbsolutePath().normalize();
+        try (Stream<Path> ficheros = Files.walk(directorio)) {
+            ficheros.filter(f -> f.getFileName().toString().endsWith(".xml") && Files.isRegularFile(f))
+                    .filter(f -> !f.toAbsolutePath().normalize().startsWith(excluido))
+                    .sorted()
+                    .forEach(f -> trabajos.add(new Trabajo(f, destinoPara(directorio.relativize(f), salida))));
+        }
+        return trabajos;
+    }
+
+    public static List<Trabajo> desdeManifiesto(Path manifiesto, Path salida) throws IOException {
+        Path base = manifiesto.toAbsolutePath().getParent();
+        List<Trabajo> trabajos = new ArrayList<>();
+        int numeroLinea = 0;
+        for (String linea : Files.readAllLines(manifiesto, StandardCharsets.UTF_8)) {
+            numeroLinea++;
+            linea = linea.strip();
+            if (linea.isEmpty() || linea.startsWith("#")) {
+                continue;
+            }
+            String[] partes = linea.split("\t");
+            if (partes.length > 2) {
+                throw new IllegalArgumentException(manifiesto + ":" + numeroLinea + ": se esperaba origen[TAB destino]");
+            }
+            Path origen = base.resolve(partes[0].strip());
+            Path destino = partes.length == 2 ? salida.resolve(partes[1].strip())
+                    : destinoPara(origen.startsWith(base) ? base.relativize(origen) : origen.getFileName(), salida);
+            trabajos.add(new Trabajo(origen, destino));
+        }
+        return trabajos;
+    }
+
+    // a/b.xml -> salida/a/b/DatosEmpresa.xml
+    private static Path destinoPara(Path relativo, Path salida) {
+        String nombre = relativo.toString();
+        if (nombre.endsWith(".xml")) {
+            nombre = nombre.substring(0, nombre.length() - ".xml".length());
+        }
+        return salida.resolve(nombre).resolve(DESTINO);
+    }
+
+    // === CONVERSIÓN ===
+
+    /**
+     * Convierte todos los trabajos y devuelve sus resultados en el mismo orden.
+     * Los fallos no interrumpen el lote: quedan en su resultado.
+     */
+    public List<Resultado> convertir(List<Trabajo> trabajos, PrintStream progreso) throws InterruptedException {
+        Set<Path> destinos = new HashSet<>();
+        for (Trabajo trabajo : trabajos) {
+            if (!destinos.add(trabajo.destino().toAbsolutePath().normalize())) {
+                throw new IllegalArgumentException("Dos ficheros se convertirían en " + trabajo.destino());
+            }
+        }
+
+        AtomicInteger numeroHilo = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(hilos, r -> {
+            Thread hilo = new Thread(r, "conversor-lotes-" + numeroHilo.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        try {
+            AtomicInteger terminados = new AtomicInteger();
+            int avisarCada = Math.max(100, trabajos.size() / 20);
+            List<Future<Resultado>> futuros = new ArrayList<>(trabajos.size());
+            for (Trabajo trabajo : trabajos) {
+                futuros.add(pool.submit(() -> {
+                    Resultado resultado = convertir(trabajo);
+                    int n = terminados.incrementAndGet();
+                    if (resultado.estado() == Estado.FALLIDO) {
+                        progreso.println("Error en " + trabajo.origen() + ": " + resultado.error());
+                    }
+                    if (n % avisarCada == 0 || n == trabajos.size()) {
+                        progreso.printf("%,d de %,d ficheros%n", n, trabajos.size());
+                    }
+                    return resultado;
+                }));
+            }
+            List<Resultado> resultados = new ArrayList<>(trabajos.size());
+            for (Future<Resultado> futuro : futuros) {
+                try {
+                    resultados.add(futuro.get());
+                } catch (ExecutionException e) {
+                    // convertir(Trabajo) no lanza: esto es un error del propio lote
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return resultados;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Resultado convertir(Trabajo trabajo) throws InterruptedException {
+        long inicio = System.nanoTime();
+        Modo modo = streaming ? Modo.STREAMING : Modo.DOM;
+        long bytes = 0;
+        String error = null;
+        int intento = 0;
+        while (intento <= reintentos) {
+            intento++;
+            if (intento > 1) {
+                Thread.sleep(ESPERA_REINTENTO << Math.min(intento - 2, 10));
+            }
+            int reservados = 0;
+            try {
+                bytes = Files.size(trabajo.origen());
+                if (continuar && Files.exists(trabajo.destino()) && Files.getLastModifiedTime(trabajo.destino())
+                        .compareTo(Files.getLastModifiedTime(trabajo.origen())) >= 0) {
+                    return new Resultado(trabajo, Estado.SALTADO, modo, intento, bytes, System.nanoTime() - inicio, null);
+                }
+                if (modo == Modo.DOM && bytes * FACTOR_DOM > memoria) {
+                    modo = Modo.STREAMING;
+                }
+                long estimada = modo == Modo.DOM ? bytes * FACTOR_DOM : MEMORIA_STREAMING;
+                int kb = kilobytes(Math.max(MEMORIA_MINIMA, Math.min(memoria, estimada)));
+                memoriaLibre.acquire(kb);
+                reservados = kb;
+                convertir(trabajo, modo);
+                return new Resultado(trabajo, Estado.CONVERTIDO, modo, intento, bytes, System.nanoTime() - inicio, null);
+            } catch (NoSuchFileException e) {
+                error = "No existe " + e.getFile();
+                break;
+            } catch (IOException | JAXBException e) {
+                error = e.toString();
+            } catch (OutOfMemoryError e) {
+                // El parser puede conservar lo que llevaba construido: el hilo crea otro
+                constructores.remove();
+                error = e.toString();
+                modo = Modo.STREAMING;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception | Error e) {
+                // XML mal formado o datos que no se pueden convertir: otro intento daría el mismo error
+                error = e.toString();
+                break;
+            } finally {
+                memoriaLibre.release(reservados);
+            }
+        }
+        return new Resultado(trabajo, Estado.FALLIDO, modo, intento, bytes, System.nanoTime() - inicio, error);
+    }
+
+    private void convertir(Trabajo trabajo, Modo modo) throws Exception {
+        Path destino = trabajo.destino();
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        Files.createDirectories(destino.toAbsolutePath().getParent());
+        try {
+            if (modo == Modo.DOM) {
+                DocumentBuilder db = constructores.get();
+                try {
+                    Main.convertir(trabajo.origen(), temporal, db);
+                } finally {
+                    db.reset();
+                }
+            } else {
+                ConversorStreaming.convertir(trabajo.origen(), temporal);
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private static int kilobytes(long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, (bytes + 1023) / 1024);
+    }
+
+    // === INFORME ===
+
+    public static void escribirResumen(List<Resultado> resultados, long nanos, PrintStream salida) {
+        long[] porEstado = new long[Estado.values().length];
+        long[] porModo = new long[Modo.values().length];
+        long bytes = 0;
+        long reintentados = 0;
+        for (Resultado resultado : resultados) {
+            porEstado[resultado.estado().ordinal()]++;
+            if (resultado.estado() == Estado.CONVERTIDO) {
+                porModo[resultado.modo().ordinal()]++;
+                bytes += resultado.bytes();
+            }
+            if (resultado.intentos() > 1) {
+                reintentados++;
+            }
+        }
+        double segundos = nanos / 1e9;
+        salida.printf("%,d ficheros en %.2f s: %,d convertidos (%,d DOM, %,d streaming), %,d saltados, %,d fallidos%n",
+                resultados.size(), segundos, porEstado[Estado.CONVERTIDO.ordinal()], porModo[Modo.DOM.ordinal()],
+                porModo[Modo.STREAMING.ordinal()], porEstado[Estado.SALTADO.ordinal()],
+                porEstado[Estado.FALLIDO.ordinal()]);
+        salida.printf("%,.1f MB convertidos, %,.1f MB/s, %,.1f ficheros/s, %,d con reintentos%n",
+                bytes / (1024.0 * 1024), bytes / (1024.0 * 1024) / segundos,
+                porEstado[Estado.CONVERTIDO.ordinal()] / segundos, reintentados);
+
+        List<Resultado> lentos = resultados.stream().filter(r -> r.estado() == Estado.CONVERTIDO)
+                .sorted(Comparator.comparingLong(Resultado::nanos).reversed()).limit(5).toList();
+        if (!lentos.isEmpty()) {
+            salida.println("Más lentos:");
+            for (Resultado resultado : lentos) {
+                salida.printf("  %,9.1f ms  %,12d bytes  %-9s %s%n", resultado.nanos() / 1e6, resultado.bytes(),
+                        resultado.modo(), resultado.trabajo().origen());
+            }
+        }
+        List<Resultado> fallidos = resultados.stream().filter(r -> r.estado() == Estado.FALLIDO).toList();
+        if (!fallidos.isEmpty()) {
+            salida.println("Fallidos:");
+            fallidos.stream().limit(MAX_FALLOS_RESUMEN).forEach(resultado -> salida.printf("  %s (%d intentos): %s%n",
+                    resultado.trabajo().origen(), resultado.intentos(), resultado.error()));
+            if (fallidos.size() > MAX_FALLOS_RESUMEN) {
+                salida.printf("  ... y %,d más%n", fallidos.size() - MAX_FALLOS_RESUMEN);
+            }
+        }
+    }
+
+    public static void guardarInforme(List<Resultado> resultados, Path informe) throws IOException {
+        try (OutputStream salida = Files.newOutputStream(informe);
+             EscritorCSV csv = new EscritorCSV(salida)) {
+            csv.cabecera("origen", "destino", "estado", "modo", "intentos", "bytes", "milisegundos", "error");
+            for (Resultado resultado : resultados) {
+                csv.texto(resultado.trabajo().origen().toString())
+                        .texto(resultado.trabajo().destino().toString())
+                        .texto(resultado.estado().name())
+                        .texto(resultado.modo().name())
+                        .entero(resultado.intentos())
+                        .entero(resultado.bytes())
+                        .entero(resultado.nanos() / 1_000_000)
+                        .texto(resultado.error() == null ? "" : resultado.error())
+                        .fin();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Uso: ConversorLotes <directorio|manifiesto.txt> <directorio salida> [--hilos=N] "
+                    + "[--memoria=MB] [--reintentos=N] [--streaming] [--continuar] [--informe=fichero.csv] [--metricas]");
+            return;
+        }
+        Path origen = Path.of(args[0]);
+        Path salida = Path.of(args[1]);
+        int hilos = Runtime.getRuntime().availableProcessors();
+        long memoria = Runtime.getRuntime().maxMemory() / 4 * 3;
+        int reintentos = 2;
+        boolean streaming = false;
+        boolean continuar = false;
+        Path informe = null;
+        String metricas = null;
+        for (int i = 2; i < args.length; i++) {
+            String arg = args[i];
+            String valor = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--hilos=")) {
+                hilos = Integer.parseInt(valor);
+            } else if (arg.startsWith("--memoria=")) {
+                memoria = Long.parseLong(valor) * 1024 * 1024;
+            } else if (arg.startsWith("--reintentos=")) {
+                reintentos = Integer.parseInt(valor);
+            } else if (arg.equals("--streaming")) {
+                streaming = true;
+            } else if (arg.equals("--continuar")) {
+                continuar = true;
+            } else if (arg.startsWith("--informe=")) {
+                informe = Path.of(valor);
+            } else if (arg.startsWith("--metricas")) {
+                metricas = arg.startsWith("--metricas=") ? valor : "";
+            } else {
+                throw new IllegalArgumentException("Opción desconocida: " + arg);
+            }
+        }
+
+        List<Trabajo> trabajos = Files.isDirectory(origen) ? desdeDirectorio(origen, salida)
+                : desdeManifiesto(origen, salida);
+        ConversorLotes conversor = new ConversorLotes(hilos, memoria, reintentos, streaming, continuar);
+        List<Resultado> resultados;
+        long inicio = System.nanoTime();
+        try {
+            if (metricas != null) {
+                Metricas.activar(metricas);
+            }
+            resultados = conversor.convertir(trabajos, System.err);
+        } finally {
+            Metricas.terminar(System.err);
+        }
+        long nanos = System.nanoTime() - inicio;
+
+        escribirResumen(resultados, nanos, System.out);
+        if (informe != null) {
+            guardarInforme(resultados, informe);
+            System.out.println("Informe guardado en " + informe);
+        }
+        if (resultados.stream().anyMatch(r -> r.estado() == Estado.FALLIDO)) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package Ejercicio_2;
+
+/*
+    Conversión DepartamentosEmpleados.xml -> DatosEmpresa.xml por fragmentos.
+
+    Main construye el árbol DOM y el objeto Empresa completo antes de un único
+    marshal, así que la memoria es DOM + grafo JAXB + salida. Aquí, con cada
+    paso medido como la etapa de Main del mismo nombre (Comun.Metricas):
+        - PARSE: se leen en streaming el <TITULO> y los <DEP_ROW> (son pocos).
+        - JOIN: los <EMP_ROW> se vuelcan en streaming al fichero temporal de su
+          departamento (Comun.VolcadoFilas).
+        - MARSHAL: se abre <EMPRESA> en un XMLStreamWriter y, departamento a
+          departamento, se crea su objeto Departamento JAXB, se serializa como
+          fragmento (JAXB_FRAGMENT, con el contexto compartido de ExportadorJAXB)
+          y se descarta.
+    La memoria queda acotada por un departamento. La salida es idéntica, byte a
+    byte, a la de Main (ver Comun.EscritorXMLIndentado).
+ */
+
+import Comun.Campos;
+import Comun.EscritorXMLIndentado;
+import Comun.LectorStAX;
+import Comun.Metricas;
+import Comun.UnionDOM;
+import Comun.VolcadoFilas;
+import Ejercicio_2.JAXB.Departamento;
+import Ejercicio_2.JAXB.Empleado;
+import jakarta.xml.bind.JAXBException;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ConversorStreaming {
+    private static final String[] CAMPOS_DEPARTAMENTO = {"DEPT_NO", "LOC", "DNOMBRE"};
+    private static final String[] CAMPOS_EMPLEADO =
+            {"EMP_NO", "APELLIDO", "OFICIO", "DIR", "FECHA_ALT", "SALARIO", "COMISION", "DEPT_NO"};
+    private static final int DEPT_NO = 0, LOC = 1, DNOMBRE = 2;
+    private static final int EMP_NO = 0, APELLIDO = 1, OFICIO = 2, DIR = 3, FECHA_ALT = 4, SALARIO = 5,
+            COMISION = 6, DEPT_NO_EMPLEADO = 7;
+
+    // Máximo de ficheros temporales abiertos a la vez
+    private static final int MAX_ABIERTOS = 64;
+
+    public static void convertir(Path origen, Path destino) throws IOException, XMLStreamException, JAXBException {
+        // PARSE: título y departamentos
+        String titulo;
+        List<String[]> departamentos = new ArrayList<>();
+        Map<String, Integer> indicePorNumero = new HashMap<>();
+        try (Metricas.Medicion m = Main.PARSE.iniciar()) {
+            titulo = LectorStAX.primerTexto(origen, "departamentos", "TITULO");
+            LectorStAX.recorrerFilas(origen, "DEP_ROW", CAMPOS_DEPARTAMENTO, valores -> {
+                indicePorNumero.putIfAbsent(valores[DEPT_NO], departamentos.size());
+                departamentos.add(valores.clone());
+            });
+            m.filas(departamentos.size());
+        }
+
+        try (VolcadoFilas volcado = new VolcadoFilas(MAX_ABIERTOS)) {
+            // JOIN: empleados agrupados por departamento en ficheros temporales
+            try (Metricas.Medicion m = Main.JOIN.iniciar()) {
+                LectorStAX.recorrerFilas(origen, "EMP_ROW", CAMPOS_EMPLEADO, valores -> {
+                    m.filas(1);
+                    Integer indice = indicePorNumero.get(valores[DEPT_NO_EMPLEADO]);
+                    if (indice != null) {
+                        volcado.escribir(indice, valores);
+                    } else {
+                        UnionDOM.avisarSinDepartamento(valores[EMP_NO], valores[DEPT_NO_EMPLEADO], System.err);
+                    }
+                });
+                m.bytes(Files.size(origen));
+            }
+
+            // MARSHAL: escritura por fragmentos
+            ExportadorJAXB exportador = ExportadorJAXB.getInstancia();
+
+            try (Metricas.Medicion m = Main.MARSHAL.iniciar();
+                 Writer salida = Files.newBufferedWriter(destino, StandardCharsets.UTF_8)) {
+                // Misma declaración que escribe JAXB al serializar el documento completo
+                salida.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+
+                XMLStreamWriter xml = new EscritorXMLIndentado(XMLOutputFactory.newInstance().createXMLStreamWriter(salida));
+                xml.writeStartElement("EMPRESA");
+                if (titulo != null) {
+                    xml.writeStartElement("TITULO");
+                    xml.writeCharacters(titulo);
+                    xml.writeEndElement();
+                }
+
+                for (String[] filaDepartamento : departamentos) {
+                    Departamento departamento = new Departamento();
+                    departamento.setId(Campos.entero(filaDepartamento[DEPT_NO]));
+                    departamento.setLocalizacion(filaDepartamento[LOC]);
+                    departamento.setNombre(filaDepartamento[DNOMBRE]);
+
+                    // Con DEPT_NO repetidos, los empleados se repiten en cada aparición como en Main
+                    volcado.leer(indicePorNumero.get(filaDepartamento[DEPT_NO]), fila ->
+                            departamento.addEmpleado(Empleado.desdeTexto(fila[EMP_NO], fila[APELLIDO], fila[OFICIO],
+                                    fila[DIR], fila[FECHA_ALT], fila[SALARIO], fila[COMISION])));
+
+                    exportador.exportarFragmento(departamento, xml);
+                    m.filas(1);
+                }
+
+                xml.writeEndElement();
+                xml.flush();
+                xml.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package Ejercicio_2;
+
+/*
+    Empresa de DatosEmpresa.xml con los empleados cargados bajo demanda.
+
+    ExportadorJAXB.importar construye todos los Departamento con todos sus
+    Empleado aunque solo se vaya a consultar uno. Aquí, al abrir:
+        1. Se recorre el fichero como bytes (sin analizar XML) buscando
+           <DEPARTAMENTO, <EMPLEADOS y </DEPARTAMENTO> para anotar dónde
+           empieza y acaba cada departamento.
+        2. De cada departamento se analiza con JAXB solo la cabecera (id, LOC y
+           DNOMBRE, hasta <EMPLEADOS>) y se crea un Departamento "ligero".
+    La primera vez que se llama a getEmpleados() de un departamento se leen sus
+    bytes y se analiza con JAXB solo ese fragmento. Las listas cargadas se
+    guardan en una caché LRU limitada por número total de empleados; las que
+    salen de la caché se vuelven a leer del fichero si se piden otra vez.
+
+    La búsqueda por bytes supone el XML tal como lo escriben ExportadorJAXB o
+    ConversorStreaming: sin comentarios ni CDATA y sin <DEPARTAMENTO/> vacíos.
+
+    Las listas cargadas son de solo lectura (se comparten a través de la caché).
+    setEmpleados() o addEmpleado() fijan en el departamento una lista propia,
+    que ya no depende del fichero. Exportar la Empresa con JAXB funciona: pasa
+    por getEmpleados() y va cargando los departamentos uno a uno.
+
+    Uso:
+        try (EmpresaPerezosa datos = new EmpresaPerezosa(Path.of("DatosEmpresa.xml"))) {
+            List<Empleado> empleados = datos.departamento(10).getEmpleados();
+        }
+ */
+
+import Ejercicio_2.JAXB.Departamento;
+import Ejercicio_2.JAXB.Empleado;
+import Ejercicio_2.JAXB.Empresa;
+import jakarta.xml.bind.JAXBException;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class EmpresaPerezosa implements Closeable {
+    // Empleados que se mantienen cargados por defecto
+    public static final int MAX_EMPLEADOS_CACHE = 50_000;
+
+    private static final byte[] ABRE_DEPARTAMENTO = "<DEPARTAMENTO".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ABRE_EMPLEADOS = "<EMPLEADOS".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ABRE_EMPLEADO = "<EMPLEADO".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CIERRA_DEPARTAMENTO = "</DEPARTAMENTO>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CIERRA_EMPRESA = "</EMPRESA>".getBytes(StandardCharsets.US_ASCII);
+    private static final int MARGEN = 16;           // Más que la etiqueta más larga y su delimitador
+    private static final int TAMANO_VENTANA = 1 << 20;
+
+    private static final Pattern CODIFICACION = Pattern.compile("encoding\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    private final FileChannel canal;
+    private final Charset codificacion;
+    private final Empresa empresa;
+    private final Map<Integer, DepartamentoPerezoso> porNumero = new HashMap<>();
+
+    // Caché LRU de listas cargadas: orden de acceso y límite por empleados
+    private final int maxEmpleados;
+    private final LinkedHashMap<DepartamentoPerezoso, List<Empleado>> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long empleadosEnCache;
+    private long cargas;
+    private long aciertos;
+
+    public EmpresaPerezosa(Path xml) throws IOException, JAXBException {
+        this(xml, MAX_EMPLEADOS_CACHE);
+    }
+
+    public EmpresaPerezosa(Path xml, int maxEmpleados) throws IOException, JAXBException {
+        this.maxEmpleados = maxEmpleados;
+        this.canal = FileChannel.open(xml, StandardOpenOption.READ);
+        try {
+            List<Tramo> tramos = buscarDepartamentos();
+
+            // Título: lo anterior al primer departamento, cerrando <EMPRESA>
+            long finCabecera = tramos.isEmpty() ? canal.size() : tramos.get(0).inicio;
+            byte[] cabecera = leer(0, finCabecera);
+            this.codificacion = codificacion(cabecera);
+            Empresa titulo = ExportadorJAXB.getInstancia().importar(new StreamSource(new ByteArrayInputStream(
+                    tramos.isEmpty() ? cabecera : concatenar(cabecera, CIERRA_EMPRESA))), Empresa.class);
+            this.empresa = new Empresa(titulo.getTitulo());
+
+            // Departamentos ligeros: solo id, LOC y DNOMBRE
+            for (Tramo tramo : tramos) {
+                byte[] datos = tramo.empleados < 0
+                        ? leer(tramo.inicio, tramo.fin)
+                        : concatenar(leer(tramo.inicio, tramo.empleados), CIERRA_DEPARTAMENTO);
+                Departamento ligero = importar(datos);
+                DepartamentoPerezoso departamento = new DepartamentoPerezoso(ligero, tramo);
+                empresa.addDepartamento(departamento);
+                porNumero.putIfAbsent(departamento.getId(), departamento);
+            }
+        } catch (IOException | JAXBException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    public Empresa getEmpresa() {
+        return empresa;
+    }
+
+    // Primer departamento con ese DEPT_NO, o null
+    public Departamento departamento(int numero) {
+        return porNumero.get(numero);
+    }
+
+    public synchronized long cargas() {
+        return cargas;
+    }
+
+    public synchronized long aciertos() {
+        return aciertos;
+    }
+
+    public synchronized int departamentosEnCache() {
+        return cache.size();
+    }
+
+    public synchronized long empleadosEnCache() {
+        return empleadosEnCache;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+        synchronized (this) {
+            cache.clear();
+            empleadosEnCache = 0;
+        }
+    }
+
+    // === CARGA BAJO DEMANDA ===
+
+    private List<Empleado> empleados(DepartamentoPerezoso departamento) {
+        synchronized (this) {
+            List<Empleado> cargados = cache.get(departamento);
+            if (cargados != null) {
+                aciertos++;
+                return cargados;
+            }
+        }
+
+        // Fuera del bloqueo: otros hilos pueden usar la caché mientras se analiza
+        List<Empleado> empleados;
+        try {
+            Tramo tramo = departamento.tramo;
+            empleados = Collections.unmodifiableList(importar(leer(tramo.inicio, tramo.fin)).getEmpleados());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el departamento " + departamento.getId(), e);
+        } catch (JAXBException e) {
+            throw new IllegalStateException("No se pudo analizar el departamento " + departamento.getId(), e);
+        }
+
+        synchronized (this) {
+            cargas++;
+            List<Empleado> anterior = cache.putIfAbsent(departamento, empleados);
+            if (anterior != null) {
+                return anterior;    // Otro hilo lo cargó a la vez
+            }
+            empleadosEnCache += empleados.size();
+
+            // Se descartan los menos usados, pero nunca el que se acaba de cargar
+            Iterator<Map.Entry<DepartamentoPerezoso, List<Empleado>>> it = cache.entrySet().iterator();
+            while (empleadosEnCache > maxEmpleados && cache.size() > 1) {
+                empleadosEnCache -= it.next().getValue().size();
+                it.remove();
+            }
+            return empleados;
+        }
+    }
+
+    private Departamento importar(byte[] fragmento) throws JAXBException {
+        // El fragmento no tiene declaración XML: la codificación se indica con el Reader
+        return ExportadorJAXB.getInstancia().importar(new StreamSource(
+                new InputStreamReader(new ByteArrayInputStream(fragmento), codificacion)), Departamento.class);
+    }
+
+    private byte[] leer(long desde, long hasta) throws IOException {
+        byte[] datos = new byte[Math.toIntExact(hasta - desde)];
+        ByteBuffer destino = ByteBuffer.wrap(datos);
+        while (destino.hasRemaining()) {
+            if (canal.read(destino, desde + destino.position()) < 0) {
+                throw new EOFException("El fichero ha cambiado desde que se abrió");
+            }
+        }
+        return datos;
+    }
+
+    // === ÍNDICE DE DEPARTAMENTOS ===
+
+    // Posiciones (en bytes) de un departamento: <DEPARTAMENTO, <EMPLEADOS (o -1) y fin de </DEPARTAMENTO>
+    private record Tramo(long inicio, long empleados, long fin, int numEmpleados) {
+    }
+
+    private List<Tramo> buscarDepartamentos() throws IOException {
+        List<Tramo> tramos = new ArrayList<>();
+        byte[] ventana = new byte[TAMANO_VENTANA];
+        ByteBuffer envoltorio = ByteBuffer.wrap(ventana);
+        long base = 0;              // Posición en el fichero de ventana[0]
+        int validos = 0;
+        boolean finFichero = false;
+
+        long inicio = -1, empleados = -1;
+        int numEmpleados = 0;
+        int i = 0;
+        while (true) {
+            // Se rellena la ventana dejando siempre MARGEN bytes por delante (salvo al final)
+            if (!finFichero && validos - i <= MARGEN) {
+                System.arraycopy(ventana, i, ventana, 0, validos - i);
+                base += i;
+                validos -= i;
+                i = 0;
+                envoltorio.clear().position(validos);
+                while (envoltorio.hasRemaining() && !finFichero) {
+                    finFichero = canal.read(envoltorio, base + envoltorio.position()) < 0;
+                }
+                validos = envoltorio.position();
+            }
+            int limite = finFichero ? validos : validos - MARGEN;
+            if (i >= limite) {
+                if (finFichero) {
+                    break;
+                }
+                continue;
+            }
+
+            for (; i < limite; i++) {
+                if (ventana[i] != '<') {
+                    continue;
+                }
+                if (inicio < 0) {
+                    if (etiqueta(ventana, i, validos, ABRE_DEPARTAMENTO)) {
+                        inicio = base + i;
+                        empleados = -1;
+                        numEmpleados = 0;
+                    }
+                } else if (etiqueta(ventana, i, validos, ABRE_EMPLEADO)) {
+                    numEmpleados++;
+                } else if (empleados < 0 && etiqueta(ventana, i, validos, ABRE_EMPLEADOS)) {
+                    empleados = base + i;
+                } else if (coincide(ventana, i, validos, CIERRA_DEPARTAMENTO)) {
+                    tramos.add(new Tramo(inicio, empleados, base + i + CIERRA_DEPARTAMENTO.length, numEmpleados));
+                    inicio = -1;
+                }
+            }
+        }
+        if (inicio >= 0) {
+            throw new IOException("Departamento sin cerrar en la posición " + inicio);
+        }
+        return tramos;
+    }
+
+    // Nombre de etiqueta completo: detrás viene '>', '/' o un espacio
+    private static boolean etiqueta(byte[] datos, int pos, int validos, byte[] nombre) {
+        if (!coincide(datos, pos, validos, nombre) || pos + nombre.length >= validos) {
+            return false;
+        }
+        byte siguiente = datos[pos + nombre.length];
+        return siguiente == '>' || siguiente == '/' || siguiente == ' '
+                || siguiente == '\t' || siguiente == '\n' || siguiente == '\r';
+    }
+
+    private static boolean coincide(byte[] datos, int pos, int validos, byte[] patron) {
+        if (pos + patron.length > validos) {
+            return false;
+        }
+        for (int j = 0; j < patron.length; j++) {
+            if (datos[pos + j] != patron[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Charset codificacion(byte[] cabecera) {
+        String texto = new String(cabecera, 0, Math.min(cabecera.length, 200), StandardCharsets.ISO_8859_1);
+        int finDeclaracion = texto.startsWith("<?xml") ? texto.indexOf("?>") : -1;
+        if (finDeclaracion > 0) {
+            Matcher m = CODIFICACION.matcher(texto.substring(0, finDeclaracion));
+            if (m.find()) {
+                return Charset.forName(m.group(1));
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static byte[] concatenar(byte[] a, byte[] b) {
+        byte[] total = new byte[a.length + b.length];
+        System.arraycopy(a, 0, total, 0, a.length);
+        System.arraycopy(b, 0, total, a.length, b.length);
+        return total;
+    }
+
+    /*
+        Departamento que pide sus empleados a la caché hasta que se le asigna una
+        lista propia. Se compara por identidad (clave de la caché).
+     */
+    private class DepartamentoPerezoso extends Departamento {
+        private final Tramo tramo;
+        private boolean propia;     // Tiene lista propia: ya no se carga del fichero
+
+        DepartamentoPerezoso(Departamento ligero, Tramo tramo) {
+            super(ligero.getId(), ligero.getLocalizacion(), ligero.getNombre());
+            this.tramo = tramo;
+        }
+
+        @Override
+        public List<Empleado> getEmpleados() {
+            return propia ? super.getEmpleados() : empleados(this);
+        }
+
+        @Override
+        public void setEmpleados(List<Empleado> empleados) {
+            super.setEmpleados(empleados);
+            propia = true;
+        }
+
+        @Override
+        public void addEmpleado(Empleado empleado) {
+            if (!propia) {
+                setEmpleados(new ArrayList<>(getEmpleados()));
+            }
+            super.addEmpleado(empleado);
+        }
+
+        @Override
+        public String toString() {
+            // Sin cargar los empleados: el número se contó al buscar los departamentos
+            return "Departamento{" + "id='" + getId() + '\'' + ", nombre='" + getNombre() + '\'' +
+                    ", empleados=" + (propia ? super.getEmpleados().size() : tramo.numEmpleados) + '}';
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package Ejercicio_2;
+
+/*
+    Formato binario compacto de Empresa (fichero .empb), alternativa rápida a
+    DatosEmpresa.xml. El XML de JAXB sigue siendo el formato de intercambio.
+
+    Estructura (varint = entero de 7 bits por byte, zigzag para los que
+    pueden ser negativos; texto = varint(longitud + 1) + UTF-8, 0 = null):
+        "EMPB" | versión (byte) | título (texto)
+        por cada departamento, un bloque:
+            varint longitud del resto del bloque
+            varint entradas nuevas del diccionario + esos textos
+            varint longitud de los datos + datos:
+                zigzag id | código LOC | código DNOMBRE | varint nº empleados
+                por empleado: zigzag (numero - numero anterior) | APELLIDO (texto)
+                              | código OFICIO | zigzag DIR | zigzag FECHA_ALT (día epoch)
+                              | zigzag SALARIO | zigzag COMISION (céntimos)
+        varint 0 (fin)
+
+    Diccionario: OFICIO, LOC y DNOMBRE se escriben como código (0 = null,
+    n = entrada n del diccionario). Cada texto nuevo se añade al diccionario
+    y se declara al principio del bloque en que aparece; así LectorBinario
+    puede saltarse los datos de un departamento (sin decodificarlos) y seguir
+    teniendo el diccionario completo.
+
+    Uso:
+        try (EscritorBinario salida = new EscritorBinario(Files.newOutputStream(ruta), "TITULO")) {
+            salida.escribir(departamento);      // uno a uno, en streaming
+        }
+ */
+
+import Ejercicio_2.JAXB.Departamento;
+import Ejercicio_2.JAXB.Empleado;
+import Ejercicio_2.JAXB.Empresa;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class EscritorBinario implements Closeable {
+    static final byte[] MAGICO = {'E', 'M', 'P', 'B'};
+    static final int VERSION = 1;
+
+    private final OutputStream destino;
+    private final Map<String, Integer> diccionario = new HashMap<>();
+    private final Bytes nuevas = new Bytes();       // Entradas nuevas del bloque actual
+    private int numNuevas;
+    private final Bytes datos = new Bytes();
+    private final Bytes cabeceraBloque = new Bytes();
+    private boolean cerrado;
+
+    public EscritorBinario(OutputStream destino, String titulo) throws IOException {
+        this.destino = new BufferedOutputStream(destino, 64 * 1024);
+        this.destino.write(MAGICO);
+        this.destino.write(VERSION);
+        Bytes cabecera = new Bytes();
+        cabecera.texto(titulo);
+        cabecera.escribirEn(this.destino);
+    }
+
+    public static void escribir(Empresa empresa, Path destino) throws IOException {
+        try (EscritorBinario salida = new EscritorBinario(Files.newOutputStream(destino), empresa.getTitulo())) {
+            for (Departamento departamento : empresa.getDepartamentos()) {
+                salida.escribir(departamento);
+            }
+        }
+    }
+
+    public void escribir(Departamento departamento) throws IOException {
+        datos.reiniciar();
+        nuevas.reiniciar();
+        numNuevas = 0;
+
+        datos.zigzag(departamento.getId());
+        datos.varint(codigo(departamento.getLocalizacion()));
+        datos.varint(codigo(departamento.getNombre()));
+        datos.varint(departamento.getEmpleados().size());
+        long anterior = 0;
+        for (Empleado e : departamento.getEmpleados()) {
+            datos.zigzag(e.getNumero() - anterior);
+            anterior = e.getNumero();
+            datos.texto(e.getApellido());
+            datos.varint(codigo(e.getOficio()));
+            datos.zigzag(e.getDir());
+            datos.zigzag(e.getFechaAlta());
+            datos.zigzag(e.getSalario());
+            datos.zigzag(e.getComision());
+        }
+
+        cabeceraBloque.reiniciar();
+        cabeceraBloque.varint(numNuevas);
+        Bytes longitudDatos = new Bytes();
+        longitudDatos.varint(datos.n);
+        long resto = (long) cabeceraBloque.n + nuevas.n + longitudDatos.n + datos.n;
+
+        Bytes longitudBloque = new Bytes();
+        longitudBloque.varint(resto);
+        longitudBloque.escribirEn(destino);
+        cabeceraBloque.escribirEn(destino);
+        nuevas.escribirEn(destino);
+        longitudDatos.escribirEn(destino);
+        datos.escribirEn(destino);
+    }
+
+    // Código del texto en el diccionario; si es nuevo se declara en el bloque
+    private int codigo(String texto) {
+        if (texto == null) {
+            return 0;
+        }
+        Integer codigo = diccionario.get(texto);
+        if (codigo == null) {
+            codigo = diccionario.size() + 1;
+            diccionario.put(texto, codigo);
+            nuevas.texto(texto);
+            numNuevas++;
+        }
+        return codigo;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        try {
+            destino.write(0);
+        } finally {
+            destino.close();
+        }
+    }
+
+    // Array de bytes que crece, con escritura de varints y textos
+    static class Bytes {
+        byte[] b = new byte[256];
+        int n;
+
+        void reiniciar() {
+            n = 0;
+        }
+
+        private void asegurar(int extra) {
+            if (n + extra > b.length) {
+                b = Arrays.copyOf(b, Math.max(b.length * 2, n + extra));
+            }
+        }
+
+        void varint(long valor) {
+            asegurar(10);
+            while ((valor & ~0x7FL) != 0) {
+                b[n++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            b[n++] = (byte) valor;
+        }
+
+        void zigzag(long valor) {
+            varint((valor << 1) ^ (valor >> 63));
+        }
+
+        void texto(String texto) {
+            if (texto == null) {
+                varint(0);
+                return;
+            }
+            // Caracteres ASCII directamente; el resto con getBytes
+            int longitud = texto.length();
+            boolean ascii = true;
+            for (int i = 0; i < longitud && ascii; i++) {
+                ascii = texto.charAt(i) < 0x80;
+            }
+            if (ascii) {
+                varint(longitud + 1L);
+                asegurar(longitud);
+                for (int i = 0; i < longitud; i++) {
+                    b[n++] = (byte) texto.charAt(i);
+                }
+            } else {
+                byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+                varint(utf8.length + 1L);
+                asegurar(utf8.length);
+                System.arraycopy(utf8, 0, b, n, utf8.length);
+                n += utf8.length;
+            }
+        }
+
+        void escribirEn(OutputStream salida) throws IOException {
+            salida.write(b, 0, n);
+        }
+    }
+}
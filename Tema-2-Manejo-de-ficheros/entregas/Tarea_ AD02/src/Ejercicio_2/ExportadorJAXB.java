@@ -0,0 +1,183 @@
+package Ejercicio_2;
+
+/*
+    JAXBContext único y reserva de Marshaller/Unmarshaller para las clases
+    JAXB Empresa, Departamento y Empleado.
+
+    JAXBContext.newInstance es lo más caro de una exportación (analiza las
+    anotaciones de todas las clases), pero el contexto es thread-safe y se
+    puede compartir. Los Marshaller/Unmarshaller no son thread-safe, así que
+    se guardan en colas concurrentes: cada llamada toma uno, lo usa y lo
+    devuelve. Se crean bajo demanda y se conservan como mucho MAX_RESERVA.
+    Uno que ha fallado a medias no se devuelve (puede haber quedado con estado
+    de la operación interrumpida): se descarta y la siguiente crea otro.
+
+    Uso:
+        ExportadorJAXB.getInstancia().exportar(empresa, Path.of("DatosEmpresa.xml"));
+        Empresa empresa = ExportadorJAXB.getInstancia().importar(Path.of("DatosEmpresa.xml"), Empresa.class);
+ */
+
+import Ejercicio_2.JAXB.Departamento;
+import Ejercicio_2.JAXB.Empleado;
+import Ejercicio_2.JAXB.Empresa;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExportadorJAXB {
+    private static final String CODIFICACION = "UTF-8";
+    private static final int MAX_RESERVA = Runtime.getRuntime().availableProcessors() * 2;
+
+    // Nombres de elemento para las clases que no son @XmlRootElement
+    private static final QName DEPARTAMENTO = new QName("DEPARTAMENTO");
+    private static final QName EMPLEADO = new QName("EMPLEADO");
+    private static final String VACIO = "<EMPRESA/>";
+
+    // El contexto se crea la primera vez que se pide el exportador
+    private static class Instancia {
+        private static final ExportadorJAXB EXPORTADOR = new ExportadorJAXB();
+    }
+
+    public static ExportadorJAXB getInstancia() {
+        return Instancia.EXPORTADOR;
+    }
+
+    private final JAXBContext contexto;
+    private final Reserva<Marshaller> marshallers = new Reserva<>();
+    private final Reserva<Marshaller> marshallersFragmento = new Reserva<>();
+    private final Reserva<Unmarshaller> unmarshallers = new Reserva<>();
+
+    private ExportadorJAXB() {
+        try {
+            contexto = JAXBContext.newInstance(Empresa.class, Departamento.class, Empleado.class);
+        } catch (JAXBException e) {
+            throw new IllegalStateException("No se pudo crear el contexto JAXB", e);
+        }
+    }
+
+    public JAXBContext getContexto() {
+        return contexto;
+    }
+
+    // === EXPORTAR ===
+
+    public void exportar(Empresa empresa, Path destino) throws JAXBException, IOException {
+        try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(destino), 64 * 1024)) {
+            exportar(empresa, salida);
+        }
+    }
+
+    // Documento completo con declaración XML, indentado y en UTF-8
+    public void exportar(Object objeto, OutputStream salida) throws JAXBException {
+        Marshaller marshaller = marshallers.tomar();
+        if (marshaller == null) {
+            marshaller = contexto.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, CODIFICACION);
+        }
+        marshaller.marshal(comoElemento(objeto), salida);
+        marshallers.devolver(marshaller);
+    }
+
+    // Fragmento sin declaración XML sobre un XMLStreamWriter ya abierto (ver ConversorStreaming)
+    public void exportarFragmento(Object objeto, XMLStreamWriter salida) throws JAXBException {
+        Marshaller marshaller = marshallersFragmento.tomar();
+        if (marshaller == null) {
+            marshaller = contexto.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, CODIFICACION);
+        }
+        marshaller.marshal(comoElemento(objeto), salida);
+        marshallersFragmento.devolver(marshaller);
+    }
+
+    // === IMPORTAR ===
+
+    public <T> T importar(Path origen, Class<T> clase) throws JAXBException {
+        return importar(new StreamSource(origen.toFile()), clase);
+    }
+
+    // Cualquier origen, también un fragmento como <DEPARTAMENTO> (ver EmpresaPerezosa)
+    public <T> T importar(Source origen, Class<T> clase) throws JAXBException {
+        Unmarshaller unmarshaller = unmarshallers.tomar();
+        try {
+            if (unmarshaller == null) {
+                unmarshaller = contexto.createUnmarshaller();
+            }
+            return unmarshaller.unmarshal(origen, clase).getValue();
+        } finally {
+            unmarshallers.devolver(soltar(unmarshaller));
+        }
+    }
+
+    /*
+        El Unmarshaller conserva el último objeto importado hasta el siguiente
+        unmarshal: guardado en la reserva, retendría un Empresa completo aunque
+        el llamante ya lo haya descartado. Se le pasa un documento vacío antes
+        de devolverlo; si falla, no se reutiliza.
+     */
+    private static Unmarshaller soltar(Unmarshaller unmarshaller) {
+        if (unmarshaller == null) {
+            return null;
+        }
+        try {
+            unmarshaller.unmarshal(new StreamSource(new StringReader(VACIO)), Empresa.class);
+            return unmarshaller;
+        } catch (JAXBException e) {
+            return null;
+        }
+    }
+
+    // Departamento y Empleado no tienen @XmlRootElement: se envuelven con su nombre de elemento
+    private static Object comoElemento(Object objeto) {
+        if (objeto instanceof Departamento departamento) {
+            return new JAXBElement<>(DEPARTAMENTO, Departamento.class, departamento);
+        }
+        if (objeto instanceof Empleado empleado) {
+            return new JAXBElement<>(EMPLEADO, Empleado.class, empleado);
+        }
+        return objeto;
+    }
+
+    /*
+        Cola de objetos reutilizables. tomar() devuelve null si no hay ninguno
+        libre (el llamante crea uno nuevo); devolver() lo descarta si ya hay
+        MAX_RESERVA guardados.
+     */
+    private static class Reserva<T> {
+        private final Queue<T> libres = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger numLibres = new AtomicInteger();
+
+        T tomar() {
+            T objeto = libres.poll();
+            if (objeto != null) {
+                numLibres.decrementAndGet();
+            }
+            return objeto;
+        }
+
+        void devolver(T objeto) {
+            if (objeto != null && numLibres.incrementAndGet() <= MAX_RESERVA) {
+                libres.offer(objeto);
+            } else if (objeto != null) {
+                numLibres.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package Ejercicio_2.JAXB;
+
+import Comun.Campos;
+import jakarta.xml.bind.annotation.adapters.XmlAdapter;
+
+// FECHA_ALT: texto ISO (aaaa-mm-dd) del XML <-> día epoch (ver Comun.Campos)
+public class AdaptadorFecha extends XmlAdapter<String, Integer> {
+    @Override
+    public Integer unmarshal(String texto) {
+        return texto == null ? null : Campos.diaEpoch(texto);
+    }
+
+    @Override
+    public String marshal(Integer diaEpoch) {
+        return diaEpoch == null ? null : Campos.fecha(diaEpoch);
+    }
+}
@@ -0,0 +1,17 @@
+package Ejercicio_2.JAXB;
+
+import Comun.Campos;
+import jakarta.xml.bind.annotation.adapters.XmlAdapter;
+
+// SALARIO / COMISION: texto del XML <-> céntimos (ver Comun.Campos)
+public class AdaptadorImporte extends XmlAdapter<String, Long> {
+    @Override
+    public Long unmarshal(String texto) {
+        return texto == null ? null : Campos.centimos(texto);
+    }
+
+    @Override
+    public String marshal(Long centimos) {
+        return centimos == null ? null : Campos.importe(centimos);
+    }
+}
@@ -1,105 +1,153 @@
-//package JAXB;
-//
-//import jakarta.xml.bind.annotation.*;
-//
-//import java.util.ArrayList;
-//import java.util.List;
-//
-//@XmlAccessorType(XmlAccessType.FIELD)
-//public class Empleado {
-//    @XmlAttribute(name = "numero")
-//    private String numero;
-//
-//    @XmlElement(name = "APELLIDO")
-//    private String apellido;
-//
-//    @XmlElement(name = "OFICIO")
-//    private String oficio;
-//
-//    @XmlElement(name = "DIR")
-//    private String dir;
-//
-//    @XmlElement(name = "FECHA_ALT")
-//    private String fechaAlta;
-//
-//    @XmlElement(name = "SALARIO")
-//    private String salario;
-//
-//    @XmlElement(name = "COMISION")
-//    private String comision;
-//
-//    public Empleado() {
-//    }
-//
-//    public Empleado(String numero, String apellido, String oficio, String dir,
-//                    String fechaAlta, String salario, String comision) {
-//        this.numero = numero;
-//        this.apellido = apellido;
-//        this.oficio = oficio;
-//        this.dir = dir;
-//        this.fechaAlta = fechaAlta;
-//        this.salario = salario;
-//        this.comision = comision;
-//    }
-//
-//    public String getNumero() {
-//        return numero;
-//    }
-//
-//    public void setNumero(String numero) {
-//        this.numero = numero;
-//    }
-//
-//    public String getApellido() {
-//        return apellido;
-//    }
-//
-//    public void setApellido(String apellido) {
-//        this.apellido = apellido;
-//    }
-//
-//    public String getOficio() {
-//        return oficio;
-//    }
-//
-//    public void setOficio(String oficio) {
-//        this.oficio = oficio;
-//    }
-//
-//    public String getDir() {
-//        return dir;
-//    }
-//
-//    public void setDir(String dir) {
-//        this.dir = dir;
-//    }
-//
-//    public String getFechaAlta() {
-//        return fechaAlta;
-//    }
-//
-//    public void setFechaAlta(String fechaAlta) {
-//        this.fechaAlta = fechaAlta;
-//    }
-//
-//    public String getSalario() {
-//        return salario;
-//    }
-//
-//    public void setSalario(String salario) {
-//        this.salario = salario;
-//    }
-//
-//    public String getComision() {
-//        return comision;
-//    }
-//
-//    public void setComision(String comision) {
-//        this.comision = comision;
-//    }
-//
-//    @Override
-//    public String toString() {
-//        return "Empleado{" + "numero='" + numero + '\'' + ", apellido='" + apellido + '\'' + '}';
-//    }
-//}
\ No newline at end of file
+package Ejercicio_2.JAXB;
+
+import Comun.Campos;
+import jakarta.xml.bind.annotation.*;
+import jakarta.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+
+/*
+    Campos tipados: números como int, importes en céntimos (long) y la fecha de
+    alta como día epoch (int). Los adaptadores mantienen el formato del XML:
+    <SALARIO>1040</SALARIO>, <FECHA_ALT>1990-12-17</FECHA_ALT>...
+
+    JAXB no aplica adaptadores a campos primitivos, así que esos tres campos son
+    @XmlTransient y se serializan a través de getters/setters privados con el
+    tipo envoltorio. propOrder mantiene el orden de los elementos.
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(propOrder = {"apellido", "oficio", "dir", "fechaAltaXml", "salarioXml", "comisionXml"})
+public class Empleado {
+    @XmlAttribute(name = "numero")
+    private int numero;
+
+    @XmlElement(name = "APELLIDO")
+    private String apellido;
+
+    @XmlElement(name = "OFICIO")
+    private String oficio;
+
+    @XmlElement(name = "DIR")
+    private int dir;
+
+    @XmlTransient
+    private int fechaAlta;      // Día epoch
+
+    @XmlTransient
+    private long salario;       // Céntimos
+
+    @XmlTransient
+    private long comision;      // Céntimos
+
+    public Empleado() {
+    }
+
+    public Empleado(int numero, String apellido, String oficio, int dir,
+                    int fechaAlta, long salario, long comision) {
+        this.numero = numero;
+        this.apellido = apellido;
+        this.oficio = oficio;
+        this.dir = dir;
+        this.fechaAlta = fechaAlta;
+        this.salario = salario;
+        this.comision = comision;
+    }
+
+    // Crea el empleado a partir del texto de los campos de un <EMP_ROW>
+    public static Empleado desdeTexto(String numero, String apellido, String oficio, String dir,
+                                      String fechaAlta, String salario, String comision) {
+        return new Empleado(Campos.entero(numero), apellido, oficio, Campos.entero(dir),
+                Campos.diaEpoch(fechaAlta), Campos.centimos(salario), Campos.centimos(comision));
+    }
+
+    public int getNumero() {
+        return numero;
+    }
+
+    public void setNumero(int numero) {
+        this.numero = numero;
+    }
+
+    public String getApellido() {
+        return apellido;
+    }
+
+    public void setApellido(String apellido) {
+        this.apellido = apellido;
+    }
+
+    public String getOficio() {
+        return oficio;
+    }
+
+    public void setOficio(String oficio) {
+        this.oficio = oficio;
+    }
+
+    public int getDir() {
+        return dir;
+    }
+
+    public void setDir(int dir) {
+        this.dir = dir;
+    }
+
+    public int getFechaAlta() {
+        return fechaAlta;
+    }
+
+    public void setFechaAlta(int fechaAlta) {
+        this.fechaAlta = fechaAlta;
+    }
+
+    public long getSalario() {
+        return salario;
+    }
+
+    public void setSalario(long salario) {
+        this.salario = salario;
+    }
+
+    public long getComision() {
+        return comision;
+    }
+
+    public void setComision(long comision) {
+        this.comision = comision;
+    }
+
+    // === ACCESO PARA JAXB ===
+
+    @XmlElement(name = "FECHA_ALT")
+    @XmlJavaTypeAdapter(AdaptadorFecha.class)
+    private Integer getFechaAltaXml() {
+        return fechaAlta;
+    }
+
+    private void setFechaAltaXml(Integer fechaAlta) {
+        this.fechaAlta = fechaAlta;
+    }
+
+    @XmlElement(name = "SALARIO")
+    @XmlJavaTypeAdapter(AdaptadorImporte.class)
+    private Long getSalarioXml() {
+        return salario;
+    }
+
+    private void setSalarioXml(Long salario) {
+        this.salario = salario;
+    }
+
+    @XmlElement(name = "COMISION")
+    @XmlJavaTypeAdapter(AdaptadorImporte.class)
+    private Long getComisionXml() {
+        return comision;
+    }
+
+    private void setComisionXml(Long comision) {
+        this.comision = comision;
+    }
+
+    @Override
+    public String toString() {
+        return "Empleado{" + "numero='" + numero + '\'' + ", apellido='" + apellido + '\'' + '}';
+    }
+}
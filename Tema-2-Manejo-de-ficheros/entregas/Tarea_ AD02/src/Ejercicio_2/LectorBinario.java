@@ -0,0 +1,229 @@
+package Ejercicio_2;
+
+/*
+    Lectura en streaming de un fichero .empb (formato en EscritorBinario).
+
+    Se avanza bloque a bloque: avanzar() lee la cabecera del bloque (y las
+    entradas nuevas del diccionario); después se puede decodificar el
+    departamento con leerActual() o no hacerlo, y el siguiente avanzar() se
+    salta sus datos sin decodificarlos. idActual() solo decodifica el id.
+    En memoria solo está el bloque del departamento actual.
+
+        try (LectorBinario entrada = new LectorBinario(Files.newInputStream(ruta))) {
+            while (entrada.avanzar()) {
+                if (entrada.idActual() == 20) {
+                    Departamento d = entrada.leerActual();
+                }
+            }
+        }
+ */
+
+import Ejercicio_2.JAXB.Departamento;
+import Ejercicio_2.JAXB.Empleado;
+import Ejercicio_2.JAXB.Empresa;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LectorBinario implements Closeable {
+    private final InputStream origen;
+    private byte[] buffer = new byte[64 * 1024];
+    private int p;
+    private int n;
+
+    private final String titulo;
+    private final List<String> diccionario = new ArrayList<>();
+    private int datosPendientes = -1;       // Bytes de datos del bloque actual sin consumir (-1 = ninguno)
+    private boolean terminado;
+
+    public LectorBinario(InputStream origen) throws IOException {
+        this.origen = origen;
+        diccionario.add(null);
+        asegurar(EscritorBinario.MAGICO.length + 1);
+        if (!Arrays.equals(buffer, 0, 4, EscritorBinario.MAGICO, 0, 4)) {
+            throw new IOException("No es un fichero de empresa binario (EMPB)");
+        }
+        p = 4;
+        int version = buffer[p++];
+        if (version != EscritorBinario.VERSION) {
+            throw new IOException("Versión de formato no soportada: " + version);
+        }
+        titulo = texto();
+    }
+
+    public static Empresa leer(Path origen) throws IOException {
+        try (LectorBinario entrada = new LectorBinario(Files.newInputStream(origen))) {
+            Empresa empresa = new Empresa(entrada.titulo());
+            while (entrada.avanzar()) {
+                empresa.addDepartamento(entrada.leerActual());
+            }
+            return empresa;
+        }
+    }
+
+    public String titulo() {
+        return titulo;
+    }
+
+    // === BLOQUES ===
+
+    /**
+     * Pasa al siguiente departamento (saltándose los datos del actual si no
+     * se han leído). Devuelve false al llegar al final.
+     */
+    public boolean avanzar() throws IOException {
+        if (datosPendientes >= 0) {
+            saltar(datosPendientes);
+            datosPendientes = -1;
+        }
+        if (terminado) {
+            return false;
+        }
+        if (varint() == 0) {
+            terminado = true;
+            return false;
+        }
+        int nuevas = (int) varint();
+        for (int i = 0; i < nuevas; i++) {
+            diccionario.add(texto());
+        }
+        datosPendientes = (int) varint();
+        return true;
+    }
+
+    // Id del departamento actual (sin decodificar el resto)
+    public int idActual() throws IOException {
+        comprobarActual();
+        asegurar(Math.min(datosPendientes, 10));
+        int inicio = p;
+        int id = (int) deshacerZigzag(varint());
+        p = inicio;
+        return id;
+    }
+
+    public Departamento leerActual() throws IOException {
+        comprobarActual();
+        asegurar(datosPendientes);
+        int fin = p + datosPendientes;
+        datosPendientes = -1;
+
+        Departamento departamento = new Departamento();
+        departamento.setId((int) deshacerZigzag(varint()));
+        departamento.setLocalizacion(diccionario.get((int) varint()));
+        departamento.setNombre(diccionario.get((int) varint()));
+        int empleados = (int) varint();
+        List<Empleado> lista = new ArrayList<>(empleados);
+        long numero = 0;
+        for (int i = 0; i < empleados; i++) {
+            numero += deshacerZigzag(varint());
+            String apellido = texto();
+            String oficio = diccionario.get((int) varint());
+            int dir = (int) deshacerZigzag(varint());
+            int fechaAlta = (int) deshacerZigzag(varint());
+            long salario = deshacerZigzag(varint());
+            long comision = deshacerZigzag(varint());
+            lista.add(new Empleado((int) numero, apellido, oficio, dir, fechaAlta, salario, comision));
+        }
+        departamento.setEmpleados(lista);
+        if (p != fin) {
+            throw new IOException("Bloque de departamento " + departamento.getId() + " dañado");
+        }
+        return departamento;
+    }
+
+    private void comprobarActual() {
+        if (datosPendientes < 0) {
+            throw new IllegalStateException("No hay departamento actual: llame a avanzar()");
+        }
+    }
+
+    // === BYTES ===
+
+    // Garantiza que hay al menos k bytes en el buffer a partir de p
+    private void asegurar(int k) throws IOException {
+        if (n - p >= k) {
+            return;
+        }
+        if (k > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(k, buffer.length * 2));
+        }
+        System.arraycopy(buffer, p, buffer, 0, n - p);
+        n -= p;
+        p = 0;
+        while (n < k) {
+            int leidos = origen.read(buffer, n, buffer.length - n);
+            if (leidos < 0) {
+                throw new EOFException("Fichero binario incompleto");
+            }
+            n += leidos;
+        }
+    }
+
+    private void saltar(long k) throws IOException {
+        long enBuffer = Math.min(k, n - p);
+        p += (int) enBuffer;
+        long resto = k - enBuffer;
+        while (resto > 0) {
+            long saltados = origen.skip(resto);
+            if (saltados <= 0) {
+                if (origen.read() < 0) {
+                    throw new EOFException("Fichero binario incompleto");
+                }
+                saltados = 1;
+            }
+            resto -= saltados;
+        }
+    }
+
+    private long varint() throws IOException {
+        if (n - p < 10) {
+            // Cerca del final del buffer: byte a byte
+            long valor = 0;
+            for (int desplazamiento = 0; ; desplazamiento += 7) {
+                asegurar(1);
+                byte b = buffer[p++];
+                valor |= (long) (b & 0x7F) << desplazamiento;
+                if (b >= 0) {
+                    return valor;
+                }
+            }
+        }
+        long valor = 0;
+        for (int desplazamiento = 0; ; desplazamiento += 7) {
+            byte b = buffer[p++];
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+    }
+
+    private static long deshacerZigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    private String texto() throws IOException {
+        long longitud = varint();
+        if (longitud == 0) {
+            return null;
+        }
+        int bytes = (int) (longitud - 1);
+        asegurar(bytes);
+        String texto = new String(buffer, p, bytes, StandardCharsets.UTF_8);
+        p += bytes;
+        return texto;
+    }
+
+    @Override
+    public void close() throws IOException {
+        origen.close();
+    }
+}
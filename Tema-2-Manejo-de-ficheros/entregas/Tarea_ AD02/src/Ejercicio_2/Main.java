@@ -1,139 +1,169 @@
-//package Tarea_;
-//
-///*
-//Se trata de crear un fichero XML con información de empleados y departamentos,
-//partiendo de los datos que se encuentran en el fichero DepartamentosEmpleados.xml.
-//El proceso es el siguiente:
-//
-//    Acceder con DOM al fichero para leer los datos.
-//    Escribir con JAXB un nuevo fichero DatosEmpresa.xml
-//    con los mismos datos de empleados y departamentos.
-// */
-//
-//import UT_02.AD_02.Ejercicio_2.JAXB.Departamento;
-//import UT_02.AD_02.Ejercicio_2.JAXB.Empleado;
-//import UT_02.AD_02.Ejercicio_2.JAXB.Empresa;
-//import jakarta.xml.bind.JAXBContext;
-//import jakarta.xml.bind.Marshaller;
-//import org.w3c.dom.Document;
-//import org.w3c.dom.Element;
-//import org.w3c.dom.NodeList;
-//
-//import javax.xml.parsers.DocumentBuilder;
-//import javax.xml.parsers.DocumentBuilderFactory;
-//import java.io.File;
-//import java.util.ArrayList;
-//import java.util.List;
-//
-//public class Main {
-//    // Método auxiliar para obtener el texto de un elemento
-//    private static String obtenerTexto(Element elemento, String tagName) {
-//        return elemento.getElementsByTagName(tagName)
-//                .item(0)
-//                .getTextContent();
-//    }
-//
-//    public static void main(String[] args) {
-//
-//
-//        try {
-//            // Document Builder
-//            DocumentBuilder db = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-//
-//            // Parse del .XML
-//            Document doc = db.parse("src/DepartamentosEmpleados.xml");
-//
-//            // Elemento raíz <datos>
-//            Element datos = doc.getDocumentElement();
-//
-//            // === ACCESO A NODOS DEPARTAMENTO ===
-//
-//            // Nodo <departamentos>
-//            Element nodoDepartamentos = (Element) datos.getElementsByTagName("departamentos")
-//                    .item(0);
-//
-//            // Nodo <TITULO>
-//            Element nodoTitulo = (Element) nodoDepartamentos.getElementsByTagName("TITULO").item(0);
-//
-//            // Lista nodos <DEP_ROW>
-//            NodeList nodosDepartamento = nodoDepartamentos.getElementsByTagName("DEP_ROW");
-//            int numDepartamentos = nodosDepartamento.getLength();
-//
-//            // === ACCESO A NODOS EMPLEADO ===
-//
-//            // Nodo <empleados>
-//            Element nodoEmpleados = (Element) datos.getElementsByTagName("empleados")
-//                    .item(0);
-//
-//            // Lista nodos <EMP_ROW>
-//            NodeList nodosEmpleado = nodoEmpleados.getElementsByTagName("EMP_ROW");
-//            int numEmpleados = nodosEmpleado.getLength();
-//
-//            // Recorrer .XML original y crear objetos JAXB
-//
-//            Empresa empresa = new Empresa();
-//            empresa.setTitulo(nodoTitulo.getTextContent());
-//            List<Departamento> departamentos = new ArrayList<>();
-//
-//            // Iteramos sobre la lista de departamentos
-//            for (int i = 0; i < numDepartamentos; ++i) {
-//
-//                // Creamos un objeto JAXB para cada departamento
-//                Element departamentoDOM = (Element) nodosDepartamento.item(i);
-//                Departamento departamentoJAXB = new Departamento();
-//
-//                // Asignamos los atributos extraídos del DOM
-//                departamentoJAXB.setId(obtenerTexto(departamentoDOM, "DEPT_NO"));
-//                departamentoJAXB.setLocalizacion(obtenerTexto(departamentoDOM, "LOC"));
-//                departamentoJAXB.setNombre(obtenerTexto(departamentoDOM, "DNOMBRE"));
-//
-//                // Iteramos sobre la lista de empleados
-//                for (int j = 0; j < numEmpleados; ++j) {
-//                    Element empleadoDOM = (Element) nodosEmpleado.item(j);
-//
-//                    // Comprobamos que el departamento del empleado coincide con el del departamento del DOM
-//                    String idDepartamento = obtenerTexto(departamentoDOM, "DEPT_NO");
-//                    String idDepartamentoEmpleado = obtenerTexto(empleadoDOM, "DEPT_NO");
-//
-//                    if (idDepartamento.equals(idDepartamentoEmpleado)) {
-//                        // Creamos un objeto JAXB para cada empleado
-//                        Empleado empleadoJAXB = new Empleado();
-//
-//                        // Asignamos los valores del empleado del DOM al objeto JAXB
-//                        empleadoJAXB.setNumero(obtenerTexto(empleadoDOM, "EMP_NO"));
-//                        empleadoJAXB.setApellido(obtenerTexto(empleadoDOM, "APELLIDO"));
-//                        empleadoJAXB.setOficio(obtenerTexto(empleadoDOM, "OFICIO"));
-//                        empleadoJAXB.setDir(obtenerTexto(empleadoDOM, "DIR"));
-//                        empleadoJAXB.setFechaAlta(obtenerTexto(empleadoDOM, "FECHA_ALT"));
-//                        empleadoJAXB.setSalario(obtenerTexto(empleadoDOM, "SALARIO"));
-//                        empleadoJAXB.setComision(obtenerTexto(empleadoDOM, "COMISION"));
-//
-//                        // Agregamos el empleado JAXB al departamento JAXB
-//                        departamentoJAXB.getEmpleados().add(empleadoJAXB);
-//                    }
-//                }
-//                // Agregamos el departamento JAXB a la lista de departamentos del objeto empresa JAXB
-//                departamentos.add(departamentoJAXB);
-//            }
-//
-//            // Agregamos la lista de departamentos al objeto empresa JAXB
-//            empresa.setDepartamentos(departamentos);
-//
-//            // Escribimos .XML con JAXB
-//
-//            // 1.- Context - El intérprete
-//            JAXBContext context = JAXBContext.newInstance(Empresa.class);
-//
-//            // 2.- Marshaller - El generador
-//            Marshaller marshaller = context.createMarshaller();
-//            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-//            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-//            marshaller.marshal(empresa, new File("src/Ejercicio_2/solucionJAXB.xml"));
-//
-//        } catch (Exception e) {
-//            System.out.println("Error: " + e.getMessage());
-//            e.printStackTrace();  // ← Añade esto para ver el stack trace completo
-//        }
-//
-//    }
-//}
+package Ejercicio_2;
+
+/*
+Se trata de crear un fichero XML con información de empleados y departamentos,
+partiendo de los datos que se encuentran en el fichero DepartamentosEmpleados.xml.
+El proceso es el siguiente:
+
+    Acceder con DOM al fichero para leer los datos.
+    Escribir con JAXB un nuevo fichero DatosEmpresa.xml
+    con los mismos datos de empleados y departamentos.
+
+Uso: Main [--streaming] [--metricas[=jmx|fichero]]
+    --streaming  convierte por fragmentos sin cargar el fichero (ver ConversorStreaming)
+    --metricas   tiempos de las etapas parse, join y marshal en la salida de error (ver Comun.Metricas)
+
+Para convertir muchos ficheros a la vez, ver ConversorLotes.
+ */
+
+import Comun.Campos;
+import Comun.Metricas;
+import Comun.UnionDOM;
+import Ejercicio_2.JAXB.Departamento;
+import Ejercicio_2.JAXB.Empleado;
+import Ejercicio_2.JAXB.Empresa;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class Main {
+    // Campos que se leen de cada fila y su posición en el array de valores
+    private static final String[] CAMPOS_DEPARTAMENTO = {"DEPT_NO", "LOC", "DNOMBRE"};
+    private static final String[] CAMPOS_EMPLEADO =
+            {"EMP_NO", "APELLIDO", "OFICIO", "DIR", "FECHA_ALT", "SALARIO", "COMISION", "DEPT_NO"};
+    private static final int DEPT_NO = 0, LOC = 1, DNOMBRE = 2;
+    private static final int EMP_NO = 0, APELLIDO = 1, OFICIO = 2, DIR = 3, FECHA_ALT = 4, SALARIO = 5, COMISION = 6;
+
+    // Etapas medidas (ver Comun.Metricas), compartidas con ConversorStreaming
+    static final Metricas.Etapa PARSE = Metricas.etapa("parse");
+    static final Metricas.Etapa JOIN = Metricas.etapa("join");
+    static final Metricas.Etapa MARSHAL = Metricas.etapa("marshal");
+
+    // Crea el objeto Empresa JAXB a partir del elemento raíz <datos> del DOM
+    public static Empresa construirEmpresa(Element datos) {
+        // Nodo <TITULO> de <departamentos>
+        Element nodoDepartamentos = (Element) datos.getElementsByTagName("departamentos")
+                .item(0);
+        Element nodoTitulo = (Element) nodoDepartamentos.getElementsByTagName("TITULO").item(0);
+
+        Empresa empresa = new Empresa();
+        empresa.setTitulo(nodoTitulo.getTextContent());
+        List<Departamento> departamentos = new ArrayList<>();
+
+        // Unión departamentos-empleados por DEPT_NO (ver Comun.UnionDOM)
+        UnionDOM union = new UnionDOM(CAMPOS_DEPARTAMENTO, CAMPOS_EMPLEADO);
+        List<String[]> sinDepartamento = union.unir(datos, new UnionDOM.Visitante() {
+            private Departamento departamentoJAXB;
+
+            @Override
+            public void departamento(int indice, String[] departamentoDOM) {
+                // Creamos un objeto JAXB para cada departamento
+                departamentoJAXB = new Departamento();
+
+                // Asignamos los atributos extraídos del DOM
+                departamentoJAXB.setId(Campos.entero(departamentoDOM[DEPT_NO]));
+                departamentoJAXB.setLocalizacion(departamentoDOM[LOC]);
+                departamentoJAXB.setNombre(departamentoDOM[DNOMBRE]);
+
+                // Agregamos el departamento JAXB a la lista de departamentos del objeto empresa JAXB
+                departamentos.add(departamentoJAXB);
+            }
+
+            @Override
+            public void empleado(String[] empleadoDOM) {
+                // Creamos un objeto JAXB para cada empleado
+                Empleado empleadoJAXB = new Empleado();
+
+                // Asignamos los valores del empleado del DOM al objeto JAXB
+                empleadoJAXB.setNumero(Campos.entero(empleadoDOM[EMP_NO]));
+                empleadoJAXB.setApellido(empleadoDOM[APELLIDO]);
+                empleadoJAXB.setOficio(empleadoDOM[OFICIO]);
+                empleadoJAXB.setDir(Campos.entero(empleadoDOM[DIR]));
+                empleadoJAXB.setFechaAlta(Campos.diaEpoch(empleadoDOM[FECHA_ALT]));
+                empleadoJAXB.setSalario(Campos.centimos(empleadoDOM[SALARIO]));
+                empleadoJAXB.setComision(Campos.centimos(empleadoDOM[COMISION]));
+
+                // Agregamos el empleado JAXB al departamento JAXB
+                departamentoJAXB.getEmpleados().add(empleadoJAXB);
+            }
+        });
+        union.avisarSinDepartamento(sinDepartamento, System.err);
+
+        // Agregamos la lista de departamentos al objeto empresa JAXB
+        empresa.setDepartamentos(departamentos);
+        return empresa;
+    }
+
+    private static final String ORIGEN = "src/DepartamentosEmpleados.xml";
+    private static final String DESTINO = "src/Ejercicio_2/solucionJAXB.xml";
+
+    // Conversión completa en memoria: DOM -> Empresa -> un único marshal
+    public static void convertir(Path origen, Path destino) throws Exception {
+        // Document Builder
+        convertir(origen, destino, DocumentBuilderFactory.newInstance().newDocumentBuilder());
+    }
+
+    // Con un DocumentBuilder ya creado, reutilizable entre conversiones del mismo hilo (ver ConversorLotes)
+    public static void convertir(Path origen, Path destino, DocumentBuilder db) throws Exception {
+        // Parse del .XML
+        Document doc;
+        try (Metricas.Medicion m = PARSE.iniciar()) {
+            doc = db.parse(origen.toFile());
+            m.bytes(Files.size(origen));
+        }
+
+        // Elemento raíz <datos>
+        Element datos = doc.getDocumentElement();
+
+        // Recorrer .XML original y crear objetos JAXB
+        Empresa empresa;
+        try (Metricas.Medicion m = JOIN.iniciar()) {
+            empresa = construirEmpresa(datos);
+            m.filas(empresa.getDepartamentos().stream().mapToLong(d -> d.getEmpleados().size() + 1).sum());
+        }
+
+        // Escribimos .XML con JAXB (contexto y marshaller reutilizados, ver ExportadorJAXB)
+        try (Metricas.Medicion m = MARSHAL.iniciar()) {
+            ExportadorJAXB.getInstancia().exportar(empresa, destino);
+            m.filas(empresa.getDepartamentos().size()).bytes(Files.size(destino));
+        }
+    }
+
+    public static void main(String[] args) {
+
+
+        boolean streaming = false;
+        String metricas = null;
+        for (String arg : args) {
+            if (arg.equals("--streaming")) {
+                streaming = true;
+            } else if (arg.startsWith("--metricas")) {
+                metricas = arg.startsWith("--metricas=") ? arg.substring("--metricas=".length()) : "";
+            }
+        }
+
+        try {
+            if (metricas != null) {
+                Metricas.activar(metricas);
+            }
+            if (streaming) {
+                ConversorStreaming.convertir(Path.of(ORIGEN), Path.of(DESTINO));
+            } else {
+                convertir(Path.of(ORIGEN), Path.of(DESTINO));
+            }
+
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            e.printStackTrace();  // ← Añade esto para ver el stack trace completo
+        } finally {
+            Metricas.terminar(System.err);
+        }
+
+    }
+}